@@ -3,6 +3,7 @@ package com.herrera.erp;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -11,6 +12,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * Ubicación: backend/src/main/java/com/herrera/erp/HerreraErpApplication.java
  */
 @SpringBootApplication
+@EnableScheduling
 public class HerreraErpApplication {
 
     public static void main(String[] args) {
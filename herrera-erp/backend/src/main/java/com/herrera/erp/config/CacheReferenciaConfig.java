@@ -0,0 +1,127 @@
+package com.herrera.erp.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de segundo nivel para datos de referencia
+ * Productos (con sus ajustes por talla), tipos de material/corte y roles
+ * (con permisos) casi nunca cambian, pero se leían de PostgreSQL al crear
+ * cada pedido, al cargar cada material y en cada request autenticado (el
+ * rol EAGER del usuario). Hibernate los guarda en regiones Caffeine en
+ * memoria (vía JCache) y las invalida solo al escribirlos por JPA.
+ * Métricas: hibernate.second.level.cache.requests{region,result} y
+ * herrera.cache.referencia.tasa_aciertos{region}.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/CacheReferenciaConfig.java
+ */
+@Configuration
+@Slf4j
+public class CacheReferenciaConfig {
+
+    public static final String REGION_PRODUCTOS = "referencia.productos";
+    public static final String REGION_CATALOGOS = "referencia.catalogos";
+    public static final String REGION_ROLES = "referencia.roles";
+    public static final String REGION_CONSULTAS = "referencia.consultas";
+
+    // Región de Hibernate con la última escritura por tabla (invalida las consultas)
+    private static final String REGION_TIMESTAMPS = "default-update-timestamps-region";
+
+    private static final List<String> REGIONES = List.of(
+            REGION_PRODUCTOS, REGION_CATALOGOS, REGION_ROLES, REGION_CONSULTAS);
+
+    // Diferidos: la fábrica de JPA depende de los beans de esta misma clase
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public CacheReferenciaConfig(ObjectProvider<EntityManagerFactory> entityManagerFactory,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public CacheManager cacheManagerReferencia(CacheReferenciaProperties propiedades) {
+        CachingProvider proveedor = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = proveedor.getCacheManager(proveedor.getDefaultURI(), getClass().getClassLoader());
+
+        for (String region : REGIONES) {
+            CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+            config.setStoreByValue(false);
+            config.setMaximumSize(OptionalLong.of(propiedades.getMaximoEntradas()));
+            config.setExpireAfterWrite(OptionalLong.of(
+                    TimeUnit.MINUTES.toNanos(propiedades.getExpiracionMinutos())));
+            crearSiFalta(cacheManager, region, config);
+        }
+
+        // Una entrada por tabla; no debe expirar antes que las consultas que valida
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStoreByValue(false);
+        crearSiFalta(cacheManager, REGION_TIMESTAMPS, timestamps);
+
+        log.info("Caché de referencia: {} entradas por región, expiración {} min",
+                propiedades.getMaximoEntradas(), propiedades.getExpiracionMinutos());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheManagerHibernate(CacheManager cacheManagerReferencia) {
+        return propiedades -> propiedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerReferencia);
+    }
+
+    /**
+     * Tasa de aciertos acumulada por región (requiere hibernate.generate_statistics)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrarMetricas() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        EntityManagerFactory emf = entityManagerFactory.getIfAvailable();
+        if (registry == null || emf == null) {
+            return;
+        }
+
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        for (String region : REGIONES) {
+            Gauge.builder("herrera.cache.referencia.tasa_aciertos", estadisticas, e -> tasaAciertos(e, region))
+                    .description("Aciertos / (aciertos + fallos) desde el arranque")
+                    .tag("region", region)
+                    .register(registry);
+        }
+    }
+
+    private static double tasaAciertos(Statistics estadisticas, String region) {
+        CacheRegionStatistics r = estadisticas.getCacheRegionStatistics(region);
+        if (r == null) {
+            return Double.NaN;
+        }
+        long total = r.getHitCount() + r.getMissCount();
+        return total == 0 ? Double.NaN : (double) r.getHitCount() / total;
+    }
+
+    private static void crearSiFalta(CacheManager cacheManager, String nombre,
+            CaffeineConfiguration<Object, Object> config) {
+        if (cacheManager.getCache(nombre) == null) {
+            cacheManager.createCache(nombre, config);
+        }
+    }
+}
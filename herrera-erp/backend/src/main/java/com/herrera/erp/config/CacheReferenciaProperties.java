@@ -0,0 +1,23 @@
+package com.herrera.erp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caché de datos de referencia (prefijo cache.referencia)
+ * Se activa con spring.jpa.properties.hibernate.cache.use_second_level_cache;
+ * aquí solo se dimensionan las regiones.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/CacheReferenciaProperties.java
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.referencia")
+public class CacheReferenciaProperties {
+
+    // Entradas por región (entidades, colecciones o resultados de consulta)
+    private long maximoEntradas = 2000;
+
+    // Respaldo para cambios hechos fuera de la aplicación (SQL directo)
+    private long expiracionMinutos = 60;
+}
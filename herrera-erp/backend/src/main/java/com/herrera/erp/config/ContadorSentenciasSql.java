@@ -0,0 +1,91 @@
+package com.herrera.erp.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo del request
+ * Además del total agrupa por "forma" (SQL sin literales y con las listas
+ * IN colapsadas): la misma forma repetida muchas veces en un request es la
+ * huella típica de un N+1.
+ * Solo cuenta entre iniciar() y finalizar(); fuera de un request (jobs
+ * programados, relay del outbox) no hace nada.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/ContadorSentenciasSql.java
+ */
+public class ContadorSentenciasSql implements StatementInspector {
+
+    private static final ThreadLocal<RegistroSentencias> REGISTRO = new ThreadLocal<>();
+
+    private static final Pattern CADENAS = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMEROS = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern LISTAS_IN = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    // Hibernate reutiliza el mismo texto SQL: la forma se calcula una vez por sentencia distinta
+    private static final int MAX_FORMAS_CACHEADAS = 5000;
+    private final Map<String, String> formas = new ConcurrentHashMap<>();
+
+    /**
+     * Sentencias de un request: total y repeticiones por forma
+     */
+    public static class RegistroSentencias {
+        private int total;
+        private final Map<String, Integer> porForma = new HashMap<>();
+
+        public int getTotal() {
+            return total;
+        }
+
+        public Map<String, Integer> getPorForma() {
+            return porForma;
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        RegistroSentencias registro = REGISTRO.get();
+        if (registro != null) {
+            registro.total++;
+            registro.porForma.merge(forma(sql), 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    public void iniciar() {
+        REGISTRO.set(new RegistroSentencias());
+    }
+
+    /**
+     * Termina el conteo del hilo actual y devuelve lo registrado
+     */
+    public RegistroSentencias finalizar() {
+        RegistroSentencias registro = REGISTRO.get();
+        REGISTRO.remove();
+        return registro != null ? registro : new RegistroSentencias();
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private String forma(String sql) {
+        String forma = formas.get(sql);
+        if (forma != null) {
+            return forma;
+        }
+
+        forma = CADENAS.matcher(sql).replaceAll("?");
+        forma = NUMEROS.matcher(forma).replaceAll("?");
+        forma = LISTAS_IN.matcher(forma).replaceAll("(?...)");
+        forma = ESPACIOS.matcher(forma).replaceAll(" ").trim();
+
+        if (formas.size() < MAX_FORMAS_CACHEADAS) {
+            formas.put(sql, forma);
+        }
+        return forma;
+    }
+}
@@ -0,0 +1,69 @@
+package com.herrera.erp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource de la aplicación
+ * El pool Hikari se arma con spring.datasource.* igual que el de Spring Boot,
+ * pero JPA lo usa detrás de un LazyConnectionDataSourceProxy: la conexión
+ * física se pide al pool en la primera sentencia SQL y no al abrir la
+ * transacción. Así una transacción que espera un bloqueo de material o que
+ * no llega a tocar la base de datos no ocupa una de las 10 conexiones.
+ * El proxy también aplica a la conexión real el readOnly de las
+ * transacciones @Transactional(readOnly = true).
+ * Con datasource.replica.habilitado=true hay un segundo pool (réplica) y
+ * RuteoReplicaDataSource elige entre ambos en cada conexión.
+ * Con datasource.limite.habilitado=true (perfil "virtual") el pool de la
+ * primaria queda detrás de LimiteConexionesDataSource.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/DataSourceConfig.java
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource poolConexiones(DataSourceProperties propiedades) {
+        return propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "datasource.replica.habilitado", havingValue = "true")
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource poolReplica() {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("HerreraPoolReplica");
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("poolConexiones") HikariDataSource poolConexiones,
+            ObjectProvider<MonitorReplica> monitorReplica,
+            ObjectProvider<LimitadorConexiones> limitadorConexiones,
+            ReplicaProperties replicaProperties) {
+        LimitadorConexiones limitador = limitadorConexiones.getIfAvailable();
+        DataSource primaria = limitador != null
+                ? new LimiteConexionesDataSource(poolConexiones, limitador)
+                : poolConexiones;
+
+        MonitorReplica monitor = monitorReplica.getIfAvailable();
+        if (monitor == null) {
+            return new LazyConnectionDataSourceProxy(primaria);
+        }
+        return new LazyConnectionDataSourceProxy(
+                new RuteoReplicaDataSource(primaria, monitor, replicaProperties));
+    }
+}
@@ -0,0 +1,35 @@
+package com.herrera.erp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+/**
+ * Ejecución de requests y tareas programadas
+ * Tomcat y el scheduler de @Scheduled usan hilos de plataforma o, con el
+ * perfil "virtual" en Java 21, hilos virtuales. No hay métodos @Async: los
+ * trabajos de fondo tienen su propio executor en cada servicio.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/EjecucionConfig.java
+ */
+@Configuration
+@Slf4j
+public class EjecucionConfig {
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void informarModo(ApplicationReadyEvent evento) {
+        Environment entorno = evento.getApplicationContext().getEnvironment();
+        boolean solicitado = entorno.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+
+        if (Threading.VIRTUAL.isActive(entorno)) {
+            log.info("Requests y tareas programadas en hilos virtuales (Java {})", Runtime.version().feature());
+        } else if (solicitado) {
+            log.warn("spring.threads.virtual.enabled=true requiere Java 21 (actual: {}); se usan hilos de plataforma",
+                    Runtime.version().feature());
+        } else {
+            log.info("Requests y tareas programadas en hilos de plataforma");
+        }
+    }
+}
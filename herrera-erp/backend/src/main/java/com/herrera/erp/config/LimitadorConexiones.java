@@ -0,0 +1,100 @@
+package com.herrera.erp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Semáforo justo (FIFO) frente al pool de la primaria
+ * Con hilos virtuales Tomcat acepta miles de requests simultáneos y todos
+ * llegan a pedir conexión a la vez. El semáforo los forma en orden de
+ * llegada y rechaza a los que esperan más de espera-ms, así una ráfaga no
+ * deja sin conexión a los requests que ya estaban esperando ni llena el log
+ * de timeouts de Hikari a los 30s.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/LimitadorConexiones.java
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.limite.habilitado", havingValue = "true")
+@Slf4j
+public class LimitadorConexiones {
+
+    private final Semaphore permisos;
+    private final int totalPermisos;
+    private final long esperaMs;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private volatile Timer espera;
+    private volatile Counter rechazos;
+
+    public LimitadorConexiones(LimiteConexionesProperties propiedades, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.totalPermisos = propiedades.getPermisos();
+        this.permisos = new Semaphore(totalPermisos, true);
+        this.esperaMs = propiedades.getEsperaMs();
+        this.meterRegistry = meterRegistry;
+        log.info("Limitador de conexiones: {} permisos, espera máxima {} ms", totalPermisos, esperaMs);
+    }
+
+    /**
+     * Espera turno para usar una conexión; SQLTransientConnectionException
+     * (igual que Hikari al agotar connection-timeout) si no llega a tiempo
+     */
+    public void adquirir() throws SQLException {
+        long inicio = System.nanoTime();
+        boolean obtenido;
+        try {
+            obtenido = permisos.tryAcquire(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido esperando turno de conexión", e);
+        }
+
+        Timer timer = espera;
+        if (timer != null) {
+            timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+        if (!obtenido) {
+            Counter contador = rechazos;
+            if (contador != null) {
+                contador.increment();
+            }
+            throw new SQLTransientConnectionException(
+                    "Sin turno de conexión a la BD después de " + esperaMs + " ms (" +
+                    permisos.getQueueLength() + " hilos en espera)");
+        }
+    }
+
+    public void liberar() {
+        permisos.release();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrarMetricas() {
+        meterRegistry.ifAvailable(registro -> {
+            espera = Timer.builder("herrera.datasource.limite.espera")
+                    .description("Espera por un permiso del limitador de conexiones")
+                    .publishPercentileHistogram()
+                    .register(registro);
+            rechazos = Counter.builder("herrera.datasource.limite.rechazos")
+                    .description("Requests rechazados por agotar la espera del limitador")
+                    .register(registro);
+            Gauge.builder("herrera.datasource.limite.en_espera", permisos, Semaphore::getQueueLength)
+                    .description("Hilos esperando un permiso del limitador")
+                    .register(registro);
+            Gauge.builder("herrera.datasource.limite.en_uso", permisos, s -> totalPermisos - s.availablePermits())
+                    .description("Permisos del limitador en uso")
+                    .register(registro);
+        });
+    }
+}
@@ -0,0 +1,167 @@
+package com.herrera.erp.config;
+
+import com.herrera.erp.exception.LimiteExcedidoException;
+import com.herrera.erp.util.CubetasTokens;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Límite de peticiones en proceso, con cubetas de tokens en memoria
+ * Protege la CPU (BCrypt, reportes) de scripts y clientes desbocados sin
+ * depender de un gateway externo. Lo usan LimiteTasaFilter y
+ * LimiteTasaSesionFilter (por grupo de rutas) y AuthService (intentos
+ * fallidos por username, antes de verificar la contraseña). Cada grupo
+ * tiene su propio conjunto de cubetas, con su tope de claves: una ráfaga de
+ * claves nuevas en un grupo solo puede desalojar cubetas de ese grupo,
+ * nunca las de login.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/LimitadorTasa.java
+ */
+@Component
+@Slf4j
+public class LimitadorTasa {
+
+    public static final String GRUPO_LOGIN_USUARIO = "login-usuario";
+
+    // Segmentos del mapa de cubetas (candados independientes)
+    private static final int SEGMENTOS = 32;
+    private static final AntPathMatcher RUTAS = new AntPathMatcher();
+
+    private final LimiteTasaProperties propiedades;
+    private final MeterRegistry meterRegistry;
+    // Grupo -> sus cubetas; login-usuario incluido
+    private final Map<String, CubetasTokens> cubetas = new LinkedHashMap<>();
+    private final Map<String, Counter> rechazos = new ConcurrentHashMap<>();
+
+    public LimitadorTasa(LimiteTasaProperties propiedades, MeterRegistry meterRegistry) {
+        this.propiedades = propiedades;
+        this.meterRegistry = meterRegistry;
+
+        for (String grupo : propiedades.getGrupos().keySet()) {
+            registrarGrupo(grupo);
+        }
+        registrarGrupo(GRUPO_LOGIN_USUARIO);
+        log.info("Límite de peticiones {}: grupos {}", propiedades.isHabilitado() ? "activo" : "inactivo",
+                propiedades.getGrupos().keySet());
+    }
+
+    public boolean estaHabilitado() {
+        return propiedades.isHabilitado();
+    }
+
+    /**
+     * Primer grupo cuyas rutas incluyen la ruta; null si no se limita
+     */
+    public Map.Entry<String, LimiteTasaProperties.Grupo> grupoDe(String ruta) {
+        for (Map.Entry<String, LimiteTasaProperties.Grupo> entry : propiedades.getGrupos().entrySet()) {
+            for (String patron : entry.getValue().getRutas()) {
+                if (RUTAS.match(patron, ruta)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Toma un token del grupo para la clave
+     * @return 0 si se permite; si no, segundos sugeridos para reintentar
+     */
+    public long consumir(String grupo, LimiteTasaProperties.Grupo config, String clave) {
+        long espera = cubetas.get(grupo).consumir(clave, config.getCapacidad(), config.porSegundo());
+        if (espera == 0) {
+            return 0;
+        }
+        rechazo(grupo);
+        return segundos(espera);
+    }
+
+    // ============================================
+    // INTENTOS DE LOGIN POR USERNAME
+    // ============================================
+
+    /**
+     * Rechaza el login antes de BCrypt si el username agotó sus intentos
+     * fallidos, venga de la IP que venga
+     */
+    public void verificarIntentosLogin(String username) {
+        if (!propiedades.isHabilitado() || username == null) {
+            return;
+        }
+        LimiteTasaProperties.Grupo config = propiedades.getLoginUsuario();
+        long espera = cubetas.get(GRUPO_LOGIN_USUARIO)
+                .esperaHastaToken(claveLogin(username), config.getCapacidad(), config.porSegundo());
+        if (espera > 0) {
+            rechazo(GRUPO_LOGIN_USUARIO);
+            long reintentar = segundos(espera);
+            throw new LimiteExcedidoException(
+                    "Demasiados intentos fallidos; intente de nuevo en " + reintentar + " s", reintentar);
+        }
+    }
+
+    /**
+     * Solo los fallos gastan intentos: el personal que entra bien no se bloquea
+     */
+    public void registrarFalloLogin(String username) {
+        if (!propiedades.isHabilitado() || username == null) {
+            return;
+        }
+        LimiteTasaProperties.Grupo config = propiedades.getLoginUsuario();
+        cubetas.get(GRUPO_LOGIN_USUARIO).consumir(claveLogin(username), config.getCapacidad(), config.porSegundo());
+    }
+
+    // ============================================
+    // MANTENIMIENTO
+    // ============================================
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgar() {
+        int borradas = 0;
+        for (CubetasTokens grupo : cubetas.values()) {
+            borradas += grupo.purgar();
+        }
+        if (borradas > 0) {
+            log.debug("Cubetas de límite expiradas: {}", borradas);
+        }
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private void registrarGrupo(String grupo) {
+        CubetasTokens cubetasGrupo = new CubetasTokens(propiedades.getMaximoClaves(), SEGMENTOS,
+                TimeUnit.MINUTES.toNanos(propiedades.getExpiracionMinutos()));
+        cubetas.put(grupo, cubetasGrupo);
+        Gauge.builder("herrera.limite.tasa.cubetas", cubetasGrupo, CubetasTokens::tamano)
+                .description("Cubetas de tokens en memoria")
+                .tag("grupo", grupo)
+                .register(meterRegistry);
+    }
+
+    private static String claveLogin(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void rechazo(String grupo) {
+        rechazos.computeIfAbsent(grupo, g -> Counter.builder("herrera.limite.tasa.rechazos")
+                .description("Peticiones rechazadas por límite de tasa")
+                .tag("grupo", g)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    private static long segundos(long nanos) {
+        return Math.max(1, (long) Math.ceil(nanos / 1e9));
+    }
+}
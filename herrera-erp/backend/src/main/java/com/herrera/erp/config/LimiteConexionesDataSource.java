@@ -0,0 +1,110 @@
+package com.herrera.erp.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pide un permiso al LimitadorConexiones antes de cada conexión y lo
+ * devuelve al cerrarla
+ * Va detrás de LazyConnectionDataSourceProxy, así que el permiso solo se
+ * ocupa desde la primera sentencia SQL hasta el fin de la transacción.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/LimiteConexionesDataSource.java
+ */
+public class LimiteConexionesDataSource extends DelegatingDataSource {
+
+    private final LimitadorConexiones limitador;
+
+    public LimiteConexionesDataSource(DataSource pool, LimitadorConexiones limitador) {
+        super(pool);
+        this.limitador = limitador;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        limitador.adquirir();
+        try {
+            return envolver(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            limitador.liberar();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        limitador.adquirir();
+        try {
+            return envolver(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            limitador.liberar();
+            throw e;
+        }
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private Connection envolver(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class},
+                new LiberarAlCerrar(conexion));
+    }
+
+    /**
+     * Delega todo en la conexión real; close() la devuelve al pool y libera
+     * el permiso una sola vez aunque se llame varias veces
+     */
+    private class LiberarAlCerrar implements InvocationHandler {
+
+        private final Connection conexion;
+        private final AtomicBoolean cerrada = new AtomicBoolean(false);
+
+        LiberarAlCerrar(Connection conexion) {
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "close":
+                    if (cerrada.compareAndSet(false, true)) {
+                        try {
+                            conexion.close();
+                        } finally {
+                            limitador.liberar();
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return cerrada.get() || conexion.isClosed();
+                case "getTargetConnection":
+                    return conexion;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : conexion.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy) || conexion.isWrapperFor((Class<?>) args[0]);
+                default:
+                    try {
+                        return metodo.invoke(conexion, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+            }
+        }
+    }
+}
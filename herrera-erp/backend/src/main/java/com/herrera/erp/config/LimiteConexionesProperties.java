@@ -0,0 +1,24 @@
+package com.herrera.erp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limitador de concurrencia hacia la BD (prefijo datasource.limite)
+ * permisos no debe pasar de spring.datasource.hikari.maximum-pool-size.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/LimiteConexionesProperties.java
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource.limite")
+public class LimiteConexionesProperties {
+
+    private boolean habilitado = false;
+
+    // Conexiones de la primaria en uso al mismo tiempo
+    private int permisos = 10;
+
+    // Espera máxima por un permiso antes de rechazar (ms)
+    private long esperaMs = 5000;
+}
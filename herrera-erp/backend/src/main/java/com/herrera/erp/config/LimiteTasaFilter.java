@@ -0,0 +1,134 @@
+package com.herrera.erp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.herrera.erp.dto.UsuarioAutenticado;
+import com.herrera.erp.exception.GlobalExceptionHandler.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Aplica el límite de peticiones de los grupos por IP (limite.tasa.grupos)
+ * Va antes de la cadena de seguridad: un request rechazado no llega a
+ * verificar el JWT, ni a BCrypt ni a la base de datos. La IP real llega por
+ * X-Forwarded-For desde nginx (server.forward-headers-strategy=native).
+ * Los grupos con clave SESION los aplica LimiteTasaSesionFilter, después de
+ * verificar el JWT: antes de eso cualquier texto en el header serviría de
+ * clave y cada request falso tendría cubeta propia.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/LimiteTasaFilter.java
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@RequiredArgsConstructor
+public class LimiteTasaFilter extends OncePerRequestFilter {
+
+    private final LimitadorTasa limitadorTasa;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        Map.Entry<String, LimiteTasaProperties.Grupo> grupo = limitadorTasa.grupoDe(request.getRequestURI());
+        if (grupo != null && grupo.getValue().getClave() == LimiteTasaProperties.Clave.IP) {
+            long reintentar = limitadorTasa.consumir(grupo.getKey(), grupo.getValue(), "ip:" + request.getRemoteAddr());
+            if (reintentar > 0) {
+                rechazar(objectMapper, response, reintentar);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limitadorTasa.estaHabilitado() || "OPTIONS".equals(request.getMethod());
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    static void rechazar(ObjectMapper objectMapper, HttpServletResponse response, long reintentarSegundos)
+            throws IOException {
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Demasiadas solicitudes",
+                "Límite de peticiones excedido; intente de nuevo en " + reintentarSegundos + " s",
+                LocalDateTime.now());
+        error.addDetail("reintentarSegundos", reintentarSegundos);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(reintentarSegundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
+
+/**
+ * Aplica los grupos con clave SESION (pos, reportes) con la cubeta del
+ * usuario autenticado. Corre después de la cadena de seguridad, así que la
+ * clave sale del JWT ya verificado: un token inventado no llega aquí (401)
+ * y no crea cubetas. Los equipos del taller detrás de la misma IP no
+ * comparten límite; sin sesión (rutas públicas) se usa la IP.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 10)
+@RequiredArgsConstructor
+class LimiteTasaSesionFilter extends OncePerRequestFilter {
+
+    private final LimitadorTasa limitadorTasa;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        Map.Entry<String, LimiteTasaProperties.Grupo> grupo = limitadorTasa.grupoDe(request.getRequestURI());
+        if (grupo != null && grupo.getValue().getClave() == LimiteTasaProperties.Clave.SESION) {
+            long reintentar = limitadorTasa.consumir(grupo.getKey(), grupo.getValue(), clave(request));
+            if (reintentar > 0) {
+                LimiteTasaFilter.rechazar(objectMapper, response, reintentar);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limitadorTasa.estaHabilitado() || "OPTIONS".equals(request.getMethod());
+    }
+
+    private static String clave(HttpServletRequest request) {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion != null && autenticacion.getPrincipal() instanceof UsuarioAutenticado usuario) {
+            return "u:" + usuario.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,59 @@
+package com.herrera.erp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Límite de peticiones por cliente (prefijo limite.tasa)
+ * Cada grupo de rutas tiene su cubeta: capacidad es la ráfaga permitida y
+ * por-minuto la recarga sostenida. El primer grupo cuya ruta coincide es
+ * el que aplica; las rutas sin grupo no se limitan.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/LimiteTasaProperties.java
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "limite.tasa")
+public class LimiteTasaProperties {
+
+    private boolean habilitado = true;
+
+    // Cubetas en memoria como máximo, por grupo
+    private int maximoClaves = 50_000;
+
+    // Cubetas sin uso más de esto se borran; mayor que cualquier recarga completa
+    private int expiracionMinutos = 15;
+
+    private Map<String, Grupo> grupos = new LinkedHashMap<>();
+
+    // Intentos fallidos de login por username, antes de verificar la contraseña
+    private Grupo loginUsuario = new Grupo();
+
+    @Data
+    public static class Grupo {
+
+        // Patrones de ruta (estilo Ant: /api/auth/**)
+        private List<String> rutas = new ArrayList<>();
+
+        // Por IP o por sesión (usuario autenticado); sin sesión se usa la IP
+        private Clave clave = Clave.IP;
+
+        private int capacidad = 10;
+
+        private double porMinuto = 10;
+
+        public double porSegundo() {
+            return porMinuto / 60.0;
+        }
+    }
+
+    public enum Clave {
+        IP,
+        SESION
+    }
+}
@@ -0,0 +1,44 @@
+package com.herrera.erp.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de métricas (Micrometer → /actuator/prometheus)
+ * - @Timed en servicios: requiere el aspecto TimedAspect
+ * - Sentencias SQL por request: inspector de Hibernate + MetricasRequestFilter
+ * - Versiones por tabla (ETag de listados): mismo inspector, Hibernate admite uno
+ * Hikari, JVM y estadísticas de Hibernate las registra Spring Boot solo.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/MetricasConfig.java
+ */
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public ContadorSentenciasSql contadorSentenciasSql() {
+        return new ContadorSentenciasSql();
+    }
+
+    @Bean
+    public VersionesTablas versionesTablas(@Value("${http.etag.respaldo-minutos:5}") long respaldoMinutos) {
+        return new VersionesTablas(respaldoMinutos * 60_000);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer inspectorSentenciasSql(
+            ContadorSentenciasSql contador, VersionesTablas versiones) {
+        StatementInspector inspector = sql -> versiones.inspect(contador.inspect(sql));
+        return propiedades -> propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+}
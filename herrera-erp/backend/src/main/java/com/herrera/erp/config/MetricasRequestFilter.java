@@ -0,0 +1,83 @@
+package com.herrera.erp.config;
+
+import com.herrera.erp.config.ContadorSentenciasSql.RegistroSentencias;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Cuenta las sentencias SQL de cada request y las pasa al monitor de
+ * presupuesto (métrica, detector de N+1 y, en pruebas, fallo)
+ * Va antes de la cadena de seguridad para incluir la carga del usuario del
+ * JWT. El endpoint se identifica por el patrón del controller
+ * (/api/pedidos/{id}), no por la ruta real, para no disparar la cardinalidad.
+ * En modo FALLAR el cuerpo de la respuesta se retiene hasta verificar el
+ * presupuesto: si el controller ya la hubiera escrito, el error llegaría con
+ * la respuesta confirmada y el cliente vería un 200. Los streams SSE no se
+ * retienen (no terminan dentro del request).
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/MetricasRequestFilter.java
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class MetricasRequestFilter extends OncePerRequestFilter {
+
+    private static final String SIN_RUTA = "SIN_RUTA";
+
+    private final ContadorSentenciasSql contadorSentenciasSql;
+    private final MonitorSentenciasSql monitorSentenciasSql;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        boolean retener = monitorSentenciasSql.fallaEnViolacion() && !esStream(request);
+        ContentCachingResponseWrapper retenida = retener ? new ContentCachingResponseWrapper(response) : null;
+
+        contadorSentenciasSql.iniciar();
+        boolean completado = false;
+        try {
+            filterChain.doFilter(request, retener ? retenida : response);
+            completado = true;
+        } finally {
+            RegistroSentencias registro = contadorSentenciasSql.finalizar();
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            MonitorSentenciasSql.Violacion violacion = monitorSentenciasSql.registrar(
+                    request.getMethod(), patron != null ? patron.toString() : SIN_RUTA, registro);
+
+            // Solo si el request terminó bien: no se tapa el error original
+            if (completado) {
+                monitorSentenciasSql.verificar(violacion);
+            }
+        }
+
+        // Dentro del presupuesto: ahora sí sale el cuerpo retenido
+        if (retener) {
+            retenida.copyBodyToResponse();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    private static boolean esStream(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+}
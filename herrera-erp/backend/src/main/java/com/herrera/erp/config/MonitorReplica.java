@@ -0,0 +1,168 @@
+package com.herrera.erp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el retraso de la réplica de lectura
+ * Se compara contra la primaria: primero se lee su posición de WAL
+ * (pg_current_wal_lsn) y luego la que la réplica ya reprodujo. Si la réplica
+ * llegó a esa posición el retraso es 0; si no, pero llegó a la de la
+ * medición anterior, el retraso es a lo más el tiempo desde esa medición;
+ * si tampoco, es el tiempo desde la última transacción reproducida. Así un
+ * receptor detenido o desconectado (que ya reprodujo todo lo que recibió)
+ * se ve atrasado en cuanto la primaria escribe algo.
+ * Si la instancia no está en recuperación (una sola base con dos pools, como
+ * en las pruebas locales) el retraso es 0. Mientras no haya una medición
+ * válida, o si la réplica o la primaria no responden, se considera no
+ * disponible y todo va a la primaria.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/MonitorReplica.java
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.replica.habilitado", havingValue = "true")
+@Slf4j
+public class MonitorReplica {
+
+    public static final long NO_DISPONIBLE = Long.MAX_VALUE;
+
+    private static final String SQL_PRIMARIA = "SELECT pg_current_wal_lsn()::text";
+
+    private static final String SQL_REPLICA =
+            "SELECT pg_is_in_recovery(), pg_last_wal_replay_lsn()::text, " +
+            "EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000";
+
+    private final HikariDataSource pool;
+    private final HikariDataSource primaria;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private volatile long retrasoMs = NO_DISPONIBLE;
+
+    // Posición de la primaria en la medición anterior y cuándo se leyó (solo el hilo del scheduler)
+    private long lsnAnterior = -1;
+    private long lecturaAnteriorNanos;
+
+    public MonitorReplica(
+            @Qualifier("poolReplica") HikariDataSource pool,
+            @Qualifier("poolConexiones") HikariDataSource primaria,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.pool = pool;
+        this.primaria = primaria;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public HikariDataSource getPool() {
+        return pool;
+    }
+
+    public long getRetrasoMs() {
+        return retrasoMs;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.monitoreo-ms:5000}")
+    public void medir() {
+        long anterior = retrasoMs;
+        try {
+            retrasoMs = calcularRetraso();
+            if (anterior == NO_DISPONIBLE && retrasoMs != NO_DISPONIBLE) {
+                log.info("Réplica de lectura disponible (retraso {} ms)", retrasoMs);
+            }
+        } catch (SQLException e) {
+            marcarNoDisponible(e);
+        }
+    }
+
+    /**
+     * La réplica falló (al medir o al pedir conexión): todo a la primaria
+     * hasta la siguiente medición exitosa
+     */
+    public void marcarNoDisponible(SQLException causa) {
+        if (retrasoMs != NO_DISPONIBLE) {
+            log.warn("Réplica de lectura no disponible, lecturas a la primaria: {}", causa.getMessage());
+        }
+        retrasoMs = NO_DISPONIBLE;
+    }
+
+    /**
+     * Destino de cada transacción readOnly con tolerancia: replica o primaria,
+     * y por qué (tolerancia, retraso, no_disponible)
+     */
+    public void contarRuteo(String destino, String motivo) {
+        MeterRegistry registro = meterRegistry.getIfAvailable();
+        if (registro != null) {
+            registro.counter("herrera.datasource.ruteo", "destino", destino, "motivo", motivo).increment();
+        }
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private long calcularRetraso() throws SQLException {
+        long lecturaNanos = System.nanoTime();
+        long lsnPrimaria;
+        try (Connection conexion = primaria.getConnection();
+                Statement sentencia = conexion.createStatement();
+                ResultSet rs = sentencia.executeQuery(SQL_PRIMARIA)) {
+            rs.next();
+            lsnPrimaria = aNumero(rs.getString(1));
+        }
+
+        try (Connection conexion = pool.getConnection();
+                Statement sentencia = conexion.createStatement();
+                ResultSet rs = sentencia.executeQuery(SQL_REPLICA)) {
+            rs.next();
+            if (!rs.getBoolean(1)) {
+                return 0;
+            }
+            long lsnReplica = aNumero(rs.getString(2));
+            double desdeUltimaTransaccion = rs.getDouble(3);
+            boolean sinTransacciones = rs.wasNull();
+
+            long retraso;
+            if (lsnReplica >= lsnPrimaria) {
+                retraso = 0;
+            } else if (lsnAnterior >= 0 && lsnReplica >= lsnAnterior) {
+                retraso = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lecturaAnteriorNanos);
+            } else {
+                retraso = sinTransacciones ? NO_DISPONIBLE : Math.round(desdeUltimaTransaccion);
+            }
+
+            lsnAnterior = lsnPrimaria;
+            lecturaAnteriorNanos = lecturaNanos;
+            return retraso;
+        }
+    }
+
+    // Posición de WAL "X/Y" (hexadecimal) como número comparable
+    private static long aNumero(String lsn) throws SQLException {
+        if (lsn == null) {
+            throw new SQLException("La réplica aún no reproduce WAL");
+        }
+        int barra = lsn.indexOf('/');
+        return (Long.parseLong(lsn.substring(0, barra), 16) << 32) | Long.parseLong(lsn.substring(barra + 1), 16);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrarMetricas() {
+        meterRegistry.ifAvailable(registro -> Gauge.builder("herrera.datasource.replica.retraso", this,
+                        m -> m.retrasoMs == NO_DISPONIBLE ? Double.NaN : m.retrasoMs)
+                .description("Retraso de la réplica de lectura (ms); NaN si no está disponible")
+                .baseUnit("milliseconds")
+                .register(registro));
+    }
+}
@@ -0,0 +1,178 @@
+package com.herrera.erp.config;
+
+import com.herrera.erp.config.ContadorSentenciasSql.RegistroSentencias;
+import com.herrera.erp.exception.PresupuestoSqlExcedidoException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Presupuesto de sentencias SQL por request y detector de N+1
+ * Cada request se compara contra su presupuesto (por patrón de endpoint) y
+ * se revisa si alguna forma de sentencia se repite más del umbral. Las
+ * violaciones se registran en el log, como métricas y en /actuator/sql;
+ * en modo FALLAR además se lanza PresupuestoSqlExcedidoException para que
+ * las pruebas de integración fallen antes del deploy.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/MonitorSentenciasSql.java
+ */
+@Component
+@Endpoint(id = "sql")
+@RequiredArgsConstructor
+@Slf4j
+public class MonitorSentenciasSql {
+
+    private static final int FORMAS_EN_REPORTE = 5;
+    private static final int LARGO_MAXIMO_FORMA = 300;
+
+    private final PresupuestoSqlProperties propiedades;
+    private final MeterRegistry meterRegistry;
+
+    private final Deque<Violacion> recientes = new ArrayDeque<>();
+
+    @Value
+    @Builder
+    public static class Violacion {
+        LocalDateTime fecha;
+        String metodo;
+        String endpoint;
+        int sentencias;
+        int presupuesto;
+        boolean excedePresupuesto;
+        Map<String, Integer> consultasRepetidas; // Forma → repeticiones (posible N+1)
+    }
+
+    // ============================================
+    // EVALUACIÓN POR REQUEST
+    // ============================================
+
+    /**
+     * Registra las sentencias del request y devuelve la violación, si hubo
+     */
+    public Violacion registrar(String metodo, String endpoint, RegistroSentencias registro) {
+        DistributionSummary.builder("herrera.http.sentencias.sql")
+                .description("Sentencias SQL ejecutadas por request")
+                .tag("method", metodo)
+                .tag("uri", endpoint)
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100, 200, 500)
+                .register(meterRegistry)
+                .record(registro.getTotal());
+
+        if (!propiedades.isHabilitado()) {
+            return null;
+        }
+
+        int presupuesto = propiedades.presupuestoPara(endpoint);
+        Map<String, Integer> repetidas = registro.getPorForma().entrySet().stream()
+                .filter(e -> e.getValue() >= propiedades.getUmbralRepeticion())
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(FORMAS_EN_REPORTE)
+                .collect(Collectors.toMap(
+                        e -> abreviar(e.getKey()), Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+
+        boolean excede = registro.getTotal() > presupuesto;
+        if (!excede && repetidas.isEmpty()) {
+            return null;
+        }
+
+        Violacion violacion = Violacion.builder()
+                .fecha(LocalDateTime.now())
+                .metodo(metodo)
+                .endpoint(endpoint)
+                .sentencias(registro.getTotal())
+                .presupuesto(presupuesto)
+                .excedePresupuesto(excede)
+                .consultasRepetidas(repetidas)
+                .build();
+
+        if (excede) {
+            meterRegistry.counter("herrera.sql.presupuesto.excedido", "method", metodo, "uri", endpoint).increment();
+        }
+        if (!repetidas.isEmpty()) {
+            meterRegistry.counter("herrera.sql.consultas.repetidas", "method", metodo, "uri", endpoint).increment();
+        }
+        log.warn("Presupuesto SQL: {} {} ejecutó {} sentencias (presupuesto {}){}",
+                metodo, endpoint, registro.getTotal(), presupuesto, describirRepetidas(repetidas));
+
+        synchronized (recientes) {
+            recientes.addFirst(violacion);
+            while (recientes.size() > propiedades.getHistorial()) {
+                recientes.removeLast();
+            }
+        }
+        return violacion;
+    }
+
+    /**
+     * Si una violación termina en error (modo FALLAR)
+     */
+    public boolean fallaEnViolacion() {
+        return propiedades.isHabilitado() && propiedades.getModo() == PresupuestoSqlProperties.Modo.FALLAR;
+    }
+
+    /**
+     * En modo FALLAR convierte la violación en error
+     */
+    public void verificar(Violacion violacion) {
+        if (violacion == null || propiedades.getModo() != PresupuestoSqlProperties.Modo.FALLAR) {
+            return;
+        }
+        throw new PresupuestoSqlExcedidoException(
+                violacion.getMetodo() + " " + violacion.getEndpoint(),
+                violacion.getSentencias(),
+                violacion.getPresupuesto(),
+                describirRepetidas(violacion.getConsultasRepetidas()));
+    }
+
+    // ============================================
+    // ENDPOINT /actuator/sql
+    // ============================================
+
+    @ReadOperation
+    public Map<String, Object> estado() {
+        List<Violacion> copia;
+        synchronized (recientes) {
+            copia = new ArrayList<>(recientes);
+        }
+
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("habilitado", propiedades.isHabilitado());
+        estado.put("modo", propiedades.getModo());
+        estado.put("presupuestoPorDefecto", propiedades.getPorDefecto());
+        estado.put("umbralRepeticion", propiedades.getUmbralRepeticion());
+        estado.put("presupuestosPorEndpoint", propiedades.getEndpoints());
+        estado.put("violacionesRecientes", copia);
+        return estado;
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private static String describirRepetidas(Map<String, Integer> repetidas) {
+        if (repetidas.isEmpty()) {
+            return "";
+        }
+        return repetidas.entrySet().stream()
+                .map(e -> e.getValue() + "x " + e.getKey())
+                .collect(Collectors.joining("\n  ", "; consultas repetidas (posible N+1):\n  ", ""));
+    }
+
+    private static String abreviar(String forma) {
+        return forma.length() <= LARGO_MAXIMO_FORMA ? forma : forma.substring(0, LARGO_MAXIMO_FORMA) + "...";
+    }
+}
@@ -1,19 +1,52 @@
 package com.herrera.erp.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * Configuración de PasswordEncoder
  * Clase separada para evitar dependencias circulares
+ * El costo de BCrypt (seguridad.bcrypt.costo) se elige por servidor con
+ * LoginBenchmark (benchmarks/); cada punto más duplica el tiempo por login.
+ * Al subirlo, los hashes anteriores se rehacen en el siguiente login
+ * (AuthService.login). Al arrancar se mide un hash y se avisa si el tiempo
+ * queda por encima de seguridad.bcrypt.objetivo-ms.
  */
 @Configuration
+@Slf4j
 public class PasswordEncoderConfig {
 
+    @Value("${seguridad.bcrypt.costo:10}")
+    private int costo;
+
+    @Value("${seguridad.bcrypt.objetivo-ms:250}")
+    private long objetivoMs;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(costo);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void medirCosto(ApplicationReadyEvent event) {
+        PasswordEncoder encoder = event.getApplicationContext().getBean(PasswordEncoder.class);
+        String hash = encoder.encode("medicion-costo-bcrypt");
+
+        long inicio = System.nanoTime();
+        encoder.matches("medicion-costo-bcrypt", hash);
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+        if (ms > objetivoMs) {
+            log.warn("BCrypt con costo {} tarda {} ms por login en este servidor (objetivo {} ms); "
+                    + "considerar bajar seguridad.bcrypt.costo", costo, ms, objetivoMs);
+        } else {
+            log.info("BCrypt con costo {}: {} ms por login", costo, ms);
+        }
     }
 }
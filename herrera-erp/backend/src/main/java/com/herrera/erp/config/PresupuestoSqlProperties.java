@@ -0,0 +1,43 @@
+package com.herrera.erp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Presupuesto de sentencias SQL por request (prefijo sql.presupuesto)
+ * Los presupuestos por endpoint usan el patrón del controller como llave:
+ * sql.presupuesto.endpoints[/api/pedidos/{id}]=15
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/PresupuestoSqlProperties.java
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sql.presupuesto")
+public class PresupuestoSqlProperties {
+
+    public enum Modo {
+        LOG,    // Registrar y exponer la violación
+        FALLAR  // Además, lanzar excepción (pruebas de integración)
+    }
+
+    private boolean habilitado = true;
+    private Modo modo = Modo.LOG;
+
+    // Sentencias permitidas por request cuando el endpoint no tiene presupuesto propio
+    private int porDefecto = 40;
+
+    // Repeticiones de una misma forma de sentencia que se consideran N+1
+    private int umbralRepeticion = 5;
+
+    // Violaciones recientes que se conservan para /actuator/sql
+    private int historial = 100;
+
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public int presupuestoPara(String uri) {
+        return endpoints.getOrDefault(uri, porDefecto);
+    }
+}
@@ -0,0 +1,34 @@
+package com.herrera.erp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Réplica de lectura (prefijo datasource.replica)
+ * El pool se configura aparte con datasource.replica.hikari.* (jdbc-url,
+ * username, maximum-pool-size...). Las tolerancias usan el patrón del
+ * controller como llave, igual que el presupuesto SQL:
+ * datasource.replica.endpoints[/api/reportes/ventas]=60000
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/ReplicaProperties.java
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReplicaProperties {
+
+    private boolean habilitado = false;
+
+    // Cada cuánto se mide el retraso de la réplica
+    private long monitoreoMs = 5000;
+
+    // Retraso máximo tolerado (ms) por endpoint; los que no están van siempre a la primaria
+    private Map<String, Long> endpoints = new HashMap<>();
+
+    public Long toleranciaPara(String uri) {
+        return endpoints.get(uri);
+    }
+}
@@ -0,0 +1,89 @@
+package com.herrera.erp.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Envía a la réplica las transacciones readOnly de los endpoints que toleran
+ * datos atrasados (reportes, dashboard); todo lo demás va a la primaria
+ * Va detrás de LazyConnectionDataSourceProxy: la conexión se pide en la
+ * primera sentencia, cuando la transacción ya está marcada como readOnly.
+ * Las lecturas de los demás endpoints (p. ej. el detalle que se devuelve
+ * después de crear un pedido) siguen en la primaria para leer lo recién escrito.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/RuteoReplicaDataSource.java
+ */
+public class RuteoReplicaDataSource extends AbstractDataSource {
+
+    private final DataSource primaria;
+    private final MonitorReplica monitor;
+    private final ReplicaProperties propiedades;
+
+    public RuteoReplicaDataSource(DataSource primaria, MonitorReplica monitor, ReplicaProperties propiedades) {
+        this.primaria = primaria;
+        this.monitor = monitor;
+        this.propiedades = propiedades;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (usarReplica()) {
+            try {
+                Connection conexion = monitor.getPool().getConnection();
+                monitor.contarRuteo("replica", "tolerancia");
+                return conexion;
+            } catch (SQLException e) {
+                monitor.marcarNoDisponible(e);
+                monitor.contarRuteo("primaria", "no_disponible");
+            }
+        }
+        return primaria.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primaria.getConnection(username, password);
+    }
+
+    private boolean usarReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        Long tolerancia = toleranciaDelRequest();
+        if (tolerancia == null) {
+            return false;
+        }
+
+        long retraso = monitor.getRetrasoMs();
+        if (retraso == MonitorReplica.NO_DISPONIBLE) {
+            monitor.contarRuteo("primaria", "no_disponible");
+            return false;
+        }
+        if (retraso > tolerancia) {
+            monitor.contarRuteo("primaria", "retraso");
+            return false;
+        }
+        // Se cuenta al obtener la conexión: si la réplica falla va como no_disponible
+        return true;
+    }
+
+    /**
+     * Tolerancia del endpoint en curso (patrón del controller); null fuera de
+     * un request o si el endpoint no está configurado
+     */
+    private Long toleranciaDelRequest() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return null;
+        }
+        Object patron = atributos.getAttribute(
+                HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return patron != null ? propiedades.toleranciaPara(patron.toString()) : null;
+    }
+}
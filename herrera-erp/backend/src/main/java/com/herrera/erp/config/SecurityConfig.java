@@ -1,30 +1,41 @@
 package com.herrera.erp.config;
 
-import com.herrera.erp.service.AuthService;
-import com.herrera.erp.util.JwtUtil;
+import com.herrera.erp.dto.UsuarioAutenticado;
+import com.herrera.erp.service.AutenticacionTokens;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
 
 /**
  * Configuración de Spring Security con JWT
@@ -38,14 +49,31 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
 
+    // Credencial del scraper de Prometheus (basic auth); sin password solo entra un ADMIN
+    @Value("${metricas.scrape.usuario:prometheus}")
+    private String usuarioScrape;
+
+    @Value("${metricas.scrape.password:}")
+    private String passwordScrape;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Cierre de un stream SSE (tablero): el request ya se autorizó al abrirse
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/actuator/health").permitAll()
+                        // Archivos del almacén local: <img> no manda el JWT y la URL es el SHA-256 del contenido
+                        .requestMatchers(HttpMethod.GET, "/api/imagenes/archivo/**").permitAll()
+                        .requestMatchers(HttpMethod.HEAD, "/api/imagenes/archivo/**").permitAll()
+                        // Lotes de los sitios: se autentican con el token del sitio (SincronizacionController)
+                        .requestMatchers(HttpMethod.POST, "/api/sincronizacion/lotes").permitAll()
+                        // Scrape de Prometheus: credencial propia del scraper o JWT de ADMIN
+                        .requestMatchers("/actuator/prometheus").access(scrapeAutorizado())
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -54,6 +82,26 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Basic auth con metricas.scrape.* (comparación en tiempo constante) o rol ADMIN.
+     * Basic y no Bearer: el filtro JWT no intenta validar la credencial del scraper.
+     */
+    private AuthorizationManager<RequestAuthorizationContext> scrapeAutorizado() {
+        AuthorizationManager<RequestAuthorizationContext> admin = AuthorityAuthorizationManager.hasRole("ADMIN");
+        byte[] esperado = ("Basic " + Base64.getEncoder().encodeToString(
+                (usuarioScrape + ":" + passwordScrape).getBytes(StandardCharsets.UTF_8)))
+                .getBytes(StandardCharsets.UTF_8);
+
+        return (autenticacion, contexto) -> {
+            String header = contexto.getRequest().getHeader(HttpHeaders.AUTHORIZATION);
+            if (!passwordScrape.isBlank() && header != null
+                    && MessageDigest.isEqual(esperado, header.getBytes(StandardCharsets.UTF_8))) {
+                return new AuthorizationDecision(true);
+            }
+            return admin.check(autenticacion, contexto);
+        };
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(
             AuthenticationConfiguration config) throws Exception {
@@ -63,20 +111,15 @@ public class SecurityConfig {
 
 /**
  * Filtro JWT para validar tokens en cada request
+ * El principal (UsuarioAutenticado) sale de los claims verificados; no se
+ * carga el usuario de la base de datos (ver AutenticacionTokens).
  */
 @Component
+@RequiredArgsConstructor
 class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
-    private final AuthService authService;
-
-    // Constructor manual para que @Lazy funcione correctamente
-    public JwtAuthenticationFilter(
-            JwtUtil jwtUtil,
-            @Lazy AuthService authService) {
-        this.jwtUtil = jwtUtil;
-        this.authService = authService;
-    }
+    private final AutenticacionTokens autenticacionTokens;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -91,26 +134,34 @@ class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        // Costo del filtro: parseo y firma del token + revocación en memoria (sin el resto de la cadena)
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        String resultado = AutenticacionTokens.INVALIDO;
         try {
-            final String jwt = authHeader.substring(7);
-            final String username = jwtUtil.extractUsername(jwt);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                AutenticacionTokens.Resultado validacion = autenticacionTokens.validar(authHeader.substring(7));
+                resultado = validacion.getMotivo();
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = authService.loadUserByUsername(username);
-
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                if (validacion.esValido()) {
+                    UsuarioAutenticado usuario = validacion.getUsuario();
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            usuario,
                             null,
-                            userDetails.getAuthorities());
+                            usuario.getAuthorities());
 
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             }
         } catch (Exception e) {
             logger.error("Error validando JWT: " + e.getMessage());
+            resultado = "error";
+        } finally {
+            muestra.stop(Timer.builder("herrera.jwt.filtro")
+                    .description("Validación de JWT por request")
+                    .tag("resultado", resultado)
+                    .register(meterRegistry));
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
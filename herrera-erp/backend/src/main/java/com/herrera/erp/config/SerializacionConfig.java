@@ -0,0 +1,106 @@
+package com.herrera.erp.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.herrera.erp.dto.MaterialDTO;
+import com.herrera.erp.dto.MovimientoDTO;
+import com.herrera.erp.dto.PedidoDTO;
+import com.herrera.erp.dto.PedidoImagenDTO;
+import com.herrera.erp.dto.PedidoListadoDTO;
+import com.herrera.erp.dto.RolloDTO;
+import com.herrera.erp.dto.VentaDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializadores de las respuestas resueltos al arrancar
+ * Para cada DTO de lectura (y su lista) se arma un ObjectWriter con el
+ * serializador raíz ya resuelto. El convertidor JSON de Spring los usa al
+ * escribir esos tipos, así que los endpoints de lectura no buscan ni
+ * construyen el serializador en cada respuesta; el resto de los tipos sigue
+ * el camino normal del convertidor.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/SerializacionConfig.java
+ */
+@Configuration
+@Slf4j
+public class SerializacionConfig {
+
+    private static final List<Class<?>> DTOS_DE_RESPUESTA = List.of(
+            PedidoListadoDTO.class,
+            PedidoDTO.class,
+            MaterialDTO.class,
+            RolloDTO.class,
+            MovimientoDTO.class,
+            VentaDTO.class,
+            PedidoImagenDTO.class);
+
+    /**
+     * Reemplaza al convertidor JSON que Spring Boot registraría por defecto
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        Map<JavaType, ObjectWriter> escritores = new HashMap<>();
+        for (Class<?> tipo : DTOS_DE_RESPUESTA) {
+            JavaType simple = objectMapper.constructType(tipo);
+            JavaType lista = objectMapper.getTypeFactory().constructCollectionType(List.class, tipo);
+            escritores.put(simple, objectMapper.writerFor(simple));
+            escritores.put(lista, objectMapper.writerFor(lista));
+        }
+        log.info("Serializadores precalculados para {} DTOs de respuesta", DTOS_DE_RESPUESTA.size());
+        return new ConvertidorJsonPrecalculado(objectMapper, escritores);
+    }
+
+    /**
+     * Convertidor JSON que escribe los DTOs de respuesta con su ObjectWriter
+     * precalculado; lo demás (y cualquier vista o filtro de Jackson) va por
+     * el camino de MappingJackson2HttpMessageConverter
+     */
+    static class ConvertidorJsonPrecalculado extends MappingJackson2HttpMessageConverter {
+
+        private final Map<JavaType, ObjectWriter> escritores;
+
+        ConvertidorJsonPrecalculado(ObjectMapper objectMapper, Map<JavaType, ObjectWriter> escritores) {
+            super(objectMapper);
+            this.escritores = escritores;
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                throws IOException, HttpMessageNotWritableException {
+            ObjectWriter escritor = type != null && !(object instanceof MappingJacksonValue)
+                    && esUtf8(outputMessage.getHeaders().getContentType())
+                    ? escritores.get(getJavaType(type, null))
+                    : null;
+            if (escritor == null) {
+                super.writeInternal(object, type, outputMessage);
+                return;
+            }
+
+            // Sin cerrar el stream del response, igual que el convertidor base
+            OutputStream salida = StreamUtils.nonClosing(outputMessage.getBody());
+            escritor.writeValue(salida, object);
+            salida.flush();
+        }
+
+        private static boolean esUtf8(MediaType contentType) {
+            return contentType == null || contentType.getCharset() == null
+                    || StandardCharsets.UTF_8.equals(contentType.getCharset());
+        }
+    }
+}
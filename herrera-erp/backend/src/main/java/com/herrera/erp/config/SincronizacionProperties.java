@@ -0,0 +1,75 @@
+package com.herrera.erp.config;
+
+import com.herrera.erp.model.Venta;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sincronización entre sitios y servidor central (prefijo sincronizacion)
+ * Cada sitio (TALLER, LOCAL) corre su propio backend y su base en la red
+ * local; con envio.habilitado lleva el diario de ventas y movimientos y lo
+ * manda al central cuando hay conexión. El central (central.habilitado)
+ * recibe los lotes de todos los sitios.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/SincronizacionProperties.java
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sincronizacion")
+public class SincronizacionProperties {
+
+    // Sitio de esta instancia: letra del folio de venta y origen del diario
+    private Venta.UbicacionVenta sitio = Venta.UbicacionVenta.TALLER;
+
+    private Envio envio = new Envio();
+
+    private Central central = new Central();
+
+    /**
+     * Letra del sitio en los folios (T, L)
+     */
+    public char codigoSitio() {
+        return sitio.name().charAt(0);
+    }
+
+    @Data
+    public static class Envio {
+
+        private boolean habilitado = false;
+
+        // URL base del central, ej: https://erp.herrera.mx
+        private String centralUrl = "";
+
+        // Token de este sitio (el mismo en central.tokens del central)
+        private String token = "";
+
+        // Entradas por lote
+        private int lote = 200;
+
+        private long timeoutMs = 10_000;
+
+        // Espera entre reintentos sin conexión: base * 2^fallos, con tope
+        private long esperaBaseMs = 5_000;
+
+        private long esperaMaxMs = 300_000;
+
+        // Entradas confirmadas por el central se borran pasados estos días
+        // (salvo la última: de ella sigue la numeración)
+        private int retencionDias = 30;
+    }
+
+    @Data
+    public static class Central {
+
+        private boolean habilitado = false;
+
+        // Token por sitio: sincronizacion.central.tokens.LOCAL=...
+        private Map<String, String> tokens = new LinkedHashMap<>();
+
+        // Tamaño máximo de un lote ya descomprimido
+        private int maximoBytes = 20 * 1024 * 1024;
+    }
+}
@@ -0,0 +1,33 @@
+package com.herrera.erp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tablero de pedidos en vivo (prefijo tablero)
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/TableroProperties.java
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "tablero")
+public class TableroProperties {
+
+    // Conexiones abiertas como máximo (pantallas del taller y mostrador)
+    private int maximoSuscriptores = 200;
+
+    // Eventos pendientes por cliente; si se llena, el cliente se descarta
+    private int buffer = 256;
+
+    // Hilos que escriben a los clientes (uno lento ocupa uno mientras escribe)
+    private int hilosEnvio = 4;
+
+    // Duración máxima de una conexión; al reconectar se revalida el JWT
+    private long duracionMaximaMs = 1_800_000;
+
+    // Comentario SSE periódico: mantiene viva la conexión y detecta clientes caídos
+    private long latidoMs = 20_000;
+
+    // Recarga completa desde la BD (cambios sin evento, ediciones directas)
+    private long resincronizacionMs = 300_000;
+}
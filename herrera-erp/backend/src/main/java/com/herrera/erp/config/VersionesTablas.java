@@ -0,0 +1,140 @@
+package com.herrera.erp.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Versión en memoria de cada tabla, para los ETag de los listados
+ * Se alimenta del mismo SQL que prepara Hibernate: cada INSERT, UPDATE o
+ * DELETE marca su tabla y, al confirmarse la transacción, la versión de
+ * la tabla sube. Si se revierte no cambia nada.
+ * El ETag junta las versiones de las tablas de un listado, el arranque de
+ * esta instancia (al reiniciar todos los ETag cambian) y un periodo de
+ * respaldo que vence cada cierto tiempo, para que una edición hecha
+ * directo en la base (psql, migración) se vea a más tardar al cambiar
+ * el periodo. Vale para una sola instancia del backend.
+ * Ubicación: backend/src/main/java/com/herrera/erp/config/VersionesTablas.java
+ */
+public class VersionesTablas implements StatementInspector {
+
+    private static final Pattern ESCRITURA = Pattern.compile(
+            "\\s*(?:insert\\s+into|update|delete\\s+from)\\s+([\\w.\"]+)", Pattern.CASE_INSENSITIVE);
+
+    // Mismo tope que ContadorSentenciasSql: Hibernate reutiliza el texto SQL
+    private static final int MAX_SENTENCIAS_CACHEADAS = 5000;
+
+    private final Map<String, String> tablaPorSentencia = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> versiones = new ConcurrentHashMap<>();
+    private final String instancia = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+    private final long respaldoMs;
+
+    public VersionesTablas(long respaldoMs) {
+        this.respaldoMs = respaldoMs;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String tabla = tabla(sql);
+        if (!tabla.isEmpty()) {
+            marcar(tabla);
+        }
+        return sql;
+    }
+
+    /**
+     * Versión conjunta de las tablas; cambia si cualquiera de ellas cambia
+     */
+    public String etag(String... tablas) {
+        StringBuilder etag = new StringBuilder("W/\"")
+                .append(instancia).append('-')
+                .append(Long.toString(System.currentTimeMillis() / respaldoMs, 36));
+        for (String tabla : tablas) {
+            AtomicLong version = versiones.get(tabla);
+            etag.append('.').append(version != null ? version.get() : 0);
+        }
+        return etag.append('"').toString();
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private void marcar(String tabla) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            incrementar(tabla);
+            return;
+        }
+
+        // Las tablas de la transacción se juntan y suben al confirmar
+        TablasPendientes pendientes = (TablasPendientes) TransactionSynchronizationManager.getResource(this);
+        if (pendientes == null) {
+            pendientes = new TablasPendientes();
+            TransactionSynchronizationManager.bindResource(this, pendientes);
+            TransactionSynchronizationManager.registerSynchronization(pendientes);
+        }
+        pendientes.tablas.add(tabla);
+    }
+
+    private void incrementar(String tabla) {
+        versiones.computeIfAbsent(tabla, t -> new AtomicLong()).incrementAndGet();
+    }
+
+    private String tabla(String sql) {
+        String tabla = tablaPorSentencia.get(sql);
+        if (tabla != null) {
+            return tabla;
+        }
+
+        // "" = la sentencia no escribe (SELECT)
+        Matcher matcher = ESCRITURA.matcher(sql);
+        tabla = matcher.lookingAt() ? normalizar(matcher.group(1)) : "";
+
+        if (tablaPorSentencia.size() < MAX_SENTENCIAS_CACHEADAS) {
+            tablaPorSentencia.put(sql, tabla);
+        }
+        return tabla;
+    }
+
+    private static String normalizar(String tabla) {
+        String nombre = tabla.replace("\"", "").toLowerCase();
+        return nombre.substring(nombre.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Tablas escritas en la transacción del hilo; una transacción
+     * REQUIRES_NEW suspende la externa y junta las suyas aparte
+     */
+    private final class TablasPendientes implements TransactionSynchronization {
+        private final Set<String> tablas = new HashSet<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(VersionesTablas.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(VersionesTablas.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            tablas.forEach(VersionesTablas.this::incrementar);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(VersionesTablas.this);
+        }
+    }
+}
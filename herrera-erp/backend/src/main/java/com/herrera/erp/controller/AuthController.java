@@ -2,16 +2,14 @@ package com.herrera.erp.controller;
 
 import com.herrera.erp.dto.LoginRequest;
 import com.herrera.erp.dto.LoginResponse;
-import com.herrera.erp.model.Usuario;
+import com.herrera.erp.exception.LimiteExcedidoException;
 import com.herrera.erp.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Controller de Autenticación
@@ -31,26 +29,11 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
         try {
-            String token = authService.login(request.getUsername(), request.getPassword());
-            Usuario usuario = authService.getUserFromToken(token);
-
-            // Obtener nombres de permisos
-            List<String> permisos = usuario.getRol().getPermisos().stream()
-                    .map(p -> p.getModulo())
-                    .collect(Collectors.toList());
-
-            LoginResponse response = LoginResponse.builder()
-                    .token(token)
-                    .type("Bearer")
-                    .message("Login exitoso")
-                    .usuarioId(usuario.getId())
-                    .username(usuario.getUsername())
-                    .nombreCompleto(usuario.getNombreCompleto())
-                    .rol(usuario.getRol().getNombre())
-                    .permisos(permisos)
-                    .build();
-
+            LoginResponse response = authService.login(request.getUsername(), request.getPassword());
             return ResponseEntity.ok(response);
+        } catch (LimiteExcedidoException e) {
+            // Lo responde GlobalExceptionHandler (429 con Retry-After)
+            throw e;
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Credenciales inválidas");
@@ -76,10 +59,15 @@ public class AuthController {
 
     /**
      * POST /api/auth/logout
-     * Logout (en frontend se elimina el token)
+     * Logout: el token del header deja de aceptarse (en frontend se elimina)
      */
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
+    public ResponseEntity<?> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            authService.logout(authorization.substring(7));
+        }
+
         Map<String, String> response = new HashMap<>();
         response.put("message", "Logout exitoso");
         return ResponseEntity.ok(response);
@@ -1,23 +1,32 @@
 package com.herrera.erp.controller;
 
-import com.herrera.erp.exception.ResourceNotFoundException;
-import com.herrera.erp.model.PedidoImagen;
-import com.herrera.erp.repository.PedidoImagenRepository;
-import com.herrera.erp.repository.PedidoRepository;
-import com.herrera.erp.service.CloudinaryService;
+import com.herrera.erp.dto.PedidoImagenDTO;
+import com.herrera.erp.service.AlmacenImagenes;
+import com.herrera.erp.service.AlmacenImagenesLocal;
+import com.herrera.erp.service.ImagenService;
+import com.herrera.erp.service.SubidaImagenesService;
+import com.herrera.erp.util.EnvioArchivos;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Controller de Imágenes
+ * Las imágenes de pedidos se suben en segundo plano (SubidaImagenesService):
+ * el request solo guarda el archivo en disco y responde 202 con la imagen
+ * PENDIENTE. Ninguna llamada al almacén corre dentro de una transacción.
+ * Con imagenes.almacen=local el backend también sirve los archivos.
  */
 @RestController
 @RequestMapping("/api/imagenes")
@@ -26,13 +35,15 @@ import java.util.Map;
 @Slf4j
 public class ImagenController {
 
-    private final CloudinaryService cloudinaryService;
-    private final PedidoImagenRepository pedidoImagenRepository;
-    private final PedidoRepository pedidoRepository;
+    private final SubidaImagenesService subidaImagenesService;
+    private final ImagenService imagenService;
+    private final ObjectProvider<AlmacenImagenesLocal> almacenLocal;
+    private final EnvioArchivos envioArchivos;
 
     /**
      * POST /api/imagenes/upload
-     * Subir imagen a Cloudinary
+     * Con pedidoId: 202 con la imagen PENDIENTE (se consulta en /pedido/{pedidoId})
+     * Sin pedidoId: sube en el momento y devuelve url y publicId
      */
     @PostMapping("/upload")
     public ResponseEntity<?> subirImagen(
@@ -43,9 +54,9 @@ public class ImagenController {
             @RequestParam(required = false) String descripcion) {
 
         try {
-            if (!cloudinaryService.estaConfigurado()) {
+            if (!subidaImagenesService.estaConfigurado()) {
                 return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                        .body(Map.of("error", "Cloudinary no está configurado"));
+                        .body(Map.of("error", "El almacén de imágenes no está configurado"));
             }
 
             // Si no se especifica carpeta, usar "general"
@@ -53,27 +64,12 @@ public class ImagenController {
                 carpeta = "herrera-erp/general";
             }
 
-            // Subir a Cloudinary
-            CloudinaryService.CloudinaryUploadResult result = cloudinaryService.subirImagen(file, carpeta);
-
-            // Si se especificó pedidoId, guardar la relación
             if (pedidoId != null) {
-                var pedido = pedidoRepository.findById(pedidoId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Pedido", "id", pedidoId));
-
-                PedidoImagen imagen = PedidoImagen.builder()
-                        .pedido(pedido)
-                        .nombreArchivo(file.getOriginalFilename())
-                        .urlCloudinary(result.getUrl())
-                        .publicIdCloudinary(result.getPublicId())
-                        .tipo(tipo != null ? PedidoImagen.TipoImagen.valueOf(tipo.toUpperCase()) : null)
-                        .descripcion(descripcion)
-                        .esPrincipal(false)
-                        .build();
-
-                pedidoImagenRepository.save(imagen);
+                PedidoImagenDTO imagen = subidaImagenesService.recibir(pedidoId, file, carpeta, tipo, descripcion);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(imagen);
             }
 
+            AlmacenImagenes.ImagenAlmacenada result = subidaImagenesService.subirDirecto(file, carpeta);
             return ResponseEntity.ok(Map.of(
                     "url", result.getUrl(),
                     "publicId", result.getPublicId(),
@@ -91,29 +87,12 @@ public class ImagenController {
 
     /**
      * DELETE /api/imagenes/{id}
-     * Eliminar imagen
+     * Eliminar imagen (borrado lógico; LimpiezaImagenesService la borra del almacén)
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> eliminarImagen(@PathVariable Long id) {
-        try {
-            PedidoImagen imagen = pedidoImagenRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Imagen", "id", id));
-
-            // Eliminar de Cloudinary
-            if (cloudinaryService.estaConfigurado()) {
-                cloudinaryService.eliminarImagen(imagen.getPublicIdCloudinary());
-            }
-
-            // Eliminar de BD
-            pedidoImagenRepository.delete(imagen);
-
-            return ResponseEntity.ok(Map.of("message", "Imagen eliminada exitosamente"));
-
-        } catch (IOException e) {
-            log.error("Error eliminando imagen: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Error eliminando imagen: " + e.getMessage()));
-        }
+        imagenService.marcarEliminada(id);
+        return ResponseEntity.ok(Map.of("message", "Imagen eliminada exitosamente"));
     }
 
     /**
@@ -121,18 +100,34 @@ public class ImagenController {
      * Listar imágenes de un pedido
      */
     @GetMapping("/pedido/{pedidoId}")
-    public ResponseEntity<List<PedidoImagen>> listarImagenesPorPedido(@PathVariable Long pedidoId) {
-        List<PedidoImagen> imagenes = pedidoImagenRepository.findByPedidoId(pedidoId);
+    public ResponseEntity<List<PedidoImagenDTO>> listarImagenesPorPedido(@PathVariable Long pedidoId) {
+        List<PedidoImagenDTO> imagenes = imagenService.listarPorPedido(pedidoId);
         return ResponseEntity.ok(imagenes);
     }
 
+    /**
+     * GET /api/imagenes/archivo/{publicId}
+     * Archivo del almacén local (sin JWT, para <img>); 404 con Cloudinary
+     */
+    @RequestMapping(value = "/archivo/{publicId}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void servirArchivo(@PathVariable String publicId, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        AlmacenImagenesLocal almacen = almacenLocal.getIfAvailable();
+        Path archivo = almacen != null ? almacen.archivo(publicId).orElse(null) : null;
+        if (archivo == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        envioArchivos.enviar(archivo, AlmacenImagenesLocal.hash(publicId), request, response);
+    }
+
     /**
      * GET /api/imagenes/configurado
-     * Verificar si Cloudinary está configurado
+     * Verificar si el almacén de imágenes está configurado
      */
     @GetMapping("/configurado")
     public ResponseEntity<Map<String, Boolean>> verificarConfiguracion() {
-        boolean configurado = cloudinaryService.estaConfigurado();
+        boolean configurado = subidaImagenesService.estaConfigurado();
         return ResponseEntity.ok(Map.of("configurado", configurado));
     }
 }
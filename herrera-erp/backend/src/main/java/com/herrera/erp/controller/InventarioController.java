@@ -1,9 +1,18 @@
 package com.herrera.erp.controller;
 
+import com.herrera.erp.dto.DashboardStatsDTO;
+import com.herrera.erp.dto.MaterialDTO;
+import com.herrera.erp.dto.MovimientoDTO;
+import com.herrera.erp.dto.RolloDTO;
 import com.herrera.erp.model.*;
+import com.herrera.erp.service.CoordinadorInventario;
 import com.herrera.erp.service.InventarioService;
+import com.herrera.erp.service.ProyectorInventario;
+import com.herrera.erp.util.RespuestasCondicionales;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -22,7 +31,13 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class InventarioController {
 
+    // Tablas de las que dependen los listados de rollos (ETag)
+    private static final String[] TABLAS_ROLLOS = { "rollos", "materiales" };
+
     private final InventarioService inventarioService;
+    private final CoordinadorInventario coordinadorInventario;
+    private final ProyectorInventario proyectorInventario;
+    private final RespuestasCondicionales respuestasCondicionales;
 
     // ============================================
     // MATERIALES
@@ -30,11 +45,12 @@ public class InventarioController {
 
     /**
      * GET /api/inventario/materiales
-     * Obtener todos los materiales
+     * Obtener todos los materiales (ETag: 304 si no cambiaron)
      */
     @GetMapping("/materiales")
-    public ResponseEntity<List<Material>> obtenerMateriales() {
-        return ResponseEntity.ok(inventarioService.obtenerTodosMateriales());
+    public ResponseEntity<List<MaterialDTO>> obtenerMateriales(HttpServletRequest request) {
+        return respuestasCondicionales.listado(request, inventarioService::obtenerTodosMateriales,
+                "materiales", "tipos_material");
     }
 
     /**
@@ -42,8 +58,17 @@ public class InventarioController {
      * Obtener material por ID
      */
     @GetMapping("/materiales/{id}")
-    public ResponseEntity<Material> obtenerMaterial(@PathVariable Long id) {
-        return ResponseEntity.ok(inventarioService.obtenerMaterialPorId(id));
+    public ResponseEntity<MaterialDTO> obtenerMaterial(@PathVariable Long id) {
+        return ResponseEntity.ok(inventarioService.obtenerMaterialDTO(id));
+    }
+
+    /**
+     * GET /api/inventario/materiales/{id}/disponible
+     * Stock físico, reservado por pedidos y disponible para prometer
+     */
+    @GetMapping("/materiales/{id}/disponible")
+    public ResponseEntity<Map<String, BigDecimal>> obtenerDisponibilidad(@PathVariable Long id) {
+        return ResponseEntity.ok(inventarioService.obtenerDisponibilidad(id));
     }
 
     /**
@@ -51,7 +76,7 @@ public class InventarioController {
      * Obtener materiales con stock bajo
      */
     @GetMapping("/materiales/alertas")
-    public ResponseEntity<List<Material>> obtenerAlerts() {
+    public ResponseEntity<List<DashboardStatsDTO.MaterialAlertaDTO>> obtenerAlerts() {
         return ResponseEntity.ok(inventarioService.obtenerMaterialesConAlerta());
     }
 
@@ -60,7 +85,7 @@ public class InventarioController {
      * Obtener materiales críticos
      */
     @GetMapping("/materiales/criticos")
-    public ResponseEntity<List<Material>> obtenerCriticos() {
+    public ResponseEntity<List<DashboardStatsDTO.MaterialAlertaDTO>> obtenerCriticos() {
         return ResponseEntity.ok(inventarioService.obtenerMaterialesCriticos());
     }
 
@@ -79,11 +104,12 @@ public class InventarioController {
 
     /**
      * GET /api/inventario/rollos
-     * Obtener todos los rollos disponibles
+     * Obtener todos los rollos disponibles (ETag: 304 si no cambiaron)
      */
     @GetMapping("/rollos")
-    public ResponseEntity<List<Rollo>> obtenerRollos() {
-        return ResponseEntity.ok(inventarioService.obtenerRollosDisponibles());
+    public ResponseEntity<List<RolloDTO>> obtenerRollos(HttpServletRequest request) {
+        return respuestasCondicionales.listado(request, inventarioService::obtenerRollosDisponibles,
+                TABLAS_ROLLOS);
     }
 
     /**
@@ -91,8 +117,9 @@ public class InventarioController {
      * Obtener rollos disponibles para corte
      */
     @GetMapping("/rollos/corte")
-    public ResponseEntity<List<Rollo>> obtenerRollosCorte() {
-        return ResponseEntity.ok(inventarioService.obtenerRollosParaCorte());
+    public ResponseEntity<List<RolloDTO>> obtenerRollosCorte(HttpServletRequest request) {
+        return respuestasCondicionales.listado(request, inventarioService::obtenerRollosParaCorte,
+                TABLAS_ROLLOS);
     }
 
     /**
@@ -100,8 +127,9 @@ public class InventarioController {
      * Obtener rollos disponibles para venta
      */
     @GetMapping("/rollos/venta")
-    public ResponseEntity<List<Rollo>> obtenerRollosVenta() {
-        return ResponseEntity.ok(inventarioService.obtenerRollosParaVenta());
+    public ResponseEntity<List<RolloDTO>> obtenerRollosVenta(HttpServletRequest request) {
+        return respuestasCondicionales.listado(request, inventarioService::obtenerRollosParaVenta,
+                TABLAS_ROLLOS);
     }
 
     /**
@@ -121,10 +149,10 @@ public class InventarioController {
 
     /**
      * GET /api/inventario/movimientos
-     * Obtener últimos movimientos
+     * Obtener últimos movimientos (máximo 200)
      */
     @GetMapping("/movimientos")
-    public ResponseEntity<List<MovimientoInventario>> obtenerMovimientos(
+    public ResponseEntity<List<MovimientoDTO>> obtenerMovimientos(
             @RequestParam(defaultValue = "20") int limite) {
         return ResponseEntity.ok(inventarioService.obtenerUltimosMovimientos(limite));
     }
@@ -134,7 +162,7 @@ public class InventarioController {
      * Obtener movimientos de un material específico
      */
     @GetMapping("/movimientos/material/{materialId}")
-    public ResponseEntity<List<MovimientoInventario>> obtenerMovimientosMaterial(
+    public ResponseEntity<List<MovimientoDTO>> obtenerMovimientosMaterial(
             @PathVariable Long materialId) {
         return ResponseEntity.ok(inventarioService.obtenerMovimientosPorMaterial(materialId));
     }
@@ -144,7 +172,7 @@ public class InventarioController {
      * Obtener movimientos del día
      */
     @GetMapping("/movimientos/hoy")
-    public ResponseEntity<List<MovimientoInventario>> obtenerMovimientosHoy() {
+    public ResponseEntity<List<MovimientoDTO>> obtenerMovimientosHoy() {
         return ResponseEntity.ok(inventarioService.obtenerMovimientosDelDia());
     }
 
@@ -153,16 +181,17 @@ public class InventarioController {
      * Registrar nuevo movimiento
      */
     @PostMapping("/movimientos")
-    public ResponseEntity<MovimientoInventario> registrarMovimiento(
+    public ResponseEntity<MovimientoDTO> registrarMovimiento(
             @RequestBody MovimientoRequest request) {
-        return ResponseEntity.ok(inventarioService.registrarMovimiento(
+        MovimientoInventario movimiento = inventarioService.registrarMovimiento(
                 request.getMaterialId(),
                 request.getRolloId(),
                 request.getTipo(),
                 request.getCantidad(),
                 request.getMotivo(),
                 request.getPedidoId(),
-                request.getUsuarioId()));
+                request.getUsuarioId());
+        return ResponseEntity.ok(inventarioService.obtenerMovimientoDTO(movimiento.getId()));
     }
 
     /**
@@ -199,6 +228,26 @@ public class InventarioController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * GET /api/inventario/bloqueos/metricas
+     * Contención de los bloqueos por material (tiempos de espera y cola por franja)
+     */
+    @GetMapping("/bloqueos/metricas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> obtenerMetricasBloqueos() {
+        return ResponseEntity.ok(coordinadorInventario.obtenerMetricas());
+    }
+
+    /**
+     * GET /api/inventario/eventos/estado
+     * Modo eventos: eventos pendientes de proyectar y última proyección
+     */
+    @GetMapping("/eventos/estado")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> obtenerEstadoEventos() {
+        return ResponseEntity.ok(proyectorInventario.obtenerEstado());
+    }
+
     // ============================================
     // DTOs INTERNOS
     // ============================================
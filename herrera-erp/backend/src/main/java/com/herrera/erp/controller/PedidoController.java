@@ -1,15 +1,23 @@
 package com.herrera.erp.controller;
 
+import com.herrera.erp.dto.PedidoDTO;
+import com.herrera.erp.dto.PedidoListadoDTO;
 import com.herrera.erp.model.Pedido;
 import com.herrera.erp.model.PedidoItem;
 import com.herrera.erp.service.PedidoService;
+import com.herrera.erp.service.TableroPedidos;
+import com.herrera.erp.util.RespuestasCondicionales;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Controller de Pedidos (Folios)
@@ -23,6 +31,8 @@ import java.util.Map;
 public class PedidoController {
 
     private final PedidoService pedidoService;
+    private final RespuestasCondicionales respuestasCondicionales;
+    private final TableroPedidos tableroPedidos;
 
     // ============================================
     // CONSULTAS
@@ -33,17 +43,38 @@ public class PedidoController {
      * Obtener todos los pedidos
      */
     @GetMapping
-    public ResponseEntity<List<Pedido>> obtenerPedidos() {
+    public ResponseEntity<List<PedidoListadoDTO>> obtenerPedidos() {
         return ResponseEntity.ok(pedidoService.obtenerTodosPedidos());
     }
 
     /**
      * GET /api/pedidos/activos
-     * Obtener pedidos activos (no entregados ni cancelados)
+     * Obtener pedidos activos (no entregados ni cancelados); ETag: 304 si no cambiaron
      */
     @GetMapping("/activos")
-    public ResponseEntity<List<Pedido>> obtenerActivos() {
-        return ResponseEntity.ok(pedidoService.obtenerPedidosActivos());
+    public ResponseEntity<List<PedidoListadoDTO>> obtenerActivos(HttpServletRequest request) {
+        return respuestasCondicionales.listado(request, pedidoService::obtenerPedidosActivos,
+                "pedidos", "pedido_items", "productos");
+    }
+
+    /**
+     * GET /api/pedidos/tablero?estado=EN_CORTE,EN_COSTURA&ubicacion=TALLER&prioridad=PREFERENCIAL
+     * Tablero en vivo (Server-Sent Events) para las pantallas del taller:
+     * snapshot de los pedidos activos del canal y después solo los cambios.
+     * Sustituye el refresco periódico de /activos, /hoy y /retrasados.
+     * El JWT va en el header Authorization, así que el navegador no puede
+     * usar EventSource: el cliente es frontend/src/services/tableroService.js
+     * (fetch + lectura del stream, con reconexión).
+     */
+    @GetMapping(value = "/tablero", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> suscribirTablero(
+            @RequestParam(required = false) Set<Pedido.Estado> estado,
+            @RequestParam(required = false) Pedido.UbicacionOrigen ubicacion,
+            @RequestParam(required = false) Pedido.Prioridad prioridad) {
+        return ResponseEntity.ok()
+                // nginx no debe acumular el stream
+                .header("X-Accel-Buffering", "no")
+                .body(tableroPedidos.suscribir(estado, ubicacion, prioridad));
     }
 
     /**
@@ -51,7 +82,7 @@ public class PedidoController {
      * Obtener pedidos retrasados
      */
     @GetMapping("/retrasados")
-    public ResponseEntity<List<Pedido>> obtenerRetrasados() {
+    public ResponseEntity<List<PedidoListadoDTO>> obtenerRetrasados() {
         return ResponseEntity.ok(pedidoService.obtenerPedidosRetrasados());
     }
 
@@ -60,7 +91,7 @@ public class PedidoController {
      * Obtener pedidos a entregar hoy
      */
     @GetMapping("/hoy")
-    public ResponseEntity<List<Pedido>> obtenerEntregarHoy() {
+    public ResponseEntity<List<PedidoListadoDTO>> obtenerEntregarHoy() {
         return ResponseEntity.ok(pedidoService.obtenerPedidosEntregarHoy());
     }
 
@@ -69,7 +100,7 @@ public class PedidoController {
      * Obtener pedidos preferenciales pendientes
      */
     @GetMapping("/preferenciales")
-    public ResponseEntity<List<Pedido>> obtenerPreferenciales() {
+    public ResponseEntity<List<PedidoListadoDTO>> obtenerPreferenciales() {
         return ResponseEntity.ok(pedidoService.obtenerPedidosPreferenciales());
     }
 
@@ -78,7 +109,7 @@ public class PedidoController {
      * Obtener pedidos próximos a entregar (próximos 7 días)
      */
     @GetMapping("/proximos")
-    public ResponseEntity<List<Pedido>> obtenerProximos(
+    public ResponseEntity<List<PedidoListadoDTO>> obtenerProximos(
             @RequestParam(defaultValue = "7") int dias) {
         return ResponseEntity.ok(pedidoService.obtenerPedidosProximosAEntregar(dias));
     }
@@ -88,8 +119,8 @@ public class PedidoController {
      * Obtener pedido por ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Pedido> obtenerPedido(@PathVariable Long id) {
-        return ResponseEntity.ok(pedidoService.obtenerPedidoPorId(id));
+    public ResponseEntity<PedidoDTO> obtenerPedido(@PathVariable Long id) {
+        return ResponseEntity.ok(pedidoService.obtenerDetalle(id));
     }
 
     /**
@@ -97,8 +128,8 @@ public class PedidoController {
      * Obtener pedido por folio
      */
     @GetMapping("/folio/{folio}")
-    public ResponseEntity<Pedido> obtenerPorFolio(@PathVariable String folio) {
-        return ResponseEntity.ok(pedidoService.obtenerPedidoPorFolio(folio));
+    public ResponseEntity<PedidoDTO> obtenerPorFolio(@PathVariable String folio) {
+        return ResponseEntity.ok(pedidoService.obtenerDetallePorFolio(folio));
     }
 
     // ============================================
@@ -110,13 +141,14 @@ public class PedidoController {
      * Crear nuevo pedido
      */
     @PostMapping
-    public ResponseEntity<Pedido> crearPedido(
+    public ResponseEntity<PedidoDTO> crearPedido(
             @RequestBody CrearPedidoRequest request) {
         Pedido pedido = pedidoService.crearPedido(
                 request.getPedido(),
                 request.getItems(),
+                request.getMaterialId(),
                 request.getUsuarioId());
-        return ResponseEntity.ok(pedido);
+        return ResponseEntity.ok(pedidoService.obtenerDetalle(pedido.getId()));
     }
 
     /**
@@ -124,7 +156,7 @@ public class PedidoController {
      * Actualizar estado del pedido
      */
     @PutMapping("/{id}/estado")
-    public ResponseEntity<Pedido> actualizarEstado(
+    public ResponseEntity<PedidoDTO> actualizarEstado(
             @PathVariable Long id,
             @RequestBody Map<String, Object> request) {
         String estadoStr = (String) request.get("estado");
@@ -132,8 +164,8 @@ public class PedidoController {
 
         Pedido.Estado nuevoEstado = Pedido.Estado.valueOf(estadoStr);
 
-        return ResponseEntity.ok(
-                pedidoService.actualizarEstado(id, nuevoEstado, usuarioId));
+        pedidoService.actualizarEstado(id, nuevoEstado, usuarioId);
+        return ResponseEntity.ok(pedidoService.obtenerDetalle(id));
     }
 
     /**
@@ -141,11 +173,11 @@ public class PedidoController {
      * Marcar pedido como entregado
      */
     @PutMapping("/{id}/entregar")
-    public ResponseEntity<Pedido> marcarEntregado(
+    public ResponseEntity<PedidoDTO> marcarEntregado(
             @PathVariable Long id,
             @RequestParam(required = false) Long usuarioId) {
-        return ResponseEntity.ok(
-                pedidoService.marcarComoEntregado(id, usuarioId));
+        pedidoService.marcarComoEntregado(id, usuarioId);
+        return ResponseEntity.ok(pedidoService.obtenerDetalle(id));
     }
 
     /**
@@ -153,14 +185,14 @@ public class PedidoController {
      * Cancelar pedido
      */
     @PutMapping("/{id}/cancelar")
-    public ResponseEntity<Pedido> cancelarPedido(
+    public ResponseEntity<PedidoDTO> cancelarPedido(
             @PathVariable Long id,
             @RequestBody Map<String, Object> request) {
         String motivo = (String) request.get("motivo");
         Long usuarioId = request.get("usuarioId") != null ? Long.parseLong(request.get("usuarioId").toString()) : null;
 
-        return ResponseEntity.ok(
-                pedidoService.cancelarPedido(id, motivo, usuarioId));
+        pedidoService.cancelarPedido(id, motivo, usuarioId);
+        return ResponseEntity.ok(pedidoService.obtenerDetalle(id));
     }
 
     // ============================================
@@ -184,6 +216,7 @@ public class PedidoController {
     static class CrearPedidoRequest {
         private Pedido pedido;
         private List<PedidoItem> items;
+        private Long materialId; // Tela a reservar (opcional)
         private Long usuarioId;
     }
 }
\ No newline at end of file
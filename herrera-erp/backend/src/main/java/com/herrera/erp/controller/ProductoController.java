@@ -3,6 +3,8 @@ package com.herrera.erp.controller;
 import com.herrera.erp.dto.ProductoDTO;
 import com.herrera.erp.model.Producto;
 import com.herrera.erp.service.ProductoService;
+import com.herrera.erp.util.RespuestasCondicionales;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -23,15 +25,16 @@ import java.util.Map;
 public class ProductoController {
 
     private final ProductoService productoService;
+    private final RespuestasCondicionales respuestasCondicionales;
 
     /**
      * GET /api/productos
-     * Listar todos los productos activos
+     * Listar todos los productos activos (ETag: 304 si no cambiaron)
      */
     @GetMapping
-    public ResponseEntity<List<Producto>> listarProductos() {
-        List<Producto> productos = productoService.obtenerProductosActivos();
-        return ResponseEntity.ok(productos);
+    public ResponseEntity<List<Producto>> listarProductos(HttpServletRequest request) {
+        return respuestasCondicionales.listado(request, productoService::obtenerProductosActivos,
+                "productos", "producto_ajustes_talla");
     }
 
     /**
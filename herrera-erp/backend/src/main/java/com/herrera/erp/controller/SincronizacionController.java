@@ -0,0 +1,132 @@
+package com.herrera.erp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.herrera.erp.config.SincronizacionProperties;
+import com.herrera.erp.dto.LoteSincronizacion;
+import com.herrera.erp.exception.ResourceNotFoundException;
+import com.herrera.erp.model.ConflictoSincronizacion;
+import com.herrera.erp.model.Venta;
+import com.herrera.erp.service.SincronizacionCentralService;
+import com.herrera.erp.service.SincronizacionEnvioService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Controller de Sincronización entre sitios
+ * POST /lotes lo llaman los sitios (sin JWT: se autentican con el token
+ * del sitio); el resto es para el administrador.
+ * Ubicación:
+ * backend/src/main/java/com/herrera/erp/controller/SincronizacionController.java
+ */
+@RestController
+@RequestMapping("/api/sincronizacion")
+
+@RequiredArgsConstructor
+public class SincronizacionController {
+
+    private final SincronizacionCentralService sincronizacionCentralService;
+    private final SincronizacionEnvioService sincronizacionEnvioService;
+    private final SincronizacionProperties propiedades;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * POST /api/sincronizacion/lotes
+     * Lote del diario de un sitio (JSON, gzip opcional). Responde hasta qué
+     * secuencia quedó aplicado el sitio; reenviar un lote no duplica nada.
+     */
+    @PostMapping("/lotes")
+    public ResponseEntity<LoteSincronizacion.Respuesta> recibirLote(
+            @RequestHeader("X-Sitio") Venta.UbicacionVenta sitio,
+            @RequestHeader("X-Sitio-Token") String token,
+            HttpServletRequest request) throws IOException {
+
+        if (!propiedades.getCentral().isHabilitado()) {
+            throw new ResourceNotFoundException("Esta instancia no es el servidor central de sincronización");
+        }
+        verificarToken(sitio, token);
+
+        LoteSincronizacion lote = objectMapper.readValue(leerCuerpo(request), LoteSincronizacion.class);
+        if (lote.getSitio() != null && lote.getSitio() != sitio) {
+            throw new IllegalArgumentException("El lote es del sitio " + lote.getSitio() + ", no de " + sitio);
+        }
+        lote.setSitio(sitio);
+
+        return ResponseEntity.ok(sincronizacionCentralService.aplicarLote(lote));
+    }
+
+    /**
+     * GET /api/sincronizacion/estado
+     * Central: avance por sitio y conflictos sin revisar
+     * Sitio: entradas pendientes de enviar y último envío
+     */
+    @GetMapping("/estado")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> obtenerEstado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("sitio", propiedades.getSitio());
+        if (propiedades.getCentral().isHabilitado()) {
+            estado.put("central", sincronizacionCentralService.obtenerEstado());
+        }
+        estado.put("envio", sincronizacionEnvioService.obtenerEstado());
+        return ResponseEntity.ok(estado);
+    }
+
+    /**
+     * GET /api/sincronizacion/conflictos
+     * Ventas y movimientos sincronizados pendientes de revisión
+     */
+    @GetMapping("/conflictos")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ConflictoSincronizacion>> obtenerConflictos() {
+        return ResponseEntity.ok(sincronizacionCentralService.obtenerConflictosPendientes());
+    }
+
+    /**
+     * PUT /api/sincronizacion/conflictos/{id}/revisado
+     */
+    @PutMapping("/conflictos/{id}/revisado")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ConflictoSincronizacion> marcarRevisado(@PathVariable Long id) {
+        return ResponseEntity.ok(sincronizacionCentralService.marcarRevisado(id));
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private void verificarToken(Venta.UbicacionVenta sitio, String token) {
+        String esperado = propiedades.getCentral().getTokens().get(sitio.name());
+        // Comparación en tiempo constante; un sitio sin token configurado no entra
+        if (esperado == null || esperado.isBlank() || !MessageDigest.isEqual(
+                esperado.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            throw new BadCredentialsException("Token de sitio inválido para " + sitio);
+        }
+    }
+
+    // Cuerpo ya descomprimido, con tope: un lote malformado no agota la memoria
+    private byte[] leerCuerpo(HttpServletRequest request) throws IOException {
+        int maximo = propiedades.getCentral().getMaximoBytes();
+        boolean gzip = "gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING));
+        try (InputStream entrada = gzip ? new GZIPInputStream(request.getInputStream()) : request.getInputStream()) {
+            byte[] cuerpo = entrada.readNBytes(maximo + 1);
+            if (cuerpo.length > maximo) {
+                throw new IllegalArgumentException("Lote mayor a " + maximo + " bytes; reduzca sincronizacion.envio.lote");
+            }
+            return cuerpo;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.herrera.erp.controller;
 
+import com.herrera.erp.dto.VentaDTO;
 import com.herrera.erp.model.Venta;
 import com.herrera.erp.service.VentaService;
 import lombok.Data;
@@ -30,10 +31,10 @@ public class VentaController {
      * Listar todas las ventas
      */
     @GetMapping
-    public ResponseEntity<List<Venta>> listarVentas(
+    public ResponseEntity<List<VentaDTO>> listarVentas(
             @RequestParam(required = false) String ubicacion) {
 
-        List<Venta> ventas = ubicacion != null
+        List<VentaDTO> ventas = ubicacion != null
                 ? ventaService.obtenerVentasPorUbicacion(ubicacion)
                 : ventaService.obtenerTodasVentas();
 
@@ -46,7 +47,7 @@ public class VentaController {
      */
     @GetMapping("/hoy")
     public ResponseEntity<Map<String, Object>> obtenerVentasHoy() {
-        List<Venta> ventas = ventaService.obtenerVentasDelDia();
+        List<VentaDTO> ventas = ventaService.listarVentasDelDia();
         BigDecimal total = ventaService.calcularTotalVentasDelDia();
 
         return ResponseEntity.ok(Map.of(
@@ -64,7 +65,7 @@ public class VentaController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
 
-        List<Venta> ventas = ventaService.obtenerVentasPorRango(fechaInicio, fechaFin);
+        List<VentaDTO> ventas = ventaService.listarVentasPorRango(fechaInicio, fechaFin);
         BigDecimal total = ventaService.calcularTotalVentasPorPeriodo(fechaInicio, fechaFin);
 
         return ResponseEntity.ok(Map.of(
@@ -80,7 +81,7 @@ public class VentaController {
      * Registrar venta de tela por metros
      */
     @PostMapping("/tela")
-    public ResponseEntity<Venta> registrarVentaTela(@RequestBody VentaTelaRequest request) {
+    public ResponseEntity<VentaDTO> registrarVentaTela(@RequestBody VentaTelaRequest request) {
         Venta venta = ventaService.registrarVentaTela(
                 request.getRolloId(),
                 request.getMetrosVendidos(),
@@ -91,7 +92,7 @@ public class VentaController {
                 request.getUbicacion(),
                 request.getUsuarioVendedorId());
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(venta);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ventaService.obtenerVentaDTO(venta.getId()));
     }
 
     /**
@@ -99,7 +100,7 @@ public class VentaController {
      * Registrar venta de clones
      */
     @PostMapping("/clone")
-    public ResponseEntity<Venta> registrarVentaClone(@RequestBody VentaCloneRequest request) {
+    public ResponseEntity<VentaDTO> registrarVentaClone(@RequestBody VentaCloneRequest request) {
         Venta venta = ventaService.registrarVentaClone(
                 request.getMaterialId(),
                 request.getCantidad(),
@@ -110,7 +111,7 @@ public class VentaController {
                 request.getUbicacion(),
                 request.getUsuarioVendedorId());
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(venta);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ventaService.obtenerVentaDTO(venta.getId()));
     }
 
     // DTOs internos
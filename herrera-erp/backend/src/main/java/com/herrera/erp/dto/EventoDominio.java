@@ -0,0 +1,28 @@
+package com.herrera.erp.dto;
+
+import com.herrera.erp.model.EventoOutbox;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Evento de dominio despachado por el relay del outbox a los listeners
+ * internos (@EventListener(EventoDominio.class))
+ */
+@Data
+@AllArgsConstructor
+public class EventoDominio {
+
+    private Long id; // Id del outbox: orden global de los eventos
+    private EventoOutbox.Agregado agregado;
+    private Long agregadoId;
+    private String tipo;
+    private Map<String, Object> datos;
+    private LocalDateTime fecha;
+
+    public boolean es(String tipoEvento) {
+        return tipo.equals(tipoEvento);
+    }
+}
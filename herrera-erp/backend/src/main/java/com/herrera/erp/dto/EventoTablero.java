@@ -0,0 +1,42 @@
+package com.herrera.erp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Evento del tablero de pedidos en vivo (SSE /api/pedidos/tablero)
+ * Al conectarse el cliente recibe un SNAPSHOT con los pedidos de su canal;
+ * después solo deltas: ALTA (entra al canal), CAMBIO y BAJA (sale del
+ * canal: entregado, cancelado o ya no coincide con el filtro).
+ * version crece con cada cambio del tablero, en orden.
+ * Ubicación: backend/src/main/java/com/herrera/erp/dto/EventoTablero.java
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventoTablero {
+
+    public enum Tipo {
+        SNAPSHOT,
+        ALTA,
+        CAMBIO,
+        BAJA
+    }
+
+    private Tipo tipo;
+    private long version;
+    private Long pedidoId; // ALTA, CAMBIO y BAJA
+    private PedidoListadoDTO pedido; // ALTA y CAMBIO
+    private List<PedidoListadoDTO> pedidos; // SNAPSHOT
+
+    public static EventoTablero snapshot(long version, List<PedidoListadoDTO> pedidos) {
+        return new EventoTablero(Tipo.SNAPSHOT, version, null, null, pedidos);
+    }
+
+    public static EventoTablero delta(Tipo tipo, long version, Long pedidoId, PedidoListadoDTO pedido) {
+        return new EventoTablero(tipo, version, pedidoId, pedido, null);
+    }
+}
@@ -0,0 +1,90 @@
+package com.herrera.erp.dto;
+
+import com.herrera.erp.model.EntradaDiario;
+import com.herrera.erp.model.MovimientoInventario;
+import com.herrera.erp.model.Venta;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lote de sincronización que un sitio envía al central
+ * (POST /api/sincronizacion/lotes, JSON comprimido con gzip)
+ * Las entradas van en orden de secuencia, sin huecos; cada una lleva la
+ * venta o el movimiento según su tipo. Los ids de material, rollo y
+ * usuario son los del catálogo compartido.
+ * Ubicación: backend/src/main/java/com/herrera/erp/dto/LoteSincronizacion.java
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoteSincronizacion {
+
+    private Venta.UbicacionVenta sitio;
+    private List<Entrada> entradas = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entrada {
+        private long secuencia;
+        private EntradaDiario.Tipo tipo;
+        private VentaSitio venta;
+        private MovimientoSitio movimiento;
+    }
+
+    /**
+     * Venta tal como se registró en el sitio (folio del sitio)
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class VentaSitio {
+        private String folio;
+        private Venta.TipoVenta tipoVenta;
+        private String clienteNombre;
+        private String clienteTelefono;
+        private BigDecimal total;
+        private Venta.MetodoPago metodoPago;
+        private Venta.UbicacionVenta ubicacion;
+        private LocalDateTime fechaVenta;
+        private Long usuarioVendedorId;
+    }
+
+    /**
+     * Movimiento de inventario del sitio; cantidad sin signo, como se pidió
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MovimientoSitio {
+        private Long materialId;
+        private Long rolloId;
+        private MovimientoInventario.TipoMovimiento tipo;
+        private BigDecimal cantidad;
+        private String motivo;
+        private Long pedidoId;
+        private Long usuarioId;
+        private LocalDateTime fecha;
+    }
+
+    /**
+     * Respuesta del central: hasta dónde tiene aplicado el diario del sitio
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Respuesta {
+        private long ultimaSecuencia;
+        private int aplicadas;
+        private int conflictos;
+    }
+}
@@ -0,0 +1,41 @@
+package com.herrera.erp.dto;
+
+import com.herrera.erp.model.Material;
+import com.herrera.erp.model.TipoMaterial;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO para materiales
+ * Se construye directo en la consulta (SELECT new ...) con el tipo de
+ * material aplanado.
+ * Ubicación: backend/src/main/java/com/herrera/erp/dto/MaterialDTO.java
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaterialDTO {
+
+    private Long id;
+    private Long tipoMaterialId;
+    private String tipoMaterialNombre;
+    private TipoMaterial.UnidadMedida unidadMedida;
+    private String nombre;
+    private String color;
+    private String talla;
+    private BigDecimal stockActual;
+    private BigDecimal stockMinimo;
+    private BigDecimal stockCritico;
+    private Material.Prioridad prioridad;
+    private BigDecimal precioUnitario;
+
+    // CRITICO, BAJO, NORMAL (mismo criterio que Material)
+    public String getNivelAlerta() {
+        return Material.nivelAlerta(stockActual, stockMinimo, stockCritico);
+    }
+}
@@ -1,5 +1,6 @@
 package com.herrera.erp.dto;
 
+import com.herrera.erp.model.MovimientoInventario;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,6 +11,8 @@ import java.time.LocalDateTime;
 
 /**
  * DTO para movimientos de inventario
+ * Se construye directo en la consulta (SELECT new ...) de
+ * MovimientoInventarioRepository; el orden de los campos es el del constructor.
  */
 @Data
 @Builder
@@ -22,7 +25,7 @@ public class MovimientoDTO {
     private String materialNombre;
     private Long rolloId;
     private String codigoRollo;
-    private String tipoMovimiento; // ENTRADA, SALIDA_CORTE, SALIDA_VENTA, AJUSTE, MERMA
+    private MovimientoInventario.TipoMovimiento tipoMovimiento; // ENTRADA, SALIDA_CORTE, SALIDA_VENTA, AJUSTE, MERMA
     private BigDecimal cantidad;
     private BigDecimal stockAnterior;
     private BigDecimal stockNuevo;
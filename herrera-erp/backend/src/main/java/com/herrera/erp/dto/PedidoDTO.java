@@ -1,5 +1,6 @@
 package com.herrera.erp.dto;
 
+import com.herrera.erp.model.Pedido;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -13,6 +14,8 @@ import java.util.List;
 
 /**
  * DTO para pedidos (folios)
+ * El encabezado se construye directo en la consulta (SELECT new ...) y los
+ * items e imágenes se agregan con sus propias consultas.
  */
 @Data
 @Builder
@@ -60,8 +63,45 @@ public class PedidoDTO {
     // Items del pedido
     private List<PedidoItemDTO> items;
 
-    // Imágenes del pedido
+    // Imágenes del pedido (principal recomprimida y miniaturas para el tablero)
     private List<String> imagenesUrls;
+    private List<String> miniaturasUrls;
+
+    /**
+     * Encabezado del pedido, usado por PedidoRepository.findDetalleById/ByFolio
+     */
+    public PedidoDTO(Long id, String folio, String nombrePedido, String clienteNombre,
+            String clienteTelefono, String clienteEmail, LocalDate fechaPedido, LocalDate fechaEntrega,
+            Pedido.Prioridad prioridad, Pedido.Tipo tipo, Long productoId, String productoNombre,
+            String colorPrincipal, String colorHexPrincipal, Integer totalPiezas,
+            BigDecimal totalTelaEstimada, String observaciones, Pedido.Estado estado,
+            Long usuarioCreadorId, String usuarioCreadorNombre, Pedido.UbicacionOrigen ubicacionOrigen) {
+        this.id = id;
+        this.folio = folio;
+        this.nombrePedido = nombrePedido;
+        this.clienteNombre = clienteNombre;
+        this.clienteTelefono = clienteTelefono;
+        this.clienteEmail = clienteEmail;
+        this.fechaPedido = fechaPedido;
+        this.fechaEntrega = fechaEntrega;
+        this.prioridad = nombre(prioridad);
+        this.tipo = nombre(tipo);
+        this.productoId = productoId;
+        this.productoNombre = productoNombre;
+        this.colorPrincipal = colorPrincipal;
+        this.colorHexPrincipal = colorHexPrincipal;
+        this.totalPiezas = totalPiezas;
+        this.totalTelaEstimada = totalTelaEstimada;
+        this.observaciones = observaciones;
+        this.estado = nombre(estado);
+        this.usuarioCreadorId = usuarioCreadorId;
+        this.usuarioCreadorNombre = usuarioCreadorNombre;
+        this.ubicacionOrigen = nombre(ubicacionOrigen);
+    }
+
+    private static String nombre(Enum<?> valor) {
+        return valor != null ? valor.name() : null;
+    }
 
     @Data
     @Builder
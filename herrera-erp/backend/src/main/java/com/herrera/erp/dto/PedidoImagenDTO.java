@@ -0,0 +1,36 @@
+package com.herrera.erp.dto;
+
+import com.herrera.erp.model.PedidoImagen;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO para imágenes de pedido
+ * Ubicación: backend/src/main/java/com/herrera/erp/dto/PedidoImagenDTO.java
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedidoImagenDTO {
+
+    private Long id;
+    private Long pedidoId;
+    private String nombreArchivo;
+    private String urlCloudinary;
+    private String publicIdCloudinary;
+    private String urlMiniatura;
+    private String urlMediana;
+    private Integer ancho;
+    private Integer alto;
+    private PedidoImagen.TipoImagen tipo;
+    private String descripcion;
+    private Boolean esPrincipal;
+    private LocalDateTime uploadedAt;
+    private PedidoImagen.EstadoSubida estado;
+    private String ultimoError;
+}
@@ -0,0 +1,42 @@
+package com.herrera.erp.dto;
+
+import com.herrera.erp.model.Pedido;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO para listados de pedidos
+ * Se construye directo en la consulta (SELECT new ...), sin items, imágenes
+ * ni usuario: el orden de los campos es el del constructor que usa
+ * PedidoRepository.
+ * Ubicación: backend/src/main/java/com/herrera/erp/dto/PedidoListadoDTO.java
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedidoListadoDTO {
+
+    private Long id;
+    private String folio;
+    private String nombrePedido;
+    private String clienteNombre;
+    private String clienteTelefono;
+    private LocalDate fechaPedido;
+    private LocalDate fechaEntrega;
+    private Pedido.Prioridad prioridad;
+    private Pedido.Tipo tipo;
+    private Long productoId;
+    private String productoNombre;
+    private String colorPrincipal;
+    private String colorHexPrincipal;
+    private Integer totalPiezas;
+    private BigDecimal totalTelaEstimada;
+    private Pedido.Estado estado;
+    private Pedido.UbicacionOrigen ubicacionOrigen;
+}
@@ -0,0 +1,35 @@
+package com.herrera.erp.dto;
+
+import com.herrera.erp.model.Rollo;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO para rollos de tela
+ * Se construye directo en la consulta (SELECT new ...) con el material
+ * aplanado.
+ * Ubicación: backend/src/main/java/com/herrera/erp/dto/RolloDTO.java
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RolloDTO {
+
+    private Long id;
+    private Long materialId;
+    private String materialNombre;
+    private String color;
+    private String codigoRollo;
+    private BigDecimal metrosIniciales;
+    private BigDecimal metrosActuales;
+    private Rollo.Destino destino;
+    private LocalDate fechaEntrada;
+    private String proveedor;
+    private BigDecimal precioCompra;
+}
@@ -0,0 +1,27 @@
+package com.herrera.erp.dto;
+
+import com.herrera.erp.model.PedidoImagen;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO interno de la subida asíncrona: dónde está el archivo y a dónde va
+ * Ubicación: backend/src/main/java/com/herrera/erp/dto/SubidaImagenDTO.java
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubidaImagenDTO {
+
+    private Long id;
+    private String nombreArchivo;
+    private String carpeta;
+    private String rutaTemporal;
+    private String publicIdCloudinary;
+    private String publicIdMiniatura;
+    private String publicIdMediana;
+    private PedidoImagen.EstadoSubida estado;
+}
@@ -0,0 +1,42 @@
+package com.herrera.erp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Principal de las peticiones autenticadas con JWT
+ * Se arma solo con los claims ya verificados del token, sin cargar la
+ * entidad Usuario. permisos es el mapa de bits de MatrizPermisos.
+ * Para datos que no van en el token, cargar el usuario por id.
+ * Ubicación: backend/src/main/java/com/herrera/erp/dto/UsuarioAutenticado.java
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class UsuarioAutenticado implements Principal {
+
+    private final Long id;
+    private final String username;
+    private final String nombreCompleto;
+    private final Long rolId;
+    private final String rol;
+    private final long permisos;
+
+    /**
+     * Mismas autoridades que Usuario: hasRole('ADMIN') sigue funcionando
+     */
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + rol));
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
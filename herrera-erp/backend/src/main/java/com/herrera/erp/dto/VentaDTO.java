@@ -0,0 +1,35 @@
+package com.herrera.erp.dto;
+
+import com.herrera.erp.model.Venta;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO para ventas
+ * Se construye directo en la consulta (SELECT new ...), sin items y con el
+ * vendedor aplanado.
+ * Ubicación: backend/src/main/java/com/herrera/erp/dto/VentaDTO.java
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaDTO {
+
+    private Long id;
+    private String folioVenta;
+    private Venta.TipoVenta tipoVenta;
+    private String clienteNombre;
+    private String clienteTelefono;
+    private BigDecimal total;
+    private Venta.MetodoPago metodoPago;
+    private Venta.UbicacionVenta ubicacion;
+    private Long usuarioVendedorId;
+    private String usuarioVendedorNombre;
+    private LocalDateTime fechaVenta;
+}
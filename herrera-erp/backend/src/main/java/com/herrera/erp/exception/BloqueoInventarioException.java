@@ -0,0 +1,20 @@
+package com.herrera.erp.exception;
+
+/**
+ * Excepción para cuando no se obtiene a tiempo el bloqueo de un material
+ * (otra operación de inventario sobre el mismo material sigue en curso)
+ */
+public class BloqueoInventarioException extends RuntimeException {
+
+    private final Long materialId;
+
+    public BloqueoInventarioException(Long materialId, long esperaMs) {
+        super(String.format("El material %s está siendo modificado por otra operación. " +
+                "Tiempo de espera agotado (%d ms), intente de nuevo", materialId, esperaMs));
+        this.materialId = materialId;
+    }
+
+    public Long getMaterialId() {
+        return materialId;
+    }
+}
@@ -1,6 +1,9 @@
 package com.herrera.erp.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -19,9 +22,12 @@ import java.util.Map;
  * Centraliza el manejo de errores y estandariza las respuestas
  */
 @RestControllerAdvice
+@RequiredArgsConstructor
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     /**
      * Manejo de recursos no encontrados (404)
      */
@@ -44,6 +50,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(StockInsuficienteException.class)
     public ResponseEntity<ErrorResponse> handleStockInsuficiente(StockInsuficienteException ex) {
         log.error("Stock insuficiente: {}", ex.getMessage());
+        meterRegistry.counter("herrera.inventario.rechazos", "motivo", "stock_insuficiente").increment();
 
         ErrorResponse error = new ErrorResponse(
                 HttpStatus.BAD_REQUEST.value(),
@@ -61,6 +68,43 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Manejo de material bloqueado por otra operación (409)
+     */
+    @ExceptionHandler(BloqueoInventarioException.class)
+    public ResponseEntity<ErrorResponse> handleBloqueoInventario(BloqueoInventarioException ex) {
+        log.warn("Bloqueo de inventario: {}", ex.getMessage());
+        meterRegistry.counter("herrera.inventario.rechazos", "motivo", "material_en_uso").increment();
+
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "Material en uso",
+                ex.getMessage(),
+                LocalDateTime.now());
+        error.addDetail("materialId", ex.getMaterialId());
+
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Manejo de límite de peticiones o de intentos de login (429)
+     */
+    @ExceptionHandler(LimiteExcedidoException.class)
+    public ResponseEntity<ErrorResponse> handleLimiteExcedido(LimiteExcedidoException ex) {
+        log.warn("Límite excedido: {}", ex.getMessage());
+
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Demasiadas solicitudes",
+                ex.getMessage(),
+                LocalDateTime.now());
+        error.addDetail("reintentarSegundos", ex.getReintentarSegundos());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getReintentarSegundos()))
+                .body(error);
+    }
+
     /**
      * Manejo de validaciones (400)
      */
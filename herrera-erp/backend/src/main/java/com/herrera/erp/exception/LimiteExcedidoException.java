@@ -0,0 +1,19 @@
+package com.herrera.erp.exception;
+
+/**
+ * Excepción para cuando un cliente agota su límite de peticiones o de
+ * intentos de login (429 con Retry-After)
+ */
+public class LimiteExcedidoException extends RuntimeException {
+
+    private final long reintentarSegundos;
+
+    public LimiteExcedidoException(String mensaje, long reintentarSegundos) {
+        super(mensaje);
+        this.reintentarSegundos = reintentarSegundos;
+    }
+
+    public long getReintentarSegundos() {
+        return reintentarSegundos;
+    }
+}
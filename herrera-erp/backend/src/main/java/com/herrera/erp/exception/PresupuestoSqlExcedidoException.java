@@ -0,0 +1,23 @@
+package com.herrera.erp.exception;
+
+import lombok.Getter;
+
+/**
+ * Excepción lanzada en modo FALLAR cuando un request excede su presupuesto
+ * de sentencias SQL o repite una misma consulta (N+1)
+ */
+@Getter
+public class PresupuestoSqlExcedidoException extends RuntimeException {
+
+    private final String endpoint;
+    private final int sentencias;
+    private final int presupuesto;
+
+    public PresupuestoSqlExcedidoException(String endpoint, int sentencias, int presupuesto, String detalle) {
+        super(String.format("%s ejecutó %d sentencias SQL (presupuesto %d)%s",
+                endpoint, sentencias, presupuesto, detalle));
+        this.endpoint = endpoint;
+        this.sentencias = sentencias;
+        this.presupuesto = presupuesto;
+    }
+}
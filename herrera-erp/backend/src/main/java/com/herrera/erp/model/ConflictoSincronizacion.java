@@ -0,0 +1,72 @@
+package com.herrera.erp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ConflictoSincronizacion - Venta o movimiento de un sitio aplicado
+ * en el central que requiere revisión (no se rechaza)
+ * Ubicación: backend/src/main/java/com/herrera/erp/model/ConflictoSincronizacion.java
+ */
+@Entity
+@Table(name = "conflictos_sincronizacion")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConflictoSincronizacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Venta.UbicacionVenta sitio;
+
+    @Column(nullable = false)
+    private Long secuencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 25)
+    private Tipo tipo;
+
+    @Column(name = "material_id")
+    private Long materialId;
+
+    @Column(name = "rollo_id")
+    private Long rolloId;
+
+    @Column(name = "movimiento_id")
+    private Long movimientoId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String detalle;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean revisado = false;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // ============================================
+    // ENUMS
+    // ============================================
+
+    public enum Tipo {
+        STOCK_NEGATIVO, // La salida dejó el material o el rollo en negativo
+        REFERENCIA_DESCONOCIDA, // Material o rollo que el central no tiene
+        FOLIO_DUPLICADO // Venta con un folio que el central ya tiene (no se aplica)
+    }
+
+    // ============================================
+    // LIFECYCLE CALLBACKS
+    // ============================================
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
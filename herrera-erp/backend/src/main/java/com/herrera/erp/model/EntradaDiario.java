@@ -0,0 +1,58 @@
+package com.herrera.erp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad EntradaDiario - Venta o movimiento del sitio pendiente de
+ * sincronizar con el servidor central
+ * Ubicación: backend/src/main/java/com/herrera/erp/model/EntradaDiario.java
+ */
+@Entity
+@Table(name = "diario_sincronizacion")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EntradaDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Asignada al numerar, antes de enviar (contigua por sitio)
+    @Column(unique = true)
+    private Long secuencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Tipo tipo;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(name = "confirmado_at")
+    private LocalDateTime confirmadoAt;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // ============================================
+    // ENUMS
+    // ============================================
+
+    public enum Tipo {
+        VENTA,
+        MOVIMIENTO
+    }
+
+    // ============================================
+    // LIFECYCLE CALLBACKS
+    // ============================================
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,72 @@
+package com.herrera.erp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad EventoOutbox - Evento de dominio pendiente de despachar
+ * Ubicación: backend/src/main/java/com/herrera/erp/model/EventoOutbox.java
+ */
+@Entity
+@Table(name = "outbox_eventos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Agregado agregado;
+
+    @Column(name = "agregado_id", nullable = false)
+    private Long agregadoId;
+
+    @Column(nullable = false, length = 50)
+    private String tipo;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer intentos = 0;
+
+    @Column(name = "ultimo_error", columnDefinition = "TEXT")
+    private String ultimoError;
+
+    @Column(name = "procesado_at")
+    private LocalDateTime procesadoAt;
+
+    // Agotó los intentos: procesado, pero sin despachar
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean fallido = false;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // ============================================
+    // ENUMS
+    // ============================================
+
+    public enum Agregado {
+        PEDIDO,
+        VENTA,
+        INVENTARIO
+    }
+
+    // ============================================
+    // LIFECYCLE CALLBACKS
+    // ============================================
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -76,9 +76,23 @@ public class Material {
     // ============================================
 
     public String getNivelAlerta() {
-        if (stockActual.compareTo(stockCritico) <= 0) {
+        return calcularNivelAlerta(stockActual);
+    }
+
+    /**
+     * Nivel de alerta que tendría el material con el stock indicado
+     */
+    public String calcularNivelAlerta(BigDecimal stock) {
+        return nivelAlerta(stock, stockMinimo, stockCritico);
+    }
+
+    /**
+     * Criterio de nivel de alerta, compartido con MaterialDTO
+     */
+    public static String nivelAlerta(BigDecimal stock, BigDecimal stockMinimo, BigDecimal stockCritico) {
+        if (stock.compareTo(stockCritico) <= 0) {
             return "CRITICO";
-        } else if (stockActual.compareTo(stockMinimo) <= 0) {
+        } else if (stock.compareTo(stockMinimo) <= 0) {
             return "BAJO";
         }
         return "NORMAL";
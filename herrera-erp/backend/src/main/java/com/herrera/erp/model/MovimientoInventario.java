@@ -55,6 +55,11 @@ public class MovimientoInventario {
     @Builder.Default
     private LocalDateTime fecha = LocalDateTime.now();
 
+    // false = evento pendiente de proyectar en los saldos (modo eventos)
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean aplicado = true;
+
     // ============================================
     // ENUMS
     // ============================================
@@ -6,6 +6,8 @@ import java.time.LocalDateTime;
 
 /**
  * Entidad PedidoImagen - Imágenes asociadas al pedido (Cloudinary)
+ * Mientras está PENDIENTE el archivo vive en ruta_temporal y no hay URL.
+ * ELIMINADA ya no se muestra; la limpieza la borra del almacén y de la BD.
  * Ubicación: backend/src/main/java/com/herrera/erp/model/PedidoImagen.java
  */
 @Entity
@@ -27,7 +29,7 @@ public class PedidoImagen {
     @Column(name = "nombre_archivo", nullable = false, length = 200)
     private String nombreArchivo;
 
-    @Column(name = "url_cloudinary", nullable = false, columnDefinition = "TEXT")
+    @Column(name = "url_cloudinary", columnDefinition = "TEXT")
     private String urlCloudinary;
 
     @Column(name = "public_id_cloudinary", length = 200)
@@ -47,6 +49,54 @@ public class PedidoImagen {
     @Column(name = "uploaded_at")
     private LocalDateTime uploadedAt;
 
+    // Subida asíncrona
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private EstadoSubida estado = EstadoSubida.SUBIDA;
+
+    @Column(length = 200)
+    private String carpeta;
+
+    @Column(name = "ruta_temporal", columnDefinition = "TEXT")
+    private String rutaTemporal;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer intentos = 0;
+
+    @Column(name = "ultimo_error", columnDefinition = "TEXT")
+    private String ultimoError;
+
+    @Column(name = "proximo_intento_at")
+    private LocalDateTime proximoIntentoAt;
+
+    @Column(name = "eliminada_at")
+    private LocalDateTime eliminadaAt;
+
+    // Variantes generadas al procesar (null si el formato no se pudo procesar)
+    @Column(name = "url_miniatura", columnDefinition = "TEXT")
+    private String urlMiniatura;
+
+    @Column(name = "public_id_miniatura", length = 200)
+    private String publicIdMiniatura;
+
+    @Column(name = "url_mediana", columnDefinition = "TEXT")
+    private String urlMediana;
+
+    @Column(name = "public_id_mediana", length = 200)
+    private String publicIdMediana;
+
+    private Integer ancho;
+
+    private Integer alto;
+
+    @Column(name = "bytes_original")
+    private Long bytesOriginal;
+
+    @Column(name = "bytes_principal")
+    private Long bytesPrincipal;
+
     // ============================================
     // ENUMS
     // ============================================
@@ -58,6 +108,27 @@ public class PedidoImagen {
         OTRO
     }
 
+    public enum EstadoSubida {
+        PENDIENTE,
+        SUBIDA,
+        FALLIDA,
+        ELIMINADA // Borrado lógico: LimpiezaImagenesService borra archivos y fila
+    }
+
+    /**
+     * Tipo desde el parámetro del request (null si no viene)
+     */
+    public static TipoImagen parsearTipo(String tipo) {
+        if (tipo == null || tipo.isBlank()) {
+            return null;
+        }
+        try {
+            return TipoImagen.valueOf(tipo.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo de imagen inválido: " + tipo);
+        }
+    }
+
     @PrePersist
     protected void onCreate() {
         if (uploadedAt == null) {
@@ -67,6 +138,6 @@ public class PedidoImagen {
 
     @Override
     public String toString() {
-        return "PedidoImagen{nombre='" + nombreArchivo + "', tipo=" + tipo + "}";
+        return "PedidoImagen{nombre='" + nombreArchivo + "', tipo=" + tipo + ", estado=" + estado + "}";
     }
 }
\ No newline at end of file
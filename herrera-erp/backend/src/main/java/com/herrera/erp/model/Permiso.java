@@ -2,11 +2,16 @@ package com.herrera.erp.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entidad Permiso - Define qué puede hacer cada rol en cada módulo
+ * En caché de segundo nivel (CacheReferenciaConfig).
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referencia.roles")
 @Table(name = "permisos", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "rol_id", "modulo" })
 })
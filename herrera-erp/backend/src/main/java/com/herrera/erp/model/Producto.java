@@ -2,6 +2,8 @@ package com.herrera.erp.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -9,9 +11,12 @@ import java.util.Set;
 
 /**
  * Entidad Producto - Plantillas configurables con consumo de tela
+ * En caché de segundo nivel (CacheReferenciaConfig).
  * Ubicación: backend/src/main/java/com/herrera/erp/model/Producto.java
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referencia.productos")
 @Table(name = "productos")
 @Data
 @NoArgsConstructor
@@ -62,6 +67,7 @@ public class Producto {
     private LocalDateTime updatedAt;
 
     // Relación con ajustes por talla
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referencia.productos")
     @OneToMany(mappedBy = "producto", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     @Builder.Default
     private Set<ProductoAjusteTalla> ajustesTalla = new HashSet<>();
@@ -2,14 +2,19 @@ package com.herrera.erp.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 /**
  * Entidad ProductoAjusteTalla - Ajustes de consumo por talla
+ * En caché de segundo nivel (CacheReferenciaConfig).
  * Ubicación:
  * backend/src/main/java/com/herrera/erp/model/ProductoAjusteTalla.java
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referencia.productos")
 @Table(name = "producto_ajustes_talla", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "producto_id", "talla" })
 })
@@ -0,0 +1,95 @@
+package com.herrera.erp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ReservaMaterial - Metros comprometidos por un pedido
+ * Ubicación: backend/src/main/java/com/herrera/erp/model/ReservaMaterial.java
+ */
+@Entity
+@Table(name = "reservas_material")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservaMaterial {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "pedido_id", nullable = false)
+    private Long pedidoId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "material_id", nullable = false)
+    private Material material;
+
+    @Column(name = "metros_reservados", precision = 10, scale = 2, nullable = false)
+    private BigDecimal metrosReservados;
+
+    @Column(name = "metros_consumidos", precision = 10, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal metrosConsumidos = BigDecimal.ZERO;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 15)
+    @Builder.Default
+    private Estado estado = Estado.ACTIVA;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // ============================================
+    // ENUMS
+    // ============================================
+
+    public enum Estado {
+        ACTIVA, // Compromete stock
+        CONSUMIDA, // El corte ya descontó todo lo reservado
+        LIBERADA // Pedido cancelado o entregado con sobrante
+    }
+
+    // ============================================
+    // MÉTODOS DE UTILIDAD
+    // ============================================
+
+    /**
+     * Metros que siguen comprometidos (reservados - consumidos)
+     */
+    public BigDecimal getMetrosPendientes() {
+        BigDecimal pendientes = metrosReservados.subtract(metrosConsumidos);
+        return pendientes.signum() > 0 ? pendientes : BigDecimal.ZERO;
+    }
+
+    public boolean estaActiva() {
+        return estado == Estado.ACTIVA;
+    }
+
+    // ============================================
+    // LIFECYCLE CALLBACKS
+    // ============================================
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public String toString() {
+        return "ReservaMaterial{pedidoId=" + pedidoId + ", reservados=" + metrosReservados +
+                ", consumidos=" + metrosConsumidos + ", estado=" + estado + "}";
+    }
+}
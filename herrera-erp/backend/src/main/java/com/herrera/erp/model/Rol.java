@@ -2,14 +2,19 @@ package com.herrera.erp.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Entidad Rol - Define los roles del sistema (ADMIN, TALLER, LOCAL)
+ * En caché de segundo nivel (CacheReferenciaConfig).
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referencia.roles")
 @Table(name = "roles")
 @Data
 @NoArgsConstructor
@@ -35,6 +40,7 @@ public class Rol {
     @Builder.Default
     private Set<Usuario> usuarios = new HashSet<>();
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referencia.roles")
     @OneToMany(mappedBy = "rol", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
     @Builder.Default
     private Set<Permiso> permisos = new HashSet<>();
@@ -0,0 +1,30 @@
+package com.herrera.erp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad SitioSincronizacion - Hasta dónde aplicó el central el diario
+ * de cada sitio
+ * Ubicación: backend/src/main/java/com/herrera/erp/model/SitioSincronizacion.java
+ */
+@Entity
+@Table(name = "sincronizacion_sitios")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SitioSincronizacion {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private Venta.UbicacionVenta sitio;
+
+    @Column(name = "ultima_secuencia", nullable = false)
+    private Long ultimaSecuencia;
+
+    @Column(name = "actualizado_at")
+    private LocalDateTime actualizadoAt;
+}
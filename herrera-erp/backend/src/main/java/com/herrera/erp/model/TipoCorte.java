@@ -2,13 +2,18 @@ package com.herrera.erp.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 /**
  * Entidad TipoCorte - Define categorías de productos (Futbol, Basquet, etc.)
+ * En caché de segundo nivel (CacheReferenciaConfig).
  * Ubicación: backend/src/main/java/com/herrera/erp/model/TipoCorte.java
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referencia.catalogos")
 @Table(name = "tipos_corte")
 @Data
 @NoArgsConstructor
@@ -2,11 +2,16 @@ package com.herrera.erp.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entidad TipoMaterial - TELA, VINIL, HILO, CLON, ACCESORIO
+ * En caché de segundo nivel (CacheReferenciaConfig).
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referencia.catalogos")
 @Table(name = "tipos_material")
 @Data
 @NoArgsConstructor
@@ -47,6 +47,11 @@ public class Usuario implements UserDetails {
     @Builder.Default
     private Boolean activo = true;
 
+    // Sube al cambiar rol, contraseña o estado; invalida los JWT anteriores
+    @Column(name = "token_version", nullable = false)
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
     @Column(name = "ultimo_login")
     private LocalDateTime ultimoLogin;
 
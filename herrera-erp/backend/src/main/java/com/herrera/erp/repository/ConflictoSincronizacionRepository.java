@@ -0,0 +1,20 @@
+package com.herrera.erp.repository;
+
+import com.herrera.erp.model.ConflictoSincronizacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio de conflictos de sincronización (servidor central)
+ * Ubicación:
+ * backend/src/main/java/com/herrera/erp/repository/ConflictoSincronizacionRepository.java
+ */
+@Repository
+public interface ConflictoSincronizacionRepository extends JpaRepository<ConflictoSincronizacion, Long> {
+
+    List<ConflictoSincronizacion> findByRevisadoFalseOrderByCreatedAtAsc();
+
+    long countByRevisadoFalse();
+}
@@ -0,0 +1,50 @@
+package com.herrera.erp.repository;
+
+import com.herrera.erp.model.EntradaDiario;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio del diario de sincronización del sitio
+ * Ubicación:
+ * backend/src/main/java/com/herrera/erp/repository/EntradaDiarioRepository.java
+ */
+@Repository
+public interface EntradaDiarioRepository extends JpaRepository<EntradaDiario, Long> {
+
+    // Numera en orden de id las filas ya confirmadas, a partir de la última secuencia
+    @Modifying
+    @Query(value = "UPDATE diario_sincronizacion d SET secuencia = n.base + n.fila " +
+            "FROM (SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS fila, " +
+            "(SELECT COALESCE(MAX(secuencia), 0) FROM diario_sincronizacion) AS base " +
+            "FROM diario_sincronizacion WHERE secuencia IS NULL) n " +
+            "WHERE d.id = n.id", nativeQuery = true)
+    int numerar();
+
+    @Query("SELECT e FROM EntradaDiario e WHERE e.secuencia > :desde ORDER BY e.secuencia")
+    List<EntradaDiario> findParaEnviar(@Param("desde") long desde, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.secuencia), 0) FROM EntradaDiario e WHERE e.confirmadoAt IS NOT NULL")
+    long ultimaConfirmada();
+
+    @Modifying
+    @Query("UPDATE EntradaDiario e SET e.confirmadoAt = :fecha " +
+            "WHERE e.secuencia <= :hasta AND e.confirmadoAt IS NULL")
+    int confirmarHasta(@Param("hasta") long hasta, @Param("fecha") LocalDateTime fecha);
+
+    // La de mayor secuencia no se borra: numerar() continúa desde ella, y sin
+    // ella la numeración volvería a 1 tras un periodo sin ventas
+    @Modifying
+    @Query("DELETE FROM EntradaDiario e WHERE e.confirmadoAt < :limite " +
+            "AND e.secuencia < (SELECT MAX(m.secuencia) FROM EntradaDiario m)")
+    int borrarConfirmadasAntesDe(@Param("limite") LocalDateTime limite);
+
+    long countByConfirmadoAtIsNull();
+}
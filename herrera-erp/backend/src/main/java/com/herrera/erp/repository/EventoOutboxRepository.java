@@ -0,0 +1,34 @@
+package com.herrera.erp.repository;
+
+import com.herrera.erp.model.EventoOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio del Outbox de eventos
+ * Ubicación:
+ * backend/src/main/java/com/herrera/erp/repository/EventoOutboxRepository.java
+ */
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    // Lote de pendientes en orden; SKIP LOCKED evita que dos relays tomen el mismo
+    @Query(value = "SELECT * FROM outbox_eventos WHERE procesado_at IS NULL " +
+            "ORDER BY id LIMIT :lote FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EventoOutbox> findPendientesParaDespacho(@Param("lote") int lote);
+
+    long countByProcesadoAtIsNull();
+
+    long countByFallidoTrue();
+
+    // Despachados ya viejos; los fallidos se conservan para revisarlos
+    @Modifying
+    @Query("DELETE FROM EventoOutbox e WHERE e.procesadoAt < :limite AND e.fallido = false")
+    int borrarProcesadosAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -1,12 +1,17 @@
 package com.herrera.erp.repository;
 
+import com.herrera.erp.dto.MaterialDTO;
 import com.herrera.erp.model.Material;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio de Materiales
@@ -24,12 +29,20 @@ public interface MaterialRepository extends JpaRepository<Material, Long> {
 
     List<Material> findByColorIgnoreCase(String color);
 
+    // Stock del material: proyección + eventos pendientes (en modo síncrono no hay pendientes)
+    String STOCK = "(m.stockActual + COALESCE((SELECT SUM(mv.cantidad) FROM MovimientoInventario mv " +
+            "WHERE mv.material.id = m.id AND mv.aplicado = false), 0))";
+
     // Materiales con stock bajo
-    @Query("SELECT m FROM Material m WHERE m.activo = true AND m.stockActual <= m.stockMinimo")
+    @Query("SELECT m FROM Material m WHERE m.activo = true AND " + STOCK + " <= m.stockMinimo")
     List<Material> findMaterialesStockBajo();
 
+    // Materiales con stock bajo y su stock, en una sola consulta: [material, stock]
+    @Query("SELECT m, " + STOCK + " FROM Material m WHERE m.activo = true AND " + STOCK + " <= m.stockMinimo")
+    List<Object[]> findMaterialesStockBajoConStock();
+
     // Materiales con stock crítico
-    @Query("SELECT m FROM Material m WHERE m.activo = true AND m.stockActual <= m.stockCritico")
+    @Query("SELECT m FROM Material m WHERE m.activo = true AND " + STOCK + " <= m.stockCritico")
     List<Material> findMaterialesStockCritico();
 
     // Buscar por tipo y color
@@ -37,4 +50,32 @@ public interface MaterialRepository extends JpaRepository<Material, Long> {
 
     // Contar materiales activos
     long countByActivoTrue();
-}
\ No newline at end of file
+
+    // ============================================
+    // PROYECCIONES PARA RESPUESTAS (sin cargar entidades)
+    // ============================================
+
+    String SELECT_DTO = "SELECT new com.herrera.erp.dto.MaterialDTO(m.id, t.id, t.nombre, t.unidadMedida, " +
+            "m.nombre, m.color, m.talla, " + STOCK + ", m.stockMinimo, m.stockCritico, m.prioridad, " +
+            "m.precioUnitario) FROM Material m JOIN m.tipoMaterial t ";
+
+    @Query(SELECT_DTO + "WHERE m.activo = true ORDER BY m.id")
+    List<MaterialDTO> listarActivos();
+
+    @Query(SELECT_DTO + "WHERE m.id = :id")
+    Optional<MaterialDTO> findDtoById(@Param("id") Long id);
+
+    // Stock de materiales activos (proyección + eventos pendientes): [id, stock]
+    @Query("SELECT m.id, " + STOCK + " FROM Material m WHERE m.activo = true")
+    List<Object[]> findStockMaterialesActivos();
+
+    // Stock de un material sin cargar la entidad (proyección + eventos pendientes)
+    @Query("SELECT " + STOCK + " FROM Material m WHERE m.id = :id")
+    Optional<BigDecimal> findStockActualById(@Param("id") Long id);
+
+    // Aplica un delta al saldo proyectado (proyector de eventos)
+    @Modifying
+    @Query("UPDATE Material m SET m.stockActual = m.stockActual + :delta, m.updatedAt = :ahora " +
+            "WHERE m.id = :id")
+    int sumarStock(@Param("id") Long id, @Param("delta") BigDecimal delta, @Param("ahora") LocalDateTime ahora);
+}
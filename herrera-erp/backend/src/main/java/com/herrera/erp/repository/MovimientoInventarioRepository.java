@@ -1,12 +1,17 @@
 package com.herrera.erp.repository;
 
+import com.herrera.erp.dto.MovimientoDTO;
 import com.herrera.erp.model.MovimientoInventario;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio de Movimientos de Inventario
@@ -35,4 +40,37 @@ public interface MovimientoInventarioRepository extends JpaRepository<Movimiento
     // Movimientos del día
     @Query("SELECT m FROM MovimientoInventario m WHERE CAST(m.fecha AS date) = CURRENT_DATE ORDER BY m.fecha DESC")
     List<MovimientoInventario> findMovimientosDelDia();
+
+    // ============================================
+    // PROYECCIONES PARA RESPUESTAS (sin cargar entidades)
+    // ============================================
+
+    String SELECT_DTO = "SELECT new com.herrera.erp.dto.MovimientoDTO(m.id, mat.id, mat.nombre, r.id, " +
+            "r.codigoRollo, m.tipoMovimiento, m.cantidad, m.stockAnterior, m.stockNuevo, m.motivo, " +
+            "m.pedidoId, p.folio, u.id, u.nombreCompleto, m.fecha) " +
+            "FROM MovimientoInventario m JOIN m.material mat LEFT JOIN m.rollo r " +
+            "LEFT JOIN m.usuario u LEFT JOIN Pedido p ON p.id = m.pedidoId ";
+
+    @Query(SELECT_DTO + "ORDER BY m.fecha DESC, m.id DESC")
+    List<MovimientoDTO> listarUltimos(Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE mat.id = :materialId ORDER BY m.fecha DESC")
+    List<MovimientoDTO> listarPorMaterial(@Param("materialId") Long materialId);
+
+    @Query(SELECT_DTO + "WHERE CAST(m.fecha AS date) = CURRENT_DATE ORDER BY m.fecha DESC")
+    List<MovimientoDTO> listarDelDia();
+
+    @Query(SELECT_DTO + "WHERE m.id = :id")
+    Optional<MovimientoDTO> findDtoById(@Param("id") Long id);
+
+    // Eventos pendientes de proyectar, en orden: [id, materialId, rolloId, cantidad]
+    @Query("SELECT m.id, m.material.id, r.id, m.cantidad FROM MovimientoInventario m " +
+            "LEFT JOIN m.rollo r WHERE m.aplicado = false ORDER BY m.id")
+    List<Object[]> findEventosPendientes(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE MovimientoInventario m SET m.aplicado = true WHERE m.id IN :ids")
+    int marcarAplicados(@Param("ids") List<Long> ids);
+
+    long countByAplicadoFalse();
 }
\ No newline at end of file
@@ -1,10 +1,19 @@
 package com.herrera.erp.repository;
 
+import com.herrera.erp.dto.PedidoImagenDTO;
+import com.herrera.erp.dto.SubidaImagenDTO;
 import com.herrera.erp.model.PedidoImagen;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para PedidoImagen
@@ -17,6 +26,31 @@ public interface PedidoImagenRepository extends JpaRepository<PedidoImagen, Long
      */
     List<PedidoImagen> findByPedidoId(Long pedidoId);
 
+    /**
+     * Imágenes del pedido como DTO (la principal primero)
+     */
+    @Query("SELECT new com.herrera.erp.dto.PedidoImagenDTO(i.id, i.pedido.id, i.nombreArchivo, " +
+            "i.urlCloudinary, i.publicIdCloudinary, i.urlMiniatura, i.urlMediana, i.ancho, i.alto, " +
+            "i.tipo, i.descripcion, i.esPrincipal, i.uploadedAt, " +
+            "i.estado, i.ultimoError) " +
+            "FROM PedidoImagen i WHERE i.pedido.id = :pedidoId AND i.estado <> 'ELIMINADA' " +
+            "ORDER BY i.esPrincipal DESC, i.id ASC")
+    List<PedidoImagenDTO> listarPorPedido(@Param("pedidoId") Long pedidoId);
+
+    /**
+     * URLs de las imágenes ya subidas del pedido (la principal primero)
+     */
+    @Query("SELECT i.urlCloudinary FROM PedidoImagen i WHERE i.pedido.id = :pedidoId " +
+            "AND i.estado = 'SUBIDA' ORDER BY i.esPrincipal DESC, i.id ASC")
+    List<String> listarUrlsPorPedido(@Param("pedidoId") Long pedidoId);
+
+    /**
+     * Miniaturas de las imágenes ya subidas (la URL principal si no tiene variantes)
+     */
+    @Query("SELECT COALESCE(i.urlMiniatura, i.urlCloudinary) FROM PedidoImagen i WHERE i.pedido.id = :pedidoId " +
+            "AND i.estado = 'SUBIDA' ORDER BY i.esPrincipal DESC, i.id ASC")
+    List<String> listarMiniaturasPorPedido(@Param("pedidoId") Long pedidoId);
+
     /**
      * Buscar imagen principal del pedido
      */
@@ -26,4 +60,101 @@ public interface PedidoImagenRepository extends JpaRepository<PedidoImagen, Long
      * Contar imágenes de un pedido
      */
     long countByPedidoId(Long pedidoId);
+
+    // ============================================
+    // SUBIDA ASÍNCRONA
+    // ============================================
+
+    /**
+     * Si alguna imagen vigente usa el archivo (el almacén local comparte archivos idénticos)
+     */
+    @Query("SELECT COUNT(i) > 0 FROM PedidoImagen i WHERE i.estado <> 'ELIMINADA' AND " +
+            "(i.publicIdCloudinary = :publicId OR i.publicIdMiniatura = :publicId OR i.publicIdMediana = :publicId)")
+    boolean existePublicId(@Param("publicId") String publicId);
+
+    /**
+     * Los publicIds de la lista que alguna imagen vigente todavía usa
+     */
+    @Query("SELECT i.publicIdCloudinary, i.publicIdMiniatura, i.publicIdMediana FROM PedidoImagen i " +
+            "WHERE i.estado <> 'ELIMINADA' AND (i.publicIdCloudinary IN :publicIds " +
+            "OR i.publicIdMiniatura IN :publicIds OR i.publicIdMediana IN :publicIds)")
+    List<Object[]> listarPublicIdsEnUso(@Param("publicIds") Collection<String> publicIds);
+
+    /**
+     * Los publicIds de la lista que tienen fila (incluidas las ELIMINADA, que ya limpia la recolección)
+     */
+    @Query("SELECT i.publicIdCloudinary, i.publicIdMiniatura, i.publicIdMediana FROM PedidoImagen i " +
+            "WHERE i.publicIdCloudinary IN :publicIds " +
+            "OR i.publicIdMiniatura IN :publicIds OR i.publicIdMediana IN :publicIds")
+    List<Object[]> listarPublicIdsRegistrados(@Param("publicIds") Collection<String> publicIds);
+
+    @Query("SELECT new com.herrera.erp.dto.SubidaImagenDTO(i.id, i.nombreArchivo, i.carpeta, " +
+            "i.rutaTemporal, i.publicIdCloudinary, i.publicIdMiniatura, i.publicIdMediana, i.estado) " +
+            "FROM PedidoImagen i WHERE i.id = :id")
+    Optional<SubidaImagenDTO> findSubidaById(@Param("id") Long id);
+
+    /**
+     * Pendientes cuyo siguiente intento ya venció (las nuevas no tienen espera)
+     */
+    @Query("SELECT i.id FROM PedidoImagen i WHERE i.estado = 'PENDIENTE' " +
+            "AND (i.proximoIntentoAt IS NULL OR i.proximoIntentoAt <= :ahora) ORDER BY i.id")
+    List<Long> listarPendientesListas(@Param("ahora") LocalDateTime ahora, Pageable pageable);
+
+    /**
+     * Pasa a SUBIDA solo si sigue PENDIENTE; 0 si la imagen se eliminó mientras se subía
+     */
+    @Modifying
+    @Query("UPDATE PedidoImagen i SET i.estado = 'SUBIDA', i.urlCloudinary = :url, " +
+            "i.publicIdCloudinary = :publicId, i.urlMiniatura = :urlMiniatura, " +
+            "i.publicIdMiniatura = :publicIdMiniatura, i.urlMediana = :urlMediana, " +
+            "i.publicIdMediana = :publicIdMediana, i.ancho = :ancho, i.alto = :alto, " +
+            "i.bytesOriginal = :bytesOriginal, i.bytesPrincipal = :bytesPrincipal, " +
+            "i.rutaTemporal = NULL, i.ultimoError = NULL, i.proximoIntentoAt = NULL, i.uploadedAt = :ahora " +
+            "WHERE i.id = :id AND i.estado = 'PENDIENTE'")
+    int marcarSubida(@Param("id") Long id, @Param("url") String url, @Param("publicId") String publicId,
+            @Param("urlMiniatura") String urlMiniatura, @Param("publicIdMiniatura") String publicIdMiniatura,
+            @Param("urlMediana") String urlMediana, @Param("publicIdMediana") String publicIdMediana,
+            @Param("ancho") Integer ancho, @Param("alto") Integer alto,
+            @Param("bytesOriginal") Long bytesOriginal, @Param("bytesPrincipal") Long bytesPrincipal,
+            @Param("ahora") LocalDateTime ahora);
+
+    // ============================================
+    // BORRADO DIFERIDO
+    // ============================================
+
+    /**
+     * Borrado lógico; 0 si no existe o ya estaba eliminada
+     */
+    @Modifying
+    @Query("UPDATE PedidoImagen i SET i.estado = 'ELIMINADA', i.eliminadaAt = :ahora, i.intentos = 0, " +
+            "i.ultimoError = NULL, i.proximoIntentoAt = NULL WHERE i.id = :id AND i.estado <> 'ELIMINADA'")
+    int marcarEliminada(@Param("id") Long id, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Marca las imágenes de pedidos cancelados antes de la fecha de corte
+     */
+    @Modifying
+    @Query("UPDATE PedidoImagen i SET i.estado = 'ELIMINADA', i.eliminadaAt = :ahora, i.intentos = 0, " +
+            "i.ultimoError = NULL, i.proximoIntentoAt = NULL WHERE i.estado <> 'ELIMINADA' " +
+            "AND i.pedido.id IN (SELECT p.id FROM Pedido p WHERE p.estado = 'CANCELADO' " +
+            "AND COALESCE(p.updatedAt, p.createdAt) < :corte)")
+    int marcarEliminadasDePedidosCancelados(@Param("corte") LocalDateTime corte, @Param("ahora") LocalDateTime ahora);
+
+    @Query("SELECT new com.herrera.erp.dto.SubidaImagenDTO(i.id, i.nombreArchivo, i.carpeta, " +
+            "i.rutaTemporal, i.publicIdCloudinary, i.publicIdMiniatura, i.publicIdMediana, i.estado) " +
+            "FROM PedidoImagen i WHERE i.estado = 'ELIMINADA' " +
+            "AND (i.proximoIntentoAt IS NULL OR i.proximoIntentoAt <= :ahora) ORDER BY i.id")
+    List<SubidaImagenDTO> listarEliminadasListas(@Param("ahora") LocalDateTime ahora, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM PedidoImagen i WHERE i.id IN :ids AND i.estado = 'ELIMINADA'")
+    int borrarEliminadas(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Imágenes subidas a partir de un id, para conciliar contra el almacén
+     */
+    @Query("SELECT new com.herrera.erp.dto.SubidaImagenDTO(i.id, i.nombreArchivo, i.carpeta, " +
+            "i.rutaTemporal, i.publicIdCloudinary, i.publicIdMiniatura, i.publicIdMediana, i.estado) " +
+            "FROM PedidoImagen i WHERE i.estado = 'SUBIDA' AND i.id > :desdeId ORDER BY i.id")
+    List<SubidaImagenDTO> listarSubidasDesde(@Param("desdeId") Long desdeId, Pageable pageable);
 }
@@ -1,5 +1,7 @@
 package com.herrera.erp.repository;
 
+import com.herrera.erp.dto.PedidoDTO;
+import com.herrera.erp.dto.PedidoListadoDTO;
 import com.herrera.erp.model.Pedido;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -68,6 +70,61 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
         // Query para costos - obtener pedidos por rango de fechas
         List<Pedido> findByFechaPedidoBetween(LocalDate inicio, LocalDate fin);
 
+        // ============================================
+        // PROYECCIONES PARA RESPUESTAS (sin cargar entidades)
+        // ============================================
+
+        String SELECT_LISTADO = "SELECT new com.herrera.erp.dto.PedidoListadoDTO(p.id, p.folio, " +
+                        "p.nombrePedido, p.clienteNombre, p.clienteTelefono, p.fechaPedido, p.fechaEntrega, " +
+                        "p.prioridad, p.tipo, pr.id, pr.nombre, p.colorPrincipal, p.colorHexPrincipal, " +
+                        "p.totalPiezas, p.totalTelaEstimada, p.estado, p.ubicacionOrigen) " +
+                        "FROM Pedido p LEFT JOIN p.producto pr ";
+
+        String SELECT_DETALLE = "SELECT new com.herrera.erp.dto.PedidoDTO(p.id, p.folio, p.nombrePedido, " +
+                        "p.clienteNombre, p.clienteTelefono, p.clienteEmail, p.fechaPedido, p.fechaEntrega, " +
+                        "p.prioridad, p.tipo, pr.id, pr.nombre, p.colorPrincipal, p.colorHexPrincipal, " +
+                        "p.totalPiezas, p.totalTelaEstimada, p.observaciones, p.estado, u.id, u.nombreCompleto, " +
+                        "p.ubicacionOrigen) " +
+                        "FROM Pedido p LEFT JOIN p.producto pr LEFT JOIN p.usuarioCreador u ";
+
+        @Query(SELECT_LISTADO + "ORDER BY p.id DESC")
+        List<PedidoListadoDTO> listarTodos();
+
+        @Query(SELECT_LISTADO + "WHERE p.estado NOT IN ('ENTREGADO', 'CANCELADO') ORDER BY p.fechaEntrega ASC")
+        List<PedidoListadoDTO> listarActivos();
+
+        @Query(SELECT_LISTADO + "WHERE p.estado NOT IN ('ENTREGADO', 'CANCELADO') " +
+                        "AND p.fechaEntrega < CURRENT_DATE ORDER BY p.fechaEntrega ASC")
+        List<PedidoListadoDTO> listarRetrasados();
+
+        @Query(SELECT_LISTADO + "WHERE p.estado NOT IN ('ENTREGADO', 'CANCELADO') " +
+                        "AND p.fechaEntrega = CURRENT_DATE")
+        List<PedidoListadoDTO> listarEntregarHoy();
+
+        @Query(SELECT_LISTADO + "WHERE p.estado NOT IN ('ENTREGADO', 'CANCELADO') " +
+                        "AND p.fechaEntrega BETWEEN CURRENT_DATE AND :fechaLimite ORDER BY p.fechaEntrega ASC")
+        List<PedidoListadoDTO> listarProximosAEntregar(@Param("fechaLimite") LocalDate fechaLimite);
+
+        @Query(SELECT_LISTADO + "WHERE p.prioridad = 'PREFERENCIAL' " +
+                        "AND p.estado NOT IN ('ENTREGADO', 'CANCELADO') ORDER BY p.fechaEntrega ASC")
+        List<PedidoListadoDTO> listarPreferencialesPendientes();
+
+        // Un pedido del listado (tablero en vivo: recarga tras cada evento)
+        @Query(SELECT_LISTADO + "WHERE p.id = :id")
+        Optional<PedidoListadoDTO> findListadoById(@Param("id") Long id);
+
+        // Encabezado del detalle; items e imágenes van aparte
+        @Query(SELECT_DETALLE + "WHERE p.id = :id")
+        Optional<PedidoDTO> findDetalleById(@Param("id") Long id);
+
+        @Query(SELECT_DETALLE + "WHERE p.folio = :folio")
+        Optional<PedidoDTO> findDetalleByFolio(@Param("folio") String folio);
+
+        @Query("SELECT new com.herrera.erp.dto.PedidoDTO$PedidoItemDTO(i.id, i.talla, i.nombreJugador, " +
+                        "i.numeroEspalda, i.colorEspecial, i.colorHexEspecial, i.tieneColorEspecial, i.ordenTalla) " +
+                        "FROM PedidoItem i WHERE i.pedido.id = :pedidoId ORDER BY i.ordenTalla ASC, i.id ASC")
+        List<PedidoDTO.PedidoItemDTO> listarItemsDePedido(@Param("pedidoId") Long pedidoId);
+
         // Query para stats usando estado
         @Query("SELECT p FROM Pedido p WHERE p.estado IN :estados ORDER BY p.fechaEntrega ASC")
         List<Pedido> findByEstadoIn(@Param("estados") List<Pedido.Estado> estados);
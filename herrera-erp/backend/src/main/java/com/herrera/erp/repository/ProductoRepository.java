@@ -1,7 +1,11 @@
 package com.herrera.erp.repository;
 
+import com.herrera.erp.config.CacheReferenciaConfig;
 import com.herrera.erp.model.Producto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,6 +18,11 @@ import java.util.List;
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
 
+    // Catálogo de productos activos en la caché de consultas (se invalida al escribir productos)
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheReferenciaConfig.REGION_CONSULTAS)
+    })
     List<Producto> findByActivoTrue();
 
     // NOTA: Comentado porque tipoCorte no se usa en MVP
@@ -0,0 +1,38 @@
+package com.herrera.erp.repository;
+
+import com.herrera.erp.model.ReservaMaterial;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repositorio de Reservas de Material
+ * Ubicación:
+ * backend/src/main/java/com/herrera/erp/repository/ReservaMaterialRepository.java
+ */
+@Repository
+public interface ReservaMaterialRepository extends JpaRepository<ReservaMaterial, Long> {
+
+    List<ReservaMaterial> findByPedidoId(Long pedidoId);
+
+    List<ReservaMaterial> findByPedidoIdAndEstado(Long pedidoId, ReservaMaterial.Estado estado);
+
+    List<ReservaMaterial> findByPedidoIdAndMaterialIdAndEstado(
+            Long pedidoId,
+            Long materialId,
+            ReservaMaterial.Estado estado);
+
+    // Metros comprometidos de un material (reservas activas)
+    @Query("SELECT COALESCE(SUM(r.metrosReservados - r.metrosConsumidos), 0) FROM ReservaMaterial r " +
+            "WHERE r.material.id = :materialId AND r.estado = 'ACTIVA'")
+    BigDecimal sumPendienteByMaterial(@Param("materialId") Long materialId);
+
+    // Metros comprometidos agrupados por material: [materialId, pendiente]
+    @Query("SELECT r.material.id, SUM(r.metrosReservados - r.metrosConsumidos) FROM ReservaMaterial r " +
+            "WHERE r.estado = 'ACTIVA' GROUP BY r.material.id")
+    List<Object[]> sumPendientePorMaterial();
+}
@@ -1,7 +1,11 @@
 package com.herrera.erp.repository;
 
+import com.herrera.erp.config.CacheReferenciaConfig;
 import com.herrera.erp.model.Rol;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,6 +18,10 @@ import java.util.Optional;
 @Repository
 public interface RolRepository extends JpaRepository<Rol, Long> {
 
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheReferenciaConfig.REGION_CONSULTAS)
+    })
     Optional<Rol> findByNombre(String nombre);
 
     boolean existsByNombre(String nombre);
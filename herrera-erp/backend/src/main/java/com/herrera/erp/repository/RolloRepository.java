@@ -1,10 +1,14 @@
 package com.herrera.erp.repository;
 
+import com.herrera.erp.dto.RolloDTO;
 import com.herrera.erp.model.Rollo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,19 +28,60 @@ public interface RolloRepository extends JpaRepository<Rollo, Long> {
 
     List<Rollo> findByDestino(Rollo.Destino destino);
 
+    // Metros del rollo: proyección + eventos pendientes (en modo síncrono no hay pendientes)
+    String METROS = "(r.metrosActuales + COALESCE((SELECT SUM(mv.cantidad) FROM MovimientoInventario mv " +
+            "WHERE mv.rollo.id = r.id AND mv.aplicado = false), 0))";
+
     // Rollos disponibles (con metros > 0)
-    @Query("SELECT r FROM Rollo r WHERE r.activo = true AND r.metrosActuales > 0")
+    @Query("SELECT r FROM Rollo r WHERE r.activo = true AND " + METROS + " > 0")
     List<Rollo> findRollosDisponibles();
 
     // Rollos disponibles para corte
-    @Query("SELECT r FROM Rollo r WHERE r.activo = true AND r.metrosActuales > 0 " +
+    @Query("SELECT r FROM Rollo r WHERE r.activo = true AND " + METROS + " > 0 " +
             "AND (r.destino = 'CORTE' OR r.destino = 'MIXTO')")
     List<Rollo> findRollosDisponiblesParaCorte();
 
     // Rollos disponibles para venta
-    @Query("SELECT r FROM Rollo r WHERE r.activo = true AND r.metrosActuales > 0 " +
+    @Query("SELECT r FROM Rollo r WHERE r.activo = true AND " + METROS + " > 0 " +
             "AND (r.destino = 'VENTA' OR r.destino = 'MIXTO')")
     List<Rollo> findRollosDisponiblesParaVenta();
 
+    // Rollos con metros de un material, de más a menos metros
+    @Query("SELECT r FROM Rollo r WHERE r.material.id = :materialId AND r.activo = true AND " + METROS + " > 0 " +
+            "ORDER BY " + METROS + " DESC")
+    List<Rollo> findDisponiblesByMaterialPorMetros(@Param("materialId") Long materialId);
+
+    // ============================================
+    // PROYECCIONES PARA RESPUESTAS (sin cargar entidades)
+    // ============================================
+
+    String SELECT_DTO = "SELECT new com.herrera.erp.dto.RolloDTO(r.id, m.id, m.nombre, m.color, " +
+            "r.codigoRollo, r.metrosIniciales, " + METROS + ", r.destino, r.fechaEntrada, " +
+            "r.proveedor, r.precioCompra) FROM Rollo r JOIN r.material m ";
+
+    @Query(SELECT_DTO + "WHERE r.activo = true AND " + METROS + " > 0 ORDER BY r.id")
+    List<RolloDTO> listarDisponibles();
+
+    @Query(SELECT_DTO + "WHERE r.activo = true AND " + METROS + " > 0 " +
+            "AND (r.destino = 'CORTE' OR r.destino = 'MIXTO') ORDER BY r.id")
+    List<RolloDTO> listarDisponiblesParaCorte();
+
+    @Query(SELECT_DTO + "WHERE r.activo = true AND " + METROS + " > 0 " +
+            "AND (r.destino = 'VENTA' OR r.destino = 'MIXTO') ORDER BY r.id")
+    List<RolloDTO> listarDisponiblesParaVenta();
+
+    // Material del rollo sin cargar la entidad
+    @Query("SELECT r.material.id FROM Rollo r WHERE r.id = :id")
+    Optional<Long> findMaterialIdById(@Param("id") Long id);
+
+    // Metros del rollo (proyección + eventos pendientes)
+    @Query("SELECT " + METROS + " FROM Rollo r WHERE r.id = :id")
+    Optional<BigDecimal> findMetrosActualesById(@Param("id") Long id);
+
+    // Aplica un delta a los metros proyectados (proyector de eventos)
+    @Modifying
+    @Query("UPDATE Rollo r SET r.metrosActuales = r.metrosActuales + :delta WHERE r.id = :id")
+    int sumarMetros(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
     boolean existsByCodigoRollo(String codigoRollo);
 }
\ No newline at end of file
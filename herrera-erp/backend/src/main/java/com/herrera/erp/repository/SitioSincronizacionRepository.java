@@ -0,0 +1,23 @@
+package com.herrera.erp.repository;
+
+import com.herrera.erp.model.SitioSincronizacion;
+import com.herrera.erp.model.Venta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repositorio del avance de sincronización por sitio (servidor central)
+ * Ubicación:
+ * backend/src/main/java/com/herrera/erp/repository/SitioSincronizacionRepository.java
+ */
+@Repository
+public interface SitioSincronizacionRepository extends JpaRepository<SitioSincronizacion, Venta.UbicacionVenta> {
+
+    // Un lote por sitio a la vez: dos reenvíos simultáneos no aplican lo mismo dos veces
+    @Query(value = "SELECT * FROM sincronizacion_sitios WHERE sitio = :sitio FOR UPDATE", nativeQuery = true)
+    Optional<SitioSincronizacion> bloquear(@Param("sitio") String sitio);
+}
@@ -2,8 +2,13 @@ package com.herrera.erp.repository;
 
 import com.herrera.erp.model.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +19,27 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     List<Usuario> findByActivoTrue();
 
     long countByActivoTrue();
+
+    /**
+     * [id, tokenVersion, activo] de todos los usuarios, para la tabla de revocación
+     */
+    @Query("SELECT u.id, u.tokenVersion, u.activo FROM Usuario u")
+    List<Object[]> listarVersionesToken();
+
+    /**
+     * Escritura diferida del último login (UltimoLoginService); no retrocede la fecha
+     */
+    @Modifying
+    @Query("UPDATE Usuario u SET u.ultimoLogin = :fecha " +
+            "WHERE u.id = :id AND (u.ultimoLogin IS NULL OR u.ultimoLogin < :fecha)")
+    int registrarUltimoLogin(@Param("id") Long id, @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Re-hash de la contraseña al subir el costo de BCrypt, sin guardar la entidad completa
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Usuario u SET u.password = :hash WHERE u.id = :id AND u.password = :hashAnterior")
+    int actualizarHash(@Param("id") Long id, @Param("hashAnterior") String hashAnterior,
+            @Param("hash") String hash);
 }
\ No newline at end of file
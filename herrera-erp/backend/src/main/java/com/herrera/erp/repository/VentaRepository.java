@@ -1,8 +1,10 @@
 package com.herrera.erp.repository;
 
+import com.herrera.erp.dto.VentaDTO;
 import com.herrera.erp.model.Venta;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
@@ -46,4 +48,31 @@ public interface VentaRepository extends JpaRepository<Venta, Long> {
         BigDecimal calcularTotalVentasDelDiaPorUbicacion(Venta.UbicacionVenta ubicacion);
 
         boolean existsByFolioVenta(String folioVenta);
+
+        // Consecutivo del folio (secuencia: no se repite con ventas simultáneas)
+        @Query(value = "SELECT nextval('ventas_folio_seq')", nativeQuery = true)
+        long siguienteNumeroFolio();
+
+        // ============================================
+        // PROYECCIONES PARA RESPUESTAS (sin cargar entidades)
+        // ============================================
+
+        String SELECT_DTO = "SELECT new com.herrera.erp.dto.VentaDTO(v.id, v.folioVenta, v.tipoVenta, " +
+                        "v.clienteNombre, v.clienteTelefono, v.total, v.metodoPago, v.ubicacion, u.id, " +
+                        "u.nombreCompleto, v.fechaVenta) FROM Venta v LEFT JOIN v.usuarioVendedor u ";
+
+        @Query(SELECT_DTO + "ORDER BY v.fechaVenta DESC")
+        List<VentaDTO> listarTodas();
+
+        @Query(SELECT_DTO + "WHERE v.ubicacion = :ubicacion ORDER BY v.fechaVenta DESC")
+        List<VentaDTO> listarPorUbicacion(@Param("ubicacion") Venta.UbicacionVenta ubicacion);
+
+        @Query(SELECT_DTO + "WHERE CAST(v.fechaVenta AS date) = CURRENT_DATE ORDER BY v.fechaVenta DESC")
+        List<VentaDTO> listarDelDia();
+
+        @Query(SELECT_DTO + "WHERE v.fechaVenta BETWEEN :inicio AND :fin ORDER BY v.fechaVenta DESC")
+        List<VentaDTO> listarPorRango(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
+
+        @Query(SELECT_DTO + "WHERE v.id = :id")
+        Optional<VentaDTO> findDtoById(@Param("id") Long id);
 }
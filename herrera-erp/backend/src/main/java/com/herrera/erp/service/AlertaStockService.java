@@ -0,0 +1,202 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.dto.DashboardStatsDTO.MaterialAlertaDTO;
+import com.herrera.erp.model.Material;
+import com.herrera.erp.repository.MaterialRepository;
+import com.herrera.erp.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de alertas de stock
+ * Mantiene en memoria, ordenados (críticos primero, luego por stock), los
+ * materiales en nivel BAJO o CRITICO. Solo se reevalúa un material cuando un
+ * movimiento cambia su stock, así que las consultas de alertas no recorren
+ * la tabla de materiales.
+ * La reconstrucción arma un conjunto nuevo con una sola consulta y lo
+ * reemplaza de golpe: quien lee ve el conjunto anterior o el nuevo, nunca uno
+ * a medias. Los cambios confirmados mientras se consulta la BD se vuelven a
+ * aplicar sobre el conjunto nuevo antes del reemplazo.
+ * Los locks son ReentrantLock y no synchronized para no fijar el hilo virtual
+ * a su carrier mientras la reconstrucción espera JDBC.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/AlertaStockService.java
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlertaStockService {
+
+    public static final String NIVEL_CRITICO = "CRITICO";
+    public static final String NIVEL_BAJO = "BAJO";
+    public static final String NIVEL_NORMAL = "NORMAL";
+
+    private static final Comparator<MaterialAlertaDTO> ORDEN = Comparator
+            .comparing((MaterialAlertaDTO a) -> !NIVEL_CRITICO.equals(a.getNivelAlerta()))
+            .thenComparing(MaterialAlertaDTO::getStockActual)
+            .thenComparing(MaterialAlertaDTO::getId);
+
+    private final MaterialRepository materialRepository;
+
+    private volatile Conjunto actual = new Conjunto();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Una reconstrucción a la vez; mientras corre, los cambios se anotan aquí (bajo lock)
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+    private Map<Long, MaterialAlertaDTO> cambiosDuranteReconstruccion;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        reconstruir();
+        log.info("Alertas de stock inicializadas: {} materiales en alerta", contarAlertas());
+    }
+
+    // ============================================
+    // CONSULTAS O(k)
+    // ============================================
+
+    /**
+     * Materiales en BAJO o CRITICO (críticos primero)
+     */
+    public List<MaterialAlertaDTO> obtenerAlertas() {
+        return new ArrayList<>(actual.enAlerta);
+    }
+
+    public List<MaterialAlertaDTO> obtenerCriticos() {
+        return actual.enAlerta.stream()
+                .takeWhile(a -> NIVEL_CRITICO.equals(a.getNivelAlerta()))
+                .collect(Collectors.toList());
+    }
+
+    public int contarAlertas() {
+        return actual.porMaterial.size();
+    }
+
+    public int contarCriticos() {
+        return (int) actual.enAlerta.stream()
+                .takeWhile(a -> NIVEL_CRITICO.equals(a.getNivelAlerta()))
+                .count();
+    }
+
+    // ============================================
+    // EVALUACIÓN INCREMENTAL
+    // ============================================
+
+    /**
+     * Reevalúa un material tras un cambio de stock; se aplica al confirmar
+     * la transacción para no mostrar alertas de movimientos revertidos
+     */
+    public void registrarCambio(Material material, BigDecimal stockNuevo) {
+        MaterialAlertaDTO alerta = crearAlerta(material, stockNuevo);
+        Long materialId = material.getId();
+
+        Transacciones.despuesDelCommit(() -> aplicar(materialId, alerta));
+    }
+
+    /**
+     * Recalcula el conjunto completo desde la BD (arranque y respaldo periódico)
+     */
+    @Scheduled(fixedDelayString = "${inventario.alertas.reconstruccion-ms:600000}",
+            initialDelayString = "${inventario.alertas.reconstruccion-ms:600000}")
+    public void reconstruir() {
+        reconstruccion.lock();
+        try {
+            lock.lock();
+            try {
+                cambiosDuranteReconstruccion = new LinkedHashMap<>();
+            } finally {
+                lock.unlock();
+            }
+
+            Conjunto nuevo = new Conjunto();
+            try {
+                for (Object[] fila : materialRepository.findMaterialesStockBajoConStock()) {
+                    Material material = (Material) fila[0];
+                    nuevo.aplicar(material.getId(), crearAlerta(material, (BigDecimal) fila[1]));
+                }
+            } catch (RuntimeException e) {
+                lock.lock();
+                try {
+                    cambiosDuranteReconstruccion = null;
+                } finally {
+                    lock.unlock();
+                }
+                throw e;
+            }
+
+            lock.lock();
+            try {
+                cambiosDuranteReconstruccion.forEach(nuevo::aplicar);
+                cambiosDuranteReconstruccion = null;
+                actual = nuevo;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private void aplicar(Long materialId, MaterialAlertaDTO alerta) {
+        lock.lock();
+        try {
+            actual.aplicar(materialId, alerta);
+            if (cambiosDuranteReconstruccion != null) {
+                cambiosDuranteReconstruccion.put(materialId, alerta);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MaterialAlertaDTO crearAlerta(Material material, BigDecimal stock) {
+        return MaterialAlertaDTO.builder()
+                .id(material.getId())
+                .nombre(material.getNombre())
+                .color(material.getColor())
+                .stockActual(stock)
+                .stockMinimo(material.getStockMinimo())
+                .nivelAlerta(material.calcularNivelAlerta(stock))
+                .build();
+    }
+
+    /**
+     * Materiales en alerta; se modifica bajo lock y se lee sin él
+     */
+    private static final class Conjunto {
+        private final NavigableSet<MaterialAlertaDTO> enAlerta = new ConcurrentSkipListSet<>(ORDEN);
+        private final Map<Long, MaterialAlertaDTO> porMaterial = new ConcurrentHashMap<>();
+
+        private void aplicar(Long materialId, MaterialAlertaDTO alerta) {
+            MaterialAlertaDTO anterior = porMaterial.remove(materialId);
+            if (anterior != null) {
+                enAlerta.remove(anterior);
+            }
+
+            if (NIVEL_NORMAL.equals(alerta.getNivelAlerta())) {
+                return;
+            }
+            porMaterial.put(materialId, alerta);
+            enAlerta.add(alerta);
+        }
+    }
+}
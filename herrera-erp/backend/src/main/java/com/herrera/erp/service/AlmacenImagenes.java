@@ -0,0 +1,87 @@
+package com.herrera.erp.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Almacén de imágenes de pedidos
+ * Implementaciones: CloudinaryService (imagenes.almacen=cloudinary, por
+ * defecto) y AlmacenImagenesLocal (imagenes.almacen=local, pruebas y
+ * desarrollo sin red). Los archivos llegan ya en disco, así que subir no
+ * carga la imagen completa en memoria.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/AlmacenImagenes.java
+ */
+public interface AlmacenImagenes {
+
+    /**
+     * Sube el archivo a la carpeta indicada
+     */
+    ImagenAlmacenada subir(Path archivo, String carpeta) throws IOException;
+
+    /**
+     * Elimina la imagen por su identificador público
+     */
+    void eliminar(String publicId) throws IOException;
+
+    /**
+     * Elimina varias imágenes; las implementaciones con API por lotes la
+     * usan (una llamada por lote en vez de una por imagen)
+     */
+    default void eliminarVarios(Collection<String> publicIds) throws IOException {
+        for (String publicId : publicIds) {
+            eliminar(publicId);
+        }
+    }
+
+    /**
+     * Recorre lo almacenado bajo el prefijo, para conciliar contra la BD
+     */
+    void recorrer(String prefijo, Consumer<ObjetoAlmacenado> visitante) throws IOException;
+
+    boolean estaConfigurado();
+
+    /**
+     * Resultado de una subida: URL pública e identificador en el almacén
+     */
+    class ImagenAlmacenada {
+        private final String url;
+        private final String publicId;
+
+        public ImagenAlmacenada(String url, String publicId) {
+            this.url = url;
+            this.publicId = publicId;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getPublicId() {
+            return publicId;
+        }
+    }
+
+    /**
+     * Una imagen del almacén al recorrerlo
+     */
+    class ObjetoAlmacenado {
+        private final String publicId;
+        private final Instant creado;
+
+        public ObjetoAlmacenado(String publicId, Instant creado) {
+            this.publicId = publicId;
+            this.creado = creado;
+        }
+
+        public String getPublicId() {
+            return publicId;
+        }
+
+        public Instant getCreado() {
+            return creado;
+        }
+    }
+}
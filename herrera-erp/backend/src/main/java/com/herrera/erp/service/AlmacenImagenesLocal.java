@@ -0,0 +1,162 @@
+package com.herrera.erp.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Almacén de imágenes local, direccionado por contenido
+ * Cada archivo se guarda como <sha256>.<ext> en directorios de dos niveles
+ * (ab/cd/abcd....jpg) para no juntar miles de archivos en uno solo. Subir
+ * dos veces la misma imagen no ocupa espacio extra: el publicId es el hash
+ * y, si ya existe, no se copia. Como varias imágenes pueden compartir
+ * archivo, quien elimina debe comprobar antes que nadie más lo use.
+ * El backend sirve los archivos en /api/imagenes/archivo/{publicId}, así los
+ * equipos del taller los cargan por la red local sin pasar por internet.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/AlmacenImagenesLocal.java
+ */
+@Service
+@ConditionalOnProperty(name = "imagenes.almacen", havingValue = "local")
+@Slf4j
+public class AlmacenImagenesLocal implements AlmacenImagenes {
+
+    public static final String RUTA_ARCHIVOS = "/api/imagenes/archivo/";
+
+    private static final Pattern PUBLIC_ID = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,5})?");
+    private static final Pattern EXTENSION = Pattern.compile("\\.[a-z0-9]{1,5}");
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final Path raiz;
+    private final String urlBase;
+
+    public AlmacenImagenesLocal(
+            @Value("${imagenes.local.directorio}") String directorio,
+            @Value("${imagenes.local.url-base:}") String urlBase) throws IOException {
+        this.raiz = Files.createDirectories(Paths.get(directorio)).toAbsolutePath().normalize();
+        this.urlBase = urlBase.endsWith("/") ? urlBase.substring(0, urlBase.length() - 1) : urlBase;
+        log.info("Almacén local de imágenes en {}", raiz);
+    }
+
+    /**
+     * La carpeta no se usa: la ruta depende solo del contenido
+     */
+    @Override
+    public ImagenAlmacenada subir(Path archivo, String carpeta) throws IOException {
+        String hash = sha256(archivo);
+        String publicId = hash + extension(archivo);
+        Path destino = ruta(publicId);
+
+        if (Files.exists(destino)) {
+            log.debug("Imagen {} ya almacenada, no se copia", publicId);
+        } else {
+            Files.createDirectories(destino.getParent());
+            // Copia a un temporal y renombra: nunca se sirve un archivo a medio escribir
+            Path temporal = Files.createTempFile(destino.getParent(), hash, ".tmp");
+            try {
+                Files.copy(archivo, temporal, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                log.debug("Imagen {} almacenada en paralelo", publicId);
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        }
+
+        return new ImagenAlmacenada(urlBase + RUTA_ARCHIVOS + publicId, publicId);
+    }
+
+    @Override
+    public void eliminar(String publicId) throws IOException {
+        if (PUBLIC_ID.matcher(publicId).matches()) {
+            Files.deleteIfExists(ruta(publicId));
+        }
+    }
+
+    /**
+     * El prefijo no aplica: todo lo que hay bajo la raíz es de este almacén
+     */
+    @Override
+    public void recorrer(String prefijo, Consumer<ObjetoAlmacenado> visitante) throws IOException {
+        try (Stream<Path> archivos = Files.walk(raiz)) {
+            for (Path archivo : (Iterable<Path>) archivos::iterator) {
+                String nombre = archivo.getFileName().toString();
+                if (PUBLIC_ID.matcher(nombre).matches() && Files.isRegularFile(archivo)) {
+                    visitante.accept(new ObjetoAlmacenado(nombre, Files.getLastModifiedTime(archivo).toInstant()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean estaConfigurado() {
+        return true;
+    }
+
+    /**
+     * Archivo a servir; vacío si el publicId no es válido o no existe
+     */
+    public Optional<Path> archivo(String publicId) {
+        if (publicId == null || !PUBLIC_ID.matcher(publicId).matches()) {
+            return Optional.empty();
+        }
+        Path archivo = ruta(publicId);
+        return Files.isRegularFile(archivo) ? Optional.of(archivo) : Optional.empty();
+    }
+
+    /**
+     * El hash del contenido, que sirve de ETag fuerte
+     */
+    public static String hash(String publicId) {
+        int punto = publicId.indexOf('.');
+        return punto >= 0 ? publicId.substring(0, punto) : publicId;
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private Path ruta(String publicId) {
+        return raiz.resolve(publicId.substring(0, 2)).resolve(publicId.substring(2, 4)).resolve(publicId);
+    }
+
+    private static String sha256(Path archivo) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+
+        byte[] buffer = new byte[TAMANO_BUFFER];
+        try (InputStream entrada = Files.newInputStream(archivo)) {
+            int leidos;
+            while ((leidos = entrada.read(buffer)) > 0) {
+                digest.update(buffer, 0, leidos);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String extension(Path archivo) {
+        String nombre = archivo.getFileName().toString().toLowerCase();
+        int punto = nombre.lastIndexOf('.');
+        String ext = punto >= 0 ? nombre.substring(punto) : "";
+        return EXTENSION.matcher(ext).matches() ? ext : "";
+    }
+}
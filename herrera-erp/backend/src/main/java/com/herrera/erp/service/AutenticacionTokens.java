@@ -0,0 +1,205 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.dto.UsuarioAutenticado;
+import com.herrera.erp.model.Usuario;
+import com.herrera.erp.repository.UsuarioRepository;
+import com.herrera.erp.util.JwtUtil;
+import com.herrera.erp.util.Transacciones;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autenticación por JWT sin acceso a la base de datos
+ * El principal se arma con los claims verificados del token. La revocación
+ * se resuelve en memoria:
+ * - Versión de token por usuario (usuarios.token_version): se refresca de
+ *   la base cada jwt.revocacion.refresco-ms y se actualiza al momento cuando
+ *   esta instancia cambia rol, contraseña o estado del usuario.
+ * - Lista de tokens cerrados con logout (jti hasta su expiración). Es local
+ *   a la instancia; con varias, el logout solo aplica donde se hizo.
+ * - Permisos: si el rol cambió desde que se emitió el token, los bits del
+ *   token ya no coinciden con MatrizPermisos y hay que volver a entrar.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/AutenticacionTokens.java
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AutenticacionTokens {
+
+    // Resultados de validar(), también usados como tag de herrera.jwt.filtro
+    public static final String VALIDO = "valido";
+    public static final String INVALIDO = "invalido";
+    public static final String REVOCADO = "revocado";
+    public static final String VERSION = "version";
+    public static final String INACTIVO = "inactivo";
+    public static final String PERMISOS = "permisos";
+
+    private final JwtUtil jwtUtil;
+    private final MatrizPermisos matrizPermisos;
+    private final UsuarioRepository usuarioRepository;
+
+    private final Map<Long, EstadoUsuario> usuarios = new ConcurrentHashMap<>();
+    // jti -> expiración (epoch ms)
+    private final Map<String, Long> revocados = new ConcurrentHashMap<>();
+
+    // ============================================
+    // VALIDACIÓN
+    // ============================================
+
+    /**
+     * Verifica firma, expiración y revocación; no consulta la base de datos
+     */
+    public Resultado validar(String jwt) {
+        Claims claims;
+        try {
+            claims = jwtUtil.extractAllClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return new Resultado(null, INVALIDO);
+        }
+
+        Long id = claims.get(JwtUtil.CLAIM_USUARIO, Long.class);
+        Long rolId = claims.get(JwtUtil.CLAIM_ROL_ID, Long.class);
+        Long permisos = claims.get(JwtUtil.CLAIM_PERMISOS, Long.class);
+        Integer version = claims.get(JwtUtil.CLAIM_VERSION, Integer.class);
+        if (id == null || rolId == null || permisos == null || version == null) {
+            // Token emitido antes de este formato: hay que volver a entrar
+            return new Resultado(null, INVALIDO);
+        }
+
+        if (claims.getId() != null && revocados.containsKey(claims.getId())) {
+            return new Resultado(null, REVOCADO);
+        }
+
+        EstadoUsuario estado = usuarios.get(id);
+        if (estado == null || version < estado.version) {
+            return new Resultado(null, VERSION);
+        }
+        if (!estado.activo) {
+            return new Resultado(null, INACTIVO);
+        }
+        if (!permisos.equals(matrizPermisos.bitsCompilados(rolId))) {
+            return new Resultado(null, PERMISOS);
+        }
+
+        UsuarioAutenticado usuario = new UsuarioAutenticado(
+                id,
+                claims.getSubject(),
+                claims.get(JwtUtil.CLAIM_NOMBRE, String.class),
+                rolId,
+                claims.get(JwtUtil.CLAIM_ROL, String.class),
+                permisos);
+        return new Resultado(usuario, VALIDO);
+    }
+
+    // ============================================
+    // REVOCACIÓN
+    // ============================================
+
+    /**
+     * Logout: el token deja de valer en esta instancia hasta que expire
+     */
+    public void revocar(String jwt) {
+        try {
+            Claims claims = jwtUtil.extractAllClaims(jwt);
+            if (claims.getId() != null) {
+                revocados.put(claims.getId(), claims.getExpiration().getTime());
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Logout con token inválido: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sube la versión de token del usuario: todos sus tokens anteriores
+     * dejan de valer. Debe llamarse antes de guardar el usuario.
+     */
+    public void invalidarTokens(Usuario usuario) {
+        usuario.setTokenVersion(usuario.getTokenVersion() + 1);
+        registrar(usuario);
+    }
+
+    /**
+     * Publica la versión y el estado del usuario después del commit
+     * (en el login, para usuarios creados después del último refresco)
+     */
+    public void registrar(Usuario usuario) {
+        Long id = usuario.getId();
+        EstadoUsuario estado = new EstadoUsuario(usuario.getTokenVersion(), Boolean.TRUE.equals(usuario.getActivo()));
+        Transacciones.despuesDelCommit(() -> usuarios.merge(id, estado, EstadoUsuario::masReciente));
+    }
+
+    // ============================================
+    // REFRESCO
+    // ============================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.revocacion.refresco-ms:30000}",
+            initialDelayString = "${jwt.revocacion.refresco-ms:30000}")
+    public void refrescar() {
+        for (Object[] fila : usuarioRepository.listarVersionesToken()) {
+            EstadoUsuario estado = new EstadoUsuario(((Number) fila[1]).intValue(), Boolean.TRUE.equals(fila[2]));
+            usuarios.merge((Long) fila[0], estado, EstadoUsuario::masReciente);
+        }
+
+        long ahora = System.currentTimeMillis();
+        revocados.values().removeIf(expira -> expira < ahora);
+        log.debug("Versiones de token refrescadas: {} usuarios, {} tokens revocados",
+                usuarios.size(), revocados.size());
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private static final class EstadoUsuario {
+        private final int version;
+        private final boolean activo;
+
+        private EstadoUsuario(int version, boolean activo) {
+            this.version = version;
+            this.activo = activo;
+        }
+
+        /**
+         * Todo cambio sube la versión: la mayor es la más nueva, venga del
+         * refresco (otra instancia) o de un cambio local aún no leído
+         */
+        private static EstadoUsuario masReciente(EstadoUsuario actual, EstadoUsuario nuevo) {
+            return nuevo.version >= actual.version ? nuevo : actual;
+        }
+    }
+
+    /**
+     * Resultado de validar un token: el principal si es válido y el motivo
+     */
+    public static class Resultado {
+        private final UsuarioAutenticado usuario;
+        private final String motivo;
+
+        public Resultado(UsuarioAutenticado usuario, String motivo) {
+            this.usuario = usuario;
+            this.motivo = motivo;
+        }
+
+        public boolean esValido() {
+            return usuario != null;
+        }
+
+        public UsuarioAutenticado getUsuario() {
+            return usuario;
+        }
+
+        public String getMotivo() {
+            return motivo;
+        }
+    }
+}
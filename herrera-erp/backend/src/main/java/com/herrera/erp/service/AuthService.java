@@ -1,13 +1,13 @@
 package com.herrera.erp.service;
 
+import com.herrera.erp.config.LimitadorTasa;
+import com.herrera.erp.dto.LoginResponse;
 import com.herrera.erp.model.Usuario;
 import com.herrera.erp.repository.UsuarioRepository;
 import com.herrera.erp.util.JwtUtil;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Lazy;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -15,7 +15,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Servicio de Autenticación
@@ -28,63 +29,118 @@ public class AuthService implements UserDetailsService {
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
-    private final AuthenticationManager authenticationManager;
+    private final MatrizPermisos matrizPermisos;
+    private final AutenticacionTokens autenticacionTokens;
+    private final UltimoLoginService ultimoLoginService;
+    private final LimitadorTasa limitadorTasa;
+
+    // Hash de una contraseña aleatoria: el login de un usuario inexistente
+    // cuesta lo mismo que uno real y no revela qué usernames existen
+    private final String hashSinUsuario;
 
-    // Constructor manual para que @Lazy funcione correctamente
     public AuthService(
             UsuarioRepository usuarioRepository,
             PasswordEncoder passwordEncoder,
             JwtUtil jwtUtil,
-            @Lazy AuthenticationManager authenticationManager) {
+            MatrizPermisos matrizPermisos,
+            AutenticacionTokens autenticacionTokens,
+            UltimoLoginService ultimoLoginService,
+            LimitadorTasa limitadorTasa) {
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
-        this.authenticationManager = authenticationManager;
+        this.matrizPermisos = matrizPermisos;
+        this.autenticacionTokens = autenticacionTokens;
+        this.ultimoLoginService = ultimoLoginService;
+        this.limitadorTasa = limitadorTasa;
+        this.hashSinUsuario = passwordEncoder.encode(UUID.randomUUID().toString());
     }
 
     /**
      * Login de usuario - Genera JWT
+     * Carga al usuario una sola vez (con su rol y permisos) y verifica la
+     * contraseña fuera de transacción: BCrypt tarda decenas de ms y no debe
+     * retener una conexión del pool. El último login se escribe por lotes.
+     * Un username con demasiados intentos fallidos se rechaza antes de todo.
      */
-    @Transactional
-    public String login(String username, String password) {
+    public LoginResponse login(String username, String password) {
         log.info("Intento de login para usuario: {}", username);
+        limitadorTasa.verificarIntentosLogin(username);
 
-        // Autenticar con Spring Security
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(username, password));
+        Usuario usuario = usuarioRepository.findByUsername(username).orElse(null);
+        if (usuario == null) {
+            passwordEncoder.matches(password, hashSinUsuario);
+            limitadorTasa.registrarFalloLogin(username);
+            throw new BadCredentialsException("Credenciales inválidas");
+        }
+        if (!passwordEncoder.matches(password, usuario.getPassword())) {
+            limitadorTasa.registrarFalloLogin(username);
+            throw new BadCredentialsException("Credenciales inválidas");
+        }
+        if (!usuario.isEnabled()) {
+            throw new DisabledException("Usuario inactivo");
+        }
 
-        // Obtener usuario
-        Usuario usuario = usuarioRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
+        // Hash con un costo de BCrypt menor al configurado: se rehace ahora
+        // que se tiene la contraseña en claro
+        if (passwordEncoder.upgradeEncoding(usuario.getPassword())) {
+            String hash = passwordEncoder.encode(password);
+            if (usuarioRepository.actualizarHash(usuario.getId(), usuario.getPassword(), hash) > 0) {
+                log.info("Hash de contraseña actualizado al costo configurado: {}", username);
+            }
+        }
 
-        // Actualizar último login
-        usuario.setUltimoLogin(LocalDateTime.now());
-        usuarioRepository.save(usuario);
+        ultimoLoginService.registrar(usuario.getId());
+
+        // Generar JWT con los permisos compilados del rol y la versión de token
+        String token = jwtUtil.generateToken(usuario, matrizPermisos.bits(usuario.getRol()));
+        autenticacionTokens.registrar(usuario);
 
-        // Generar JWT
-        String token = jwtUtil.generateToken(usuario);
+        // Nombres de módulos con permiso
+        List<String> permisos = usuario.getRol().getPermisos().stream()
+                .map(p -> p.getModulo())
+                .toList();
 
         log.info("Login exitoso para usuario: {}", username);
-        return token;
+        return LoginResponse.builder()
+                .token(token)
+                .type("Bearer")
+                .message("Login exitoso")
+                .usuarioId(usuario.getId())
+                .username(usuario.getUsername())
+                .nombreCompleto(usuario.getNombreCompleto())
+                .rol(usuario.getRol().getNombre())
+                .permisos(permisos)
+                .build();
     }
 
     /**
-     * Validar token JWT
+     * Validar token JWT (mismas reglas que el filtro, sin base de datos)
      */
     public boolean validateToken(String token) {
-        try {
-            String username = jwtUtil.extractUsername(token);
-            UserDetails userDetails = loadUserByUsername(username);
-            return jwtUtil.validateToken(token, userDetails);
-        } catch (Exception e) {
-            log.error("Error validando token: {}", e.getMessage());
+        if (token == null) {
             return false;
         }
+        AutenticacionTokens.Resultado resultado = autenticacionTokens.validar(token);
+        if (!resultado.esValido()) {
+            log.debug("Token rechazado: {}", resultado.getMotivo());
+        }
+        return resultado.esValido();
+    }
+
+    /**
+     * Logout - el token deja de aceptarse aunque no haya expirado
+     */
+    public void logout(String token) {
+        if (token != null) {
+            autenticacionTokens.revocar(token);
+        }
     }
 
     /**
      * Obtener usuario desde token
      */
+    @Transactional(readOnly = true)
     public Usuario getUserFromToken(String token) {
         String username = jwtUtil.extractUsername(token);
         return usuarioRepository.findByUsername(username)
@@ -95,6 +151,7 @@ public class AuthService implements UserDetailsService {
      * Implementación de UserDetailsService (Spring Security)
      */
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return usuarioRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException(
@@ -114,8 +171,9 @@ public class AuthService implements UserDetailsService {
             throw new RuntimeException("Contraseña actual incorrecta");
         }
 
-        // Actualizar password
+        // Actualizar password; las sesiones abiertas con la anterior se cierran
         usuario.setPassword(passwordEncoder.encode(passwordNueva));
+        autenticacionTokens.invalidarTokens(usuario);
         usuarioRepository.save(usuario);
 
         log.info("Contraseña actualizada para usuario: {}", usuario.getUsername());
@@ -125,22 +183,6 @@ public class AuthService implements UserDetailsService {
      * Verificar si usuario tiene permiso
      */
     public boolean tienePermiso(Usuario usuario, String modulo, String accion) {
-        if (usuario.getRol() == null) {
-            return false;
-        }
-
-        return usuario.getRol().getPermisos().stream()
-                .filter(p -> p.getModulo().equalsIgnoreCase(modulo))
-                .findFirst()
-                .map(permiso -> {
-                    return switch (accion.toLowerCase()) {
-                        case "crear" -> permiso.getPuedeCrear();
-                        case "leer" -> permiso.getPuedeLeer();
-                        case "editar" -> permiso.getPuedeEditar();
-                        case "eliminar" -> permiso.getPuedeEliminar();
-                        default -> false;
-                    };
-                })
-                .orElse(false);
+        return matrizPermisos.puede(usuario, modulo, accion);
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.config.CacheReferenciaConfig;
+import com.herrera.erp.model.Producto;
+import com.herrera.erp.util.Transacciones;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Invalidación explícita de la caché de datos de referencia
+ * Hibernate ya actualiza las entradas de lo que se escribe por JPA; esto
+ * cubre lo que no ve: los ajustes por talla se guardan desde su propio
+ * repositorio (lado inverso de Producto.ajustesTalla), así que la colección
+ * en caché del producto se descarta a mano. Se hace después del commit para
+ * que otra transacción no vuelva a cachear la versión anterior.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/CacheReferenciaService.java
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheReferenciaService {
+
+    private static final String COLECCION_AJUSTES = Producto.class.getName() + ".ajustesTalla";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Descarta el producto, sus ajustes por talla y las listas de productos
+     */
+    public void invalidarProducto(Long productoId) {
+        Transacciones.despuesDelCommit(() -> {
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            cache.evictEntityData(Producto.class, productoId);
+            cache.evictCollectionData(COLECCION_AJUSTES, productoId);
+            cache.evictQueryRegion(CacheReferenciaConfig.REGION_CONSULTAS);
+            log.debug("Caché de referencia invalidada para producto {}", productoId);
+        });
+    }
+}
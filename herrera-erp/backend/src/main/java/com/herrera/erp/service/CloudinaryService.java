@@ -2,21 +2,32 @@ package com.herrera.erp.service;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Servicio de Cloudinary
  * Gestión de subida y eliminación de imágenes
  */
 @Service
+@ConditionalOnProperty(name = "imagenes.almacen", havingValue = "cloudinary", matchIfMissing = true)
+@Timed("herrera.servicio")
 @Slf4j
-public class CloudinaryService {
+public class CloudinaryService implements AlmacenImagenes {
+
+    private static final int MAX_IDS_POR_LLAMADA = 100;
 
     private final Cloudinary cloudinary;
 
@@ -39,31 +50,33 @@ public class CloudinaryService {
 
     /**
      * Subir imagen a Cloudinary
+     * El SDK envía el archivo por partes desde disco (no lo lee completo a memoria)
      * 
-     * @param file    Archivo de imagen
+     * @param archivo Archivo de imagen en disco
      * @param carpeta Carpeta en Cloudinary (ej: "pedidos/2026-0001")
      * @return URL pública de la imagen y public_id
      */
-    public CloudinaryUploadResult subirImagen(MultipartFile file, String carpeta) throws IOException {
+    @Override
+    public ImagenAlmacenada subir(Path archivo, String carpeta) throws IOException {
         if (cloudinary == null) {
             throw new IllegalStateException("Cloudinary no está configurado");
         }
 
-        log.info("Subiendo imagen a Cloudinary: {} bytes, carpeta: {}", file.getSize(), carpeta);
+        log.info("Subiendo imagen a Cloudinary: {}, carpeta: {}", archivo.getFileName(), carpeta);
 
         Map<String, Object> uploadParams = ObjectUtils.asMap(
                 "folder", carpeta,
                 "resource_type", "auto");
 
         @SuppressWarnings("unchecked")
-        Map<String, Object> uploadResult = cloudinary.uploader().upload(file.getBytes(), uploadParams);
+        Map<String, Object> uploadResult = cloudinary.uploader().upload(archivo.toFile(), uploadParams);
 
         String url = (String) uploadResult.get("secure_url");
         String publicId = (String) uploadResult.get("public_id");
 
         log.info("Imagen subida exitosamente: {}", publicId);
 
-        return new CloudinaryUploadResult(url, publicId);
+        return new ImagenAlmacenada(url, publicId);
     }
 
     /**
@@ -71,7 +84,8 @@ public class CloudinaryService {
      * 
      * @param publicId ID público de la imagen
      */
-    public void eliminarImagen(String publicId) throws IOException {
+    @Override
+    public void eliminar(String publicId) throws IOException {
         if (cloudinary == null) {
             throw new IllegalStateException("Cloudinary no está configurado");
         }
@@ -83,6 +97,68 @@ public class CloudinaryService {
         log.info("Imagen eliminada exitosamente: {}", publicId);
     }
 
+    /**
+     * Eliminar varias imágenes con la Admin API (hasta 100 por llamada)
+     * Las que ya no existen vienen como "not_found" y no son error.
+     */
+    @Override
+    public void eliminarVarios(Collection<String> publicIds) throws IOException {
+        if (cloudinary == null) {
+            throw new IllegalStateException("Cloudinary no está configurado");
+        }
+
+        List<String> ids = new ArrayList<>(publicIds);
+        for (int i = 0; i < ids.size(); i += MAX_IDS_POR_LLAMADA) {
+            List<String> lote = ids.subList(i, Math.min(i + MAX_IDS_POR_LLAMADA, ids.size()));
+            try {
+                cloudinary.api().deleteResources(lote, ObjectUtils.asMap("invalidate", true));
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Cloudinary rechazó el borrado por lote: " + e.getMessage(), e);
+            }
+            log.info("Eliminadas {} imágenes de Cloudinary", lote.size());
+        }
+    }
+
+    /**
+     * Recorrer las imágenes bajo un prefijo, página por página
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void recorrer(String prefijo, Consumer<ObjetoAlmacenado> visitante) throws IOException {
+        if (cloudinary == null) {
+            throw new IllegalStateException("Cloudinary no está configurado");
+        }
+
+        String cursor = null;
+        do {
+            Map<String, Object> params = ObjectUtils.asMap(
+                    "type", "upload",
+                    "prefix", prefijo,
+                    "max_results", 500);
+            if (cursor != null) {
+                params.put("next_cursor", cursor);
+            }
+
+            Map<String, Object> pagina;
+            try {
+                pagina = cloudinary.api().resources(params);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("No se pudo listar Cloudinary: " + e.getMessage(), e);
+            }
+
+            for (Map<String, Object> recurso : (List<Map<String, Object>>) pagina.get("resources")) {
+                Object creado = recurso.get("created_at");
+                visitante.accept(new ObjetoAlmacenado((String) recurso.get("public_id"),
+                        creado != null ? Instant.parse(creado.toString()) : Instant.EPOCH));
+            }
+            cursor = (String) pagina.get("next_cursor");
+        } while (cursor != null);
+    }
+
     /**
      * Eliminar múltiples imágenes por prefijo (carpeta)
      * 
@@ -108,28 +184,8 @@ public class CloudinaryService {
     /**
      * Verificar si Cloudinary está configurado
      */
+    @Override
     public boolean estaConfigurado() {
         return cloudinary != null;
     }
-
-    /**
-     * Resultado de subida a Cloudinary
-     */
-    public static class CloudinaryUploadResult {
-        private final String url;
-        private final String publicId;
-
-        public CloudinaryUploadResult(String url, String publicId) {
-            this.url = url;
-            this.publicId = publicId;
-        }
-
-        public String getUrl() {
-            return url;
-        }
-
-        public String getPublicId() {
-            return publicId;
-        }
-    }
 }
@@ -0,0 +1,296 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.exception.BloqueoInventarioException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coordinador de escrituras de inventario
+ * Serializa en memoria las escrituras sobre un mismo material antes de llegar
+ * a la BD, usando bloqueos por franjas (un ReentrantLock por franja).
+ * Las franjas se toman siempre en orden ascendente para que dos operaciones
+ * que tocan varios materiales no se bloqueen mutuamente; los rollos quedan
+ * cubiertos por la franja de su material.
+ * El bloqueo se mantiene hasta que termina la transacción actual, y el orden
+ * se respeta en toda la transacción, no solo dentro de una llamada: las
+ * franjas ya tomadas no se vuelven a pedir, y una franja menor que la mayor
+ * ya tomada solo se toma si está libre (sin esperar), porque esperarla podría
+ * cruzarse con otra transacción que la tiene y espera una de las nuestras.
+ * Las operaciones que tocan varios materiales deben bloquearlos todos al
+ * inicio para no caer en ese caso.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/CoordinadorInventario.java
+ */
+@Service
+@Slf4j
+public class CoordinadorInventario {
+
+    private final Franja[] franjas;
+    private final long timeoutMs;
+
+    private final Timer tiempoEspera;
+    private final Counter timeouts;
+    private final Counter fueraDeOrden;
+
+    public CoordinadorInventario(
+            @Value("${inventario.bloqueos.franjas:64}") int numeroFranjas,
+            @Value("${inventario.bloqueos.timeout-ms:10000}") long timeoutMs,
+            MeterRegistry meterRegistry) {
+        this.franjas = new Franja[numeroFranjas];
+        for (int i = 0; i < numeroFranjas; i++) {
+            franjas[i] = new Franja();
+        }
+        this.timeoutMs = timeoutMs;
+
+        // Contención: adquisiciones, cuántas tuvieron que esperar, cuánto y cuántas se rindieron
+        FunctionCounter.builder("herrera.inventario.bloqueos.adquisiciones", this, c -> c.sumar(f -> f.adquisiciones.sum()))
+                .description("Bloqueos de material solicitados")
+                .register(meterRegistry);
+        FunctionCounter.builder("herrera.inventario.bloqueos.esperas", this, c -> c.sumar(f -> f.esperas.sum()))
+                .description("Bloqueos que encontraron el material ocupado")
+                .register(meterRegistry);
+        Gauge.builder("herrera.inventario.bloqueos.cola", this, c -> c.sumar(f -> f.lock.getQueueLength()))
+                .description("Hilos esperando un bloqueo de material")
+                .register(meterRegistry);
+        this.tiempoEspera = Timer.builder("herrera.inventario.bloqueos.espera")
+                .description("Espera por un material ocupado")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("herrera.inventario.bloqueos.timeouts")
+                .description("Bloqueos rechazados por tiempo de espera agotado")
+                .register(meterRegistry);
+        this.fueraDeOrden = Counter.builder("herrera.inventario.bloqueos.fuera_orden")
+                .description("Bloqueos pedidos fuera de orden en la transacción y rechazados por estar ocupados")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // BLOQUEOS
+    // ============================================
+
+    /**
+     * Bloquea un material hasta que termine la transacción actual
+     */
+    public void bloquear(Long materialId) {
+        bloquear(List.of(materialId));
+    }
+
+    /**
+     * Bloquea varios materiales (en orden de franja) hasta que termine la
+     * transacción actual. Las operaciones que tocan varios materiales deben
+     * bloquearlos todos aquí antes de leerlos.
+     */
+    public void bloquear(Collection<Long> materialIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("El bloqueo de inventario requiere una transacción activa");
+        }
+
+        Tenencia tenencia = tenenciaActual();
+
+        // Orden determinista: franja ascendente, y dentro de la franja el material de menor id
+        Map<Integer, Long> porFranja = new LinkedHashMap<>();
+        new TreeSet<>(materialIds.stream().filter(Objects::nonNull).toList())
+                .forEach(id -> porFranja.putIfAbsent(indiceFranja(id), id));
+        List<Integer> indices = new ArrayList<>(new TreeSet<>(porFranja.keySet()));
+
+        List<Integer> nuevos = new ArrayList<>(indices.size());
+        List<ReentrantLock> adquiridos = new ArrayList<>(indices.size());
+        try {
+            for (Integer indice : indices) {
+                if (tenencia.indices.contains(indice)) {
+                    continue;
+                }
+                Long materialId = porFranja.get(indice);
+                boolean enOrden = tenencia.indices.isEmpty() || indice > tenencia.indices.last();
+                adquiridos.add(enOrden
+                        ? adquirir(franjas[indice], materialId)
+                        : adquirirFueraDeOrden(franjas[indice], materialId));
+                tenencia.indices.add(indice);
+                nuevos.add(indice);
+            }
+        } catch (RuntimeException e) {
+            // Lo de esta llamada se suelta ya; lo anterior sigue hasta el fin de la transacción
+            liberar(adquiridos);
+            tenencia.indices.removeAll(nuevos);
+            throw e;
+        }
+        tenencia.adquiridos.addAll(adquiridos);
+    }
+
+    // ============================================
+    // MÉTRICAS DE CONTENCIÓN
+    // ============================================
+
+    /**
+     * Métricas por franja (solo las que han tenido actividad) y totales
+     */
+    public Map<String, Object> obtenerMetricas() {
+        long adquisiciones = 0;
+        long esperas = 0;
+        long esperaNanos = 0;
+        int colaActual = 0;
+        List<Map<String, Object>> detalle = new ArrayList<>();
+
+        for (int i = 0; i < franjas.length; i++) {
+            Franja franja = franjas[i];
+            long adq = franja.adquisiciones.sum();
+            if (adq == 0) {
+                continue;
+            }
+            long esp = franja.esperas.sum();
+            long nanos = franja.esperaNanos.sum();
+            int cola = franja.lock.getQueueLength();
+
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("franja", i);
+            datos.put("adquisiciones", adq);
+            datos.put("esperas", esp);
+            datos.put("esperaPromedioMs", esp > 0 ? nanosAMs(nanos / esp) : 0.0);
+            datos.put("esperaMaximaMs", nanosAMs(franja.esperaMaximaNanos.get()));
+            datos.put("colaActual", cola);
+            datos.put("colaMaxima", franja.colaMaxima.get());
+            detalle.add(datos);
+
+            adquisiciones += adq;
+            esperas += esp;
+            esperaNanos += nanos;
+            colaActual += cola;
+        }
+
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("franjas", franjas.length);
+        metricas.put("adquisiciones", adquisiciones);
+        metricas.put("esperas", esperas);
+        metricas.put("esperaTotalMs", nanosAMs(esperaNanos));
+        metricas.put("colaActual", colaActual);
+        metricas.put("detalle", detalle);
+        return metricas;
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    // Franjas tomadas por la transacción actual; se sueltan todas al terminar
+    private Tenencia tenenciaActual() {
+        Tenencia tenencia = (Tenencia) TransactionSynchronizationManager.getResource(this);
+        if (tenencia != null) {
+            return tenencia;
+        }
+
+        Tenencia nueva = new Tenencia();
+        TransactionSynchronizationManager.bindResource(this, nueva);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CoordinadorInventario.this);
+                liberar(nueva.adquiridos);
+            }
+        });
+        return nueva;
+    }
+
+    private int indiceFranja(Long materialId) {
+        return Math.floorMod(Long.hashCode(materialId), franjas.length);
+    }
+
+    private ReentrantLock adquirir(Franja franja, Long materialId) {
+        ReentrantLock lock = franja.lock;
+        franja.adquisiciones.increment();
+
+        // Camino rápido: libre o ya tomado por este mismo hilo
+        if (lock.tryLock()) {
+            return lock;
+        }
+
+        franja.esperas.increment();
+        franja.colaMaxima.accumulate(lock.getQueueLength() + 1);
+        long inicio = System.nanoTime();
+        boolean obtenido;
+        try {
+            obtenido = lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BloqueoInventarioException(materialId, timeoutMs);
+        } finally {
+            long espera = System.nanoTime() - inicio;
+            franja.esperaNanos.add(espera);
+            franja.esperaMaximaNanos.accumulate(espera);
+            tiempoEspera.record(espera, TimeUnit.NANOSECONDS);
+        }
+
+        if (!obtenido) {
+            timeouts.increment();
+            log.warn("Tiempo de espera agotado al bloquear material {} ({} en cola)",
+                    materialId, lock.getQueueLength());
+            throw new BloqueoInventarioException(materialId, timeoutMs);
+        }
+        return lock;
+    }
+
+    // Fuera de orden no se espera: si la franja está ocupada se rechaza de inmediato
+    private ReentrantLock adquirirFueraDeOrden(Franja franja, Long materialId) {
+        ReentrantLock lock = franja.lock;
+        franja.adquisiciones.increment();
+        if (lock.tryLock()) {
+            return lock;
+        }
+
+        fueraDeOrden.increment();
+        log.warn("Material {} ocupado y pedido fuera de orden en la transacción; se rechaza sin esperar",
+                materialId);
+        throw new BloqueoInventarioException(materialId, 0);
+    }
+
+    private void liberar(List<ReentrantLock> adquiridos) {
+        for (int i = adquiridos.size() - 1; i >= 0; i--) {
+            adquiridos.get(i).unlock();
+        }
+    }
+
+    private long sumar(ToLongFunction<Franja> valor) {
+        long total = 0;
+        for (Franja franja : franjas) {
+            total += valor.applyAsLong(franja);
+        }
+        return total;
+    }
+
+    private static double nanosAMs(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Tenencia {
+        private final TreeSet<Integer> indices = new TreeSet<>();
+        private final List<ReentrantLock> adquiridos = new ArrayList<>();
+    }
+
+    private static final class Franja {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LongAdder adquisiciones = new LongAdder();
+        private final LongAdder esperas = new LongAdder();
+        private final LongAdder esperaNanos = new LongAdder();
+        private final LongAccumulator esperaMaximaNanos = new LongAccumulator(Math::max, 0);
+        private final LongAccumulator colaMaxima = new LongAccumulator(Math::max, 0);
+    }
+}
@@ -8,6 +8,7 @@ import com.herrera.erp.model.CostoPedido;
 import com.herrera.erp.model.Pedido;
 import com.herrera.erp.repository.CostoPedidoRepository;
 import com.herrera.erp.repository.PedidoRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -26,6 +27,7 @@ import java.util.stream.Collectors;
  * Incluye lógica de negocio para cálculos y reportes
  */
 @Service
+@Timed("herrera.servicio")
 @RequiredArgsConstructor
 @Slf4j
 public class CostoService {
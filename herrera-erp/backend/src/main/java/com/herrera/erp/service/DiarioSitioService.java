@@ -0,0 +1,91 @@
+package com.herrera.erp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.herrera.erp.config.SincronizacionProperties;
+import com.herrera.erp.dto.LoteSincronizacion;
+import com.herrera.erp.model.EntradaDiario;
+import com.herrera.erp.model.MovimientoInventario;
+import com.herrera.erp.model.Venta;
+import com.herrera.erp.repository.EntradaDiarioRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Diario de sincronización del sitio
+ * Cada venta y movimiento del punto de venta se anota en la misma
+ * transacción que lo registra: la venta se confirma contra la base local
+ * sin esperar al central, y SincronizacionEnvioService lo manda después.
+ * Sin sincronizacion.envio.habilitado no se anota nada.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/DiarioSitioService.java
+ */
+@Service
+@RequiredArgsConstructor
+public class DiarioSitioService {
+
+    private final EntradaDiarioRepository entradaDiarioRepository;
+    private final SincronizacionProperties propiedades;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarVenta(Venta venta, Long usuarioVendedorId) {
+        if (!propiedades.getEnvio().isHabilitado()) {
+            return;
+        }
+        anotar(EntradaDiario.Tipo.VENTA, LoteSincronizacion.VentaSitio.builder()
+                .folio(venta.getFolioVenta())
+                .tipoVenta(venta.getTipoVenta())
+                .clienteNombre(venta.getClienteNombre())
+                .clienteTelefono(venta.getClienteTelefono())
+                .total(venta.getTotal())
+                .metodoPago(venta.getMetodoPago())
+                .ubicacion(venta.getUbicacion())
+                .fechaVenta(venta.getFechaVenta())
+                .usuarioVendedorId(usuarioVendedorId)
+                .build());
+    }
+
+    /**
+     * @param cantidad sin signo, como la recibe InventarioService
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarMovimiento(Long materialId, Long rolloId, MovimientoInventario.TipoMovimiento tipo,
+            BigDecimal cantidad, String motivo, Long pedidoId, Long usuarioId, LocalDateTime fecha) {
+        if (!propiedades.getEnvio().isHabilitado()) {
+            return;
+        }
+        anotar(EntradaDiario.Tipo.MOVIMIENTO, LoteSincronizacion.MovimientoSitio.builder()
+                .materialId(materialId)
+                .rolloId(rolloId)
+                .tipo(tipo)
+                .cantidad(cantidad)
+                .motivo(motivo)
+                .pedidoId(pedidoId)
+                .usuarioId(usuarioId)
+                .fecha(fecha)
+                .build());
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private void anotar(EntradaDiario.Tipo tipo, Object contenido) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(contenido);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Entrada de diario no serializable: " + tipo, e);
+        }
+
+        entradaDiarioRepository.save(EntradaDiario.builder()
+                .tipo(tipo)
+                .payload(payload)
+                .build());
+    }
+}
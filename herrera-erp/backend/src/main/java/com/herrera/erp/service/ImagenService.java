@@ -0,0 +1,239 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.dto.PedidoImagenDTO;
+import com.herrera.erp.dto.SubidaImagenDTO;
+import com.herrera.erp.exception.ResourceNotFoundException;
+import com.herrera.erp.model.PedidoImagen;
+import com.herrera.erp.repository.PedidoImagenRepository;
+import com.herrera.erp.repository.PedidoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Servicio de imágenes de pedidos (solo la parte de base de datos)
+ * La subida (SubidaImagenesService) y el borrado en el almacén
+ * (LimpiezaImagenesService) ocurren entre estas llamadas: así ninguna
+ * transacción ni conexión del pool queda abierta mientras se espera la red.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/ImagenService.java
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImagenService {
+
+    private final PedidoImagenRepository pedidoImagenRepository;
+    private final PedidoRepository pedidoRepository;
+
+    /**
+     * Falla antes de subir nada si el pedido no existe
+     */
+    @Transactional(readOnly = true)
+    public void validarPedido(Long pedidoId) {
+        if (!pedidoRepository.existsById(pedidoId)) {
+            throw new ResourceNotFoundException("Pedido", "id", pedidoId);
+        }
+    }
+
+    /**
+     * Registra una imagen recibida y guardada en disco, pendiente de subir
+     */
+    @Transactional
+    public PedidoImagenDTO registrarPendiente(Long pedidoId, String nombreArchivo, PedidoImagen.TipoImagen tipo,
+            String descripcion, String carpeta, String rutaTemporal) {
+        PedidoImagen imagen = pedidoImagenRepository.save(PedidoImagen.builder()
+                .pedido(pedidoRepository.getReferenceById(pedidoId))
+                .nombreArchivo(nombreArchivo)
+                .tipo(tipo)
+                .descripcion(descripcion)
+                .esPrincipal(false)
+                .estado(PedidoImagen.EstadoSubida.PENDIENTE)
+                .carpeta(carpeta)
+                .rutaTemporal(rutaTemporal)
+                .build());
+
+        log.info("Imagen #{} del pedido {} pendiente de subir", imagen.getId(), pedidoId);
+        return PedidoImagenDTO.builder()
+                .id(imagen.getId())
+                .pedidoId(pedidoId)
+                .nombreArchivo(imagen.getNombreArchivo())
+                .tipo(imagen.getTipo())
+                .descripcion(imagen.getDescripcion())
+                .esPrincipal(imagen.getEsPrincipal())
+                .uploadedAt(imagen.getUploadedAt())
+                .estado(imagen.getEstado())
+                .build();
+    }
+
+    /**
+     * Borrado lógico: deja de listarse y LimpiezaImagenesService borra
+     * después el archivo temporal, el almacén y la fila
+     */
+    @Transactional
+    public void marcarEliminada(Long imagenId) {
+        if (pedidoImagenRepository.marcarEliminada(imagenId, LocalDateTime.now()) == 0
+                && !pedidoImagenRepository.existsById(imagenId)) {
+            throw new ResourceNotFoundException("Imagen", "id", imagenId);
+        }
+        log.info("Imagen #{} marcada para eliminar", imagenId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PedidoImagenDTO> listarPorPedido(Long pedidoId) {
+        return pedidoImagenRepository.listarPorPedido(pedidoId);
+    }
+
+    // ============================================
+    // SUBIDA ASÍNCRONA
+    // ============================================
+
+    @Transactional(readOnly = true)
+    public Optional<SubidaImagenDTO> obtenerSubida(Long imagenId) {
+        return pedidoImagenRepository.findSubidaById(imagenId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> listarPendientesListas(int limite) {
+        return pedidoImagenRepository.listarPendientesListas(LocalDateTime.now(), PageRequest.of(0, limite));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean publicIdEnUso(String publicId) {
+        return pedidoImagenRepository.existePublicId(publicId);
+    }
+
+    /**
+     * Guarda URLs y publicIds de la principal y sus variantes (null si el
+     * archivo se subió sin procesar); false si la imagen ya no está
+     * pendiente (se eliminó durante la subida)
+     */
+    @Transactional
+    public boolean marcarSubida(Long imagenId, AlmacenImagenes.ImagenAlmacenada principal,
+            AlmacenImagenes.ImagenAlmacenada miniatura, AlmacenImagenes.ImagenAlmacenada mediana,
+            ProcesadorImagenes.ImagenProcesada procesada, long bytesOriginal) {
+        return pedidoImagenRepository.marcarSubida(imagenId,
+                principal.getUrl(), principal.getPublicId(),
+                miniatura != null ? miniatura.getUrl() : null,
+                miniatura != null ? miniatura.getPublicId() : null,
+                mediana != null ? mediana.getUrl() : null,
+                mediana != null ? mediana.getPublicId() : null,
+                procesada != null ? procesada.getAncho() : null,
+                procesada != null ? procesada.getAlto() : null,
+                bytesOriginal,
+                procesada != null ? procesada.getBytesPrincipal() : bytesOriginal,
+                LocalDateTime.now()) > 0;
+    }
+
+    /**
+     * Registra un intento fallido con espera exponencial hasta el siguiente;
+     * al agotar los intentos la imagen queda FALLIDA. Devuelve true si ya no
+     * habrá más intentos (el archivo temporal se puede borrar).
+     */
+    @Transactional
+    public boolean registrarFallo(Long imagenId, String error, int maxIntentos, long esperaBaseMs) {
+        PedidoImagen imagen = pedidoImagenRepository.findById(imagenId).orElse(null);
+        if (imagen == null || imagen.getEstado() != PedidoImagen.EstadoSubida.PENDIENTE) {
+            return true;
+        }
+
+        imagen.setIntentos(imagen.getIntentos() + 1);
+        imagen.setUltimoError(error);
+        if (imagen.getIntentos() >= maxIntentos) {
+            imagen.setEstado(PedidoImagen.EstadoSubida.FALLIDA);
+            imagen.setRutaTemporal(null);
+            imagen.setProximoIntentoAt(null);
+            log.error("Imagen #{} descartada tras {} intentos: {}", imagenId, imagen.getIntentos(), error);
+            return true;
+        }
+
+        long esperaMs = esperaBaseMs << Math.min(imagen.getIntentos() - 1, 10);
+        imagen.setProximoIntentoAt(LocalDateTime.now().plus(Duration.ofMillis(esperaMs)));
+        log.warn("Imagen #{} falló al subir (intento {}), reintento en {} ms: {}",
+                imagenId, imagen.getIntentos(), esperaMs, error);
+        return false;
+    }
+
+    // ============================================
+    // BORRADO DIFERIDO
+    // ============================================
+
+    /**
+     * Marca ELIMINADA las imágenes de pedidos cancelados hace más de retencionDias
+     */
+    @Transactional
+    public int marcarEliminadasDePedidosCancelados(int retencionDias) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return pedidoImagenRepository.marcarEliminadasDePedidosCancelados(ahora.minusDays(retencionDias), ahora);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SubidaImagenDTO> listarEliminadasListas(int limite) {
+        return pedidoImagenRepository.listarEliminadasListas(LocalDateTime.now(), PageRequest.of(0, limite));
+    }
+
+    /**
+     * Los publicIds que alguna imagen no eliminada todavía usa
+     */
+    @Transactional(readOnly = true)
+    public Set<String> publicIdsEnUso(Collection<String> publicIds) {
+        return coincidencias(pedidoImagenRepository.listarPublicIdsEnUso(publicIds), publicIds);
+    }
+
+    /**
+     * Los publicIds que tienen fila en pedido_imagenes (en cualquier estado)
+     */
+    @Transactional(readOnly = true)
+    public Set<String> publicIdsRegistrados(Collection<String> publicIds) {
+        return coincidencias(pedidoImagenRepository.listarPublicIdsRegistrados(publicIds), publicIds);
+    }
+
+    @Transactional
+    public int borrarEliminadas(Collection<Long> imagenIds) {
+        return imagenIds.isEmpty() ? 0 : pedidoImagenRepository.borrarEliminadas(imagenIds);
+    }
+
+    /**
+     * Pospone la limpieza de imágenes cuyo borrado en el almacén falló, con
+     * espera exponencial acotada: se reintenta siempre, un archivo huérfano
+     * en el almacén cuesta espacio indefinidamente
+     */
+    @Transactional
+    public void registrarFalloLimpieza(Collection<Long> imagenIds, String error, long esperaBaseMs, long esperaMaxMs) {
+        for (PedidoImagen imagen : pedidoImagenRepository.findAllById(imagenIds)) {
+            if (imagen.getEstado() != PedidoImagen.EstadoSubida.ELIMINADA) {
+                continue;
+            }
+            imagen.setIntentos(imagen.getIntentos() + 1);
+            imagen.setUltimoError(error);
+            long esperaMs = Math.min(esperaBaseMs << Math.min(imagen.getIntentos() - 1, 20), esperaMaxMs);
+            imagen.setProximoIntentoAt(LocalDateTime.now().plus(Duration.ofMillis(esperaMs)));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<SubidaImagenDTO> listarSubidasDesde(Long desdeId, int limite) {
+        return pedidoImagenRepository.listarSubidasDesde(desdeId, PageRequest.of(0, limite));
+    }
+
+    private static Set<String> coincidencias(List<Object[]> filas, Collection<String> publicIds) {
+        Set<String> encontrados = new HashSet<>();
+        for (Object[] fila : filas) {
+            for (Object publicId : fila) {
+                if (publicId != null && publicIds.contains(publicId)) {
+                    encontrados.add((String) publicId);
+                }
+            }
+        }
+        return encontrados;
+    }
+}
@@ -1,16 +1,26 @@
 package com.herrera.erp.service;
 
+import com.herrera.erp.dto.DashboardStatsDTO;
+import com.herrera.erp.dto.MaterialDTO;
+import com.herrera.erp.dto.MovimientoDTO;
+import com.herrera.erp.dto.RolloDTO;
+import com.herrera.erp.exception.ResourceNotFoundException;
 import com.herrera.erp.model.*;
 import com.herrera.erp.repository.*;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Servicio de Inventario
@@ -18,6 +28,7 @@ import java.util.List;
  * backend/src/main/java/com/herrera/erp/service/InventarioService.java
  */
 @Service
+@Timed("herrera.servicio")
 @RequiredArgsConstructor
 @Slf4j
 public class InventarioService {
@@ -25,48 +36,74 @@ public class InventarioService {
     private final MaterialRepository materialRepository;
     private final RolloRepository rolloRepository;
     private final MovimientoInventarioRepository movimientoRepository;
+    private final ReservaService reservaService;
+    private final CoordinadorInventario coordinadorInventario;
+    private final OutboxService outboxService;
+    private final AlertaStockService alertaStockService;
+    private final DiarioSitioService diarioSitioService;
+
+    // Tope de GET /movimientos?limite=N
+    private static final int MAX_MOVIMIENTOS = 200;
+
+    // Modo eventos: los movimientos solo se insertan y los saldos se proyectan después
+    @Value("${inventario.eventos.habilitado:false}")
+    private boolean modoEventos;
 
     // ============================================
     // GESTIÓN DE MATERIALES
     // ============================================
 
-    public List<Material> obtenerTodosMateriales() {
-        return materialRepository.findByActivoTrue();
+    @Transactional(readOnly = true)
+    public List<MaterialDTO> obtenerTodosMateriales() {
+        return materialRepository.listarActivos();
     }
 
+    @Transactional(readOnly = true)
     public Material obtenerMaterialPorId(Long id) {
         return materialRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Material no encontrado"));
     }
 
-    public List<Material> obtenerMaterialesConAlerta() {
-        return materialRepository.findMaterialesStockBajo();
+    @Transactional(readOnly = true)
+    public MaterialDTO obtenerMaterialDTO(Long id) {
+        return materialRepository.findDtoById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Material", "id", id));
+    }
+
+    public List<DashboardStatsDTO.MaterialAlertaDTO> obtenerMaterialesConAlerta() {
+        return alertaStockService.obtenerAlertas();
     }
 
-    public List<Material> obtenerMaterialesCriticos() {
-        return materialRepository.findMaterialesStockCritico();
+    public List<DashboardStatsDTO.MaterialAlertaDTO> obtenerMaterialesCriticos() {
+        return alertaStockService.obtenerCriticos();
     }
 
     @Transactional
     public Material crearMaterial(Material material) {
         log.info("Creando material: {}", material.getNombre());
-        return materialRepository.save(material);
+        Material materialGuardado = materialRepository.save(material);
+        reservaService.registrarMaterial(materialGuardado);
+        alertaStockService.registrarCambio(materialGuardado, materialGuardado.getStockActual());
+        return materialGuardado;
     }
 
     // ============================================
     // GESTIÓN DE ROLLOS
     // ============================================
 
-    public List<Rollo> obtenerRollosDisponibles() {
-        return rolloRepository.findRollosDisponibles();
+    @Transactional(readOnly = true)
+    public List<RolloDTO> obtenerRollosDisponibles() {
+        return rolloRepository.listarDisponibles();
     }
 
-    public List<Rollo> obtenerRollosParaCorte() {
-        return rolloRepository.findRollosDisponiblesParaCorte();
+    @Transactional(readOnly = true)
+    public List<RolloDTO> obtenerRollosParaCorte() {
+        return rolloRepository.listarDisponiblesParaCorte();
     }
 
-    public List<Rollo> obtenerRollosParaVenta() {
-        return rolloRepository.findRollosDisponiblesParaVenta();
+    @Transactional(readOnly = true)
+    public List<RolloDTO> obtenerRollosParaVenta() {
+        return rolloRepository.listarDisponiblesParaVenta();
     }
 
     @Transactional
@@ -79,6 +116,8 @@ public class InventarioService {
             throw new RuntimeException("Ya existe un rollo con ese código");
         }
 
+        coordinadorInventario.bloquear(rollo.getMaterial().getId());
+
         // Guardar rollo
         Rollo rolloGuardado = rolloRepository.save(rollo);
 
@@ -109,6 +148,43 @@ public class InventarioService {
             String motivo,
             Long pedidoId,
             Long usuarioId) {
+        return registrarMovimiento(materialId, rolloId, tipo, cantidad, motivo, pedidoId, usuarioId,
+                LocalDateTime.now(), false);
+    }
+
+    /**
+     * Aplica en el central un movimiento que un sitio ya registró (y quizá
+     * vendió sin conexión): no se rechaza aunque deje el stock o el rollo en
+     * negativo; SincronizacionCentralService lo marca para revisión.
+     * El pedido queda anotado en el movimiento, pero no consume reservas ni
+     * se vuelve a anotar en el diario.
+     */
+    @Transactional
+    public MovimientoInventario registrarMovimientoDeSitio(
+            Long materialId,
+            Long rolloId,
+            MovimientoInventario.TipoMovimiento tipo,
+            BigDecimal cantidad,
+            String motivo,
+            Long pedidoId,
+            Long usuarioId,
+            LocalDateTime fecha) {
+        return registrarMovimiento(materialId, rolloId, tipo, cantidad, motivo, pedidoId, usuarioId, fecha, true);
+    }
+
+    private MovimientoInventario registrarMovimiento(
+            Long materialId,
+            Long rolloId,
+            MovimientoInventario.TipoMovimiento tipo,
+            BigDecimal cantidad,
+            String motivo,
+            Long pedidoId,
+            Long usuarioId,
+            LocalDateTime fecha,
+            boolean desdeSitio) {
+        // Serializar escrituras del mismo material antes de leer el stock
+        coordinadorInventario.bloquear(materialId);
+
         Material material = materialRepository.findById(materialId)
                 .orElseThrow(() -> new RuntimeException("Material no encontrado"));
 
@@ -118,8 +194,10 @@ public class InventarioService {
                     .orElseThrow(() -> new RuntimeException("Rollo no encontrado"));
         }
 
-        // Guardar stock anterior
-        BigDecimal stockAnterior = material.getStockActual();
+        // Stock anterior: en modo eventos la proyección aún no incluye los pendientes
+        BigDecimal stockAnterior = modoEventos
+                ? materialRepository.findStockActualById(materialId).orElse(BigDecimal.ZERO)
+                : material.getStockActual();
 
         // Calcular cantidad con signo correcto
         BigDecimal cantidadFinal = cantidad;
@@ -130,21 +208,50 @@ public class InventarioService {
         }
 
         // Actualizar stock del material
-        BigDecimal nuevoStock = material.getStockActual().add(cantidadFinal);
-        if (nuevoStock.compareTo(BigDecimal.ZERO) < 0) {
-            throw new RuntimeException("Stock insuficiente. Disponible: " + material.getStockActual());
+        BigDecimal nuevoStock = stockAnterior.add(cantidadFinal);
+        if (!desdeSitio && nuevoStock.compareTo(BigDecimal.ZERO) < 0) {
+            throw new RuntimeException("Stock insuficiente. Disponible: " + stockAnterior);
+        }
+        if (!modoEventos) {
+            material.setStockActual(nuevoStock);
+            materialRepository.save(material);
         }
-        material.setStockActual(nuevoStock);
-        materialRepository.save(material);
 
         // Actualizar metros del rollo si aplica
         if (rollo != null) {
-            BigDecimal nuevosMetros = rollo.getMetrosActuales().add(cantidadFinal);
-            if (nuevosMetros.compareTo(BigDecimal.ZERO) < 0) {
+            BigDecimal metrosAnteriores = modoEventos
+                    ? rolloRepository.findMetrosActualesById(rolloId).orElse(BigDecimal.ZERO)
+                    : rollo.getMetrosActuales();
+            BigDecimal nuevosMetros = metrosAnteriores.add(cantidadFinal);
+            if (!desdeSitio && nuevosMetros.compareTo(BigDecimal.ZERO) < 0) {
                 throw new RuntimeException("Rollo sin metros suficientes");
             }
-            rollo.setMetrosActuales(nuevosMetros);
-            rolloRepository.save(rollo);
+            if (!modoEventos) {
+                rollo.setMetrosActuales(nuevosMetros);
+                rolloRepository.save(rollo);
+            }
+        }
+
+        // Alertas de stock: solo se reevalúa el material que cambió
+        alertaStockService.registrarCambio(material, nuevoStock);
+        String nivelAnterior = material.calcularNivelAlerta(stockAnterior);
+        String nivelNuevo = material.calcularNivelAlerta(nuevoStock);
+        if (!nivelAnterior.equals(nivelNuevo)) {
+            outboxService.publicar(EventoOutbox.Agregado.INVENTARIO, materialId,
+                    OutboxService.ALERTA_STOCK_CAMBIADA,
+                    OutboxService.datos(
+                            "nombre", material.getNombre(),
+                            "nivelAnterior", nivelAnterior,
+                            "nivelNuevo", nivelNuevo,
+                            "stockActual", nuevoStock,
+                            "stockMinimo", material.getStockMinimo(),
+                            "stockCritico", material.getStockCritico()));
+        }
+
+        // Reflejar en el disponible para prometer y consumir la reserva del pedido (no la de un sitio)
+        reservaService.registrarCambioStock(materialId, cantidadFinal);
+        if (tipo == MovimientoInventario.TipoMovimiento.SALIDA_CORTE && pedidoId != null && !desdeSitio) {
+            reservaService.consumir(pedidoId, materialId, cantidad);
         }
 
         // Crear movimiento
@@ -158,7 +265,8 @@ public class InventarioService {
                 .motivo(motivo)
                 .pedidoId(pedidoId)
                 .usuario(usuarioId != null ? new Usuario() : null)
-                .fecha(LocalDateTime.now())
+                .fecha(fecha)
+                .aplicado(!modoEventos) // En modo eventos lo aplica ProyectorInventario
                 .build();
 
         if (usuarioId != null) {
@@ -167,6 +275,22 @@ public class InventarioService {
 
         MovimientoInventario movimientoGuardado = movimientoRepository.save(movimiento);
 
+        if (!desdeSitio) {
+            diarioSitioService.registrarMovimiento(materialId, rolloId, tipo, cantidad, motivo,
+                    pedidoId, usuarioId, fecha);
+        }
+
+        outboxService.publicar(EventoOutbox.Agregado.INVENTARIO, movimientoGuardado.getId(),
+                OutboxService.MOVIMIENTO_REGISTRADO,
+                OutboxService.datos(
+                        "materialId", materialId,
+                        "rolloId", rolloId,
+                        "tipo", tipo,
+                        "cantidad", cantidadFinal,
+                        "stockNuevo", nuevoStock,
+                        "pedidoId", pedidoId,
+                        "usuarioId", usuarioId));
+
         log.info("Movimiento registrado: {} - Material: {} - Cantidad: {}",
                 tipo, material.getNombre(), cantidadFinal);
 
@@ -179,6 +303,8 @@ public class InventarioService {
             BigDecimal metrosRequeridos,
             Long pedidoId,
             Long usuarioId) {
+        bloquearMaterialDeRollo(rolloId);
+
         Rollo rollo = rolloRepository.findById(rolloId)
                 .orElseThrow(() -> new RuntimeException("Rollo no encontrado"));
 
@@ -202,6 +328,8 @@ public class InventarioService {
             BigDecimal metrosVendidos,
             String motivoVenta,
             Long usuarioId) {
+        bloquearMaterialDeRollo(rolloId);
+
         Rollo rollo = rolloRepository.findById(rolloId)
                 .orElseThrow(() -> new RuntimeException("Rollo no encontrado"));
 
@@ -219,40 +347,82 @@ public class InventarioService {
                 usuarioId);
     }
 
+    /**
+     * Bloquea el material de un rollo antes de cargarlo, para que la lectura
+     * del stock ocurra ya con el bloqueo tomado
+     */
+    @Transactional
+    public void bloquearMaterialDeRollo(Long rolloId) {
+        rolloRepository.findMaterialIdById(rolloId)
+                .ifPresent(coordinadorInventario::bloquear);
+    }
+
     // ============================================
     // CONSULTAS Y REPORTES
     // ============================================
 
-    public List<MovimientoInventario> obtenerUltimosMovimientos(int limite) {
-        return movimientoRepository.findTop20ByOrderByFechaDesc();
+    @Transactional(readOnly = true)
+    public List<MovimientoDTO> obtenerUltimosMovimientos(int limite) {
+        int tamano = Math.min(Math.max(limite, 1), MAX_MOVIMIENTOS);
+        return movimientoRepository.listarUltimos(PageRequest.of(0, tamano));
+    }
+
+    @Transactional(readOnly = true)
+    public List<MovimientoDTO> obtenerMovimientosPorMaterial(Long materialId) {
+        return movimientoRepository.listarPorMaterial(materialId);
     }
 
-    public List<MovimientoInventario> obtenerMovimientosPorMaterial(Long materialId) {
-        return movimientoRepository.findByMaterialIdOrderByFechaDesc(materialId);
+    @Transactional(readOnly = true)
+    public List<MovimientoDTO> obtenerMovimientosDelDia() {
+        return movimientoRepository.listarDelDia();
     }
 
-    public List<MovimientoInventario> obtenerMovimientosDelDia() {
-        return movimientoRepository.findMovimientosDelDia();
+    @Transactional(readOnly = true)
+    public MovimientoDTO obtenerMovimientoDTO(Long id) {
+        return movimientoRepository.findDtoById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Movimiento", "id", id));
     }
 
     /**
      * Verificar si hay stock suficiente
+     * Usa el disponible para prometer (stock físico menos reservas de pedidos)
      */
+    @Transactional(readOnly = true)
     public boolean hayStockSuficiente(Long materialId, BigDecimal cantidadRequerida) {
+        return reservaService.hayDisponible(materialId, cantidadRequerida);
+    }
+
+    /**
+     * Disponible para prometer: stock físico menos reservas de pedidos
+     */
+    public BigDecimal obtenerDisponibleParaPrometer(Long materialId) {
+        return reservaService.obtenerDisponible(materialId);
+    }
+
+    /**
+     * Stock físico, reservado y disponible para prometer de un material
+     */
+    @Transactional(readOnly = true)
+    public Map<String, BigDecimal> obtenerDisponibilidad(Long materialId) {
         Material material = obtenerMaterialPorId(materialId);
-        return material.getStockActual().compareTo(cantidadRequerida) >= 0;
+
+        Map<String, BigDecimal> disponibilidad = new LinkedHashMap<>();
+        disponibilidad.put("stockActual", materialRepository.findStockActualById(materialId)
+                .orElse(material.getStockActual()));
+        disponibilidad.put("reservado", reservaService.obtenerReservado(materialId));
+        disponibilidad.put("disponible", reservaService.obtenerDisponible(materialId));
+        return disponibilidad;
     }
 
     /**
      * Obtener rollo con más metros disponibles (para optimizar corte)
      */
+    @Transactional(readOnly = true)
     public Rollo obtenerRolloConMasMetros(Long materialId, Rollo.Destino destino) {
-        List<Rollo> rollos = rolloRepository.findByMaterialId(materialId);
-
-        return rollos.stream()
-                .filter(r -> r.getActivo() && r.getMetrosActuales().compareTo(BigDecimal.ZERO) > 0)
+        // Ordenados por metros con eventos pendientes: la entidad solo trae lo proyectado
+        return rolloRepository.findDisponiblesByMaterialPorMetros(materialId).stream()
                 .filter(r -> destino == Rollo.Destino.CORTE ? r.puedeUsarseParaCorte() : r.puedeUsarseParaVenta())
-                .max((r1, r2) -> r1.getMetrosActuales().compareTo(r2.getMetrosActuales()))
+                .findFirst()
                 .orElse(null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,322 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.dto.SubidaImagenDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Recolección de imágenes eliminadas
+ * Borrar una imagen, o cancelar su pedido (pasada la retención), solo la
+ * marca ELIMINADA. Este servicio borra después, en su propio hilo, el
+ * archivo temporal y los archivos del almacén por lotes (una llamada por
+ * lote, con un máximo de llamadas por minuto) y al final la fila; si el
+ * almacén falla, la fila se reintenta con espera exponencial.
+ * La conciliación nocturna compara el almacén con pedido_imagenes: cuenta
+ * los archivos huérfanos (y los borra si se habilita) y las imágenes
+ * SUBIDA cuyo archivo ya no existe.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/LimpiezaImagenesService.java
+ */
+@Service
+@Slf4j
+public class LimpiezaImagenesService {
+
+    private final AlmacenImagenes almacen;
+    private final ImagenService imagenService;
+    private final MeterRegistry meterRegistry;
+
+    // Un solo hilo: recolección y conciliación nunca corren a la vez, y las
+    // esperas del límite de llamadas no ocupan el scheduler compartido
+    private final ExecutorService hilo = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("limpieza-imagenes-"));
+    private final AtomicBoolean ocupado = new AtomicBoolean();
+
+    @Value("${imagenes.limpieza.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${imagenes.limpieza.lote:200}")
+    private int tamanoLote;
+
+    @Value("${imagenes.limpieza.ids-por-llamada:100}")
+    private int idsPorLlamada;
+
+    @Value("${imagenes.limpieza.llamadas-por-minuto:30}")
+    private int llamadasPorMinuto;
+
+    @Value("${imagenes.limpieza.retencion-cancelados-dias:30}")
+    private int retencionCanceladosDias;
+
+    @Value("${imagenes.limpieza.espera-base-ms:60000}")
+    private long esperaBaseMs;
+
+    @Value("${imagenes.limpieza.espera-max-ms:3600000}")
+    private long esperaMaxMs;
+
+    @Value("${imagenes.limpieza.conciliacion.prefijo:}")
+    private String prefijoConciliacion;
+
+    @Value("${imagenes.limpieza.conciliacion.antiguedad-horas:24}")
+    private long antiguedadHuerfanasHoras;
+
+    @Value("${imagenes.limpieza.conciliacion.borrar-huerfanas:false}")
+    private boolean borrarHuerfanas;
+
+    private long ultimaLlamadaNanos;
+
+    // Resultado de la última conciliación
+    private final AtomicLong huerfanas = new AtomicLong();
+    private final AtomicLong faltantes = new AtomicLong();
+
+    public LimpiezaImagenesService(AlmacenImagenes almacen, ImagenService imagenService,
+            MeterRegistry meterRegistry) {
+        this.almacen = almacen;
+        this.imagenService = imagenService;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("herrera.imagenes.conciliacion.huerfanas", huerfanas);
+        meterRegistry.gauge("herrera.imagenes.conciliacion.faltantes", faltantes);
+    }
+
+    // ============================================
+    // PROGRAMACIÓN
+    // ============================================
+
+    @Scheduled(fixedDelayString = "${imagenes.limpieza.intervalo-ms:60000}",
+            initialDelayString = "${imagenes.limpieza.intervalo-ms:60000}")
+    public void programarRecoleccion() {
+        ejecutar(this::recolectar);
+    }
+
+    @Scheduled(cron = "${imagenes.limpieza.conciliacion.cron:0 30 3 * * *}")
+    public void programarConciliacion() {
+        ejecutar(this::conciliar);
+    }
+
+    private void ejecutar(Runnable tarea) {
+        if (!habilitada || !almacen.estaConfigurado() || !ocupado.compareAndSet(false, true)) {
+            return;
+        }
+        hilo.execute(() -> {
+            try {
+                tarea.run();
+            } catch (RuntimeException e) {
+                log.error("Error en la limpieza de imágenes: {}", e.getMessage(), e);
+            } finally {
+                ocupado.set(false);
+            }
+        });
+    }
+
+    // ============================================
+    // RECOLECCIÓN
+    // ============================================
+
+    /**
+     * Procesa lotes de imágenes ELIMINADA hasta vaciar las que ya tocan
+     */
+    void recolectar() {
+        int canceladas = imagenService.marcarEliminadasDePedidosCancelados(retencionCanceladosDias);
+        if (canceladas > 0) {
+            log.info("{} imágenes de pedidos cancelados marcadas para eliminar", canceladas);
+        }
+
+        List<SubidaImagenDTO> lote;
+        do {
+            lote = imagenService.listarEliminadasListas(tamanoLote);
+            if (!lote.isEmpty()) {
+                recolectarLote(lote);
+            }
+        } while (lote.size() >= tamanoLote && !Thread.currentThread().isInterrupted());
+    }
+
+    private void recolectarLote(List<SubidaImagenDTO> lote) {
+        Set<String> publicIds = new LinkedHashSet<>();
+        for (SubidaImagenDTO imagen : lote) {
+            borrarTemporal(imagen.getRutaTemporal());
+            agregar(publicIds, imagen);
+        }
+
+        // Archivos que otra imagen vigente comparte (almacén local) se conservan
+        if (!publicIds.isEmpty()) {
+            publicIds.removeAll(imagenService.publicIdsEnUso(publicIds));
+        }
+
+        Set<String> fallidos = new HashSet<>();
+        String ultimoError = null;
+        List<String> ids = new ArrayList<>(publicIds);
+        for (int i = 0; i < ids.size(); i += idsPorLlamada) {
+            List<String> parte = ids.subList(i, Math.min(i + idsPorLlamada, ids.size()));
+            esperarTurno();
+            try {
+                almacen.eliminarVarios(parte);
+                meterRegistry.counter("herrera.imagenes.limpieza", "resultado", "eliminada").increment(parte.size());
+            } catch (IOException | RuntimeException e) {
+                fallidos.addAll(parte);
+                ultimoError = e.getMessage();
+                meterRegistry.counter("herrera.imagenes.limpieza", "resultado", "reintento").increment(parte.size());
+                log.warn("No se pudieron eliminar {} imágenes del almacén: {}", parte.size(), e.getMessage());
+            }
+        }
+
+        List<Long> listas = new ArrayList<>();
+        List<Long> pendientes = new ArrayList<>();
+        for (SubidaImagenDTO imagen : lote) {
+            Set<String> propios = new HashSet<>();
+            agregar(propios, imagen);
+            propios.retainAll(fallidos);
+            (propios.isEmpty() ? listas : pendientes).add(imagen.getId());
+        }
+
+        imagenService.borrarEliminadas(listas);
+        if (!pendientes.isEmpty()) {
+            imagenService.registrarFalloLimpieza(pendientes, ultimoError, esperaBaseMs, esperaMaxMs);
+        }
+        log.info("Limpieza de imágenes: {} filas borradas, {} pospuestas", listas.size(), pendientes.size());
+    }
+
+    // ============================================
+    // CONCILIACIÓN
+    // ============================================
+
+    /**
+     * Almacén contra BD, en páginas: huérfanos (archivo sin fila) y faltantes
+     * (fila SUBIDA sin archivo). Los huérfanos recientes se ignoran porque
+     * pueden ser subidas que todavía no registran su URL.
+     */
+    void conciliar() {
+        Instant limite = Instant.now().minus(Duration.ofHours(antiguedadHuerfanasHoras));
+        Set<String> almacenados = new HashSet<>();
+        List<String> pagina = new ArrayList<>();
+        long[] huerfanos = {0};
+
+        try {
+            almacen.recorrer(prefijoConciliacion, objeto -> {
+                almacenados.add(objeto.getPublicId());
+                if (objeto.getCreado().isBefore(limite)) {
+                    pagina.add(objeto.getPublicId());
+                }
+                if (pagina.size() >= tamanoLote) {
+                    huerfanos[0] += procesarHuerfanos(pagina);
+                    pagina.clear();
+                }
+            });
+            huerfanos[0] += procesarHuerfanos(pagina);
+        } catch (IOException | RuntimeException e) {
+            // Recorrido incompleto: no se puede afirmar que falte nada
+            log.error("Conciliación de imágenes interrumpida: {}", e.getMessage());
+            return;
+        }
+
+        long sinArchivo = 0;
+        Long desdeId = 0L;
+        List<SubidaImagenDTO> subidas;
+        do {
+            subidas = imagenService.listarSubidasDesde(desdeId, tamanoLote);
+            for (SubidaImagenDTO imagen : subidas) {
+                String publicId = imagen.getPublicIdCloudinary();
+                if (publicId != null && publicId.startsWith(prefijoConciliacion) && !almacenados.contains(publicId)) {
+                    sinArchivo++;
+                    log.warn("Imagen #{} SUBIDA sin archivo en el almacén: {}",
+                            imagen.getId(), publicId);
+                }
+                desdeId = imagen.getId();
+            }
+        } while (subidas.size() >= tamanoLote);
+
+        huerfanas.set(huerfanos[0]);
+        faltantes.set(sinArchivo);
+        log.info("Conciliación de imágenes: {} en el almacén, {} huérfanas{}, {} faltantes",
+                almacenados.size(), huerfanos[0], borrarHuerfanas ? " (eliminadas)" : "", sinArchivo);
+    }
+
+    private long procesarHuerfanos(List<String> candidatos) {
+        if (candidatos.isEmpty()) {
+            return 0;
+        }
+        Set<String> registrados = imagenService.publicIdsRegistrados(candidatos);
+        List<String> huerfanos = candidatos.stream().filter(id -> !registrados.contains(id)).toList();
+        if (huerfanos.isEmpty()) {
+            return 0;
+        }
+
+        if (borrarHuerfanas) {
+            for (int i = 0; i < huerfanos.size(); i += idsPorLlamada) {
+                List<String> parte = huerfanos.subList(i, Math.min(i + idsPorLlamada, huerfanos.size()));
+                esperarTurno();
+                try {
+                    almacen.eliminarVarios(parte);
+                    meterRegistry.counter("herrera.imagenes.limpieza", "resultado", "huerfana").increment(parte.size());
+                } catch (IOException e) {
+                    log.warn("No se pudieron eliminar {} imágenes huérfanas: {}", parte.size(), e.getMessage());
+                }
+            }
+        } else {
+            log.debug("Imágenes huérfanas en el almacén: {}", huerfanos);
+        }
+        return huerfanos.size();
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    /**
+     * Espacia las llamadas al almacén (la Admin API de Cloudinary tiene cuota por hora)
+     */
+    private void esperarTurno() {
+        long intervaloNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(llamadasPorMinuto, 1);
+        long espera = ultimaLlamadaNanos + intervaloNanos - System.nanoTime();
+        if (ultimaLlamadaNanos != 0 && espera > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ultimaLlamadaNanos = System.nanoTime();
+    }
+
+    private static void agregar(Set<String> publicIds, SubidaImagenDTO imagen) {
+        Stream.of(imagen.getPublicIdCloudinary(), imagen.getPublicIdMiniatura(), imagen.getPublicIdMediana())
+                .filter(id -> id != null)
+                .forEach(publicIds::add);
+    }
+
+    private void borrarTemporal(String rutaTemporal) {
+        if (rutaTemporal == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(rutaTemporal));
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el archivo temporal {}: {}", rutaTemporal, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        // Lo que quede ELIMINADA se retoma en la siguiente corrida
+        hilo.shutdownNow();
+        hilo.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
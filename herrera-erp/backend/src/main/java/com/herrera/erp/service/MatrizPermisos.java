@@ -0,0 +1,192 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.dto.UsuarioAutenticado;
+import com.herrera.erp.model.Permiso;
+import com.herrera.erp.model.Rol;
+import com.herrera.erp.model.Usuario;
+import com.herrera.erp.repository.RolRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Permisos por rol compilados a un mapa de bits
+ * Cada rol se reduce a un long inmutable: un bit por (módulo, acción).
+ * Verificar un permiso es buscar el rol por id y probar un bit; no se
+ * recorre la colección de permisos ni se comparan cadenas por llamada.
+ * Se compila al arrancar, se reconstruye periódicamente (cambios hechos
+ * con SQL) y al asignar un rol. Los bits del rol viajan en el JWT; con un
+ * principal UsuarioAutenticado se prueban los del token. Desde controllers:
+ * @PreAuthorize("@matrizPermisos.puede(authentication, 'pedidos', 'crear')")
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/MatrizPermisos.java
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MatrizPermisos {
+
+    // Valores de permisos.modulo
+    public enum Modulo {
+        INVENTARIO,
+        PEDIDOS,
+        VENTAS,
+        USUARIOS,
+        PRODUCTOS,
+        REPORTES
+    }
+
+    public enum Accion {
+        CREAR,
+        LEER,
+        EDITAR,
+        ELIMINAR
+    }
+
+    private static final int NUM_ACCIONES = Accion.values().length;
+    private static final Map<String, Modulo> MODULOS = indice(Modulo.values());
+    private static final Map<String, Accion> ACCIONES = indice(Accion.values());
+
+    private final RolRepository rolRepository;
+
+    // Copia inmutable; se reemplaza completa al recompilar
+    private volatile Map<Long, Long> bitsPorRol = Map.of();
+
+    // ============================================
+    // CONSULTA
+    // ============================================
+
+    public boolean puede(Authentication authentication, String modulo, String accion) {
+        Modulo m = buscar(MODULOS, modulo);
+        Accion a = buscar(ACCIONES, accion);
+        return m != null && a != null && puede(authentication, m, a);
+    }
+
+    public boolean puede(Authentication authentication, Modulo modulo, Accion accion) {
+        if (authentication == null) {
+            return false;
+        }
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof UsuarioAutenticado usuario) {
+            return (usuario.getPermisos() & bit(modulo, accion)) != 0;
+        }
+        return principal instanceof Usuario usuario && puede(usuario.getRol(), modulo, accion);
+    }
+
+    public boolean puede(Usuario usuario, String modulo, String accion) {
+        Modulo m = buscar(MODULOS, modulo);
+        Accion a = buscar(ACCIONES, accion);
+        return m != null && a != null && puede(usuario.getRol(), m, a);
+    }
+
+    public boolean puede(Rol rol, Modulo modulo, Accion accion) {
+        return rol != null && (bits(rol) & bit(modulo, accion)) != 0;
+    }
+
+    /**
+     * Mapa de bits del rol, el que se firma en el JWT
+     */
+    public long bits(Rol rol) {
+        Long bits = bitsPorRol.get(rol.getId());
+        // Rol creado después de la última compilación
+        return bits != null ? bits : registrar(rol);
+    }
+
+    /**
+     * Bits vigentes de un rol por id; null si no está compilado
+     */
+    public Long bitsCompilados(Long rolId) {
+        return rolId != null ? bitsPorRol.get(rolId) : null;
+    }
+
+    // ============================================
+    // COMPILACIÓN
+    // ============================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${seguridad.permisos.recompilacion-ms:600000}",
+            initialDelayString = "${seguridad.permisos.recompilacion-ms:600000}")
+    @Transactional(readOnly = true)
+    public void compilar() {
+        Map<Long, Long> nuevo = new HashMap<>();
+        for (Rol rol : rolRepository.findAll()) {
+            nuevo.put(rol.getId(), compilar(rol));
+        }
+        bitsPorRol = Map.copyOf(nuevo);
+        log.debug("Matriz de permisos compilada: {} roles", nuevo.size());
+    }
+
+    /**
+     * Compila (o vuelve a compilar) un rol ya cargado con sus permisos
+     */
+    public long registrar(Rol rol) {
+        // Fuera del monitor: getPermisos() puede ir a la BD (colección perezosa)
+        long bits = compilar(rol);
+        synchronized (this) {
+            Map<Long, Long> nuevo = new HashMap<>(bitsPorRol);
+            nuevo.put(rol.getId(), bits);
+            bitsPorRol = Map.copyOf(nuevo);
+        }
+        return bits;
+    }
+
+    private static long compilar(Rol rol) {
+        long bits = 0;
+        for (Permiso permiso : rol.getPermisos()) {
+            Modulo modulo = buscar(MODULOS, permiso.getModulo());
+            if (modulo == null) {
+                log.warn("Módulo de permiso desconocido en rol {}: {}", rol.getNombre(), permiso.getModulo());
+                continue;
+            }
+            if (Boolean.TRUE.equals(permiso.getPuedeCrear())) {
+                bits |= bit(modulo, Accion.CREAR);
+            }
+            if (Boolean.TRUE.equals(permiso.getPuedeLeer())) {
+                bits |= bit(modulo, Accion.LEER);
+            }
+            if (Boolean.TRUE.equals(permiso.getPuedeEditar())) {
+                bits |= bit(modulo, Accion.EDITAR);
+            }
+            if (Boolean.TRUE.equals(permiso.getPuedeEliminar())) {
+                bits |= bit(modulo, Accion.ELIMINAR);
+            }
+        }
+        return bits;
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private static long bit(Modulo modulo, Accion accion) {
+        return 1L << (modulo.ordinal() * NUM_ACCIONES + accion.ordinal());
+    }
+
+    /**
+     * Nombre exacto en minúsculas o mayúsculas sin convertir; otras variantes se normalizan
+     */
+    private static <E> E buscar(Map<String, E> indice, String nombre) {
+        if (nombre == null) {
+            return null;
+        }
+        E valor = indice.get(nombre);
+        return valor != null ? valor : indice.get(nombre.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static <E extends Enum<E>> Map<String, E> indice(E[] valores) {
+        Map<String, E> indice = new HashMap<>();
+        for (E valor : valores) {
+            indice.put(valor.name(), valor);
+            indice.put(valor.name().toLowerCase(Locale.ROOT), valor);
+        }
+        return Map.copyOf(indice);
+    }
+}
@@ -0,0 +1,105 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.dto.EventoDominio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Métricas de negocio (ventas, movimientos, pedidos) a partir de los eventos
+ * del outbox: solo cuentan operaciones confirmadas.
+ * Etiquetas de baja cardinalidad (ubicacion, tipoMovimiento, tipoVenta...),
+ * nunca ids ni folios.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/MetricasNegocioService.java
+ */
+@Service
+@RequiredArgsConstructor
+public class MetricasNegocioService {
+
+    private static final String SIN_VALOR = "NINGUNO";
+
+    private final MeterRegistry meterRegistry;
+
+    @EventListener
+    public void registrarEvento(EventoDominio evento) {
+        switch (evento.getTipo()) {
+            case OutboxService.VENTA_REGISTRADA -> registrarVenta(evento);
+            case OutboxService.MOVIMIENTO_REGISTRADO -> registrarMovimiento(evento);
+            case OutboxService.PEDIDO_CREADO -> registrarPedido(evento);
+            default -> {
+            }
+        }
+    }
+
+    // ============================================
+    // MÉTRICAS POR TIPO DE EVENTO
+    // ============================================
+
+    private void registrarVenta(EventoDominio evento) {
+        String ubicacion = texto(evento, "ubicacion");
+        String tipoVenta = texto(evento, "tipoVenta");
+
+        Counter.builder("herrera.ventas")
+                .description("Ventas registradas")
+                .tag("ubicacion", ubicacion)
+                .tag("tipoVenta", tipoVenta)
+                .tag("metodoPago", texto(evento, "metodoPago"))
+                .register(meterRegistry)
+                .increment();
+        DistributionSummary.builder("herrera.ventas.total")
+                .description("Importe por venta")
+                .baseUnit("pesos")
+                .tag("ubicacion", ubicacion)
+                .tag("tipoVenta", tipoVenta)
+                .register(meterRegistry)
+                .record(numero(evento, "total"));
+    }
+
+    private void registrarMovimiento(EventoDominio evento) {
+        String tipoMovimiento = texto(evento, "tipo");
+
+        Counter.builder("herrera.inventario.movimientos")
+                .description("Movimientos de inventario registrados")
+                .tag("tipoMovimiento", tipoMovimiento)
+                .register(meterRegistry)
+                .increment();
+        DistributionSummary.builder("herrera.inventario.movimientos.cantidad")
+                .description("Cantidad por movimiento de inventario")
+                .tag("tipoMovimiento", tipoMovimiento)
+                .register(meterRegistry)
+                .record(Math.abs(numero(evento, "cantidad")));
+    }
+
+    private void registrarPedido(EventoDominio evento) {
+        String ubicacion = texto(evento, "ubicacion");
+
+        Counter.builder("herrera.pedidos.creados")
+                .description("Pedidos creados")
+                .tag("ubicacion", ubicacion)
+                .tag("prioridad", texto(evento, "prioridad"))
+                .register(meterRegistry)
+                .increment();
+        DistributionSummary.builder("herrera.pedidos.piezas")
+                .description("Piezas por pedido")
+                .tag("ubicacion", ubicacion)
+                .register(meterRegistry)
+                .record(numero(evento, "totalPiezas"));
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private String texto(EventoDominio evento, String clave) {
+        Object valor = evento.getDatos().get(clave);
+        return valor != null ? valor.toString() : SIN_VALOR;
+    }
+
+    private double numero(EventoDominio evento, String clave) {
+        Object valor = evento.getDatos().get(clave);
+        return valor instanceof Number n ? n.doubleValue() : 0;
+    }
+}
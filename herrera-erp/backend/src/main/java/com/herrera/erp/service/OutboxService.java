@@ -0,0 +1,221 @@
+package com.herrera.erp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.herrera.erp.dto.EventoDominio;
+import com.herrera.erp.model.EventoOutbox;
+import com.herrera.erp.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio de Outbox transaccional
+ * publicar() escribe el evento en la misma transacción que el cambio de
+ * negocio; el relay lo despacha después, en orden, a los listeners internos.
+ * Cada evento se despacha en su propia transacción (REQUIRES_NEW): un listener
+ * que falla, o que deja su transacción marcada para rollback, revierte solo su
+ * trabajo y no la del lote, que conserva el intento y el error registrados.
+ * Un evento que agota los intentos queda fallido (fuera de la cola, con su
+ * error); los despachados se purgan pasada la retención.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/OutboxService.java
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    // Tipos de evento
+    public static final String PEDIDO_CREADO = "PEDIDO_CREADO";
+    public static final String PEDIDO_ESTADO_CAMBIADO = "PEDIDO_ESTADO_CAMBIADO";
+    public static final String PEDIDO_CANCELADO = "PEDIDO_CANCELADO";
+    public static final String VENTA_REGISTRADA = "VENTA_REGISTRADA";
+    public static final String MOVIMIENTO_REGISTRADO = "MOVIMIENTO_REGISTRADO";
+    public static final String ALERTA_STOCK_CAMBIADA = "ALERTA_STOCK_CAMBIADA";
+
+    private static final TypeReference<Map<String, Object>> TIPO_DATOS = new TypeReference<>() {
+    };
+
+    private final EventoOutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay.lote:100}")
+    private int tamanoLote;
+
+    @Value("${outbox.relay.max-intentos:5}")
+    private int maxIntentos;
+
+    @Value("${outbox.purga.retencion-dias:7}")
+    private int retencionDias;
+
+    // Transacción propia por evento, anidada en la del lote (que retiene las filas)
+    private TransactionTemplate porEvento;
+
+    @PostConstruct
+    public void inicializar() {
+        porEvento = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        porEvento.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        meterRegistry.gauge("herrera.outbox.fallidos", this, OutboxService::contarFallidos);
+    }
+
+    // ============================================
+    // PUBLICACIÓN
+    // ============================================
+
+    /**
+     * Registra un evento dentro de la transacción en curso (obligatoria):
+     * si el cambio de negocio se revierte, el evento también
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicar(EventoOutbox.Agregado agregado, Long agregadoId, String tipo, Map<String, Object> datos) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Datos de evento no serializables: " + tipo, e);
+        }
+
+        outboxRepository.save(EventoOutbox.builder()
+                .agregado(agregado)
+                .agregadoId(agregadoId)
+                .tipo(tipo)
+                .payload(payload)
+                .build());
+    }
+
+    /**
+     * Arma los datos del evento a partir de pares clave/valor (admite nulos)
+     */
+    public static Map<String, Object> datos(Object... claveValor) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < claveValor.length; i += 2) {
+            datos.put((String) claveValor[i], claveValor[i + 1]);
+        }
+        return datos;
+    }
+
+    public long contarPendientes() {
+        return outboxRepository.countByProcesadoAtIsNull();
+    }
+
+    public long contarFallidos() {
+        return outboxRepository.countByFallidoTrue();
+    }
+
+    // ============================================
+    // RELAY
+    // ============================================
+
+    /**
+     * Despacha lotes de eventos pendientes hasta vaciar la cola
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.intervalo-ms:1000}")
+    public void despacharPendientes() {
+        int despachados;
+        do {
+            despachados = transactionTemplate.execute(status -> despacharLote());
+        } while (despachados >= tamanoLote);
+    }
+
+    /**
+     * Un lote en orden de id. Si un listener falla, el lote se detiene ahí
+     * para no romper el orden y el evento se reintenta en la siguiente corrida;
+     * al agotar los intentos se marca fallido (sale de la cola con el error
+     * registrado) y el lote sigue.
+     * El relay es un solo hilo: a lo más ocupa dos conexiones del pool.
+     */
+    private int despacharLote() {
+        List<EventoOutbox> eventos = outboxRepository.findPendientesParaDespacho(tamanoLote);
+
+        int despachados = 0;
+        for (EventoOutbox evento : eventos) {
+            try {
+                EventoDominio eventoDominio = aEventoDominio(evento);
+                porEvento.executeWithoutResult(status -> eventPublisher.publishEvent(eventoDominio));
+                evento.setProcesadoAt(LocalDateTime.now());
+                despachados++;
+                contar(evento, "despachado");
+            } catch (RuntimeException e) {
+                evento.setIntentos(evento.getIntentos() + 1);
+                evento.setUltimoError(e.getMessage());
+
+                if (evento.getIntentos() >= maxIntentos) {
+                    log.error("Evento #{} {} fallido tras {} intentos, queda sin despachar: {}",
+                            evento.getId(), evento.getTipo(), evento.getIntentos(), e.getMessage());
+                    evento.setFallido(true);
+                    evento.setProcesadoAt(LocalDateTime.now());
+                    despachados++;
+                    contar(evento, "fallido");
+                    continue;
+                }
+
+                log.warn("Evento #{} {} falló (intento {}): {}",
+                        evento.getId(), evento.getTipo(), evento.getIntentos(), e.getMessage());
+                contar(evento, "reintento");
+                break;
+            }
+        }
+
+        return eventos.size() == despachados ? despachados : 0;
+    }
+
+    // ============================================
+    // PURGA
+    // ============================================
+
+    /**
+     * Borra los eventos despachados más viejos que la retención; los
+     * fallidos se conservan hasta que alguien los revise
+     */
+    @Scheduled(cron = "${outbox.purga.cron:0 45 4 * * *}")
+    public void purgarProcesados() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(retencionDias);
+        Integer borrados = transactionTemplate.execute(
+                status -> outboxRepository.borrarProcesadosAntesDe(limite));
+        if (borrados != null && borrados > 0) {
+            log.info("Outbox: {} eventos despachados purgados", borrados);
+        }
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private void contar(EventoOutbox evento, String resultado) {
+        meterRegistry.counter("herrera.outbox.eventos",
+                "agregado", evento.getAgregado().name(),
+                "resultado", resultado).increment();
+    }
+
+    private EventoDominio aEventoDominio(EventoOutbox evento) {
+        try {
+            return new EventoDominio(
+                    evento.getId(),
+                    evento.getAgregado(),
+                    evento.getAgregadoId(),
+                    evento.getTipo(),
+                    objectMapper.readValue(evento.getPayload(), TIPO_DATOS),
+                    evento.getCreatedAt());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload inválido en evento #" + evento.getId(), e);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.herrera.erp.service;
 
+import com.herrera.erp.dto.PedidoDTO;
+import com.herrera.erp.dto.PedidoListadoDTO;
+import com.herrera.erp.exception.ResourceNotFoundException;
 import com.herrera.erp.model.*;
 import com.herrera.erp.repository.*;
 import com.herrera.erp.util.FolioGenerator;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,14 +24,18 @@ import java.util.stream.Collectors;
  * Ubicación: backend/src/main/java/com/herrera/erp/service/PedidoService.java
  */
 @Service
+@Timed("herrera.servicio")
 @RequiredArgsConstructor
 @Slf4j
 public class PedidoService {
 
     private final PedidoRepository pedidoRepository;
+    private final PedidoImagenRepository pedidoImagenRepository;
     private final ProductoRepository productoRepository;
     private final UsuarioRepository usuarioRepository;
     private final FolioGenerator folioGenerator;
+    private final ReservaService reservaService;
+    private final OutboxService outboxService;
 
     // Orden de tallas predefinido
     private static final List<String> ORDEN_TALLAS = Arrays.asList(
@@ -38,34 +46,60 @@ public class PedidoService {
     // CRUD DE PEDIDOS
     // ============================================
 
-    public List<Pedido> obtenerTodosPedidos() {
-        return pedidoRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<PedidoListadoDTO> obtenerTodosPedidos() {
+        return pedidoRepository.listarTodos();
     }
 
-    public List<Pedido> obtenerPedidosActivos() {
-        return pedidoRepository.findPedidosActivos();
+    @Transactional(readOnly = true)
+    public List<PedidoListadoDTO> obtenerPedidosActivos() {
+        return pedidoRepository.listarActivos();
     }
 
-    public List<Pedido> obtenerPedidosRetrasados() {
-        return pedidoRepository.findPedidosRetrasados();
+    @Transactional(readOnly = true)
+    public List<PedidoListadoDTO> obtenerPedidosRetrasados() {
+        return pedidoRepository.listarRetrasados();
     }
 
-    public List<Pedido> obtenerPedidosEntregarHoy() {
-        return pedidoRepository.findPedidosEntregarHoy();
+    @Transactional(readOnly = true)
+    public List<PedidoListadoDTO> obtenerPedidosEntregarHoy() {
+        return pedidoRepository.listarEntregarHoy();
     }
 
-    public List<Pedido> obtenerPedidosPreferenciales() {
-        return pedidoRepository.findPedidosPreferencialesPendientes();
+    @Transactional(readOnly = true)
+    public List<PedidoListadoDTO> obtenerPedidosPreferenciales() {
+        return pedidoRepository.listarPreferencialesPendientes();
     }
 
+    @Transactional(readOnly = true)
     public Pedido obtenerPedidoPorId(Long id) {
         return pedidoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
     }
 
-    public Pedido obtenerPedidoPorFolio(String folio) {
-        return pedidoRepository.findByFolio(folio)
-                .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
+    /**
+     * Detalle del pedido para respuestas: encabezado, items y URLs de imágenes
+     * en tres consultas, sin cargar la entidad ni sus relaciones
+     */
+    @Transactional(readOnly = true)
+    public PedidoDTO obtenerDetalle(Long id) {
+        PedidoDTO detalle = pedidoRepository.findDetalleById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Pedido", "id", id));
+        return completarDetalle(detalle);
+    }
+
+    @Transactional(readOnly = true)
+    public PedidoDTO obtenerDetallePorFolio(String folio) {
+        PedidoDTO detalle = pedidoRepository.findDetalleByFolio(folio)
+                .orElseThrow(() -> new ResourceNotFoundException("Pedido", "folio", folio));
+        return completarDetalle(detalle);
+    }
+
+    private PedidoDTO completarDetalle(PedidoDTO detalle) {
+        detalle.setItems(pedidoRepository.listarItemsDePedido(detalle.getId()));
+        detalle.setImagenesUrls(pedidoImagenRepository.listarUrlsPorPedido(detalle.getId()));
+        detalle.setMiniaturasUrls(pedidoImagenRepository.listarMiniaturasPorPedido(detalle.getId()));
+        return detalle;
     }
 
     // ============================================
@@ -74,6 +108,14 @@ public class PedidoService {
 
     @Transactional
     public Pedido crearPedido(Pedido pedido, List<PedidoItem> items, Long usuarioId) {
+        return crearPedido(pedido, items, null, usuarioId);
+    }
+
+    /**
+     * Crea el pedido y, si se indica la tela, reserva los metros estimados
+     */
+    @Transactional
+    public Pedido crearPedido(Pedido pedido, List<PedidoItem> items, Long materialId, Long usuarioId) {
         log.info("Creando pedido para cliente: {}", pedido.getClienteNombre());
 
         // Generar folio único
@@ -120,6 +162,23 @@ public class PedidoService {
         pedidoGuardado.setItems(itemsOrdenados);
         pedidoRepository.save(pedidoGuardado);
 
+        // Comprometer la tela estimada
+        BigDecimal telaEstimada = pedidoGuardado.getTotalTelaEstimada();
+        if (materialId != null && telaEstimada != null && telaEstimada.signum() > 0) {
+            reservaService.reservar(pedidoGuardado.getId(), materialId, telaEstimada);
+        }
+
+        outboxService.publicar(EventoOutbox.Agregado.PEDIDO, pedidoGuardado.getId(), OutboxService.PEDIDO_CREADO,
+                OutboxService.datos(
+                        "folio", folio,
+                        "clienteNombre", pedidoGuardado.getClienteNombre(),
+                        "totalPiezas", pedidoGuardado.getTotalPiezas(),
+                        "totalTelaEstimada", telaEstimada,
+                        "fechaEntrega", pedidoGuardado.getFechaEntrega(),
+                        "prioridad", pedidoGuardado.getPrioridad(),
+                        "ubicacion", pedidoGuardado.getUbicacionOrigen(),
+                        "usuarioId", usuarioId));
+
         log.info("Pedido creado exitosamente - Folio: {} - {} piezas",
                 folio, pedidoGuardado.getTotalPiezas());
 
@@ -139,6 +198,17 @@ public class PedidoService {
 
         Pedido pedidoActualizado = pedidoRepository.save(pedido);
 
+        if (nuevoEstado == Pedido.Estado.ENTREGADO || nuevoEstado == Pedido.Estado.CANCELADO) {
+            reservaService.liberarReservasPedido(pedidoId);
+        }
+
+        outboxService.publicar(EventoOutbox.Agregado.PEDIDO, pedidoId, OutboxService.PEDIDO_ESTADO_CAMBIADO,
+                OutboxService.datos(
+                        "folio", pedido.getFolio(),
+                        "estadoAnterior", estadoAnterior,
+                        "estadoNuevo", nuevoEstado,
+                        "usuarioId", usuarioId));
+
         log.info("Estado de pedido {} actualizado: {} → {}",
                 pedido.getFolio(), estadoAnterior, nuevoEstado);
 
@@ -153,12 +223,22 @@ public class PedidoService {
     @Transactional
     public Pedido cancelarPedido(Long pedidoId, String motivo, Long usuarioId) {
         Pedido pedido = obtenerPedidoPorId(pedidoId);
+        Pedido.Estado estadoAnterior = pedido.getEstado();
 
         pedido.setEstado(Pedido.Estado.CANCELADO);
         pedido.setObservaciones(
                 (pedido.getObservaciones() != null ? pedido.getObservaciones() + "\n" : "") +
                         "CANCELADO: " + motivo);
 
+        reservaService.liberarReservasPedido(pedidoId);
+
+        outboxService.publicar(EventoOutbox.Agregado.PEDIDO, pedidoId, OutboxService.PEDIDO_CANCELADO,
+                OutboxService.datos(
+                        "folio", pedido.getFolio(),
+                        "estadoAnterior", estadoAnterior,
+                        "motivo", motivo,
+                        "usuarioId", usuarioId));
+
         log.info("Pedido {} cancelado. Motivo: {}", pedido.getFolio(), motivo);
 
         return pedidoRepository.save(pedido);
@@ -197,6 +277,7 @@ public class PedidoService {
     /**
      * Verifica si un pedido está retrasado
      */
+    @Transactional(readOnly = true)
     public boolean estaRetrasado(Long pedidoId) {
         Pedido pedido = obtenerPedidoPorId(pedidoId);
         return pedido.estaRetrasado();
@@ -205,14 +286,16 @@ public class PedidoService {
     /**
      * Obtiene pedidos próximos a entregar (próximos N días)
      */
-    public List<Pedido> obtenerPedidosProximosAEntregar(int dias) {
+    @Transactional(readOnly = true)
+    public List<PedidoListadoDTO> obtenerPedidosProximosAEntregar(int dias) {
         LocalDate fechaLimite = LocalDate.now().plusDays(dias);
-        return pedidoRepository.findPedidosProximosAEntregar(fechaLimite);
+        return pedidoRepository.listarProximosAEntregar(fechaLimite);
     }
 
     /**
      * Cuenta pedidos por estado
      */
+    @Transactional(readOnly = true)
     public long contarPedidosPorEstado(Pedido.Estado estado) {
         return pedidoRepository.countByEstado(estado);
     }
@@ -220,6 +303,7 @@ public class PedidoService {
     /**
      * Obtiene estadísticas del dashboard
      */
+    @Transactional(readOnly = true)
     public DashboardStats obtenerEstadisticas() {
         return DashboardStats.builder()
                 .pedidosActivos(pedidoRepository.findPedidosActivos().size())
@@ -0,0 +1,368 @@
+package com.herrera.erp.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Procesamiento de imágenes antes de subirlas al almacén
+ * Recomprime la principal (lado mayor hasta lado-maximo) y genera las
+ * variantes de tamaño fijo. El decodificador lee el archivo desde disco con
+ * submuestreo (ImageReadParam.setSourceSubsampling), así que una foto de
+ * 48 MP se decodifica directo a ~2-4k px y nunca está completa en el heap.
+ * Corre en los workers de SubidaImagenesService (pool acotado).
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/ProcesadorImagenes.java
+ */
+@Component
+@Slf4j
+public class ProcesadorImagenes {
+
+    /**
+     * Variantes de tamaño fijo (lado mayor en px)
+     */
+    public enum Variante {
+        MINIATURA(240),
+        MEDIANA(960);
+
+        private final int lado;
+
+        Variante(int lado) {
+            this.lado = lado;
+        }
+
+        public int getLado() {
+            return lado;
+        }
+    }
+
+    private static final int ORIENTACION_NORMAL = 1;
+
+    @Value("${imagenes.procesamiento.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${imagenes.procesamiento.lado-maximo:2048}")
+    private int ladoMaximo;
+
+    @Value("${imagenes.procesamiento.calidad:0.82}")
+    private float calidad;
+
+    // Arriba de esto no se decodifica (protección contra imágenes "bomba"); se sube el original
+    @Value("${imagenes.procesamiento.max-megapixeles:64}")
+    private long maxMegapixeles;
+
+    /**
+     * Genera principal y variantes en el directorio indicado; null si el
+     * archivo no es una imagen que ImageIO pueda leer (HEIC, PDF, CMYK...)
+     * y hay que subir el original tal cual
+     */
+    public ImagenProcesada procesar(Path original, Path directorio) throws IOException {
+        if (!habilitado) {
+            return null;
+        }
+
+        BufferedImage imagen;
+        try {
+            imagen = leerSubmuestreada(original);
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo decodificar {}, se sube sin procesar: {}", original.getFileName(), e.getMessage());
+            return null;
+        }
+        if (imagen == null) {
+            return null;
+        }
+
+        imagen = aplicarOrientacion(normalizar(imagen), orientacionExif(original));
+        boolean conTransparencia = imagen.getColorModel().hasAlpha();
+        String formato = conTransparencia ? "png" : "jpg";
+        String base = UUID.randomUUID().toString();
+
+        ImagenProcesada resultado = new ImagenProcesada(Files.size(original));
+        try {
+            BufferedImage principal = escalar(imagen, ladoMaximo);
+            resultado.principal = escribir(principal, directorio.resolve(base + "." + formato), formato);
+            resultado.ancho = principal.getWidth();
+            resultado.alto = principal.getHeight();
+
+            // Cada variante sale de la anterior: menos trabajo y mejor calidad que escalar de golpe
+            BufferedImage mediana = escalar(principal, Variante.MEDIANA.getLado());
+            resultado.mediana = escribir(mediana, directorio.resolve(base + "-m." + formato), formato);
+            resultado.miniatura = escribir(escalar(mediana, Variante.MINIATURA.getLado()),
+                    directorio.resolve(base + "-t." + formato), formato);
+        } catch (IOException | RuntimeException e) {
+            resultado.limpiar();
+            throw e;
+        }
+
+        // Si recomprimir no redujo el archivo, se conserva el original como principal
+        if (Files.size(resultado.principal) >= resultado.bytesOriginal
+                && principalSinCambios(imagen, resultado) && !conTransparencia) {
+            Files.deleteIfExists(resultado.principal);
+            resultado.principal = original;
+            resultado.principalEsOriginal = true;
+        }
+        resultado.bytesPrincipal = Files.size(resultado.principal);
+        return resultado;
+    }
+
+    /**
+     * Archivos generados; limpiar() borra todos menos el original
+     */
+    @Getter
+    public static class ImagenProcesada {
+        private Path principal;
+        private Path mediana;
+        private Path miniatura;
+        private int ancho;
+        private int alto;
+        private final long bytesOriginal;
+        private long bytesPrincipal;
+        private boolean principalEsOriginal;
+
+        ImagenProcesada(long bytesOriginal) {
+            this.bytesOriginal = bytesOriginal;
+        }
+
+        public void limpiar() {
+            List<Path> generados = new ArrayList<>();
+            if (principal != null && !principalEsOriginal) {
+                generados.add(principal);
+            }
+            if (mediana != null) {
+                generados.add(mediana);
+            }
+            if (miniatura != null) {
+                generados.add(miniatura);
+            }
+            for (Path archivo : generados) {
+                try {
+                    Files.deleteIfExists(archivo);
+                } catch (IOException e) {
+                    log.warn("No se pudo borrar {}: {}", archivo, e.getMessage());
+                }
+            }
+        }
+    }
+
+    // ============================================
+    // DECODIFICACIÓN
+    // ============================================
+
+    /**
+     * Lee la primera imagen con el mayor submuestreo que todavía deja el
+     * lado mayor en al menos lado-maximo; null si no hay lector para el formato
+     */
+    private BufferedImage leerSubmuestreada(Path archivo) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(archivo.toFile())) {
+            if (entrada == null) {
+                return null;
+            }
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(entrada);
+            if (!lectores.hasNext()) {
+                return null;
+            }
+
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(entrada, true, true);
+                int ancho = lector.getWidth(0);
+                int alto = lector.getHeight(0);
+                if ((long) ancho * alto > maxMegapixeles * 1_000_000L) {
+                    log.warn("Imagen de {}x{} excede {} MP, se sube sin procesar", ancho, alto, maxMegapixeles);
+                    return null;
+                }
+
+                int submuestreo = Math.max(1, Math.max(ancho, alto) / ladoMaximo);
+                ImageReadParam parametros = lector.getDefaultReadParam();
+                parametros.setSourceSubsampling(submuestreo, submuestreo, 0, 0);
+                return lector.read(0, parametros);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    /**
+     * Orientación EXIF (tag 0x0112) de un JPEG; los teléfonos guardan la foto
+     * "acostada" y solo marcan la rotación en los metadatos
+     */
+    private static int orientacionExif(Path archivo) {
+        try (InputStream entrada = Files.newInputStream(archivo)) {
+            byte[] bytes = entrada.readNBytes(128 * 1024);
+            if (bytes.length < 4 || (bytes[0] & 0xFF) != 0xFF || (bytes[1] & 0xFF) != 0xD8) {
+                return ORIENTACION_NORMAL;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int pos = 2;
+            while (pos + 4 <= bytes.length && (bytes[pos] & 0xFF) == 0xFF) {
+                int marcador = bytes[pos + 1] & 0xFF;
+                int largo = ((bytes[pos + 2] & 0xFF) << 8) | (bytes[pos + 3] & 0xFF);
+                if (marcador == 0xE1 && pos + 10 <= bytes.length
+                        && "Exif".equals(new String(bytes, pos + 4, 4, StandardCharsets.US_ASCII))) {
+                    return orientacionTiff(buffer, pos + 10, Math.min(bytes.length, pos + 2 + largo));
+                }
+                if (marcador == 0xDA) {
+                    break;
+                }
+                pos += 2 + largo;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Sin orientación EXIF en {}: {}", archivo.getFileName(), e.getMessage());
+        }
+        return ORIENTACION_NORMAL;
+    }
+
+    private static int orientacionTiff(ByteBuffer buffer, int inicio, int fin) {
+        buffer.order(buffer.getShort(inicio) == 0x4949 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = inicio + buffer.getInt(inicio + 4);
+        int entradas = buffer.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entradas; i++) {
+            int entrada = ifd + 2 + i * 12;
+            if (entrada + 12 > fin) {
+                break;
+            }
+            if ((buffer.getShort(entrada) & 0xFFFF) == 0x0112) {
+                return buffer.getShort(entrada + 8) & 0xFFFF;
+            }
+        }
+        return ORIENTACION_NORMAL;
+    }
+
+    // ============================================
+    // TRANSFORMACIÓN Y CODIFICACIÓN
+    // ============================================
+
+    /**
+     * Solo rotaciones (3 = 180°, 6 = 90° horario, 8 = 90° antihorario);
+     * las orientaciones espejo no las producen las cámaras de teléfono
+     */
+    private static BufferedImage aplicarOrientacion(BufferedImage imagen, int orientacion) {
+        int grados = switch (orientacion) {
+            case 3 -> 180;
+            case 6 -> 90;
+            case 8 -> 270;
+            default -> 0;
+        };
+        if (grados == 0) {
+            return imagen;
+        }
+
+        int ancho = imagen.getWidth();
+        int alto = imagen.getHeight();
+        boolean gira = grados != 180;
+        BufferedImage rotada = new BufferedImage(gira ? alto : ancho, gira ? ancho : alto, tipoDestino(imagen));
+        Graphics2D g = rotada.createGraphics();
+        try {
+            g.translate(rotada.getWidth() / 2.0, rotada.getHeight() / 2.0);
+            g.rotate(Math.toRadians(grados));
+            g.translate(-ancho / 2.0, -alto / 2.0);
+            g.drawImage(imagen, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rotada;
+    }
+
+    /**
+     * Reduce hasta que el lado mayor sea "lado", a mitades sucesivas con
+     * interpolación bilineal; si ya es menor se devuelve igual
+     */
+    private static BufferedImage escalar(BufferedImage imagen, int lado) {
+        BufferedImage actual = imagen;
+        int mayor = Math.max(actual.getWidth(), actual.getHeight());
+        while (mayor > lado) {
+            int siguiente = Math.max(lado, mayor / 2);
+            double factor = (double) siguiente / mayor;
+            int ancho = Math.max(1, (int) Math.round(actual.getWidth() * factor));
+            int alto = Math.max(1, (int) Math.round(actual.getHeight() * factor));
+
+            BufferedImage reducida = new BufferedImage(ancho, alto, tipoDestino(actual));
+            Graphics2D g = reducida.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(actual, 0, 0, ancho, alto, null);
+            } finally {
+                g.dispose();
+            }
+            actual = reducida;
+            mayor = siguiente;
+        }
+        return actual;
+    }
+
+    private Path escribir(BufferedImage imagen, Path destino, String formato) throws IOException {
+        if ("png".equals(formato)) {
+            if (!ImageIO.write(imagen, "png", destino.toFile())) {
+                throw new IOException("Sin codificador PNG");
+            }
+            return destino;
+        }
+
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream salida = ImageIO.createImageOutputStream(destino.toFile())) {
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(calidad);
+            parametros.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            escritor.setOutput(salida);
+            escritor.write(null, new IIOImage(imagen, null, null), parametros);
+        } finally {
+            escritor.dispose();
+        }
+        return destino;
+    }
+
+    /**
+     * Lleva la imagen decodificada (gris, indexada, BGR...) a RGB o ARGB
+     */
+    private static BufferedImage normalizar(BufferedImage imagen) {
+        int tipo = tipoDestino(imagen);
+        if (imagen.getType() == tipo) {
+            return imagen;
+        }
+        BufferedImage normalizada = new BufferedImage(imagen.getWidth(), imagen.getHeight(), tipo);
+        Graphics2D g = normalizada.createGraphics();
+        try {
+            g.drawImage(imagen, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return normalizada;
+    }
+
+    /**
+     * JPEG sin alfa como TYPE_INT_RGB (el codificador JPEG de ImageIO no acepta ARGB)
+     */
+    private static int tipoDestino(BufferedImage imagen) {
+        return imagen.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+    }
+
+    private static boolean principalSinCambios(BufferedImage decodificada, ImagenProcesada resultado) {
+        return decodificada.getWidth() == resultado.ancho && decodificada.getHeight() == resultado.alto;
+    }
+}
@@ -26,10 +26,12 @@ public class ProductoService {
 
     private final ProductoRepository productoRepository;
     private final ProductoAjusteTallaRepository ajusteTallaRepository;
+    private final CacheReferenciaService cacheReferencia;
 
     /**
      * Obtener todos los productos activos
      */
+    @Transactional(readOnly = true)
     public List<Producto> obtenerProductosActivos() {
         return productoRepository.findByActivoTrue();
     }
@@ -37,6 +39,7 @@ public class ProductoService {
     /**
      * Obtener producto por ID
      */
+    @Transactional(readOnly = true)
     public Producto obtenerProductoPorId(Long id) {
         return productoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto", "id", id));
@@ -79,6 +82,7 @@ public class ProductoService {
             productoGuardado.setAjustesTalla(ajustes);
         }
 
+        cacheReferencia.invalidarProducto(productoGuardado.getId());
         log.info("Producto creado exitosamente: ID {}", productoGuardado.getId());
         return productoGuardado;
     }
@@ -123,6 +127,7 @@ public class ProductoService {
         }
 
         Producto productoActualizado = productoRepository.save(producto);
+        cacheReferencia.invalidarProducto(id);
         log.info("Producto actualizado exitosamente: ID {}", id);
 
         return productoActualizado;
@@ -138,6 +143,7 @@ public class ProductoService {
         Producto producto = obtenerProductoPorId(id);
         producto.setActivo(false);
         productoRepository.save(producto);
+        cacheReferencia.invalidarProducto(id);
 
         log.info("Producto desactivado: {}", producto.getNombre());
     }
@@ -145,6 +151,7 @@ public class ProductoService {
     /**
      * Calcular consumo total de tela para un pedido
      */
+    @Transactional(readOnly = true)
     public BigDecimal calcularConsumoTela(Long productoId, Map<String, Integer> tallasConCantidades) {
         Producto producto = obtenerProductoPorId(productoId);
         BigDecimal consumoTotal = BigDecimal.ZERO;
@@ -196,6 +203,7 @@ public class ProductoService {
     /**
      * Obtener todos los ajustes de talla de un producto
      */
+    @Transactional(readOnly = true)
     public Map<String, BigDecimal> obtenerAjustesTalla(Long productoId) {
         Producto producto = obtenerProductoPorId(productoId);
 
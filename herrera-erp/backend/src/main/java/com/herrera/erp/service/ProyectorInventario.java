@@ -0,0 +1,153 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.repository.MaterialRepository;
+import com.herrera.erp.repository.MovimientoInventarioRepository;
+import com.herrera.erp.repository.RolloRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Proyector de eventos de inventario
+ * En modo eventos (inventario.eventos.habilitado=true) los movimientos solo se
+ * insertan; este proceso, único escritor de los saldos, los aplica en orden y
+ * en lote a materiales.stock_actual y rollos.metros_actuales.
+ * Las lecturas de stock suman la proyección más los eventos pendientes
+ * (MaterialRepository.STOCK y RolloRepository.METROS): listados, alertas,
+ * reportes y validaciones. Solo los campos de las entidades cargadas
+ * (Material.stockActual, Rollo.metrosActuales) se quedan en lo proyectado;
+ * no deben usarse para decidir ni para responder.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/ProyectorInventario.java
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProyectorInventario {
+
+    private final MovimientoInventarioRepository movimientoRepository;
+    private final MaterialRepository materialRepository;
+    private final RolloRepository rolloRepository;
+    private final CoordinadorInventario coordinadorInventario;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventario.eventos.habilitado:false}")
+    private boolean habilitado;
+
+    @Value("${inventario.eventos.lote:500}")
+    private int tamanoLote;
+
+    // Garantiza un solo escritor aunque coincidan el arranque y el scheduler
+    private final ReentrantLock enCurso = new ReentrantLock();
+
+    private final AtomicLong eventosAplicados = new AtomicLong();
+    private volatile LocalDateTime ultimaProyeccion;
+
+    /**
+     * Al arrancar se proyecta lo pendiente aunque el modo esté apagado,
+     * por si se desactivó con eventos sin aplicar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void proyectarAlIniciar() {
+        proyectarPendientes();
+    }
+
+    @Scheduled(fixedDelayString = "${inventario.eventos.intervalo-ms:500}")
+    public void proyectarProgramado() {
+        if (habilitado) {
+            proyectarPendientes();
+        }
+    }
+
+    /**
+     * Aplica lotes de eventos pendientes hasta vaciar la cola
+     */
+    public void proyectarPendientes() {
+        if (!enCurso.tryLock()) {
+            return;
+        }
+        try {
+            int aplicados;
+            do {
+                aplicados = transactionTemplate.execute(status -> proyectarLote());
+            } while (aplicados >= tamanoLote);
+        } catch (RuntimeException e) {
+            // El lote se revierte completo; se reintenta en la siguiente corrida
+            log.warn("Proyección de inventario pospuesta: {}", e.getMessage());
+        } finally {
+            enCurso.unlock();
+        }
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Estado de la cola de eventos
+     */
+    public Map<String, Object> obtenerEstado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("habilitado", habilitado);
+        estado.put("pendientes", movimientoRepository.countByAplicadoFalse());
+        estado.put("aplicados", eventosAplicados.get());
+        estado.put("ultimaProyeccion", ultimaProyeccion);
+        return estado;
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private int proyectarLote() {
+        List<Object[]> eventos = movimientoRepository.findEventosPendientes(PageRequest.of(0, tamanoLote));
+        if (eventos.isEmpty()) {
+            return 0;
+        }
+
+        // Deltas agregados por material y rollo (TreeMap: updates en orden de id)
+        Map<Long, BigDecimal> porMaterial = new TreeMap<>();
+        Map<Long, BigDecimal> porRollo = new TreeMap<>();
+        List<Long> ids = new ArrayList<>(eventos.size());
+
+        for (Object[] evento : eventos) {
+            ids.add((Long) evento[0]);
+            BigDecimal cantidad = (BigDecimal) evento[3];
+            if (evento[1] != null) {
+                porMaterial.merge((Long) evento[1], cantidad, BigDecimal::add);
+            }
+            if (evento[2] != null) {
+                porRollo.merge((Long) evento[2], cantidad, BigDecimal::add);
+            }
+        }
+
+        coordinadorInventario.bloquear(porMaterial.keySet());
+
+        LocalDateTime ahora = LocalDateTime.now();
+        porMaterial.forEach((id, delta) -> materialRepository.sumarStock(id, delta, ahora));
+        porRollo.forEach((id, delta) -> rolloRepository.sumarMetros(id, delta));
+        movimientoRepository.marcarAplicados(ids);
+
+        eventosAplicados.addAndGet(ids.size());
+        ultimaProyeccion = ahora;
+        log.debug("Proyectados {} eventos en {} materiales y {} rollos",
+                ids.size(), porMaterial.size(), porRollo.size());
+
+        return ids.size();
+    }
+}
@@ -7,14 +7,18 @@ import com.herrera.erp.model.Pedido;
 import com.herrera.erp.repository.MaterialRepository;
 import com.herrera.erp.repository.PedidoRepository;
 import com.herrera.erp.repository.RolloRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -22,6 +26,7 @@ import java.util.stream.Collectors;
  * Estadísticas y reportes del sistema
  */
 @Service
+@Timed("herrera.servicio")
 @RequiredArgsConstructor
 @Slf4j
 public class ReporteService {
@@ -30,40 +35,18 @@ public class ReporteService {
         private final PedidoRepository pedidoRepository;
         private final RolloRepository rolloRepository;
         private final VentaService ventaService;
+        private final AlertaStockService alertaStockService;
 
         /**
          * Obtener estadísticas para el dashboard
          */
+        @Transactional(readOnly = true)
         public DashboardStatsDTO obtenerEstadisticasDashboard() {
                 log.info("Generando estadísticas del dashboard");
 
-                // Alertas de inventario
-                List<Material> materialesCriticos = materialRepository.findMaterialesStockCritico();
-                List<Material> materialesAlerta = materialRepository.findMaterialesStockBajo();
-
-                List<DashboardStatsDTO.MaterialAlertaDTO> alertasStock = materialesCriticos.stream()
-                                .map(m -> DashboardStatsDTO.MaterialAlertaDTO.builder()
-                                                .id(m.getId())
-                                                .nombre(m.getNombre())
-                                                .color(m.getColor())
-                                                .stockActual(m.getStockActual())
-                                                .stockMinimo(m.getStockMinimo())
-                                                .nivelAlerta("CRITICO")
-                                                .build())
-                                .collect(Collectors.toList());
-
-                // Agregar materiales en alerta (no críticos)
-                materialesAlerta.stream()
-                                .filter(m -> !materialesCriticos.contains(m))
-                                .forEach(m -> alertasStock.add(
-                                                DashboardStatsDTO.MaterialAlertaDTO.builder()
-                                                                .id(m.getId())
-                                                                .nombre(m.getNombre())
-                                                                .color(m.getColor())
-                                                                .stockActual(m.getStockActual())
-                                                                .stockMinimo(m.getStockMinimo())
-                                                                .nivelAlerta("BAJO")
-                                                                .build()));
+                // Alertas de inventario (motor incremental, sin recorrer materiales)
+                List<DashboardStatsDTO.MaterialAlertaDTO> alertasStock = alertaStockService.obtenerAlertas();
+                int materialesCriticos = alertaStockService.contarCriticos();
 
                 // Pedidos
                 List<Pedido> pedidosActivos = pedidoRepository.findPedidosActivos();
@@ -83,11 +66,12 @@ public class ReporteService {
                                                 .build())
                                 .collect(Collectors.toList());
 
-                // Inventario
+                // Inventario (stock con eventos pendientes; la entidad solo trae lo proyectado)
+                Map<Long, BigDecimal> stock = stockMaterialesActivos();
                 BigDecimal stockTotalTelas = materialRepository.findByActivoTrue().stream()
                                 .filter(m -> m.getTipoMaterial() != null &&
                                                 "TELA".equalsIgnoreCase(m.getTipoMaterial().getNombre()))
-                                .map(Material::getStockActual)
+                                .map(m -> stock.getOrDefault(m.getId(), m.getStockActual()))
                                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
                 int rollosDisponibles = rolloRepository.findRollosDisponibles().size();
@@ -97,8 +81,8 @@ public class ReporteService {
                 int numeroVentasHoy = ventaService.obtenerVentasDelDia().size();
 
                 return DashboardStatsDTO.builder()
-                                .materialesCriticos(materialesCriticos.size())
-                                .materialesAlerta(materialesAlerta.size())
+                                .materialesCriticos(materialesCriticos)
+                                .materialesAlerta(alertasStock.size())
                                 .alertasStock(alertasStock)
                                 .pedidosActivos(pedidosActivos.size())
                                 .pedidosPorEntregarHoy(pedidosHoy.size())
@@ -114,16 +98,17 @@ public class ReporteService {
         /**
          * Generar reporte de inventario
          */
+        @Transactional(readOnly = true)
         public ReporteDTO generarReporteInventario() {
                 log.info("Generando reporte de inventario");
 
                 List<Material> materiales = materialRepository.findByActivoTrue();
-                List<Material> criticos = materialRepository.findMaterialesStockCritico();
-                List<Material> alertas = materialRepository.findMaterialesStockBajo();
+                Map<Long, BigDecimal> stock = stockMaterialesActivos();
 
                 BigDecimal valorTotal = materiales.stream()
                                 .filter(m -> m.getPrecioUnitario() != null)
-                                .map(m -> m.getStockActual().multiply(m.getPrecioUnitario()))
+                                .map(m -> stock.getOrDefault(m.getId(), m.getStockActual())
+                                                .multiply(m.getPrecioUnitario()))
                                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
                 return ReporteDTO.builder()
@@ -132,8 +117,8 @@ public class ReporteService {
                                 .fechaInicio(LocalDate.now())
                                 .fechaFin(LocalDate.now())
                                 .totalMateriales(materiales.size())
-                                .materialesCriticos(criticos.size())
-                                .materialesAlerta(alertas.size())
+                                .materialesCriticos(alertaStockService.contarCriticos())
+                                .materialesAlerta(alertaStockService.contarAlertas())
                                 .valorTotalInventario(valorTotal)
                                 .datos(materiales)
                                 .build();
@@ -142,6 +127,7 @@ public class ReporteService {
         /**
          * Generar reporte de pedidos
          */
+        @Transactional(readOnly = true)
         public ReporteDTO generarReportePedidos(LocalDate fechaInicio, LocalDate fechaFin) {
                 log.info("Generando reporte de pedidos: {} a {}", fechaInicio, fechaFin);
 
@@ -166,6 +152,7 @@ public class ReporteService {
         /**
          * Generar reporte de ventas
          */
+        @Transactional(readOnly = true)
         public ReporteDTO generarReporteVentas(LocalDate fechaInicio, LocalDate fechaFin) {
                 log.info("Generando reporte de ventas: {} a {}", fechaInicio, fechaFin);
 
@@ -188,4 +175,16 @@ public class ReporteService {
                                 .datos(ventas)
                                 .build();
         }
+
+        // ============================================
+        // MÉTODOS AUXILIARES
+        // ============================================
+
+        private Map<Long, BigDecimal> stockMaterialesActivos() {
+                Map<Long, BigDecimal> stock = new HashMap<>();
+                for (Object[] fila : materialRepository.findStockMaterialesActivos()) {
+                        stock.put((Long) fila[0], (BigDecimal) fila[1]);
+                }
+                return stock;
+        }
 }
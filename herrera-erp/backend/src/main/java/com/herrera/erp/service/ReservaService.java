@@ -0,0 +1,374 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.exception.ResourceNotFoundException;
+import com.herrera.erp.exception.StockInsuficienteException;
+import com.herrera.erp.model.Material;
+import com.herrera.erp.model.ReservaMaterial;
+import com.herrera.erp.repository.MaterialRepository;
+import com.herrera.erp.repository.ReservaMaterialRepository;
+import com.herrera.erp.util.Transacciones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio de Reservas de Material (stock comprometido)
+ * Mantiene en memoria el disponible para prometer (ATP) por material:
+ * ATP = stock físico - metros reservados pendientes.
+ * Las disminuciones se aplican de inmediato (y se revierten si la transacción
+ * falla); los aumentos se aplican al confirmar, para nunca prometer de más.
+ * Lo que aún no se confirma se lleva aparte por material: al cargar o
+ * reconciliar desde la BD (que no lo ve) se descuenta otra vez. Las lecturas
+ * de la BD nunca corren dentro del bloqueo del mapa.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/ReservaService.java
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservaService {
+
+    private final ReservaMaterialRepository reservaRepository;
+    private final MaterialRepository materialRepository;
+
+    private final Map<Long, Saldo> saldos = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        Map<Long, BigDecimal> ledger = calcularDesdeLedger();
+        ledger.forEach((id, valor) -> saldos.compute(id, (k, saldo) -> saldoOVacio(saldo).cargar(valor)));
+        log.info("Disponible para prometer inicializado: {} materiales", ledger.size());
+    }
+
+    // ============================================
+    // CONSULTAS O(1)
+    // ============================================
+
+    /**
+     * Disponible para prometer de un material
+     */
+    public BigDecimal obtenerDisponible(Long materialId) {
+        Saldo saldo = saldos.get(materialId);
+        while (saldo == null || !saldo.cargado()) {
+            long version = saldo != null ? saldo.version : 0;
+            BigDecimal ledger = calcularDisponibleMaterial(materialId);
+            saldo = saldos.compute(materialId, (id, actual) -> cargarSiVigente(actual, version, ledger));
+        }
+        return saldo.disponible;
+    }
+
+    public boolean hayDisponible(Long materialId, BigDecimal cantidad) {
+        return obtenerDisponible(materialId).compareTo(cantidad) >= 0;
+    }
+
+    public BigDecimal obtenerReservado(Long materialId) {
+        return reservaRepository.sumPendienteByMaterial(materialId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReservaMaterial> obtenerReservasPorPedido(Long pedidoId) {
+        return reservaRepository.findByPedidoId(pedidoId);
+    }
+
+    // ============================================
+    // CICLO DE VIDA DE LA RESERVA
+    // ============================================
+
+    /**
+     * Reserva metros de un material para un pedido.
+     * Falla con StockInsuficienteException si el ATP no alcanza.
+     */
+    @Transactional
+    public ReservaMaterial reservar(Long pedidoId, Long materialId, BigDecimal metros) {
+        Material material = materialRepository.findById(materialId)
+                .orElseThrow(() -> new ResourceNotFoundException("Material", "id", materialId));
+
+        // El ledger se lee fuera del bloqueo; si el saldo cambió mientras, se vuelve a leer
+        Saldo saldo = saldos.get(materialId);
+        do {
+            long version = saldo != null ? saldo.version : 0;
+            BigDecimal ledger = saldo != null && saldo.cargado() ? null : calcularDisponibleMaterial(materialId);
+            saldo = saldos.compute(materialId, (id, actual) -> {
+                Saldo base = cargarSiVigente(actual, version, ledger);
+                if (!base.cargado()) {
+                    return base;
+                }
+                if (base.disponible.compareTo(metros) < 0) {
+                    throw new StockInsuficienteException(materialId, base.disponible, metros);
+                }
+                return base.disminuir(metros, hayTransaccion());
+            });
+        } while (!saldo.cargado());
+        alConcluir(materialId, metros.negate());
+
+        ReservaMaterial reserva = ReservaMaterial.builder()
+                .pedidoId(pedidoId)
+                .material(material)
+                .metrosReservados(metros)
+                .build();
+
+        ReservaMaterial guardada = reservaRepository.save(reserva);
+
+        log.info("Reserva creada - Pedido #{} - Material: {} - {} metros",
+                pedidoId, material.getNombre(), metros);
+
+        return guardada;
+    }
+
+    /**
+     * Descuenta metros cortados de la reserva del pedido.
+     * El stock físico ya lo descuenta el movimiento; aquí solo se libera
+     * el compromiso equivalente para que el ATP no se cuente dos veces.
+     */
+    @Transactional
+    public void consumir(Long pedidoId, Long materialId, BigDecimal metrosCortados) {
+        List<ReservaMaterial> reservas = reservaRepository.findByPedidoIdAndMaterialIdAndEstado(
+                pedidoId, materialId, ReservaMaterial.Estado.ACTIVA);
+
+        BigDecimal restante = metrosCortados;
+        BigDecimal liberado = BigDecimal.ZERO;
+
+        for (ReservaMaterial reserva : reservas) {
+            if (restante.signum() <= 0) {
+                break;
+            }
+            BigDecimal consumo = restante.min(reserva.getMetrosPendientes());
+            reserva.setMetrosConsumidos(reserva.getMetrosConsumidos().add(consumo));
+            if (reserva.getMetrosPendientes().signum() == 0) {
+                reserva.setEstado(ReservaMaterial.Estado.CONSUMIDA);
+            }
+            restante = restante.subtract(consumo);
+            liberado = liberado.add(consumo);
+        }
+
+        if (liberado.signum() > 0) {
+            reservaRepository.saveAll(reservas);
+            ajustarDisponible(materialId, liberado);
+            log.debug("Reserva del pedido #{} consumida: {} metros", pedidoId, liberado);
+        }
+    }
+
+    /**
+     * Libera lo pendiente de todas las reservas activas del pedido
+     * (cancelación o entrega con sobrante)
+     */
+    @Transactional
+    public void liberarReservasPedido(Long pedidoId) {
+        List<ReservaMaterial> reservas = reservaRepository.findByPedidoIdAndEstado(
+                pedidoId, ReservaMaterial.Estado.ACTIVA);
+
+        for (ReservaMaterial reserva : reservas) {
+            BigDecimal pendiente = reserva.getMetrosPendientes();
+            reserva.setEstado(ReservaMaterial.Estado.LIBERADA);
+            ajustarDisponible(reserva.getMaterial().getId(), pendiente);
+        }
+
+        if (!reservas.isEmpty()) {
+            reservaRepository.saveAll(reservas);
+            log.info("Reservas liberadas para pedido #{}: {}", pedidoId, reservas.size());
+        }
+    }
+
+    /**
+     * Refleja en el ATP un cambio de stock físico (movimiento de inventario)
+     */
+    public void registrarCambioStock(Long materialId, BigDecimal cantidadConSigno) {
+        ajustarDisponible(materialId, cantidadConSigno);
+    }
+
+    /**
+     * Registra un material recién creado en el ATP
+     */
+    public void registrarMaterial(Material material) {
+        Transacciones.despuesDelCommit(() -> saldos.compute(material.getId(),
+                (id, saldo) -> saldo != null && saldo.cargado() ? saldo : saldoOVacio(saldo)
+                        .cargar(material.getStockActual())));
+    }
+
+    // ============================================
+    // RECONCILIACIÓN
+    // ============================================
+
+    /**
+     * Verifica el ATP en memoria contra el ledger de la BD y corrige desviaciones
+     * Solo corrige los materiales cuyo saldo no cambió durante la lectura; a lo
+     * leído se le descuenta lo que sigue sin confirmar.
+     */
+    @Scheduled(fixedDelayString = "${inventario.reservas.reconciliacion-ms:300000}",
+            initialDelayString = "${inventario.reservas.reconciliacion-ms:300000}")
+    @Transactional(readOnly = true)
+    public void reconciliar() {
+        Map<Long, Long> versiones = new HashMap<>();
+        saldos.forEach((id, saldo) -> versiones.put(id, saldo.version));
+        Map<Long, BigDecimal> ledger = calcularDesdeLedger();
+
+        int[] corregidos = new int[1];
+        int[] pospuestos = new int[1];
+        ledger.forEach((materialId, valor) -> saldos.compute(materialId, (id, actual) -> {
+            Saldo saldo = saldoOVacio(actual);
+            if (saldo.version != versiones.getOrDefault(id, 0L)) {
+                pospuestos[0]++;
+                return actual;
+            }
+            Saldo corregido = saldo.cargar(valor);
+            if (saldo.cargado() && saldo.disponible.compareTo(corregido.disponible) != 0) {
+                log.warn("ATP desviado para material {}: memoria={}, ledger={}",
+                        id, saldo.disponible, corregido.disponible);
+                corregidos[0]++;
+            }
+            return corregido;
+        }));
+        // Materiales inactivos: se quitan si no tienen nada en curso
+        saldos.entrySet().removeIf(e -> !ledger.containsKey(e.getKey()) && e.getValue().sinPendientes());
+
+        if (corregidos[0] > 0) {
+            log.warn("Reconciliación de reservas corrigió {} materiales", corregidos[0]);
+        }
+        if (pospuestos[0] > 0) {
+            log.debug("Reconciliación de reservas pospuso {} materiales con movimientos durante la lectura",
+                    pospuestos[0]);
+        }
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private Map<Long, BigDecimal> calcularDesdeLedger() {
+        Map<Long, BigDecimal> resultado = new HashMap<>();
+        for (Object[] fila : materialRepository.findStockMaterialesActivos()) {
+            BigDecimal stock = fila[1] != null ? (BigDecimal) fila[1] : BigDecimal.ZERO;
+            resultado.put((Long) fila[0], stock);
+        }
+        for (Object[] fila : reservaRepository.sumPendientePorMaterial()) {
+            resultado.computeIfPresent((Long) fila[0], (id, stock) -> stock.subtract((BigDecimal) fila[1]));
+        }
+        return resultado;
+    }
+
+    private BigDecimal calcularDisponibleMaterial(Long materialId) {
+        BigDecimal stock = materialRepository.findStockActualById(materialId)
+                .orElseThrow(() -> new ResourceNotFoundException("Material", "id", materialId));
+        return stock.subtract(reservaRepository.sumPendienteByMaterial(materialId));
+    }
+
+    private void ajustarDisponible(Long materialId, BigDecimal delta) {
+        if (delta.signum() < 0) {
+            saldos.compute(materialId, (id, saldo) -> saldoOVacio(saldo).disminuir(delta.negate(), hayTransaccion()));
+            alConcluir(materialId, delta);
+        } else if (delta.signum() > 0) {
+            if (!hayTransaccion()) {
+                saldos.compute(materialId, (id, saldo) -> saldoOVacio(saldo).aumentar(delta));
+                return;
+            }
+            saldos.compute(materialId, (id, saldo) -> saldoOVacio(saldo).anunciarAumento(delta));
+            alConcluir(materialId, delta);
+        }
+    }
+
+    /**
+     * Al terminar la transacción el delta deja de estar en curso: un aumento
+     * se suma al confirmar y una disminución se devuelve al revertir
+     */
+    private void alConcluir(Long materialId, BigDecimal delta) {
+        if (!hayTransaccion()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean confirmada = status == STATUS_COMMITTED;
+                saldos.compute(materialId, (id, saldo) -> saldoOVacio(saldo).concluir(delta, confirmada));
+            }
+        });
+    }
+
+    private static boolean hayTransaccion() {
+        return TransactionSynchronizationManager.isSynchronizationActive();
+    }
+
+    private static Saldo saldoOVacio(Saldo saldo) {
+        return saldo != null ? saldo : Saldo.SIN_CARGAR;
+    }
+
+    // Carga el valor leído de la BD solo si el saldo no cambió desde la lectura
+    private static Saldo cargarSiVigente(Saldo actual, long versionLeida, BigDecimal ledger) {
+        Saldo saldo = saldoOVacio(actual);
+        if (saldo.cargado() || ledger == null || saldo.version != versionLeida) {
+            return saldo;
+        }
+        return saldo.cargar(ledger);
+    }
+
+    /**
+     * Saldo de un material (inmutable: se reemplaza dentro de compute)
+     * disponible: ATP en memoria; null = aún no se lee de la BD
+     * bajas / altas: metros de transacciones sin concluir, ya descontados del
+     * disponible (bajas) o por sumar al confirmar (altas)
+     * version: sube con cada cambio en curso; una lectura de la BD solo se
+     * aplica si la versión no cambió mientras se leía
+     */
+    static final class Saldo {
+        static final Saldo SIN_CARGAR = new Saldo(null, BigDecimal.ZERO, BigDecimal.ZERO, 0);
+
+        final BigDecimal disponible;
+        final BigDecimal bajas;
+        final BigDecimal altas;
+        final long version;
+
+        private Saldo(BigDecimal disponible, BigDecimal bajas, BigDecimal altas, long version) {
+            this.disponible = disponible;
+            this.bajas = bajas;
+            this.altas = altas;
+            this.version = version;
+        }
+
+        boolean cargado() {
+            return disponible != null;
+        }
+
+        boolean sinPendientes() {
+            return bajas.signum() == 0 && altas.signum() == 0;
+        }
+
+        // La BD no ve lo que sigue en curso: las bajas se descuentan de nuevo y
+        // las altas también (se suman al confirmar), para no prometer de más
+        Saldo cargar(BigDecimal ledger) {
+            return new Saldo(ledger.subtract(bajas).subtract(altas), bajas, altas, version);
+        }
+
+        Saldo disminuir(BigDecimal metros, boolean enCurso) {
+            return new Saldo(cargado() ? disponible.subtract(metros) : null,
+                    enCurso ? bajas.add(metros) : bajas, altas, version + 1);
+        }
+
+        Saldo aumentar(BigDecimal metros) {
+            return new Saldo(cargado() ? disponible.add(metros) : null, bajas, altas, version + 1);
+        }
+
+        Saldo anunciarAumento(BigDecimal metros) {
+            return new Saldo(disponible, bajas, altas.add(metros), version + 1);
+        }
+
+        Saldo concluir(BigDecimal delta, boolean confirmada) {
+            if (delta.signum() < 0) {
+                BigDecimal metros = delta.negate();
+                BigDecimal valor = cargado() && !confirmada ? disponible.add(metros) : disponible;
+                return new Saldo(valor, bajas.subtract(metros), altas, version + 1);
+            }
+            BigDecimal valor = cargado() && confirmada ? disponible.add(delta) : disponible;
+            return new Saldo(valor, bajas, altas.subtract(delta), version + 1);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.dto.LoteSincronizacion;
+import com.herrera.erp.exception.ResourceNotFoundException;
+import com.herrera.erp.model.ConflictoSincronizacion;
+import com.herrera.erp.model.MovimientoInventario;
+import com.herrera.erp.model.SitioSincronizacion;
+import com.herrera.erp.model.Venta;
+import com.herrera.erp.repository.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio de sincronización del servidor central
+ * Aplica los lotes que mandan los sitios, en orden de secuencia y en una
+ * sola transacción por lote. Lo ya aplicado (secuencia menor o igual a la
+ * última del sitio) se ignora: un sitio que no recibió la respuesta puede
+ * reenviar el mismo lote sin duplicar nada. Un hueco detiene el lote y el
+ * sitio reenvía desde la última secuencia que se le devuelve.
+ * Lo que el sitio ya vendió no se rechaza: stock negativo, referencias
+ * desconocidas y folios repetidos quedan en conflictos_sincronizacion.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/SincronizacionCentralService.java
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SincronizacionCentralService {
+
+    private final SitioSincronizacionRepository sitioRepository;
+    private final ConflictoSincronizacionRepository conflictoRepository;
+    private final MaterialRepository materialRepository;
+    private final RolloRepository rolloRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final VentaRepository ventaRepository;
+    private final InventarioService inventarioService;
+    private final VentaService ventaService;
+    private final CoordinadorInventario coordinadorInventario;
+
+    @Transactional
+    public LoteSincronizacion.Respuesta aplicarLote(LoteSincronizacion lote) {
+        Venta.UbicacionVenta sitio = lote.getSitio();
+
+        // Bloquea la fila del sitio: un reenvío simultáneo espera y luego ignora lo aplicado
+        SitioSincronizacion estado = sitioRepository.bloquear(sitio.name())
+                .orElseThrow(() -> new ResourceNotFoundException("Sitio", "nombre", sitio));
+
+        // Todos los materiales del lote de una vez y en orden: uno por movimiento se cruzaría con el mostrador
+        coordinadorInventario.bloquear(lote.getEntradas().stream()
+                .filter(e -> e.getSecuencia() > estado.getUltimaSecuencia() && e.getMovimiento() != null)
+                .map(e -> e.getMovimiento().getMaterialId())
+                .toList());
+
+        long ultima = estado.getUltimaSecuencia();
+        int aplicadas = 0;
+        int conflictos = 0;
+
+        for (LoteSincronizacion.Entrada entrada : lote.getEntradas()) {
+            if (entrada.getSecuencia() <= ultima) {
+                continue;
+            }
+            if (entrada.getSecuencia() != ultima + 1) {
+                log.warn("Sitio {}: hueco en el diario (esperada {}, llegó {}); se pide reenvío",
+                        sitio, ultima + 1, entrada.getSecuencia());
+                break;
+            }
+
+            conflictos += switch (entrada.getTipo()) {
+                case VENTA -> aplicarVenta(sitio, entrada.getSecuencia(), entrada.getVenta());
+                case MOVIMIENTO -> aplicarMovimiento(sitio, entrada.getSecuencia(), entrada.getMovimiento());
+            };
+            ultima = entrada.getSecuencia();
+            aplicadas++;
+        }
+
+        if (aplicadas > 0) {
+            estado.setUltimaSecuencia(ultima);
+            estado.setActualizadoAt(LocalDateTime.now());
+            sitioRepository.save(estado);
+            log.info("Sitio {}: {} entradas aplicadas hasta la secuencia {} ({} conflictos)",
+                    sitio, aplicadas, ultima, conflictos);
+        }
+
+        return new LoteSincronizacion.Respuesta(ultima, aplicadas, conflictos);
+    }
+
+    /**
+     * Avance por sitio y conflictos sin revisar
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> obtenerEstado() {
+        Map<String, Object> sitios = new LinkedHashMap<>();
+        for (SitioSincronizacion sitio : sitioRepository.findAll()) {
+            Map<String, Object> avance = new LinkedHashMap<>();
+            avance.put("ultimaSecuencia", sitio.getUltimaSecuencia());
+            avance.put("actualizadoAt", sitio.getActualizadoAt());
+            sitios.put(sitio.getSitio().name(), avance);
+        }
+
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("sitios", sitios);
+        estado.put("conflictosPendientes", conflictoRepository.countByRevisadoFalse());
+        return estado;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ConflictoSincronizacion> obtenerConflictosPendientes() {
+        return conflictoRepository.findByRevisadoFalseOrderByCreatedAtAsc();
+    }
+
+    @Transactional
+    public ConflictoSincronizacion marcarRevisado(Long id) {
+        ConflictoSincronizacion conflicto = conflictoRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Conflicto", "id", id));
+        conflicto.setRevisado(true);
+        return conflictoRepository.save(conflicto);
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private int aplicarVenta(Venta.UbicacionVenta sitio, long secuencia, LoteSincronizacion.VentaSitio venta) {
+        if (venta == null) {
+            throw new IllegalArgumentException("Entrada " + secuencia + " de tipo VENTA sin venta");
+        }
+
+        if (ventaRepository.existsByFolioVenta(venta.getFolio())) {
+            registrarConflicto(sitio, secuencia, ConflictoSincronizacion.Tipo.FOLIO_DUPLICADO, null, null, null,
+                    "El folio " + venta.getFolio() + " ya existe en el central; la venta no se aplicó");
+            return 1;
+        }
+
+        ventaService.registrarVentaSincronizada(venta, usuarioExistente(venta.getUsuarioVendedorId()));
+        return 0;
+    }
+
+    private int aplicarMovimiento(Venta.UbicacionVenta sitio, long secuencia,
+            LoteSincronizacion.MovimientoSitio movimiento) {
+        if (movimiento == null) {
+            throw new IllegalArgumentException("Entrada " + secuencia + " de tipo MOVIMIENTO sin movimiento");
+        }
+
+        Long materialId = movimiento.getMaterialId();
+        Long rolloId = movimiento.getRolloId();
+
+        // El rollo debe existir y ser del mismo material
+        boolean referenciaValida = materialRepository.existsById(materialId)
+                && (rolloId == null || rolloRepository.findMaterialIdById(rolloId)
+                        .map(materialId::equals)
+                        .orElse(false));
+        if (!referenciaValida) {
+            registrarConflicto(sitio, secuencia, ConflictoSincronizacion.Tipo.REFERENCIA_DESCONOCIDA,
+                    materialId, rolloId, null,
+                    "Material o rollo desconocido en el central; no se aplicó: " + descripcion(movimiento));
+            return 1;
+        }
+
+        MovimientoInventario registrado = inventarioService.registrarMovimientoDeSitio(
+                materialId,
+                rolloId,
+                movimiento.getTipo(),
+                movimiento.getCantidad(),
+                "[" + sitio + "] " + movimiento.getMotivo(),
+                movimiento.getPedidoId(),
+                usuarioExistente(movimiento.getUsuarioId()),
+                movimiento.getFecha() != null ? movimiento.getFecha() : LocalDateTime.now());
+
+        BigDecimal metrosRollo = rolloId != null
+                ? rolloRepository.findMetrosActualesById(rolloId).orElse(BigDecimal.ZERO)
+                : BigDecimal.ZERO;
+        if (registrado.getStockNuevo().signum() < 0 || metrosRollo.signum() < 0) {
+            registrarConflicto(sitio, secuencia, ConflictoSincronizacion.Tipo.STOCK_NEGATIVO,
+                    materialId, rolloId, registrado.getId(),
+                    "Stock del material: " + registrado.getStockNuevo()
+                            + (rolloId != null ? ", metros del rollo: " + metrosRollo : "")
+                            + " tras " + descripcion(movimiento));
+            return 1;
+        }
+        return 0;
+    }
+
+    private void registrarConflicto(Venta.UbicacionVenta sitio, long secuencia, ConflictoSincronizacion.Tipo tipo,
+            Long materialId, Long rolloId, Long movimientoId, String detalle) {
+        log.warn("Sitio {}: conflicto {} en la secuencia {}: {}", sitio, tipo, secuencia, detalle);
+        conflictoRepository.save(ConflictoSincronizacion.builder()
+                .sitio(sitio)
+                .secuencia(secuencia)
+                .tipo(tipo)
+                .materialId(materialId)
+                .rolloId(rolloId)
+                .movimientoId(movimientoId)
+                .detalle(detalle)
+                .build());
+    }
+
+    // El usuario del sitio puede no existir en el central: el registro queda sin usuario
+    private Long usuarioExistente(Long usuarioId) {
+        return usuarioId != null && usuarioRepository.existsById(usuarioId) ? usuarioId : null;
+    }
+
+    private static String descripcion(LoteSincronizacion.MovimientoSitio movimiento) {
+        return movimiento.getTipo() + " de " + movimiento.getCantidad() + " (" + movimiento.getMotivo() + ")";
+    }
+}
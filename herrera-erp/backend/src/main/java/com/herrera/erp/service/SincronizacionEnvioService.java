@@ -0,0 +1,290 @@
+package com.herrera.erp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.herrera.erp.config.SincronizacionProperties;
+import com.herrera.erp.dto.LoteSincronizacion;
+import com.herrera.erp.model.EntradaDiario;
+import com.herrera.erp.repository.EntradaDiarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Envío del diario del sitio al servidor central
+ * En su propio hilo: numera las entradas nuevas (secuencia contigua) y las
+ * manda por lotes, JSON comprimido con gzip. Cada respuesta dice hasta qué
+ * secuencia aplicó el central; eso se confirma y el siguiente lote sale
+ * desde ahí. Sin conexión el sitio sigue vendiendo contra su base y el
+ * envío se reintenta con espera exponencial; al volver, el diario se
+ * vacía en orden. Reenviar un lote no duplica nada en el central.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/SincronizacionEnvioService.java
+ */
+@Service
+@Slf4j
+public class SincronizacionEnvioService {
+
+    private static final String RUTA_LOTES = "/api/sincronizacion/lotes";
+
+    private final EntradaDiarioRepository entradaDiarioRepository;
+    private final SincronizacionProperties propiedades;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final HttpClient cliente;
+
+    // Un solo hilo: numerar y enviar nunca corren a la vez, y un central
+    // lento o caído no ocupa el scheduler compartido
+    private final ExecutorService hilo = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("sincronizacion-envio-"));
+    private final AtomicBoolean ocupado = new AtomicBoolean();
+
+    // Estado del envío (solo lo escribe el hilo de envío)
+    private long desde = -1; // -1 = leer de la base la última confirmada
+    private int fallos;
+    private long siguienteIntentoMs;
+    private volatile LocalDateTime ultimoEnvio;
+    private volatile String ultimoError;
+
+    private final AtomicLong pendientes = new AtomicLong();
+
+    public SincronizacionEnvioService(EntradaDiarioRepository entradaDiarioRepository,
+            SincronizacionProperties propiedades, ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.entradaDiarioRepository = entradaDiarioRepository;
+        this.propiedades = propiedades;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(propiedades.getEnvio().getTimeoutMs()))
+                .build();
+        meterRegistry.gauge("herrera.sincronizacion.pendientes", pendientes);
+
+        if (propiedades.getEnvio().isHabilitado() && propiedades.getCentral().isHabilitado()) {
+            log.warn("sincronizacion.envio y sincronizacion.central habilitados en la misma instancia: "
+                    + "el sitio {} se enviaría el diario a sí mismo", propiedades.getSitio());
+        }
+    }
+
+    // ============================================
+    // PROGRAMACIÓN
+    // ============================================
+
+    @Scheduled(fixedDelayString = "${sincronizacion.envio.intervalo-ms:5000}")
+    public void programarEnvio() {
+        ejecutar(this::enviarPendientes);
+    }
+
+    @Scheduled(cron = "${sincronizacion.envio.purga-cron:0 15 4 * * *}")
+    public void programarPurga() {
+        ejecutar(this::purgarConfirmadas);
+    }
+
+    private void ejecutar(Runnable tarea) {
+        if (!propiedades.getEnvio().isHabilitado() || !ocupado.compareAndSet(false, true)) {
+            return;
+        }
+        hilo.execute(() -> {
+            try {
+                tarea.run();
+            } catch (RuntimeException e) {
+                log.error("Error en la sincronización con el central: {}", e.getMessage(), e);
+            } finally {
+                ocupado.set(false);
+            }
+        });
+    }
+
+    /**
+     * Entradas sin confirmar, última confirmada y resultado del último envío
+     */
+    public Map<String, Object> obtenerEstado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("habilitado", propiedades.getEnvio().isHabilitado());
+        estado.put("sitio", propiedades.getSitio());
+        estado.put("pendientes", entradaDiarioRepository.countByConfirmadoAtIsNull());
+        estado.put("ultimaConfirmada", entradaDiarioRepository.ultimaConfirmada());
+        estado.put("ultimoEnvio", ultimoEnvio);
+        estado.put("fallosSeguidos", fallos);
+        estado.put("ultimoError", ultimoError);
+        return estado;
+    }
+
+    // ============================================
+    // ENVÍO
+    // ============================================
+
+    void enviarPendientes() {
+        if (System.currentTimeMillis() < siguienteIntentoMs) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> entradaDiarioRepository.numerar());
+            if (desde < 0) {
+                desde = entradaDiarioRepository.ultimaConfirmada();
+            }
+
+            List<EntradaDiario> lote;
+            while (!(lote = entradaDiarioRepository.findParaEnviar(
+                    desde, PageRequest.of(0, propiedades.getEnvio().getLote()))).isEmpty()) {
+                enviarLote(lote);
+            }
+
+            fallos = 0;
+            ultimoError = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            registrarFallo(e);
+        } finally {
+            pendientes.set(entradaDiarioRepository.countByConfirmadoAtIsNull());
+        }
+    }
+
+    private void enviarLote(List<EntradaDiario> lote) throws IOException, InterruptedException {
+        long ultimaEnviada = lote.get(lote.size() - 1).getSecuencia();
+        LoteSincronizacion.Respuesta respuesta = enviar(armarLote(lote));
+        long confirmada = respuesta.getUltimaSecuencia();
+
+        // El central ya tiene más de lo que este sitio numeró: la base del
+        // sitio se restauró o dos instancias usan el mismo sitio. Confirmar
+        // haría que lo nuevo se ignore como ya aplicado.
+        if (confirmada > ultimaEnviada) {
+            throw new IllegalStateException("El central tiene aplicado el sitio " + propiedades.getSitio()
+                    + " hasta la secuencia " + confirmada + " y este sitio solo ha numerado hasta "
+                    + ultimaEnviada + "; se requiere revisión manual");
+        }
+
+        if (confirmada <= desde) {
+            if (confirmada < desde) {
+                // El central perdió lo que ya había confirmado (base restaurada): se reenvía
+                log.warn("El central tiene el sitio {} hasta la secuencia {} (confirmada aquí: {}); reenviando",
+                        propiedades.getSitio(), confirmada, desde);
+                desde = confirmada;
+                return;
+            }
+            throw new IllegalStateException("El central no aplicó la secuencia " + (desde + 1)
+                    + " del sitio " + propiedades.getSitio());
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> entradaDiarioRepository.confirmarHasta(confirmada, ahora));
+        desde = confirmada;
+        ultimoEnvio = ahora;
+        meterRegistry.counter("herrera.sincronizacion.lotes", "resultado", "enviado").increment();
+        log.debug("Lote enviado al central: secuencias hasta {} ({} conflictos)",
+                confirmada, respuesta.getConflictos());
+    }
+
+    private LoteSincronizacion armarLote(List<EntradaDiario> lote) throws IOException {
+        List<LoteSincronizacion.Entrada> entradas = new ArrayList<>(lote.size());
+        for (EntradaDiario entrada : lote) {
+            LoteSincronizacion.Entrada e = new LoteSincronizacion.Entrada();
+            e.setSecuencia(entrada.getSecuencia());
+            e.setTipo(entrada.getTipo());
+            if (entrada.getTipo() == EntradaDiario.Tipo.VENTA) {
+                e.setVenta(objectMapper.readValue(entrada.getPayload(), LoteSincronizacion.VentaSitio.class));
+            } else {
+                e.setMovimiento(objectMapper.readValue(entrada.getPayload(), LoteSincronizacion.MovimientoSitio.class));
+            }
+            entradas.add(e);
+        }
+        return new LoteSincronizacion(propiedades.getSitio(), entradas);
+    }
+
+    private LoteSincronizacion.Respuesta enviar(LoteSincronizacion lote) throws IOException, InterruptedException {
+        SincronizacionProperties.Envio envio = propiedades.getEnvio();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(envio.getCentralUrl() + RUTA_LOTES))
+                .timeout(Duration.ofMillis(envio.getTimeoutMs()))
+                .header("Content-Type", "application/json")
+                .header("Content-Encoding", "gzip")
+                .header("X-Sitio", propiedades.getSitio().name())
+                .header("X-Sitio-Token", envio.getToken())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(comprimir(objectMapper.writeValueAsBytes(lote))))
+                .build();
+
+        HttpResponse<byte[]> response = cliente.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            String cuerpo = new String(response.body(), StandardCharsets.UTF_8);
+            throw new IOException("El central respondió " + response.statusCode() + ": "
+                    + cuerpo.substring(0, Math.min(cuerpo.length(), 300)));
+        }
+        return objectMapper.readValue(response.body(), LoteSincronizacion.Respuesta.class);
+    }
+
+    private void registrarFallo(Exception e) {
+        fallos++;
+        long espera = Math.min(
+                propiedades.getEnvio().getEsperaBaseMs() << Math.min(fallos - 1, 20),
+                propiedades.getEnvio().getEsperaMaxMs());
+        siguienteIntentoMs = System.currentTimeMillis() + espera;
+        ultimoError = e.getMessage();
+        meterRegistry.counter("herrera.sincronizacion.lotes", "resultado", "fallido").increment();
+
+        // Sin conexión es lo normal en un corte: se avisa sin traza
+        if (e instanceof IOException) {
+            log.warn("Sin envío al central ({} intentos seguidos), reintento en {} s: {}",
+                    fallos, espera / 1000, e.getMessage());
+        } else {
+            log.error("Envío al central detenido ({} intentos seguidos), reintento en {} s: {}",
+                    fallos, espera / 1000, e.getMessage(), e);
+        }
+    }
+
+    // ============================================
+    // PURGA
+    // ============================================
+
+    void purgarConfirmadas() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(propiedades.getEnvio().getRetencionDias());
+        Integer borradas = transactionTemplate.execute(
+                status -> entradaDiarioRepository.borrarConfirmadasAntesDe(limite));
+        if (borradas != null && borradas > 0) {
+            log.info("Diario de sincronización: {} entradas confirmadas purgadas", borradas);
+        }
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private static byte[] comprimir(byte[] datos) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        }
+        return salida.toByteArray();
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        hilo.shutdownNow();
+        hilo.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,281 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.dto.PedidoImagenDTO;
+import com.herrera.erp.dto.SubidaImagenDTO;
+import com.herrera.erp.model.PedidoImagen;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subida asíncrona de imágenes de pedidos
+ * El request copia el multipart a un archivo de spool (en bloques, sin
+ * cargarlo completo en memoria), registra la imagen PENDIENTE y responde.
+ * Un pool acotado de workers la procesa (ProcesadorImagenes: principal
+ * recomprimida, mediana y miniatura), sube las tres al almacén y guarda URLs;
+ * si falla se reintenta con espera exponencial. Lo pendiente vive en la BD
+ * y en disco, así que tras un reinicio el barrido lo retoma.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/SubidaImagenesService.java
+ */
+@Service
+@Slf4j
+public class SubidaImagenesService {
+
+    private final AlmacenImagenes almacen;
+    private final ImagenService imagenService;
+    private final ProcesadorImagenes procesador;
+    private final MeterRegistry meterRegistry;
+    private final Path directorioSpool;
+    private final ThreadPoolExecutor workers;
+
+    // Imágenes en cola o subiéndose: el barrido no las vuelve a encolar
+    private final Set<Long> enCurso = ConcurrentHashMap.newKeySet();
+
+    @Value("${imagenes.subida.max-intentos:5}")
+    private int maxIntentos;
+
+    @Value("${imagenes.subida.espera-base-ms:5000}")
+    private long esperaBaseMs;
+
+    @Value("${imagenes.subida.lote:50}")
+    private int tamanoLote;
+
+    public SubidaImagenesService(
+            AlmacenImagenes almacen,
+            ImagenService imagenService,
+            ProcesadorImagenes procesador,
+            MeterRegistry meterRegistry,
+            @Value("${imagenes.subida.directorio}") String directorio,
+            @Value("${imagenes.subida.hilos:2}") int hilos,
+            @Value("${imagenes.subida.cola:100}") int cola) throws IOException {
+        this.almacen = almacen;
+        this.imagenService = imagenService;
+        this.procesador = procesador;
+        this.meterRegistry = meterRegistry;
+        this.directorioSpool = Files.createDirectories(Paths.get(directorio)).toAbsolutePath();
+        this.workers = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), new CustomizableThreadFactory("subida-imagen-"));
+    }
+
+    public boolean estaConfigurado() {
+        return almacen.estaConfigurado();
+    }
+
+    // ============================================
+    // RECEPCIÓN
+    // ============================================
+
+    /**
+     * Guarda el archivo y registra la imagen PENDIENTE; la subida sigue en segundo plano
+     */
+    public PedidoImagenDTO recibir(Long pedidoId, MultipartFile file, String carpeta,
+            String tipo, String descripcion) throws IOException {
+        PedidoImagen.TipoImagen tipoImagen = PedidoImagen.parsearTipo(tipo);
+        imagenService.validarPedido(pedidoId);
+
+        Path archivo = guardarEnSpool(file);
+        PedidoImagenDTO imagen;
+        try {
+            imagen = imagenService.registrarPendiente(pedidoId, file.getOriginalFilename(), tipoImagen,
+                    descripcion, carpeta, archivo.toString());
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(archivo);
+            throw e;
+        }
+
+        encolar(imagen.getId());
+        return imagen;
+    }
+
+    /**
+     * Subida síncrona sin registro en BD (imágenes sueltas, sin pedido)
+     */
+    public AlmacenImagenes.ImagenAlmacenada subirDirecto(MultipartFile file, String carpeta) throws IOException {
+        Path archivo = guardarEnSpool(file);
+        try {
+            return almacen.subir(archivo, carpeta);
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+
+    // ============================================
+    // WORKERS
+    // ============================================
+
+    /**
+     * Retoma las pendientes (reinicios, cola llena, reintentos vencidos)
+     */
+    @Scheduled(fixedDelayString = "${imagenes.subida.barrido-ms:10000}")
+    public void reanudarPendientes() {
+        if (!almacen.estaConfigurado()) {
+            return;
+        }
+        for (Long id : imagenService.listarPendientesListas(tamanoLote)) {
+            encolar(id);
+        }
+    }
+
+    private void encolar(Long imagenId) {
+        if (!enCurso.add(imagenId)) {
+            return;
+        }
+        try {
+            workers.execute(() -> subir(imagenId));
+        } catch (RejectedExecutionException e) {
+            // Cola llena: queda PENDIENTE y la toma el siguiente barrido
+            enCurso.remove(imagenId);
+            contar("cola_llena");
+        }
+    }
+
+    private void subir(Long imagenId) {
+        try {
+            SubidaImagenDTO imagen = imagenService.obtenerSubida(imagenId).orElse(null);
+            if (imagen == null || imagen.getEstado() != PedidoImagen.EstadoSubida.PENDIENTE) {
+                return;
+            }
+
+            Path archivo = imagen.getRutaTemporal() != null ? Paths.get(imagen.getRutaTemporal()) : null;
+            if (archivo == null || !Files.exists(archivo)) {
+                imagenService.registrarFallo(imagenId, "Archivo temporal no encontrado", 0, esperaBaseMs);
+                contar("sin_archivo");
+                return;
+            }
+
+            long bytesOriginal = Files.size(archivo);
+            ProcesadorImagenes.ImagenProcesada procesada = null;
+            AlmacenImagenes.ImagenAlmacenada principal = null;
+            AlmacenImagenes.ImagenAlmacenada mediana = null;
+            AlmacenImagenes.ImagenAlmacenada miniatura = null;
+            try {
+                procesada = procesador.procesar(archivo, directorioSpool);
+                principal = almacen.subir(procesada != null ? procesada.getPrincipal() : archivo, imagen.getCarpeta());
+                if (procesada != null) {
+                    mediana = almacen.subir(procesada.getMediana(), imagen.getCarpeta());
+                    miniatura = almacen.subir(procesada.getMiniatura(), imagen.getCarpeta());
+                }
+            } catch (IOException | RuntimeException e) {
+                // Sin subidas a medias: lo que alcanzó a subir se borra y se reintenta completo
+                eliminarDelAlmacen(publicId(principal), publicId(miniatura), publicId(mediana));
+                if (imagenService.registrarFallo(imagenId, e.getMessage(), maxIntentos, esperaBaseMs)) {
+                    Files.deleteIfExists(archivo);
+                    contar("fallida");
+                } else {
+                    contar("reintento");
+                }
+                return;
+            } finally {
+                if (procesada != null) {
+                    procesada.limpiar();
+                }
+            }
+
+            if (imagenService.marcarSubida(imagenId, principal, miniatura, mediana, procesada, bytesOriginal)) {
+                contar("subida");
+                if (procesada != null) {
+                    meterRegistry.counter("herrera.imagenes.bytes", "tipo", "original").increment(bytesOriginal);
+                    meterRegistry.counter("herrera.imagenes.bytes", "tipo", "principal")
+                            .increment(procesada.getBytesPrincipal());
+                }
+            } else {
+                // Se eliminó mientras se subía
+                eliminarDelAlmacen(publicId(principal), publicId(miniatura), publicId(mediana));
+                contar("descartada");
+            }
+            Files.deleteIfExists(archivo);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error procesando la subida de la imagen #{}: {}", imagenId, e.getMessage(), e);
+        } finally {
+            enCurso.remove(imagenId);
+        }
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    /**
+     * Copia el multipart al directorio de spool con un buffer fijo (Files.copy);
+     * Tomcat ya lo tiene en disco, así que nunca está completo en el heap
+     */
+    private Path guardarEnSpool(MultipartFile file) throws IOException {
+        Path archivo = directorioSpool.resolve(UUID.randomUUID() + extension(file.getOriginalFilename()));
+        try (InputStream entrada = file.getInputStream()) {
+            Files.copy(entrada, archivo);
+        }
+        return archivo;
+    }
+
+    private static String extension(String nombre) {
+        if (nombre == null) {
+            return "";
+        }
+        int punto = nombre.lastIndexOf('.');
+        String ext = punto >= 0 ? nombre.substring(punto).toLowerCase() : "";
+        return ext.matches("\\.[a-z0-9]{1,5}") ? ext : "";
+    }
+
+    private void eliminarDelAlmacen(String... publicIds) {
+        for (String id : publicIds) {
+            if (id == null) {
+                continue;
+            }
+            try {
+                // En el almacén local dos imágenes iguales comparten archivo
+                if (imagenService.publicIdEnUso(id)) {
+                    log.debug("Imagen {} aún referenciada, no se elimina del almacén", id);
+                    continue;
+                }
+                almacen.eliminar(id);
+            } catch (IOException | RuntimeException e) {
+                log.error("No se pudo eliminar del almacén la imagen {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    private static String publicId(AlmacenImagenes.ImagenAlmacenada imagen) {
+        return imagen != null ? imagen.getPublicId() : null;
+    }
+
+    private void contar(String resultado) {
+        meterRegistry.counter("herrera.imagenes.subidas", "resultado", resultado).increment();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrarMetricas() {
+        Gauge.builder("herrera.imagenes.subidas.en_curso", enCurso, Set::size)
+                .description("Imágenes en cola o subiéndose al almacén")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        // Lo que no termine queda PENDIENTE y se retoma al arrancar
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+}
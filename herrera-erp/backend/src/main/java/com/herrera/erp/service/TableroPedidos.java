@@ -0,0 +1,422 @@
+package com.herrera.erp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.herrera.erp.config.TableroProperties;
+import com.herrera.erp.dto.EventoDominio;
+import com.herrera.erp.dto.EventoTablero;
+import com.herrera.erp.dto.PedidoListadoDTO;
+import com.herrera.erp.exception.LimiteExcedidoException;
+import com.herrera.erp.model.EventoOutbox;
+import com.herrera.erp.model.Pedido;
+import com.herrera.erp.repository.PedidoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tablero de pedidos en vivo para las pantallas del taller (SSE)
+ * Guarda en memoria los pedidos activos (los mismos de listarActivos) y los
+ * reparte por canal: cada cliente filtra por estado, ubicación y prioridad,
+ * recibe un snapshot al conectarse y después solo deltas. Hoy y retrasados
+ * salen de fechaEntrega en el cliente.
+ * La carga de la BD no depende del número de pantallas: cada evento de
+ * pedido del outbox recarga una fila, y cada tanto se resincroniza el
+ * tablero completo (cambios sin evento, ediciones directas en la BD). Sin
+ * pantallas conectadas no se consulta nada: los eventos se ignoran hasta
+ * que la siguiente pantalla resincroniza el tablero.
+ * Cada cliente tiene una cola acotada que vacían los hilos de envío: si no
+ * lee y la cola se llena se le cierra la conexión (al reconectar recibe otro
+ * snapshot), sin frenar a los demás ni al relay.
+ * El estado es de esta instancia: el relay despacha cada evento en una sola.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/TableroPedidos.java
+ */
+@Service
+@Slf4j
+public class TableroPedidos {
+
+    private static final Set<Pedido.Estado> CERRADOS = EnumSet.of(Pedido.Estado.ENTREGADO, Pedido.Estado.CANCELADO);
+
+    // Mismo orden que listarActivos
+    private static final Comparator<PedidoListadoDTO> POR_ENTREGA = Comparator.comparing(
+            PedidoListadoDTO::getFechaEntrega, Comparator.nullsLast(Comparator.<LocalDate>naturalOrder()));
+
+    private final PedidoRepository pedidoRepository;
+    private final TableroProperties propiedades;
+    private final ObjectMapper objectMapper;
+    private final Counter descartados;
+    private final ExecutorService envio;
+
+    // Pedidos activos por id; se modifica y se lee siempre con su candado
+    private final Map<Long, PedidoListadoDTO> pedidos = new HashMap<>();
+    private long version;
+
+    private final List<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+
+    // El outbox se sigue mientras hay pantallas conectadas o conectándose
+    private volatile boolean vigente;
+
+    // Pantallas entre la resincronización y el alta; se lee y escribe con el candado de pedidos
+    private int conectando;
+
+    public TableroPedidos(
+            PedidoRepository pedidoRepository,
+            TableroProperties propiedades,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.pedidoRepository = pedidoRepository;
+        this.propiedades = propiedades;
+        this.objectMapper = objectMapper;
+        this.envio = Executors.newFixedThreadPool(propiedades.getHilosEnvio(),
+                new CustomizableThreadFactory("tablero-envio-"));
+        this.descartados = Counter.builder("herrera.tablero.descartados")
+                .description("Pantallas desconectadas por no leer a tiempo")
+                .register(meterRegistry);
+        Gauge.builder("herrera.tablero.suscriptores", suscriptores, List::size)
+                .description("Pantallas conectadas al tablero")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // SUSCRIPCIÓN
+    // ============================================
+
+    /**
+     * Abre el canal: snapshot de los pedidos que pasan el filtro y luego deltas
+     * @param estados vacío = todos los activos
+     * @param ubicacion null = todas
+     * @param prioridad null = todas
+     */
+    public SseEmitter suscribir(Set<Pedido.Estado> estados, Pedido.UbicacionOrigen ubicacion,
+            Pedido.Prioridad prioridad) {
+        if (suscriptores.size() >= propiedades.getMaximoSuscriptores()) {
+            throw new LimiteExcedidoException("Demasiadas pantallas conectadas al tablero", 30);
+        }
+        boolean primera;
+        synchronized (pedidos) {
+            primera = suscriptores.isEmpty();
+            conectando++;
+            vigente = true;
+        }
+        try {
+            if (primera) {
+                // Primera pantalla (o la primera tras un rato sin ninguna): tablero al día
+                resincronizar();
+            }
+            return abrir(estados, ubicacion, prioridad);
+        } finally {
+            synchronized (pedidos) {
+                conectando--;
+                actualizarVigente();
+            }
+        }
+    }
+
+    private SseEmitter abrir(Set<Pedido.Estado> estados, Pedido.UbicacionOrigen ubicacion,
+            Pedido.Prioridad prioridad) {
+        SseEmitter emitter = new SseEmitter(propiedades.getDuracionMaximaMs());
+        Suscriptor suscriptor = new Suscriptor(emitter, new Filtro(estados, ubicacion, prioridad),
+                propiedades.getBuffer());
+        emitter.onCompletion(suscriptor::quitar);
+        emitter.onTimeout(suscriptor::terminar);
+        emitter.onError(e -> suscriptor.cerrar());
+
+        // Snapshot y alta bajo el mismo candado que los deltas: no se pierde ni se repite ninguno
+        synchronized (pedidos) {
+            List<PedidoListadoDTO> canal = new ArrayList<>();
+            for (PedidoListadoDTO pedido : pedidos.values()) {
+                if (suscriptor.filtro.acepta(pedido)) {
+                    canal.add(pedido);
+                }
+            }
+            canal.sort(POR_ENTREGA);
+            suscriptor.encolar(new Salida(EventoTablero.Tipo.SNAPSHOT, version,
+                    json(EventoTablero.snapshot(version, canal))));
+            suscriptores.add(suscriptor);
+        }
+        return emitter;
+    }
+
+    // ============================================
+    // CAMBIOS DE PEDIDOS
+    // ============================================
+
+    /**
+     * Al confirmar la transacción propia del evento (REQUIRES_NEW en el
+     * relay), no la del lote: procesado_at aún no está confirmado y, si el
+     * lote se revierte, el evento se despacha otra vez. No importa: se lee
+     * el estado actual del pedido (confirmado desde la transacción que
+     * escribió el evento), así que repetirlo deja el mismo tablero. Si
+     * falla, lo corrige la siguiente resincronización sin afectar al outbox.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void alEventoPedido(EventoDominio evento) {
+        if (!vigente || evento.getAgregado() != EventoOutbox.Agregado.PEDIDO) {
+            return;
+        }
+        Long pedidoId = evento.getAgregadoId();
+        aplicar(pedidoId, pedidoRepository.findListadoById(pedidoId)
+                .filter(pedido -> !CERRADOS.contains(pedido.getEstado()))
+                .orElse(null));
+    }
+
+    /**
+     * Recarga los pedidos activos y reparte las diferencias
+     * Un evento aplicado entre la consulta y el reparto puede quedar
+     * pisado por el dato anterior hasta el siguiente evento o corrida.
+     */
+    @Scheduled(fixedDelayString = "${tablero.resincronizacion-ms:300000}")
+    public void resincronizarProgramado() {
+        if (!suscriptores.isEmpty()) {
+            resincronizar();
+        }
+    }
+
+    /**
+     * Latido: comentario SSE que mantiene abiertos nginx y los proxies y
+     * hace fallar el envío a los clientes que ya se fueron
+     */
+    @Scheduled(fixedDelayString = "${tablero.latido-ms:20000}")
+    public void latido() {
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.encolar(Salida.LATIDO);
+        }
+    }
+
+    public int contarSuscriptores() {
+        return suscriptores.size();
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.cerrar();
+        }
+        envio.shutdown();
+        envio.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    // Sin pantallas ni altas en curso se deja de seguir el outbox (con el candado de pedidos)
+    private void actualizarVigente() {
+        if (suscriptores.isEmpty() && conectando == 0) {
+            vigente = false;
+        }
+    }
+
+    private void resincronizar() {
+        List<PedidoListadoDTO> activos = pedidoRepository.listarActivos();
+
+        synchronized (pedidos) {
+            Set<Long> vigentes = new HashSet<>();
+            for (PedidoListadoDTO pedido : activos) {
+                vigentes.add(pedido.getId());
+                aplicar(pedido.getId(), pedido);
+            }
+            for (Long id : new ArrayList<>(pedidos.keySet())) {
+                if (!vigentes.contains(id)) {
+                    aplicar(id, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deja el pedido en el tablero (null = ya no está activo) y manda a cada
+     * canal el delta que le toca: ALTA si entra, CAMBIO si sigue, BAJA si sale
+     */
+    private void aplicar(Long pedidoId, PedidoListadoDTO nuevo) {
+        synchronized (pedidos) {
+            PedidoListadoDTO anterior = nuevo != null ? pedidos.put(pedidoId, nuevo) : pedidos.remove(pedidoId);
+            if (Objects.equals(anterior, nuevo)) {
+                return;
+            }
+            long v = ++version;
+
+            // Cada tipo de delta se serializa una vez para todos los canales
+            Map<EventoTablero.Tipo, Salida> salidas = new EnumMap<>(EventoTablero.Tipo.class);
+            for (Suscriptor suscriptor : suscriptores) {
+                boolean estaba = anterior != null && suscriptor.filtro.acepta(anterior);
+                boolean esta = nuevo != null && suscriptor.filtro.acepta(nuevo);
+                if (!estaba && !esta) {
+                    continue;
+                }
+                EventoTablero.Tipo tipo = !esta ? EventoTablero.Tipo.BAJA
+                        : estaba ? EventoTablero.Tipo.CAMBIO : EventoTablero.Tipo.ALTA;
+                suscriptor.encolar(salidas.computeIfAbsent(tipo, t -> new Salida(t, v,
+                        json(EventoTablero.delta(t, v, pedidoId, t == EventoTablero.Tipo.BAJA ? null : nuevo)))));
+            }
+        }
+    }
+
+    private String json(EventoTablero evento) {
+        try {
+            return objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Evento de tablero no serializable", e);
+        }
+    }
+
+    /**
+     * Canal de una pantalla
+     */
+    private static final class Filtro {
+        private final Set<Pedido.Estado> estados;
+        private final Pedido.UbicacionOrigen ubicacion;
+        private final Pedido.Prioridad prioridad;
+
+        private Filtro(Set<Pedido.Estado> estados, Pedido.UbicacionOrigen ubicacion, Pedido.Prioridad prioridad) {
+            this.estados = estados == null || estados.isEmpty() ? null : EnumSet.copyOf(estados);
+            this.ubicacion = ubicacion;
+            this.prioridad = prioridad;
+        }
+
+        private boolean acepta(PedidoListadoDTO pedido) {
+            return (estados == null || estados.contains(pedido.getEstado()))
+                    && (ubicacion == null || ubicacion == pedido.getUbicacionOrigen())
+                    && (prioridad == null || prioridad == pedido.getPrioridad());
+        }
+    }
+
+    /**
+     * Evento ya serializado, listo para escribir (tipo null = latido)
+     */
+    private static final class Salida {
+        private static final Salida LATIDO = new Salida(null, 0, null);
+
+        private final EventoTablero.Tipo tipo;
+        private final long version;
+        private final String json;
+
+        private Salida(EventoTablero.Tipo tipo, long version, String json) {
+            this.tipo = tipo;
+            this.version = version;
+            this.json = json;
+        }
+
+        private SseEmitter.SseEventBuilder evento() {
+            if (tipo == null) {
+                return SseEmitter.event().comment("latido");
+            }
+            return SseEmitter.event()
+                    .id(Long.toString(version))
+                    .name(tipo.name().toLowerCase())
+                    .data(json);
+        }
+    }
+
+    /**
+     * Una pantalla conectada: cola acotada y a lo sumo un hilo de envío a la vez
+     */
+    private final class Suscriptor {
+        private final SseEmitter emitter;
+        private final Filtro filtro;
+        private final BlockingQueue<Salida> cola;
+        private final AtomicBoolean programado = new AtomicBoolean();
+        private final AtomicBoolean terminado = new AtomicBoolean();
+        private volatile boolean cerrado;
+
+        private Suscriptor(SseEmitter emitter, Filtro filtro, int buffer) {
+            this.emitter = emitter;
+            this.filtro = filtro;
+            this.cola = new ArrayBlockingQueue<>(buffer);
+        }
+
+        private void encolar(Salida salida) {
+            if (cerrado) {
+                return;
+            }
+            if (!cola.offer(salida)) {
+                // Cliente lento: se corta; el hilo de envío cierra la conexión
+                descartados.increment();
+                log.info("Pantalla del tablero desconectada: {} eventos sin leer", cola.size());
+                cerrado = true;
+                cola.clear();
+            }
+            programar();
+        }
+
+        private void programar() {
+            if (programado.compareAndSet(false, true)) {
+                try {
+                    envio.execute(this::vaciar);
+                } catch (RuntimeException e) {
+                    // Executor detenido (apagado)
+                    programado.set(false);
+                    quitar();
+                }
+            }
+        }
+
+        private void vaciar() {
+            try {
+                Salida salida;
+                while (!cerrado && (salida = cola.poll()) != null) {
+                    emitter.send(salida.evento());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Conexión cerrada por el cliente o emitter ya completado
+                cerrado = true;
+            } finally {
+                programado.set(false);
+            }
+
+            if (cerrado) {
+                terminar();
+            } else if (!cola.isEmpty()) {
+                programar();
+            }
+        }
+
+        private void cerrar() {
+            cerrado = true;
+            programar();
+        }
+
+        private void terminar() {
+            quitar();
+            if (terminado.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        private void quitar() {
+            cerrado = true;
+            synchronized (pedidos) {
+                suscriptores.remove(this);
+                actualizarVigente();
+            }
+        }
+    }
+}
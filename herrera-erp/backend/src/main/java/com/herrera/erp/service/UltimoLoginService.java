@@ -0,0 +1,62 @@
+package com.herrera.erp.service;
+
+import com.herrera.erp.repository.UsuarioRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Escritura diferida de usuarios.ultimo_login
+ * El login solo anota la hora en memoria; cada seguridad.login.ultimo-login-ms
+ * se escriben todas las pendientes en una sola transacción. En el cambio de
+ * turno (muchos logins a la vez) el login no espera a la base de datos ni
+ * compite por la fila del usuario. Si un usuario entra varias veces entre
+ * escrituras, se guarda solo la última hora.
+ * Ubicación: backend/src/main/java/com/herrera/erp/service/UltimoLoginService.java
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UltimoLoginService {
+
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, LocalDateTime> pendientes = new ConcurrentHashMap<>();
+
+    public void registrar(Long usuarioId) {
+        pendientes.put(usuarioId, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${seguridad.login.ultimo-login-ms:5000}")
+    public void escribir() {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+
+        Map<Long, LocalDateTime> lote = Map.copyOf(pendientes);
+        try {
+            transactionTemplate.executeWithoutResult(status -> lote.forEach(usuarioRepository::registrarUltimoLogin));
+        } catch (RuntimeException e) {
+            // Se quedan en pendientes para la siguiente vuelta
+            log.warn("No se pudo escribir el último login de {} usuarios: {}", lote.size(), e.getMessage());
+            return;
+        }
+
+        // Solo se quitan las que no cambiaron mientras se escribía
+        lote.forEach(pendientes::remove);
+        log.debug("Último login escrito para {} usuarios", lote.size());
+    }
+
+    @PreDestroy
+    public void alDetener() {
+        escribir();
+    }
+}
@@ -25,10 +25,13 @@ public class UsuarioService {
     private final UsuarioRepository usuarioRepository;
     private final RolRepository rolRepository;
     private final PasswordEncoder passwordEncoder;
+    private final MatrizPermisos matrizPermisos;
+    private final AutenticacionTokens autenticacionTokens;
 
     /**
      * Obtener todos los usuarios
      */
+    @Transactional(readOnly = true)
     public List<Usuario> obtenerTodosUsuarios() {
         return usuarioRepository.findAll();
     }
@@ -36,6 +39,7 @@ public class UsuarioService {
     /**
      * Obtener solo usuarios activos
      */
+    @Transactional(readOnly = true)
     public List<Usuario> obtenerUsuariosActivos() {
         return usuarioRepository.findByActivoTrue();
     }
@@ -43,6 +47,7 @@ public class UsuarioService {
     /**
      * Obtener usuario por ID
      */
+    @Transactional(readOnly = true)
     public Usuario obtenerUsuarioPorId(Long id) {
         return usuarioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", id));
@@ -51,6 +56,7 @@ public class UsuarioService {
     /**
      * Obtener usuario por username
      */
+    @Transactional(readOnly = true)
     public Usuario obtenerUsuarioPorUsername(String username) {
         return usuarioRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario", "username", username));
@@ -110,7 +116,11 @@ public class UsuarioService {
         if (rolId != null) {
             Rol rol = rolRepository.findById(rolId)
                     .orElseThrow(() -> new ResourceNotFoundException("Rol", "id", rolId));
-            usuario.setRol(rol);
+            if (!rol.getId().equals(usuario.getRol() != null ? usuario.getRol().getId() : null)) {
+                usuario.setRol(rol);
+                // El rol y sus permisos van en el JWT: los tokens actuales dejan de valer
+                autenticacionTokens.invalidarTokens(usuario);
+            }
         }
 
         Usuario usuarioActualizado = usuarioRepository.save(usuario);
@@ -130,9 +140,16 @@ public class UsuarioService {
         Rol rol = rolRepository.findById(rolId)
                 .orElseThrow(() -> new ResourceNotFoundException("Rol", "id", rolId));
 
+        // Solo cambia usuarios.rol_id: Usuario no está en caché y el rol nuevo
+        // se resuelve por id desde la caché de referencia, nada que invalidar
         usuario.setRol(rol);
+        // El rol y sus permisos van en el JWT: los tokens actuales dejan de valer
+        autenticacionTokens.invalidarTokens(usuario);
         usuarioRepository.save(usuario);
 
+        // Recompila el rol asignado (puede haberse creado o editado con SQL)
+        matrizPermisos.registrar(rol);
+
         log.info("Rol actualizado para usuario: {}", usuario.getUsername());
     }
 
@@ -145,6 +162,7 @@ public class UsuarioService {
 
         Usuario usuario = obtenerUsuarioPorId(id);
         usuario.setActivo(!usuario.getActivo());
+        autenticacionTokens.invalidarTokens(usuario);
         usuarioRepository.save(usuario);
 
         log.info("Usuario {} {}", usuario.getUsername(),
@@ -154,6 +172,7 @@ public class UsuarioService {
     /**
      * Verificar si existe username
      */
+    @Transactional(readOnly = true)
     public boolean existeUsername(String username) {
         return usuarioRepository.findByUsername(username).isPresent();
     }
@@ -161,6 +180,7 @@ public class UsuarioService {
     /**
      * Contar usuarios activos
      */
+    @Transactional(readOnly = true)
     public long contarUsuariosActivos() {
         return usuarioRepository.countByActivoTrue();
     }
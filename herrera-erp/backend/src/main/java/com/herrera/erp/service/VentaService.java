@@ -1,11 +1,15 @@
 package com.herrera.erp.service;
 
+import com.herrera.erp.config.SincronizacionProperties;
+import com.herrera.erp.dto.LoteSincronizacion;
+import com.herrera.erp.dto.VentaDTO;
 import com.herrera.erp.exception.ResourceNotFoundException;
 import com.herrera.erp.exception.StockInsuficienteException;
 import com.herrera.erp.model.*;
 import com.herrera.erp.repository.MaterialRepository;
 import com.herrera.erp.repository.RolloRepository;
 import com.herrera.erp.repository.VentaRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,6 +24,7 @@ import java.util.List;
  * Punto de venta y reportes
  */
 @Service
+@Timed("herrera.servicio")
 @RequiredArgsConstructor
 @Slf4j
 public class VentaService {
@@ -28,17 +33,23 @@ public class VentaService {
     private final MaterialRepository materialRepository;
     private final RolloRepository rolloRepository;
     private final InventarioService inventarioService;
+    private final CoordinadorInventario coordinadorInventario;
+    private final OutboxService outboxService;
+    private final DiarioSitioService diarioSitioService;
+    private final SincronizacionProperties sincronizacionProperties;
 
     /**
      * Obtener todas las ventas
      */
-    public List<Venta> obtenerTodasVentas() {
-        return ventaRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<VentaDTO> obtenerTodasVentas() {
+        return ventaRepository.listarTodas();
     }
 
     /**
      * Obtener ventas del día
      */
+    @Transactional(readOnly = true)
     public List<Venta> obtenerVentasDelDia() {
         return ventaRepository.findVentasDelDia();
     }
@@ -46,6 +57,7 @@ public class VentaService {
     /**
      * Obtener ventas por rango de fechas
      */
+    @Transactional(readOnly = true)
     public List<Venta> obtenerVentasPorRango(LocalDate fechaInicio, LocalDate fechaFin) {
         return ventaRepository.findVentasPorRango(
                 fechaInicio.atStartOfDay(),
@@ -55,9 +67,34 @@ public class VentaService {
     /**
      * Obtener ventas por ubicación
      */
-    public List<Venta> obtenerVentasPorUbicacion(String ubicacion) {
+    @Transactional(readOnly = true)
+    public List<VentaDTO> obtenerVentasPorUbicacion(String ubicacion) {
         Venta.UbicacionVenta ubicacionEnum = Venta.UbicacionVenta.valueOf(ubicacion.toUpperCase());
-        return ventaRepository.findByUbicacion(ubicacionEnum);
+        return ventaRepository.listarPorUbicacion(ubicacionEnum);
+    }
+
+    /**
+     * Ventas del día como DTO (respuestas de la API)
+     */
+    @Transactional(readOnly = true)
+    public List<VentaDTO> listarVentasDelDia() {
+        return ventaRepository.listarDelDia();
+    }
+
+    /**
+     * Ventas por rango de fechas como DTO (respuestas de la API)
+     */
+    @Transactional(readOnly = true)
+    public List<VentaDTO> listarVentasPorRango(LocalDate fechaInicio, LocalDate fechaFin) {
+        return ventaRepository.listarPorRango(
+                fechaInicio.atStartOfDay(),
+                fechaFin.atTime(23, 59, 59));
+    }
+
+    @Transactional(readOnly = true)
+    public VentaDTO obtenerVentaDTO(Long id) {
+        return ventaRepository.findDtoById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Venta", "id", id));
     }
 
     /**
@@ -70,6 +107,9 @@ public class VentaService {
             String ubicacion, Long usuarioVendedorId) {
         log.info("Registrando venta de tela: {} metros del rollo ID: {}", metrosVendidos, rolloId);
 
+        // Bloquear el material antes de leer los metros del rollo
+        inventarioService.bloquearMaterialDeRollo(rolloId);
+
         // Verificar rollo
         Rollo rollo = rolloRepository.findById(rolloId)
                 .orElseThrow(() -> new ResourceNotFoundException("Rollo", "id", rolloId));
@@ -79,11 +119,13 @@ public class VentaService {
             throw new IllegalArgumentException("Este rollo no está destinado para venta");
         }
 
-        // Verificar stock suficiente
-        if (rollo.getMetrosActuales().compareTo(metrosVendidos) < 0) {
+        // Verificar stock suficiente (incluye eventos aún no proyectados)
+        BigDecimal metrosActuales = rolloRepository.findMetrosActualesById(rolloId)
+                .orElse(rollo.getMetrosActuales());
+        if (metrosActuales.compareTo(metrosVendidos) < 0) {
             throw new StockInsuficienteException(
                     rollo.getMaterial().getId(),
-                    rollo.getMetrosActuales(),
+                    metrosActuales,
                     metrosVendidos);
         }
 
@@ -117,6 +159,9 @@ public class VentaService {
                 "Venta - Folio: " + folio,
                 usuarioVendedorId);
 
+        publicarVentaRegistrada(ventaGuardada, usuarioVendedorId);
+        diarioSitioService.registrarVenta(ventaGuardada, usuarioVendedorId);
+
         log.info("Venta registrada exitosamente: Folio {}", folio);
 
         return ventaGuardada;
@@ -132,17 +177,20 @@ public class VentaService {
             String ubicacion, Long usuarioVendedorId) {
         log.info("Registrando venta de clones: {} unidades del material ID: {}", cantidad, materialId);
 
+        // Bloquear el material antes de leer su stock
+        coordinadorInventario.bloquear(materialId);
+
         // Verificar material
-        Material material = materialRepository.findById(materialId)
-                .orElseThrow(() -> new ResourceNotFoundException("Material", "id", materialId));
+        if (!materialRepository.existsById(materialId)) {
+            throw new ResourceNotFoundException("Material", "id", materialId);
+        }
 
-        // Verificar stock suficiente
+        // Verificar disponible para prometer: lo reservado para pedidos no se vende
+        // en mostrador, y el error reporta ese mismo disponible
         BigDecimal cantidadBD = new BigDecimal(cantidad);
-        if (!inventarioService.hayStockSuficiente(materialId, cantidadBD)) {
-            throw new StockInsuficienteException(
-                    materialId,
-                    material.getStockActual(),
-                    cantidadBD);
+        BigDecimal disponible = inventarioService.obtenerDisponibleParaPrometer(materialId);
+        if (disponible.compareTo(cantidadBD) < 0) {
+            throw new StockInsuficienteException(materialId, disponible, cantidadBD);
         }
 
         // Generar folio de venta
@@ -178,14 +226,57 @@ public class VentaService {
                 null,
                 usuarioVendedorId);
 
+        publicarVentaRegistrada(ventaGuardada, usuarioVendedorId);
+        diarioSitioService.registrarVenta(ventaGuardada, usuarioVendedorId);
+
         log.info("Venta de clones registrada exitosamente: Folio {}", folio);
 
         return ventaGuardada;
     }
 
+    /**
+     * Registra en el central una venta que un sitio ya cobró, con su folio y
+     * su fecha; la salida de inventario llega aparte como movimiento
+     * @param usuarioVendedorId null si el vendedor no existe en el central
+     */
+    @Transactional
+    public Venta registrarVentaSincronizada(LoteSincronizacion.VentaSitio ventaSitio, Long usuarioVendedorId) {
+        Venta venta = Venta.builder()
+                .folioVenta(ventaSitio.getFolio())
+                .tipoVenta(ventaSitio.getTipoVenta())
+                .clienteNombre(ventaSitio.getClienteNombre())
+                .clienteTelefono(ventaSitio.getClienteTelefono())
+                .total(ventaSitio.getTotal())
+                .metodoPago(ventaSitio.getMetodoPago())
+                .ubicacion(ventaSitio.getUbicacion())
+                .fechaVenta(ventaSitio.getFechaVenta())
+                .build();
+
+        if (usuarioVendedorId != null) {
+            venta.setUsuarioVendedor(new Usuario());
+            venta.getUsuarioVendedor().setId(usuarioVendedorId);
+        }
+
+        Venta ventaGuardada = ventaRepository.save(venta);
+        publicarVentaRegistrada(ventaGuardada, usuarioVendedorId);
+        return ventaGuardada;
+    }
+
+    private void publicarVentaRegistrada(Venta venta, Long usuarioVendedorId) {
+        outboxService.publicar(EventoOutbox.Agregado.VENTA, venta.getId(), OutboxService.VENTA_REGISTRADA,
+                OutboxService.datos(
+                        "folio", venta.getFolioVenta(),
+                        "tipoVenta", venta.getTipoVenta(),
+                        "total", venta.getTotal(),
+                        "metodoPago", venta.getMetodoPago(),
+                        "ubicacion", venta.getUbicacion(),
+                        "usuarioVendedorId", usuarioVendedorId));
+    }
+
     /**
      * Calcular total de ventas del día
      */
+    @Transactional(readOnly = true)
     public BigDecimal calcularTotalVentasDelDia() {
         List<Venta> ventasHoy = obtenerVentasDelDia();
 
@@ -197,6 +288,7 @@ public class VentaService {
     /**
      * Calcular total de ventas por periodo
      */
+    @Transactional(readOnly = true)
     public BigDecimal calcularTotalVentasPorPeriodo(LocalDate fechaInicio, LocalDate fechaFin) {
         List<Venta> ventas = obtenerVentasPorRango(fechaInicio, fechaFin);
 
@@ -206,12 +298,13 @@ public class VentaService {
     }
 
     /**
-     * Generar folio de venta único
+     * Generar folio de venta único: letra del sitio y secuencia de la base,
+     * así dos ventas simultáneas o de sitios distintos no repiten folio
      */
     private String generarFolioVenta() {
         int año = LocalDate.now().getYear();
-        long numeroVentas = ventaRepository.count() + 1;
+        long numero = ventaRepository.siguienteNumeroFolio();
 
-        return String.format("VTA-%d-%04d", año, numeroVentas);
+        return String.format("VTA-%c-%d-%04d", sincronizacionProperties.codigoSitio(), año, numero);
     }
 }
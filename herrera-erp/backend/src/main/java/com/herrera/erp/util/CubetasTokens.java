@@ -0,0 +1,152 @@
+package com.herrera.erp.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Cubetas de tokens en memoria, una por clave (IP, usuario, username)
+ * El mapa está partido en segmentos con su propio candado para que los
+ * hilos de Tomcat no compitan por uno solo. Cada segmento es un
+ * LinkedHashMap en orden de acceso con tope de entradas: si se llena (una
+ * ráfaga desde miles de IPs) se descarta la cubeta usada hace más tiempo.
+ * Las cubetas sin uso durante la expiración se borran en purgar(); una
+ * cubeta que no existe equivale a una llena, así que la expiración debe ser
+ * mayor que el tiempo de recarga completa de cualquier grupo.
+ * Ubicación: backend/src/main/java/com/herrera/erp/util/CubetasTokens.java
+ */
+public class CubetasTokens {
+
+    private final Segmento[] segmentos;
+    private final long expiracionNanos;
+    private final LongSupplier reloj;
+
+    public CubetasTokens(int maximoClaves, int numSegmentos, long expiracionNanos) {
+        this(maximoClaves, numSegmentos, expiracionNanos, System::nanoTime);
+    }
+
+    /**
+     * @param reloj nanosegundos monótonos (System::nanoTime; en pruebas, uno manual)
+     */
+    public CubetasTokens(int maximoClaves, int numSegmentos, long expiracionNanos, LongSupplier reloj) {
+        this.expiracionNanos = expiracionNanos;
+        this.reloj = reloj;
+        this.segmentos = new Segmento[numSegmentos];
+        int porSegmento = Math.max(1, maximoClaves / numSegmentos);
+        for (int i = 0; i < numSegmentos; i++) {
+            segmentos[i] = new Segmento(porSegmento);
+        }
+    }
+
+    /**
+     * Toma un token de la cubeta de la clave
+     * @return 0 si se tomó; si no, nanosegundos hasta que haya uno
+     */
+    public long consumir(String clave, int capacidad, double porSegundo) {
+        long ahora = reloj.getAsLong();
+        Segmento segmento = segmento(clave);
+        synchronized (segmento) {
+            Cubeta cubeta = segmento.obtener(clave, capacidad, ahora);
+            cubeta.recargar(capacidad, porSegundo, ahora);
+            if (cubeta.tokens >= 1) {
+                cubeta.tokens -= 1;
+                return 0;
+            }
+            return (long) ((1 - cubeta.tokens) / porSegundo * 1e9);
+        }
+    }
+
+    /**
+     * Como consumir() pero sin tomar el token
+     * @return 0 si hay al menos uno; si no, nanosegundos hasta que haya
+     */
+    public long esperaHastaToken(String clave, int capacidad, double porSegundo) {
+        long ahora = reloj.getAsLong();
+        Segmento segmento = segmento(clave);
+        synchronized (segmento) {
+            Cubeta cubeta = segmento.mapa.get(clave);
+            if (cubeta == null) {
+                return 0;
+            }
+            cubeta.recargar(capacidad, porSegundo, ahora);
+            return cubeta.tokens >= 1 ? 0 : (long) ((1 - cubeta.tokens) / porSegundo * 1e9);
+        }
+    }
+
+    /**
+     * Borra las cubetas sin uso durante la expiración
+     * @return cubetas borradas
+     */
+    public int purgar() {
+        long limite = reloj.getAsLong() - expiracionNanos;
+        int borradas = 0;
+        for (Segmento segmento : segmentos) {
+            synchronized (segmento) {
+                // Orden de acceso: las más viejas primero, se para en la primera vigente
+                Iterator<Cubeta> it = segmento.mapa.values().iterator();
+                while (it.hasNext()) {
+                    if (it.next().ultimoUso - limite >= 0) {
+                        break;
+                    }
+                    it.remove();
+                    borradas++;
+                }
+            }
+        }
+        return borradas;
+    }
+
+    public int tamano() {
+        int total = 0;
+        for (Segmento segmento : segmentos) {
+            synchronized (segmento) {
+                total += segmento.mapa.size();
+            }
+        }
+        return total;
+    }
+
+    private Segmento segmento(String clave) {
+        int hash = clave.hashCode();
+        hash ^= (hash >>> 16);
+        return segmentos[Math.floorMod(hash, segmentos.length)];
+    }
+
+    private static final class Segmento {
+        private final LinkedHashMap<String, Cubeta> mapa;
+
+        private Segmento(int maximo) {
+            this.mapa = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Cubeta> eldest) {
+                    return size() > maximo;
+                }
+            };
+        }
+
+        private Cubeta obtener(String clave, int capacidad, long ahora) {
+            Cubeta cubeta = mapa.get(clave);
+            if (cubeta == null) {
+                cubeta = new Cubeta(capacidad, ahora);
+                mapa.put(clave, cubeta);
+            }
+            return cubeta;
+        }
+    }
+
+    private static final class Cubeta {
+        private double tokens;
+        private long ultimoUso;
+
+        private Cubeta(int capacidad, long ahora) {
+            this.tokens = capacidad;
+            this.ultimoUso = ahora;
+        }
+
+        private void recargar(int capacidad, double porSegundo, long ahora) {
+            tokens = Math.min(capacidad, tokens + (ahora - ultimoUso) / 1e9 * porSegundo);
+            ultimoUso = ahora;
+        }
+    }
+}
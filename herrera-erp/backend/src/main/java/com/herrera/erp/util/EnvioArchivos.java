@@ -0,0 +1,129 @@
+package com.herrera.erp.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Envío de archivos inmutables del disco (imágenes del almacén local)
+ * ETag fuerte con el hash del contenido (304 si el navegador ya lo tiene),
+ * caché de un año y rangos simples (206/416). Con el conector NIO de Tomcat
+ * el contenido no pasa por el heap: se delega en su sendfile
+ * (FileChannel.transferTo al socket). Si el conector no lo soporta se copia
+ * con transferTo al stream de la respuesta, en bloques.
+ * Ubicación: backend/src/main/java/com/herrera/erp/util/EnvioArchivos.java
+ */
+@Component
+public class EnvioArchivos {
+
+    // Atributos de Tomcat para sendfile (los mismos que usa su DefaultServlet)
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    private static final Pattern RANGO = Pattern.compile("bytes=(\\d{0,18})-(\\d{0,18})");
+
+    @Value("${imagenes.local.cache-max-age:31536000}")
+    private long cacheMaxAge;
+
+    /**
+     * Responde con el archivo completo o el rango pedido
+     * @param etag hash del contenido, sin comillas
+     */
+    public void enviar(Path archivo, String etag, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        long largo = Files.size(archivo);
+        String etagFuerte = "\"" + etag + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etagFuerte);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + cacheMaxAge + ", immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(MediaTypeFactory.getMediaType(archivo.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        if (coincideEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etagFuerte)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long inicio = 0;
+        long fin = largo - 1;
+        String rango = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // Con If-Range de otra versión, o un rango múltiple o mal formado, va el archivo completo
+        Matcher m = rango != null ? RANGO.matcher(rango.trim()) : null;
+        if (m != null && m.matches() && (ifRange == null || ifRange.trim().equals(etagFuerte))
+                && !(m.group(1).isEmpty() && m.group(2).isEmpty())) {
+            if (m.group(1).isEmpty()) {
+                // bytes=-n: los últimos n bytes
+                inicio = Math.max(0, largo - Long.parseLong(m.group(2)));
+            } else {
+                inicio = Long.parseLong(m.group(1));
+                if (!m.group(2).isEmpty()) {
+                    fin = Math.min(Long.parseLong(m.group(2)), largo - 1);
+                }
+            }
+
+            if (inicio > fin) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + largo);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fin + "/" + largo);
+        }
+
+        long bytes = fin - inicio + 1;
+        response.setContentLengthLong(bytes);
+        if ("HEAD".equals(request.getMethod()) || bytes <= 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            request.setAttribute(SENDFILE_ARCHIVO, archivo.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIN, fin + 1);
+            return;
+        }
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(response.getOutputStream());
+            long enviados = 0;
+            while (enviados < bytes) {
+                long n = canal.transferTo(inicio + enviados, bytes - enviados, salida);
+                if (n <= 0) {
+                    break;
+                }
+                enviados += n;
+            }
+        }
+    }
+
+    private static boolean coincideEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String valor : ifNoneMatch.split(",")) {
+            String v = valor.trim();
+            if (v.equals("*") || v.equals(etag) || v.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -2,9 +2,11 @@ package com.herrera.erp.util;
 
 import com.herrera.erp.model.Usuario;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -13,10 +15,14 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
  * Utilidad para generar y validar JWT tokens
+ * El token lleva lo necesario para autenticar sin ir a la base de datos:
+ * id, rol, permisos compilados (CLAIM_PERMISOS), versión de token del
+ * usuario (CLAIM_VERSION) y un id único (jti) para revocarlo en el logout.
  * Ubicación: backend/src/main/java/com/herrera/erp/util/JwtUtil.java
  */
 @Component
@@ -28,18 +34,35 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public static final String CLAIM_USUARIO = "userId";
+    public static final String CLAIM_ROL = "rol";
+    public static final String CLAIM_ROL_ID = "rolId";
+    public static final String CLAIM_NOMBRE = "nombreCompleto";
+    public static final String CLAIM_PERMISOS = "perm";
+    public static final String CLAIM_VERSION = "ver";
+
+    // La clave y el parser son inmutables y thread-safe: se crean una vez
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void inicializar() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     /**
      * Generar token JWT para un usuario
+     * @param permisos mapa de bits del rol (MatrizPermisos)
      */
-    public String generateToken(Usuario usuario) {
+    public String generateToken(Usuario usuario, long permisos) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", usuario.getId());
-        claims.put("rol", usuario.getRol().getNombre());
-        claims.put("nombreCompleto", usuario.getNombreCompleto());
+        claims.put(CLAIM_USUARIO, usuario.getId());
+        claims.put(CLAIM_ROL, usuario.getRol().getNombre());
+        claims.put(CLAIM_ROL_ID, usuario.getRol().getId());
+        claims.put(CLAIM_NOMBRE, usuario.getNombreCompleto());
+        claims.put(CLAIM_PERMISOS, permisos);
+        claims.put(CLAIM_VERSION, usuario.getTokenVersion());
 
         return createToken(claims, usuario.getUsername());
     }
@@ -54,9 +77,10 @@ public class JwtUtil {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(now)
                 .setExpiration(expirationDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -83,14 +107,11 @@ public class JwtUtil {
     }
 
     /**
-     * Extraer todos los claims
+     * Extraer todos los claims, verificando firma y expiración
+     * Lanza JwtException si el token no es válido
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -113,7 +134,7 @@ public class JwtUtil {
      */
     public Long extractUserId(String token) {
         Claims claims = extractAllClaims(token);
-        return claims.get("userId", Long.class);
+        return claims.get(CLAIM_USUARIO, Long.class);
     }
 
     /**
@@ -121,6 +142,6 @@ public class JwtUtil {
      */
     public String extractRol(String token) {
         Claims claims = extractAllClaims(token);
-        return claims.get("rol", String.class);
+        return claims.get(CLAIM_ROL, String.class);
     }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.herrera.erp.util;
+
+import com.herrera.erp.config.VersionesTablas;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * GET condicional para los listados que el mostrador y el taller refrescan
+ * seguido (materiales, rollos, pedidos activos, productos)
+ * El ETag débil sale de las versiones de las tablas del listado
+ * (VersionesTablas), no del contenido: si el navegador manda el mismo en
+ * If-None-Match se responde 304 sin ejecutar la consulta ni serializar.
+ * Cache-Control no-cache: el navegador guarda la respuesta pero siempre
+ * revalida, así un cambio se ve en el siguiente refresco.
+ * Ubicación: backend/src/main/java/com/herrera/erp/util/RespuestasCondicionales.java
+ */
+@Component
+@RequiredArgsConstructor
+public class RespuestasCondicionales {
+
+    private static final CacheControl REVALIDAR = CacheControl.noCache().cachePrivate();
+
+    private final VersionesTablas versionesTablas;
+
+    /**
+     * 304 si el cliente tiene la versión vigente; si no, 200 con la consulta
+     * @param tablas tablas de las que depende el listado (joins incluidos)
+     */
+    public <T> ResponseEntity<T> listado(HttpServletRequest request, Supplier<T> consulta, String... tablas) {
+        // La versión se toma antes de consultar: un cambio en medio deja un
+        // ETag viejo y el siguiente refresco trae los datos otra vez
+        String etag = versionesTablas.etag(tablas);
+
+        if (coincideEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(REVALIDAR)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDAR)
+                .body(consulta.get());
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    // Comparación débil (RFC 9110): se ignora el prefijo W/
+    private static boolean coincideEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaco = sinPrefijoDebil(etag);
+        for (String valor : ifNoneMatch.split(",")) {
+            String v = valor.trim();
+            if (v.equals("*") || sinPrefijoDebil(v).equals(opaco)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sinPrefijoDebil(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -0,0 +1,31 @@
+package com.herrera.erp.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilidades sobre la transacción en curso
+ * Ubicación: backend/src/main/java/com/herrera/erp/util/Transacciones.java
+ */
+public final class Transacciones {
+
+    private Transacciones() {
+    }
+
+    /**
+     * Ejecuta la acción cuando la transacción en curso confirme (no si se
+     * revierte); sin transacción la ejecuta en el momento
+     */
+    public static void despuesDelCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
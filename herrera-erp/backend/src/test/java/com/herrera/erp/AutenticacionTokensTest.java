@@ -0,0 +1,133 @@
+package com.herrera.erp;
+
+import com.herrera.erp.model.Rol;
+import com.herrera.erp.model.Usuario;
+import com.herrera.erp.repository.UsuarioRepository;
+import com.herrera.erp.service.AutenticacionTokens;
+import com.herrera.erp.service.MatrizPermisos;
+import com.herrera.erp.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Validación de JWT sin base de datos: firma, versión de token del usuario,
+ * lista de tokens cerrados con logout y permisos vigentes del rol
+ */
+class AutenticacionTokensTest {
+
+    private static final Long USUARIO_ID = 5L;
+    private static final Long ROL_ID = 2L;
+    private static final long PERMISOS = 0b1011L;
+
+    private JwtUtil jwtUtil;
+    private MatrizPermisos matrizPermisos;
+    private UsuarioRepository usuarioRepository;
+    private AutenticacionTokens autenticacion;
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "clave-de-pruebas-de-al-menos-32-bytes-hs256");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        jwtUtil.inicializar();
+
+        matrizPermisos = mock(MatrizPermisos.class);
+        when(matrizPermisos.bitsCompilados(ROL_ID)).thenReturn(PERMISOS);
+        usuarioRepository = mock(UsuarioRepository.class);
+        autenticacion = new AutenticacionTokens(jwtUtil, matrizPermisos, usuarioRepository);
+
+        usuario = Usuario.builder()
+                .id(USUARIO_ID)
+                .username("mostrador")
+                .nombreCompleto("Mostrador")
+                .rol(Rol.builder().id(ROL_ID).nombre("VENDEDOR").build())
+                .tokenVersion(0)
+                .build();
+        // Sin transacción en curso se publica en el momento
+        autenticacion.registrar(usuario);
+    }
+
+    @Test
+    void tokenVigenteEsValido() {
+        AutenticacionTokens.Resultado resultado = autenticacion.validar(token());
+
+        assertTrue(resultado.esValido());
+        assertEquals(AutenticacionTokens.VALIDO, resultado.getMotivo());
+        assertEquals(USUARIO_ID, resultado.getUsuario().getId());
+        assertEquals("mostrador", resultado.getUsuario().getUsername());
+        assertEquals(PERMISOS, resultado.getUsuario().getPermisos());
+    }
+
+    @Test
+    void versionAnteriorSeRechaza() {
+        String anterior = token();
+
+        // Cambio de contraseña o de rol en esta instancia
+        autenticacion.invalidarTokens(usuario);
+
+        assertRechazado(AutenticacionTokens.VERSION, anterior);
+        assertTrue(autenticacion.validar(token()).esValido());
+    }
+
+    @Test
+    void versionSubidaEnOtraInstanciaSeRechazaTrasElRefresco() {
+        String anterior = token();
+        when(usuarioRepository.listarVersionesToken())
+                .thenReturn(List.<Object[]>of(new Object[] { USUARIO_ID, 1, true }));
+
+        autenticacion.refrescar();
+
+        assertRechazado(AutenticacionTokens.VERSION, anterior);
+    }
+
+    @Test
+    void tokenCerradoConLogoutSeRechaza() {
+        String cerrado = token();
+        String otro = token();
+
+        autenticacion.revocar(cerrado);
+
+        assertRechazado(AutenticacionTokens.REVOCADO, cerrado);
+        // Solo ese jti: la otra sesión del usuario sigue
+        assertTrue(autenticacion.validar(otro).esValido());
+    }
+
+    @Test
+    void permisosDistintosALosDelRolSeRechazan() {
+        String jwt = token();
+        when(matrizPermisos.bitsCompilados(ROL_ID)).thenReturn(PERMISOS | 1L << 8);
+
+        assertRechazado(AutenticacionTokens.PERMISOS, jwt);
+    }
+
+    @Test
+    void firmaAlteradaEsInvalida() {
+        String jwt = token();
+        int firma = jwt.lastIndexOf('.') + 1;
+        char cambiado = jwt.charAt(firma) == 'A' ? 'B' : 'A';
+        String alterado = jwt.substring(0, firma) + cambiado + jwt.substring(firma + 1);
+
+        assertRechazado(AutenticacionTokens.INVALIDO, alterado);
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private String token() {
+        return jwtUtil.generateToken(usuario, PERMISOS);
+    }
+
+    private void assertRechazado(String motivo, String jwt) {
+        AutenticacionTokens.Resultado resultado = autenticacion.validar(jwt);
+        assertFalse(resultado.esValido());
+        assertEquals(motivo, resultado.getMotivo());
+    }
+}
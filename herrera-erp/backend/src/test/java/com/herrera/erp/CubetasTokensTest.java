@@ -0,0 +1,105 @@
+package com.herrera.erp;
+
+import com.herrera.erp.util.CubetasTokens;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cubetas de tokens con reloj manual: ráfaga hasta la capacidad, recarga
+ * proporcional al tiempo sin pasar del tope, desalojo de la menos usada al
+ * llenarse y purga de las expiradas
+ */
+class CubetasTokensTest {
+
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    private long ahora;
+    private CubetasTokens cubetas;
+
+    @BeforeEach
+    void setUp() {
+        ahora = 1_000 * SEGUNDO;
+        // Un segmento con tres claves como máximo, para probar el desalojo
+        cubetas = new CubetasTokens(3, 1, TimeUnit.MINUTES.toNanos(15), () -> ahora);
+    }
+
+    @Test
+    void rafagaHastaLaCapacidad() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, cubetas.consumir("ip:1", 5, 1));
+        }
+
+        // Vacía: a 1 token/s falta un segundo para el siguiente
+        assertEquals(SEGUNDO, cubetas.consumir("ip:1", 5, 1));
+        assertEquals(SEGUNDO, cubetas.esperaHastaToken("ip:1", 5, 1));
+        // Otra clave tiene su propia cubeta
+        assertEquals(0, cubetas.consumir("ip:2", 5, 1));
+    }
+
+    @Test
+    void recargaProporcionalAlTiempo() {
+        vaciar("ip:1", 5);
+
+        ahora += SEGUNDO / 2;
+        assertEquals(SEGUNDO / 2, cubetas.consumir("ip:1", 5, 1));
+
+        ahora += SEGUNDO / 2;
+        assertEquals(0, cubetas.consumir("ip:1", 5, 1));
+        assertTrue(cubetas.consumir("ip:1", 5, 1) > 0);
+    }
+
+    @Test
+    void recargaNoPasaDeLaCapacidad() {
+        vaciar("ip:1", 5);
+
+        // Diez minutos sin uso recargan solo hasta la capacidad
+        ahora += TimeUnit.MINUTES.toNanos(10);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, cubetas.consumir("ip:1", 5, 1));
+        }
+        assertTrue(cubetas.consumir("ip:1", 5, 1) > 0);
+    }
+
+    @Test
+    void llenoDesalojaLaMenosUsada() {
+        vaciar("a", 1);
+        vaciar("b", 1);
+        vaciar("c", 1);
+
+        // "a" se usó hace menos que "b": la cuarta clave desaloja a "b"
+        assertTrue(cubetas.consumir("a", 1, 1) > 0);
+        assertEquals(0, cubetas.consumir("d", 1, 1));
+
+        assertEquals(3, cubetas.tamano());
+        assertTrue(cubetas.esperaHastaToken("a", 1, 1) > 0);
+        assertTrue(cubetas.esperaHastaToken("c", 1, 1) > 0);
+        // Sin cubeta equivale a una llena
+        assertEquals(0, cubetas.esperaHastaToken("b", 1, 1));
+    }
+
+    @Test
+    void purgaSoloLasExpiradas() {
+        cubetas.consumir("vieja", 5, 1);
+        ahora += TimeUnit.MINUTES.toNanos(10);
+        cubetas.consumir("nueva", 5, 1);
+
+        ahora += TimeUnit.MINUTES.toNanos(6);
+        assertEquals(1, cubetas.purgar());
+        assertEquals(1, cubetas.tamano());
+        assertEquals(0, cubetas.esperaHastaToken("vieja", 5, 1));
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private void vaciar(String clave, int capacidad) {
+        for (int i = 0; i < capacidad; i++) {
+            assertEquals(0, cubetas.consumir(clave, capacidad, 1));
+        }
+    }
+}
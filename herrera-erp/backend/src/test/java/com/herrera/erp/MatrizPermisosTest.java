@@ -0,0 +1,131 @@
+package com.herrera.erp;
+
+import com.herrera.erp.dto.UsuarioAutenticado;
+import com.herrera.erp.model.Permiso;
+import com.herrera.erp.model.Rol;
+import com.herrera.erp.repository.RolRepository;
+import com.herrera.erp.service.MatrizPermisos;
+import com.herrera.erp.service.MatrizPermisos.Accion;
+import com.herrera.erp.service.MatrizPermisos.Modulo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Permisos compilados a bits: cada (módulo, acción) ocupa un bit propio y
+ * sobrevive el viaje rol → bits → token; un bit o un nombre que la matriz no
+ * conoce no concede nada
+ */
+class MatrizPermisosTest {
+
+    private MatrizPermisos matriz;
+    private long siguienteRolId;
+
+    @BeforeEach
+    void setUp() {
+        matriz = new MatrizPermisos(mock(RolRepository.class));
+        siguienteRolId = 1;
+    }
+
+    @Test
+    void cadaPermisoIdaYVueltaPorElToken() {
+        for (Modulo modulo : Modulo.values()) {
+            for (Accion accion : Accion.values()) {
+                Rol rol = rol(permiso(modulo.name().toLowerCase(), accion));
+                long bits = matriz.registrar(rol);
+
+                assertEquals(1, Long.bitCount(bits), modulo + "/" + accion);
+                Authentication token = autenticacion(bits);
+                for (Modulo m : Modulo.values()) {
+                    for (Accion a : Accion.values()) {
+                        boolean esperado = m == modulo && a == accion;
+                        assertEquals(esperado, matriz.puede(rol, m, a), "rol " + m + "/" + a);
+                        assertEquals(esperado, matriz.puede(token, m, a), "token " + m + "/" + a);
+                        assertEquals(esperado, matriz.puede(token, m.name().toLowerCase(), a.name().toLowerCase()));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void todosLosPermisosUsanBitsDistintos() {
+        // Una fila por módulo con las cuatro acciones, como el rol ADMIN
+        List<Permiso> permisos = new ArrayList<>();
+        for (Modulo modulo : Modulo.values()) {
+            permisos.add(Permiso.builder()
+                    .modulo(modulo.name())
+                    .puedeCrear(true)
+                    .puedeLeer(true)
+                    .puedeEditar(true)
+                    .puedeEliminar(true)
+                    .build());
+        }
+        long bits = matriz.registrar(rol(permisos.toArray(Permiso[]::new)));
+
+        assertEquals(Modulo.values().length * Accion.values().length, Long.bitCount(bits));
+        assertEquals(bits, matriz.bitsCompilados(siguienteRolId - 1));
+    }
+
+    @Test
+    void bitDesconocidoNoConcedeNada() {
+        // Bits fuera de la matriz (token de una versión con más módulos, o alterado)
+        int usados = Modulo.values().length * Accion.values().length;
+        Authentication token = autenticacion(-1L << usados);
+
+        for (Modulo m : Modulo.values()) {
+            for (Accion a : Accion.values()) {
+                assertFalse(matriz.puede(token, m, a), m + "/" + a);
+            }
+        }
+    }
+
+    @Test
+    void moduloOAccionDesconocidosNoConcedenNada() {
+        Rol rol = rol(permiso("compras", Accion.LEER), permiso("pedidos", Accion.LEER));
+
+        assertEquals(1, Long.bitCount(matriz.registrar(rol)));
+        Authentication token = autenticacion(-1L);
+        assertFalse(matriz.puede(token, "compras", "leer"));
+        assertFalse(matriz.puede(token, "pedidos", "aprobar"));
+        assertFalse(matriz.puede(token, null, "leer"));
+        assertTrue(matriz.puede(token, " Pedidos ", "LEER"));
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private Rol rol(Permiso... permisos) {
+        return Rol.builder()
+                .id(siguienteRolId++)
+                .nombre("ROL")
+                .permisos(new HashSet<>(Set.of(permisos)))
+                .build();
+    }
+
+    private static Permiso permiso(String modulo, Accion accion) {
+        return Permiso.builder()
+                .modulo(modulo)
+                .puedeCrear(accion == Accion.CREAR)
+                .puedeLeer(accion == Accion.LEER)
+                .puedeEditar(accion == Accion.EDITAR)
+                .puedeEliminar(accion == Accion.ELIMINAR)
+                .build();
+    }
+
+    // Principal armado con los claims del JWT, como lo deja el filtro
+    private static Authentication autenticacion(long permisos) {
+        UsuarioAutenticado usuario = new UsuarioAutenticado(1L, "usuario", "Usuario", 1L, "ROL", permisos);
+        return new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities());
+    }
+}
@@ -0,0 +1,115 @@
+package com.herrera.erp;
+
+import com.herrera.erp.config.ContadorSentenciasSql;
+import com.herrera.erp.config.MetricasRequestFilter;
+import com.herrera.erp.config.MonitorSentenciasSql;
+import com.herrera.erp.config.PresupuestoSqlProperties;
+import com.herrera.erp.exception.PresupuestoSqlExcedidoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Presupuesto de sentencias SQL por request: el filtro, el contador
+ * (StatementInspector de Hibernate) y el monitor juntos. El "controller" de
+ * prueba prepara sentencias como lo haría Hibernate y escribe la respuesta
+ * confirmándola, que es cuando un error tardío ya no cambiaría el status.
+ */
+class PresupuestoSqlTest {
+
+    private static final String ENDPOINT = "/api/pedidos/{id}";
+
+    private PresupuestoSqlProperties propiedades;
+    private ContadorSentenciasSql contador;
+    private MonitorSentenciasSql monitor;
+    private MetricasRequestFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        propiedades = new PresupuestoSqlProperties();
+        propiedades.setModo(PresupuestoSqlProperties.Modo.FALLAR);
+        propiedades.setPorDefecto(3);
+        propiedades.setUmbralRepeticion(100);
+
+        contador = new ContadorSentenciasSql();
+        monitor = new MonitorSentenciasSql(propiedades, new SimpleMeterRegistry());
+        filtro = new MetricasRequestFilter(contador, monitor);
+    }
+
+    @Test
+    void excedidoFallaAntesDeConfirmarLaRespuesta() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThrows(PresupuestoSqlExcedidoException.class,
+                () -> filtro.doFilter(request(), response, controller("SELECT * FROM materiales WHERE id = ", 4)));
+
+        // Nada salió: el contenedor aún puede responder con el error
+        assertFalse(response.isCommitted());
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    void dentroDelPresupuestoEntregaLaRespuesta() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(request(), response, controller("SELECT * FROM materiales WHERE id = ", 3));
+
+        assertEquals("{\"ok\":true}", response.getContentAsString());
+    }
+
+    @Test
+    void consultaRepetidaSeReportaComoNMasUno() {
+        propiedades.setPorDefecto(40);
+        propiedades.setUmbralRepeticion(5);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        PresupuestoSqlExcedidoException error = assertThrows(PresupuestoSqlExcedidoException.class,
+                () -> filtro.doFilter(request(), response, controller("SELECT * FROM rollos WHERE material_id = ", 6)));
+
+        assertTrue(error.getMessage().contains("posible N+1"));
+        assertTrue(error.getMessage().contains("SELECT * FROM rollos WHERE material_id = ?"));
+        assertFalse(response.isCommitted());
+    }
+
+    @Test
+    void modoLogRegistraSinRetenerLaRespuesta() throws Exception {
+        propiedades.setModo(PresupuestoSqlProperties.Modo.LOG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(request(), response, controller("SELECT * FROM materiales WHERE id = ", 4));
+
+        assertTrue(response.isCommitted());
+        assertEquals("{\"ok\":true}", response.getContentAsString());
+        List<?> violaciones = (List<?>) monitor.estado().get("violacionesRecientes");
+        assertEquals(1, violaciones.size());
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/pedidos/7");
+    }
+
+    // Resuelve el endpoint, prepara las sentencias y confirma la respuesta
+    private FilterChain controller(String sql, int sentencias) {
+        return (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, ENDPOINT);
+            for (int i = 1; i <= sentencias; i++) {
+                contador.inspect(sql + i);
+            }
+            response.setContentType("application/json");
+            response.getWriter().write("{\"ok\":true}");
+            response.flushBuffer();
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package com.herrera.erp;
+
+import com.herrera.erp.exception.StockInsuficienteException;
+import com.herrera.erp.model.Material;
+import com.herrera.erp.model.ReservaMaterial;
+import com.herrera.erp.repository.MaterialRepository;
+import com.herrera.erp.repository.ReservaMaterialRepository;
+import com.herrera.erp.service.ReservaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Disponible para prometer en memoria: reservas concurrentes, reversión y
+ * reconciliación con transacciones en curso
+ */
+class ReservaServiceTest {
+
+    private static final Long MATERIAL_ID = 1L;
+
+    private MaterialRepository materialRepository;
+    private ReservaMaterialRepository reservaRepository;
+    private ReservaService reservaService;
+
+    // Ledger simulado: stock físico y metros reservados ya confirmados
+    private volatile BigDecimal stock = new BigDecimal("100");
+    private volatile BigDecimal reservadoConfirmado = BigDecimal.ZERO;
+
+    @BeforeEach
+    void setUp() {
+        materialRepository = mock(MaterialRepository.class);
+        reservaRepository = mock(ReservaMaterialRepository.class);
+        reservaService = new ReservaService(reservaRepository, materialRepository);
+
+        Material material = Material.builder().id(MATERIAL_ID).nombre("Dry-fit").stockActual(stock).build();
+        when(materialRepository.findById(MATERIAL_ID)).thenReturn(Optional.of(material));
+        when(materialRepository.findStockActualById(MATERIAL_ID)).thenAnswer(i -> Optional.of(stock));
+        when(materialRepository.findStockMaterialesActivos())
+                .thenAnswer(i -> List.<Object[]>of(new Object[] { MATERIAL_ID, stock }));
+        when(reservaRepository.sumPendienteByMaterial(MATERIAL_ID)).thenAnswer(i -> reservadoConfirmado);
+        when(reservaRepository.sumPendientePorMaterial())
+                .thenAnswer(i -> List.<Object[]>of(new Object[] { MATERIAL_ID, reservadoConfirmado }));
+        when(reservaRepository.save(any(ReservaMaterial.class))).thenAnswer(i -> i.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reservasConcurrentesNoPrometenDeMas() throws Exception {
+        int hilos = 16;
+        int intentos = 50;
+        BigDecimal metros = new BigDecimal("3");
+        AtomicInteger aceptadas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int i = 0; i < intentos; i++) {
+            long pedidoId = i;
+            tareas.add(pool.submit(() -> {
+                salida.await();
+                try {
+                    reservaService.reservar(pedidoId, MATERIAL_ID, metros);
+                    aceptadas.incrementAndGet();
+                } catch (StockInsuficienteException e) {
+                    // Esperado cuando el ATP ya no alcanza
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // 100 / 3 = 33 reservas caben; ni una más
+        assertEquals(33, aceptadas.get());
+        assertEquals(0, new BigDecimal("1").compareTo(reservaService.obtenerDisponible(MATERIAL_ID)));
+    }
+
+    @Test
+    void reservaRevertidaDevuelveElDisponible() {
+        List<TransactionSynchronization> sincronizaciones = enTransaccion(
+                () -> reservaService.reservar(10L, MATERIAL_ID, new BigDecimal("30")));
+        assertEquals(0, new BigDecimal("70").compareTo(reservaService.obtenerDisponible(MATERIAL_ID)));
+
+        concluir(sincronizaciones, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(0, new BigDecimal("100").compareTo(reservaService.obtenerDisponible(MATERIAL_ID)));
+    }
+
+    @Test
+    void reconciliarNoBorraReservasEnCurso() {
+        reservaService.obtenerDisponible(MATERIAL_ID);
+        List<TransactionSynchronization> sincronizaciones = enTransaccion(
+                () -> reservaService.reservar(10L, MATERIAL_ID, new BigDecimal("30")));
+
+        // El ledger aún no ve la reserva: la reconciliación no debe devolver los 30
+        reservaService.reconciliar();
+        assertEquals(0, new BigDecimal("70").compareTo(reservaService.obtenerDisponible(MATERIAL_ID)));
+
+        // Y al revertir no se suman dos veces
+        concluir(sincronizaciones, TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(0, new BigDecimal("100").compareTo(reservaService.obtenerDisponible(MATERIAL_ID)));
+    }
+
+    @Test
+    void reconciliarConReservaConfirmadaMantieneElDescuento() {
+        reservaService.obtenerDisponible(MATERIAL_ID);
+        List<TransactionSynchronization> sincronizaciones = enTransaccion(
+                () -> reservaService.reservar(10L, MATERIAL_ID, new BigDecimal("30")));
+
+        reservaService.reconciliar();
+        reservadoConfirmado = new BigDecimal("30");
+        concluir(sincronizaciones, TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(0, new BigDecimal("70").compareTo(reservaService.obtenerDisponible(MATERIAL_ID)));
+
+        reservaService.reconciliar();
+        assertEquals(0, new BigDecimal("70").compareTo(reservaService.obtenerDisponible(MATERIAL_ID)));
+    }
+
+    @Test
+    void aumentoSeSumaSoloAlConfirmar() {
+        reservaService.obtenerDisponible(MATERIAL_ID);
+        List<TransactionSynchronization> sincronizaciones = enTransaccion(
+                () -> reservaService.registrarCambioStock(MATERIAL_ID, new BigDecimal("20")));
+        assertEquals(0, new BigDecimal("100").compareTo(reservaService.obtenerDisponible(MATERIAL_ID)));
+
+        // Confirmado en la BD pero el callback aún no corre: no se cuenta dos veces
+        stock = new BigDecimal("120");
+        reservaService.reconciliar();
+        concluir(sincronizaciones, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(0, new BigDecimal("120").compareTo(reservaService.obtenerDisponible(MATERIAL_ID)));
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    // Corre la acción como dentro de una transacción y devuelve sus sincronizaciones
+    private static List<TransactionSynchronization> enTransaccion(Runnable accion) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            accion.run();
+            return new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void concluir(List<TransactionSynchronization> sincronizaciones, int estado) {
+        for (TransactionSynchronization sincronizacion : sincronizaciones) {
+            if (estado == TransactionSynchronization.STATUS_COMMITTED) {
+                sincronizacion.afterCommit();
+            }
+            sincronizacion.afterCompletion(estado);
+        }
+    }
+}
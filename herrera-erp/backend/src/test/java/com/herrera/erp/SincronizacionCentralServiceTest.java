@@ -0,0 +1,170 @@
+package com.herrera.erp;
+
+import com.herrera.erp.dto.LoteSincronizacion;
+import com.herrera.erp.model.EntradaDiario;
+import com.herrera.erp.model.MovimientoInventario;
+import com.herrera.erp.model.SitioSincronizacion;
+import com.herrera.erp.model.Venta;
+import com.herrera.erp.repository.ConflictoSincronizacionRepository;
+import com.herrera.erp.repository.MaterialRepository;
+import com.herrera.erp.repository.RolloRepository;
+import com.herrera.erp.repository.SitioSincronizacionRepository;
+import com.herrera.erp.repository.UsuarioRepository;
+import com.herrera.erp.repository.VentaRepository;
+import com.herrera.erp.service.CoordinadorInventario;
+import com.herrera.erp.service.InventarioService;
+import com.herrera.erp.service.SincronizacionCentralService;
+import com.herrera.erp.service.VentaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Lotes de un sitio aplicados en el central: en orden de secuencia, lo ya
+ * aplicado se ignora (reenvíos) y un hueco o una entrada fuera de orden
+ * detiene el lote hasta que el sitio reenvíe desde la última secuencia
+ */
+class SincronizacionCentralServiceTest {
+
+    private static final Long MATERIAL_ID = 3L;
+    private static final Long PEDIDO_ID = 40L;
+
+    private SitioSincronizacion estado;
+    private SitioSincronizacionRepository sitioRepository;
+    private InventarioService inventarioService;
+    private SincronizacionCentralService servicio;
+
+    @BeforeEach
+    void setUp() {
+        estado = SitioSincronizacion.builder().sitio(Venta.UbicacionVenta.TALLER).ultimaSecuencia(0L).build();
+        sitioRepository = mock(SitioSincronizacionRepository.class);
+        when(sitioRepository.bloquear("TALLER")).thenReturn(Optional.of(estado));
+
+        MaterialRepository materialRepository = mock(MaterialRepository.class);
+        when(materialRepository.existsById(MATERIAL_ID)).thenReturn(true);
+
+        inventarioService = mock(InventarioService.class);
+        when(inventarioService.registrarMovimientoDeSitio(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(MovimientoInventario.builder().id(1L).stockNuevo(new BigDecimal("50")).build());
+
+        servicio = new SincronizacionCentralService(sitioRepository, mock(ConflictoSincronizacionRepository.class),
+                materialRepository, mock(RolloRepository.class), mock(UsuarioRepository.class),
+                mock(VentaRepository.class), inventarioService, mock(VentaService.class),
+                mock(CoordinadorInventario.class));
+    }
+
+    @Test
+    void loteEnOrdenSeAplicaCompleto() {
+        LoteSincronizacion.Respuesta respuesta = servicio.aplicarLote(lote(1, 2, 3));
+
+        assertEquals(3, respuesta.getUltimaSecuencia());
+        assertEquals(3, respuesta.getAplicadas());
+        assertEquals(List.of(1L, 2L, 3L), secuenciasAplicadas());
+        assertEquals(3L, estado.getUltimaSecuencia());
+    }
+
+    @Test
+    void loteReenviadoNoDuplica() {
+        servicio.aplicarLote(lote(1, 2, 3));
+
+        // El sitio no recibió la respuesta y manda lo mismo
+        LoteSincronizacion.Respuesta respuesta = servicio.aplicarLote(lote(1, 2, 3));
+
+        assertEquals(3, respuesta.getUltimaSecuencia());
+        assertEquals(0, respuesta.getAplicadas());
+        assertEquals(List.of(1L, 2L, 3L), secuenciasAplicadas());
+        verify(sitioRepository, times(1)).save(estado);
+    }
+
+    @Test
+    void loteQueSeSolapaAplicaSoloLoNuevo() {
+        servicio.aplicarLote(lote(1, 2));
+
+        LoteSincronizacion.Respuesta respuesta = servicio.aplicarLote(lote(1, 2, 3, 4));
+
+        assertEquals(4, respuesta.getUltimaSecuencia());
+        assertEquals(2, respuesta.getAplicadas());
+        assertEquals(List.of(1L, 2L, 3L, 4L), secuenciasAplicadas());
+    }
+
+    @Test
+    void huecoDetieneElLote() {
+        LoteSincronizacion.Respuesta respuesta = servicio.aplicarLote(lote(1, 2, 4, 5));
+
+        // Se devuelve 2: el sitio reenvía desde la 3
+        assertEquals(2, respuesta.getUltimaSecuencia());
+        assertEquals(2, respuesta.getAplicadas());
+        assertEquals(List.of(1L, 2L), secuenciasAplicadas());
+        assertEquals(2L, estado.getUltimaSecuencia());
+    }
+
+    @Test
+    void loteAdelantadoEsperaAlQueFalta() {
+        servicio.aplicarLote(lote(1, 2));
+
+        // Llega antes el lote 5-6 que el 3-4
+        LoteSincronizacion.Respuesta adelantado = servicio.aplicarLote(lote(5, 6));
+        assertEquals(2, adelantado.getUltimaSecuencia());
+        assertEquals(0, adelantado.getAplicadas());
+
+        servicio.aplicarLote(lote(3, 4));
+        LoteSincronizacion.Respuesta reenviado = servicio.aplicarLote(lote(5, 6));
+
+        assertEquals(6, reenviado.getUltimaSecuencia());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), secuenciasAplicadas());
+    }
+
+    @Test
+    void entradasDesordenadasSeDetienenEnLaPrimeraFueraDeOrden() {
+        LoteSincronizacion.Respuesta respuesta = servicio.aplicarLote(lote(1, 3, 2));
+
+        assertEquals(1, respuesta.getUltimaSecuencia());
+        assertEquals(List.of(1L), secuenciasAplicadas());
+    }
+
+    @Test
+    void movimientoConservaElPedidoDelSitio() {
+        servicio.aplicarLote(lote(1));
+
+        verify(inventarioService).registrarMovimientoDeSitio(eq(MATERIAL_ID), isNull(),
+                eq(MovimientoInventario.TipoMovimiento.SALIDA_CORTE), any(), eq("[TALLER] Corte 1"),
+                eq(PEDIDO_ID), isNull(), any());
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    // Un movimiento por secuencia; la cantidad es la secuencia para saber cuáles se aplicaron
+    private static LoteSincronizacion lote(long... secuencias) {
+        List<LoteSincronizacion.Entrada> entradas = new ArrayList<>();
+        for (long secuencia : secuencias) {
+            entradas.add(new LoteSincronizacion.Entrada(secuencia, EntradaDiario.Tipo.MOVIMIENTO, null,
+                    LoteSincronizacion.MovimientoSitio.builder()
+                            .materialId(MATERIAL_ID)
+                            .tipo(MovimientoInventario.TipoMovimiento.SALIDA_CORTE)
+                            .cantidad(BigDecimal.valueOf(secuencia))
+                            .motivo("Corte " + secuencia)
+                            .pedidoId(PEDIDO_ID)
+                            .build()));
+        }
+        return new LoteSincronizacion(Venta.UbicacionVenta.TALLER, entradas);
+    }
+
+    private List<Long> secuenciasAplicadas() {
+        ArgumentCaptor<BigDecimal> cantidades = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(inventarioService, atLeast(0)).registrarMovimientoDeSitio(any(), any(), any(),
+                cantidades.capture(), any(), any(), any(), any());
+        return cantidades.getAllValues().stream().map(BigDecimal::longValueExact).toList();
+    }
+}
@@ -0,0 +1,166 @@
+package com.herrera.erp;
+
+import com.herrera.erp.dto.PedidoImagenDTO;
+import com.herrera.erp.dto.SubidaImagenDTO;
+import com.herrera.erp.model.PedidoImagen;
+import com.herrera.erp.service.AlmacenImagenes;
+import com.herrera.erp.service.AlmacenImagenesLocal;
+import com.herrera.erp.service.ImagenService;
+import com.herrera.erp.service.ProcesadorImagenes;
+import com.herrera.erp.service.SubidaImagenesService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Subida asíncrona contra el almacén local en disco: el worker procesa la
+ * foto, guarda principal, mediana y miniatura, y si el almacén falla a la
+ * mitad no deja archivos huérfanos ni en el almacén ni en el spool
+ */
+class SubidaImagenesServiceTest {
+
+    private static final Long PEDIDO_ID = 7L;
+    private static final Long IMAGEN_ID = 70L;
+    private static final long ESPERA_MS = 10_000;
+
+    @TempDir
+    Path directorio;
+
+    private Path raizAlmacen;
+    private Path spool;
+    private AlmacenImagenesLocal almacen;
+    private ImagenService imagenService;
+    private SubidaImagenesService servicio;
+
+    // Ruta que el request dejó en la fila PENDIENTE
+    private volatile String rutaTemporal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        raizAlmacen = directorio.resolve("almacen");
+        spool = directorio.resolve("spool");
+        almacen = spy(new AlmacenImagenesLocal(raizAlmacen.toString(), ""));
+
+        ProcesadorImagenes procesador = new ProcesadorImagenes();
+        ReflectionTestUtils.setField(procesador, "habilitado", true);
+        ReflectionTestUtils.setField(procesador, "ladoMaximo", 2048);
+        ReflectionTestUtils.setField(procesador, "calidad", 0.82f);
+        ReflectionTestUtils.setField(procesador, "maxMegapixeles", 64L);
+
+        imagenService = mock(ImagenService.class);
+        when(imagenService.registrarPendiente(anyLong(), any(), any(), any(), any(), anyString()))
+                .thenAnswer(i -> {
+                    rutaTemporal = i.getArgument(5);
+                    return PedidoImagenDTO.builder().id(IMAGEN_ID).pedidoId(PEDIDO_ID).build();
+                });
+        when(imagenService.obtenerSubida(IMAGEN_ID)).thenAnswer(i -> Optional.of(SubidaImagenDTO.builder()
+                .id(IMAGEN_ID)
+                .carpeta("pedidos")
+                .rutaTemporal(rutaTemporal)
+                .estado(PedidoImagen.EstadoSubida.PENDIENTE)
+                .build()));
+        when(imagenService.marcarSubida(eq(IMAGEN_ID), any(), any(), any(), any(), anyLong())).thenReturn(true);
+
+        servicio = new SubidaImagenesService(almacen, imagenService, procesador, new SimpleMeterRegistry(),
+                spool.toString(), 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        servicio.detener();
+    }
+
+    @Test
+    void subidaGuardaPrincipalYVariantes() throws Exception {
+        servicio.recibir(PEDIDO_ID, foto(3000, 2000), "pedidos", "REFERENCIA", null);
+
+        ArgumentCaptor<AlmacenImagenes.ImagenAlmacenada> principal = ArgumentCaptor.forClass(AlmacenImagenes.ImagenAlmacenada.class);
+        ArgumentCaptor<AlmacenImagenes.ImagenAlmacenada> miniatura = ArgumentCaptor.forClass(AlmacenImagenes.ImagenAlmacenada.class);
+        ArgumentCaptor<AlmacenImagenes.ImagenAlmacenada> mediana = ArgumentCaptor.forClass(AlmacenImagenes.ImagenAlmacenada.class);
+        verify(imagenService, timeout(ESPERA_MS)).marcarSubida(eq(IMAGEN_ID),
+                principal.capture(), miniatura.capture(), mediana.capture(), any(), anyLong());
+        servicio.detener();
+
+        // Lado mayor de cada archivo en el almacén
+        assertEquals(2048, ladoMayor(principal.getValue()));
+        assertEquals(ProcesadorImagenes.Variante.MEDIANA.getLado(), ladoMayor(mediana.getValue()));
+        assertEquals(ProcesadorImagenes.Variante.MINIATURA.getLado(), ladoMayor(miniatura.getValue()));
+        assertTrue(principal.getValue().getUrl().startsWith(AlmacenImagenesLocal.RUTA_ARCHIVOS));
+        assertEquals(3, archivos(raizAlmacen).size());
+
+        // El original y las variantes generadas ya no están en el spool
+        assertEquals(List.of(), archivos(spool));
+    }
+
+    @Test
+    void falloALaMitadNoDejaHuerfanos() throws Exception {
+        // Principal y mediana se guardan; la miniatura falla
+        doCallRealMethod()
+                .doCallRealMethod()
+                .doThrow(new IOException("Disco lleno"))
+                .when(almacen).subir(any(Path.class), any());
+
+        servicio.recibir(PEDIDO_ID, foto(3000, 2000), "pedidos", "REFERENCIA", null);
+
+        verify(imagenService, timeout(ESPERA_MS)).registrarFallo(eq(IMAGEN_ID), eq("Disco lleno"), anyInt(), anyLong());
+        servicio.detener();
+
+        verify(imagenService, never()).marcarSubida(any(), any(), any(), any(), any(), anyLong());
+        verify(almacen, times(2)).eliminar(anyString());
+        assertEquals(List.of(), archivos(raizAlmacen));
+
+        // Solo queda el original, para el reintento
+        assertEquals(List.of(Path.of(rutaTemporal)), archivos(spool));
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    // JPEG con degradado (no se comprime a casi nada, como una foto real)
+    private static MockMultipartFile foto(int ancho, int alto) throws IOException {
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < alto; y++) {
+            for (int x = 0; x < ancho; x++) {
+                imagen.setRGB(x, y, ((x * 255 / ancho) << 16) | ((y * 255 / alto) << 8) | ((x ^ y) & 0xFF));
+            }
+        }
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen, "jpg", salida);
+        return new MockMultipartFile("file", "foto.jpg", "image/jpeg", salida.toByteArray());
+    }
+
+    private int ladoMayor(AlmacenImagenes.ImagenAlmacenada guardada) throws IOException {
+        BufferedImage imagen = ImageIO.read(almacen.archivo(guardada.getPublicId()).orElseThrow().toFile());
+        return Math.max(imagen.getWidth(), imagen.getHeight());
+    }
+
+    private static List<Path> archivos(Path raiz) throws IOException {
+        try (Stream<Path> rutas = Files.walk(raiz)) {
+            return rutas.filter(Files::isRegularFile).toList();
+        }
+    }
+}
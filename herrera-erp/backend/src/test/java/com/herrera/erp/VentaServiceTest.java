@@ -0,0 +1,81 @@
+package com.herrera.erp;
+
+import com.herrera.erp.config.SincronizacionProperties;
+import com.herrera.erp.exception.StockInsuficienteException;
+import com.herrera.erp.model.Material;
+import com.herrera.erp.model.ReservaMaterial;
+import com.herrera.erp.model.Venta;
+import com.herrera.erp.repository.MaterialRepository;
+import com.herrera.erp.repository.ReservaMaterialRepository;
+import com.herrera.erp.repository.RolloRepository;
+import com.herrera.erp.repository.VentaRepository;
+import com.herrera.erp.service.CoordinadorInventario;
+import com.herrera.erp.service.DiarioSitioService;
+import com.herrera.erp.service.InventarioService;
+import com.herrera.erp.service.OutboxService;
+import com.herrera.erp.service.ReservaService;
+import com.herrera.erp.service.VentaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Venta de mostrador contra el disponible para prometer: lo reservado para
+ * pedidos no se vende, y el error reporta ese disponible (no el físico)
+ */
+class VentaServiceTest {
+
+    private static final Long MATERIAL_ID = 1L;
+
+    private VentaRepository ventaRepository;
+    private ReservaService reservaService;
+    private VentaService ventaService;
+
+    @BeforeEach
+    void setUp() {
+        MaterialRepository materialRepository = mock(MaterialRepository.class);
+        ReservaMaterialRepository reservaRepository = mock(ReservaMaterialRepository.class);
+        InventarioService inventarioService = mock(InventarioService.class);
+        ventaRepository = mock(VentaRepository.class);
+
+        // 100 de stock físico
+        BigDecimal stock = new BigDecimal("100");
+        Material material = Material.builder().id(MATERIAL_ID).nombre("Clon").stockActual(stock).build();
+        when(materialRepository.existsById(MATERIAL_ID)).thenReturn(true);
+        when(materialRepository.findById(MATERIAL_ID)).thenReturn(Optional.of(material));
+        when(materialRepository.findStockActualById(MATERIAL_ID)).thenReturn(Optional.of(stock));
+        when(materialRepository.findStockMaterialesActivos())
+                .thenReturn(List.<Object[]>of(new Object[] { MATERIAL_ID, stock }));
+        when(reservaRepository.sumPendienteByMaterial(MATERIAL_ID)).thenReturn(BigDecimal.ZERO);
+        when(reservaRepository.save(any(ReservaMaterial.class))).thenAnswer(i -> i.getArgument(0));
+
+        reservaService = new ReservaService(reservaRepository, materialRepository);
+        when(inventarioService.obtenerDisponibleParaPrometer(MATERIAL_ID))
+                .thenAnswer(i -> reservaService.obtenerDisponible(MATERIAL_ID));
+
+        ventaService = new VentaService(ventaRepository, materialRepository, mock(RolloRepository.class),
+                inventarioService, mock(CoordinadorInventario.class), mock(OutboxService.class),
+                mock(DiarioSitioService.class), new SincronizacionProperties());
+    }
+
+    @Test
+    void ventaRechazadaPorReservasReportaElDisponible() {
+        // Un pedido aparta 80: quedan 20 para prometer aunque haya 100 físicos
+        reservaService.reservar(10L, MATERIAL_ID, new BigDecimal("80"));
+
+        StockInsuficienteException error = assertThrows(StockInsuficienteException.class,
+                () -> ventaService.registrarVentaClone(MATERIAL_ID, 30, "Cliente", null,
+                        new BigDecimal("50"), "EFECTIVO", "TALLER", 1L));
+
+        assertEquals(0, new BigDecimal("20").compareTo(error.getStockDisponible()));
+        assertEquals(0, new BigDecimal("30").compareTo(error.getCantidadRequerida()));
+        verify(ventaRepository, never()).save(any(Venta.class));
+    }
+}
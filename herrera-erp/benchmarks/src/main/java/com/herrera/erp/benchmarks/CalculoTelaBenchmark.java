@@ -0,0 +1,65 @@
+package com.herrera.erp.benchmarks;
+
+import com.herrera.erp.model.PedidoItem;
+import com.herrera.erp.model.Producto;
+import com.herrera.erp.service.PedidoService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo de tela de un pedido: consumo por talla, total del roster y
+ * ordenamiento de items por talla (PedidoService.ordenarItemsPorTalla)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculoTelaBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int items;
+
+    private Producto producto;
+    private List<PedidoItem> roster;
+    private PedidoService pedidoService;
+    private MethodHandle ordenarItemsPorTalla;
+
+    @Setup
+    public void preparar() throws ReflectiveOperationException {
+        DatosSinteticos datos = new DatosSinteticos();
+        producto = datos.productoCompleto();
+        roster = datos.items(items);
+        pedidoService = DatosSinteticos.instanciarSinDependencias(PedidoService.class);
+
+        // Método privado: se accede igual que lo haría el propio servicio
+        ordenarItemsPorTalla = MethodHandles.privateLookupIn(PedidoService.class, MethodHandles.lookup())
+                .findVirtual(PedidoService.class, "ordenarItemsPorTalla",
+                        MethodType.methodType(List.class, List.class));
+    }
+
+    @Benchmark
+    public void consumoParaTalla(Blackhole bh) {
+        for (PedidoItem item : roster) {
+            bh.consume(producto.calcularConsumoParaTalla(item.getTalla()));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal telaTotal() {
+        return pedidoService.calcularTelaTotal(producto, roster);
+    }
+
+    @Benchmark
+    public Object ordenarPorTalla() throws Throwable {
+        return ordenarItemsPorTalla.invoke(pedidoService, roster);
+    }
+}
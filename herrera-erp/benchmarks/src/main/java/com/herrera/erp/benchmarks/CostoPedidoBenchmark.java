@@ -0,0 +1,44 @@
+package com.herrera.erp.benchmarks;
+
+import com.herrera.erp.model.CostoPedido;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recalculo de totales, utilidad y margen de CostoPedido
+ * (lo que corre en cada @PrePersist/@PreUpdate)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CostoPedidoBenchmark {
+
+    private CostoPedido costo;
+    private MethodHandle recalcularTotales;
+
+    @Setup
+    public void preparar() throws ReflectiveOperationException {
+        costo = new DatosSinteticos().costo();
+        recalcularTotales = MethodHandles.privateLookupIn(CostoPedido.class, MethodHandles.lookup())
+                .findVirtual(CostoPedido.class, "recalcularTotales", MethodType.methodType(void.class));
+    }
+
+    @Benchmark
+    public BigDecimal recalcularTotales() throws Throwable {
+        recalcularTotales.invoke(costo);
+        return costo.getMargenPorcentaje();
+    }
+
+    @Benchmark
+    public CostoPedido.NivelAlerta nivelAlerta() {
+        return costo.getNivelAlerta();
+    }
+}
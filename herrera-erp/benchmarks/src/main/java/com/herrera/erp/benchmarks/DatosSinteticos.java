@@ -0,0 +1,225 @@
+package com.herrera.erp.benchmarks;
+
+import com.herrera.erp.model.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generadores de datos sintéticos reproducibles para los benchmarks
+ * Misma semilla = mismos datos en cada corrida, para comparar resultados.
+ * Las referencias inversas (item → pedido, ajuste → producto) quedan en null:
+ * así el grafo es acíclico para Jackson y para los hashCode de Lombok.
+ */
+public final class DatosSinteticos {
+
+    public static final long SEMILLA = 20260101L;
+
+    // Mismo orden que PedidoService.ORDEN_TALLAS
+    public static final List<String> TALLAS = List.of(
+            "3", "4", "6", "8", "10", "12", "14", "16",
+            "CH", "M", "L", "XL", "XXL", "3XL", "4XL");
+
+    private static final String[] NOMBRES = {
+            "HERNANDEZ", "GARCIA", "MARTINEZ", "LOPEZ", "GONZALEZ",
+            "PEREZ", "RODRIGUEZ", "SANCHEZ", "RAMIREZ", "CRUZ" };
+
+    private static final String[] COLORES = {
+            "Blanco", "Negro", "Rojo", "Azul Rey", "Verde", "Amarillo", "Marino", "Gris" };
+
+    private final Random random;
+
+    public DatosSinteticos() {
+        this(SEMILLA);
+    }
+
+    public DatosSinteticos(long semilla) {
+        this.random = new Random(semilla);
+    }
+
+    // ============================================
+    // PRODUCTOS
+    // ============================================
+
+    /**
+     * Producto con ajuste para todas las tallas, mangas y "otro"
+     */
+    public Producto productoCompleto() {
+        Set<ProductoAjusteTalla> ajustes = new HashSet<>();
+        long id = 1;
+        for (String talla : TALLAS) {
+            ajustes.add(ProductoAjusteTalla.builder()
+                    .id(id++)
+                    .talla(talla)
+                    .ajusteMetros(metros(-0.30, 0.60))
+                    .build());
+        }
+
+        return Producto.builder()
+                .id(1L)
+                .nombre("Jersey Futbol Manga Larga")
+                .consumoBaseMetros(metros(1.10, 1.60))
+                .incluyeMangas(true)
+                .consumoMangasMetros(metros(0.25, 0.40))
+                .incluyeOtro(true)
+                .consumoOtroMetros(metros(0.05, 0.15))
+                .descripcionOtro("Cuello")
+                .ajustesTalla(ajustes)
+                .build();
+    }
+
+    // ============================================
+    // PEDIDOS
+    // ============================================
+
+    /**
+     * Roster de N items con tallas al azar (sin ordenar)
+     */
+    public List<PedidoItem> items(int cantidad) {
+        List<PedidoItem> items = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            boolean especial = random.nextInt(20) == 0;
+            items.add(PedidoItem.builder()
+                    .id((long) i + 1)
+                    .talla(TALLAS.get(random.nextInt(TALLAS.size())))
+                    .nombreJugador(NOMBRES[random.nextInt(NOMBRES.length)])
+                    .numeroEspalda(String.valueOf(random.nextInt(100)))
+                    .tieneColorEspecial(especial)
+                    .colorEspecial(especial ? COLORES[random.nextInt(COLORES.length)] : null)
+                    .createdAt(LocalDateTime.of(2026, 3, 1, 10, 0))
+                    .build());
+        }
+        return items;
+    }
+
+    public Pedido pedido(int cantidadItems, Producto producto) {
+        List<PedidoItem> items = items(cantidadItems);
+        return Pedido.builder()
+                .id(1L)
+                .folio("2026-0001")
+                .nombrePedido("Liga Municipal Categoría Libre")
+                .clienteNombre("Club Deportivo " + NOMBRES[random.nextInt(NOMBRES.length)])
+                .clienteTelefono("5512345678")
+                .fechaPedido(LocalDate.of(2026, 3, 1))
+                .fechaEntrega(LocalDate.of(2026, 3, 15))
+                .producto(producto)
+                .colorPrincipal(COLORES[random.nextInt(COLORES.length)])
+                .totalPiezas(cantidadItems)
+                .totalTelaEstimada(metros(cantidadItems * 1.2, cantidadItems * 1.8))
+                .usuarioCreador(usuario())
+                .createdAt(LocalDateTime.of(2026, 3, 1, 10, 0))
+                .items(items)
+                .build();
+    }
+
+    public CostoPedido costo() {
+        return CostoPedido.builder()
+                .id(1L)
+                .costoTela(dinero(500, 5000))
+                .costoVinil(dinero(100, 1500))
+                .costoHilo(dinero(20, 200))
+                .costoMaquila(dinero(300, 3000))
+                .costoVarios(dinero(0, 500))
+                .precioVenta(dinero(2000, 15000))
+                .build();
+    }
+
+    // ============================================
+    // INVENTARIO Y USUARIOS
+    // ============================================
+
+    public List<Material> materiales(int cantidad) {
+        TipoMaterial tela = TipoMaterial.builder()
+                .id(1L)
+                .nombre("TELA")
+                .unidadMedida(TipoMaterial.UnidadMedida.METROS)
+                .build();
+
+        List<Material> materiales = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            materiales.add(Material.builder()
+                    .id((long) i + 1)
+                    .tipoMaterial(tela)
+                    .nombre("Dry Fit " + (i + 1))
+                    .color(COLORES[random.nextInt(COLORES.length)])
+                    .stockActual(metros(0, 300))
+                    .stockMinimo(BigDecimal.valueOf(30))
+                    .stockCritico(BigDecimal.valueOf(10))
+                    .prioridad(Material.Prioridad.MEDIA)
+                    .precioUnitario(dinero(40, 120))
+                    .createdAt(LocalDateTime.of(2026, 1, 1, 9, 0))
+                    .build());
+        }
+        return materiales;
+    }
+
+    public Usuario usuario() {
+        Rol rol = Rol.builder()
+                .id(1L)
+                .nombre("ADMIN")
+                .descripcion("Administrador")
+                .build();
+
+        return Usuario.builder()
+                .id(1L)
+                .username("admin")
+                .password("$2a$10$hashNoUsadoEnBenchmarks")
+                .nombreCompleto("Administrador Herrera")
+                .email("admin@herrera.mx")
+                .rol(rol)
+                .build();
+    }
+
+    // ============================================
+    // ACCESO A CÓDIGO DEL BACKEND
+    // ============================================
+
+    /**
+     * Instancia un servicio con todas sus dependencias en null
+     * (para medir métodos que no usan repositorios)
+     */
+    public static <T> T instanciarSinDependencias(Class<T> tipo) {
+        try {
+            Constructor<?> constructor = tipo.getDeclaredConstructors()[0];
+            constructor.setAccessible(true);
+            return tipo.cast(constructor.newInstance(new Object[constructor.getParameterCount()]));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo instanciar " + tipo.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Asigna un campo privado (reemplaza la inyección de @Value)
+     */
+    public static void asignarCampo(Object destino, String campo, Object valor) {
+        try {
+            Field field = destino.getClass().getDeclaredField(campo);
+            field.setAccessible(true);
+            field.set(destino, valor);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo asignar " + campo, e);
+        }
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private BigDecimal metros(double minimo, double maximo) {
+        return BigDecimal.valueOf(minimo + random.nextDouble() * (maximo - minimo))
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private BigDecimal dinero(double minimo, double maximo) {
+        return metros(minimo, maximo);
+    }
+}
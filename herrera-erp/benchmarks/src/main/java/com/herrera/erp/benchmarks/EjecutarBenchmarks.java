@@ -0,0 +1,30 @@
+package com.herrera.erp.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de benchmarks.jar
+ * Acepta las mismas opciones que JMH; por defecto guarda los resultados en
+ * JSON (target/jmh-resultados.json) para comparar entre versiones.
+ *
+ * java -jar target/benchmarks.jar                      (todos)
+ * java -jar target/benchmarks.jar CalculoTela -p items=1000
+ */
+public class EjecutarBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions linea = new CommandLineOptions(args);
+
+        Options opciones = new OptionsBuilder()
+                .parent(linea)
+                .resultFormat(linea.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(linea.getResult().orElse("target/jmh-resultados.json"))
+                .build();
+
+        new Runner(opciones).run();
+    }
+}
@@ -0,0 +1,42 @@
+package com.herrera.erp.benchmarks;
+
+import com.herrera.erp.util.FolioGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación de folios: un hilo y 4 hilos compitiendo por el contador
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FolioGeneratorBenchmark {
+
+    private FolioGenerator folioGenerator;
+
+    @Setup
+    public void preparar() {
+        folioGenerator = new FolioGenerator();
+        DatosSinteticos.asignarCampo(folioGenerator, "prefix", "2026");
+    }
+
+    @Benchmark
+    public String generarFolio() {
+        return folioGenerator.generarFolio();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generarFolioConcurrente() {
+        return folioGenerator.generarFolio();
+    }
+
+    @Benchmark
+    public String generarCodigoRollo() {
+        return folioGenerator.generarCodigoRollo("Azul Rey");
+    }
+}
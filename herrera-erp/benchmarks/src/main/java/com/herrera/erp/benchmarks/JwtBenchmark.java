@@ -0,0 +1,57 @@
+package com.herrera.erp.benchmarks;
+
+import com.herrera.erp.model.Usuario;
+import com.herrera.erp.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación y validación de JWT (se ejecuta en cada login / cada request)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    // Mapa de bits de MatrizPermisos con todos los permisos
+    private static final long PERMISOS = (1L << 24) - 1;
+
+    private JwtUtil jwtUtil;
+    private Usuario usuario;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        jwtUtil = new JwtUtil();
+        DatosSinteticos.asignarCampo(jwtUtil, "secret",
+                "clave-de-benchmark-herrera-erp-de-al-menos-256-bits");
+        DatosSinteticos.asignarCampo(jwtUtil, "expiration", 86_400_000L);
+        jwtUtil.inicializar();
+
+        usuario = new DatosSinteticos().usuario();
+        token = jwtUtil.generateToken(usuario, PERMISOS);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(usuario, PERMISOS);
+    }
+
+    /**
+     * Lo que hace el filtro por request: verificar firma y leer claims
+     */
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, usuario);
+    }
+}
@@ -0,0 +1,56 @@
+package com.herrera.erp.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificación de contraseña con BCrypt, el costo dominante del login
+ * Sirve para elegir seguridad.bcrypt.costo en cada servidor: correr en el
+ * equipo de producción y quedarse con el costo más alto cuyo tiempo por
+ * login siga siendo aceptable con todos los núcleos ocupados (cambio de
+ * turno: 20+ personas entrando a la vez).
+ *
+ * java -jar target/benchmarks.jar Login -p costo=10,11,12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String PASSWORD = "herrera2026";
+
+    @Param({ "8", "10", "12" })
+    private int costo;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void preparar() {
+        encoder = new BCryptPasswordEncoder(costo);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    /**
+     * Un login sin competencia por CPU
+     */
+    @Benchmark
+    public boolean verificar() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    /**
+     * Un login por núcleo a la vez: el tiempo que ve cada usuario en el
+     * cambio de turno
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean verificarConcurrente() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
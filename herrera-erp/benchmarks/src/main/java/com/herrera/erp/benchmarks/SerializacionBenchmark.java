@@ -0,0 +1,53 @@
+package com.herrera.erp.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.herrera.erp.model.Material;
+import com.herrera.erp.model.Pedido;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de las respuestas más pesadas: un pedido con su
+ * roster completo y el listado de materiales
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int items;
+
+    private ObjectMapper objectMapper;
+    private Pedido pedido;
+    private List<Material> materiales;
+
+    @Setup
+    public void preparar() {
+        // Misma configuración que el ObjectMapper de Spring Boot
+        objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        DatosSinteticos datos = new DatosSinteticos();
+        pedido = datos.pedido(items, datos.productoCompleto());
+        materiales = datos.materiales(200);
+    }
+
+    @Benchmark
+    public byte[] serializarPedido() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(pedido);
+    }
+
+    @Benchmark
+    public byte[] serializarMateriales() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(materiales);
+    }
+}
@@ -0,0 +1,41 @@
+-- ============================================
+-- HERRERA ERP - MIGRACIÓN V10
+-- Borrado diferido de imágenes de pedidos
+-- ============================================
+
+-- ============================================
+-- TABLA: pedido_imagenes
+-- Eliminar una imagen (o cancelar su pedido, pasado el periodo de
+-- retención) solo la marca ELIMINADA; la limpieza en segundo plano borra
+-- los archivos del almacén por lotes y después la fila. Si el almacén
+-- falla se reintenta con intentos / proximo_intento_at, igual que la subida.
+-- ============================================
+
+ALTER TABLE pedido_imagenes DROP CONSTRAINT pedido_imagenes_estado_check;
+
+ALTER TABLE pedido_imagenes
+    ADD CONSTRAINT pedido_imagenes_estado_check
+        CHECK (estado IN ('PENDIENTE', 'SUBIDA', 'FALLIDA', 'ELIMINADA')),
+    ADD COLUMN eliminada_at TIMESTAMP;
+
+-- ============================================
+-- ÍNDICES PARA OPTIMIZACIÓN
+-- ============================================
+
+CREATE INDEX idx_pedido_imagenes_eliminadas ON pedido_imagenes(id) WHERE estado = 'ELIMINADA';
+
+-- La limpieza y la conciliación buscan filas por publicId
+CREATE INDEX idx_pedido_imagenes_public_id ON pedido_imagenes(public_id_cloudinary);
+CREATE INDEX idx_pedido_imagenes_public_id_miniatura ON pedido_imagenes(public_id_miniatura);
+CREATE INDEX idx_pedido_imagenes_public_id_mediana ON pedido_imagenes(public_id_mediana);
+
+-- ============================================
+-- COMENTARIOS
+-- ============================================
+
+COMMENT ON COLUMN pedido_imagenes.estado IS 'PENDIENTE = en disco local esperando subida; SUBIDA = url_cloudinary válida; ELIMINADA = en espera de borrarse del almacén';
+COMMENT ON COLUMN pedido_imagenes.eliminada_at IS 'Cuándo se marcó ELIMINADA (por el usuario o por cancelación del pedido)';
+
+-- ============================================
+-- FIN DE LA MIGRACIÓN
+-- ============================================
@@ -0,0 +1,17 @@
+-- ============================================
+-- HERRERA ERP - MIGRACIÓN V11
+-- Versión de token por usuario
+-- ============================================
+
+-- ============================================
+-- TABLA: usuarios
+-- El JWT lleva el rol, los permisos compilados y esta versión, así las
+-- peticiones autenticadas no leen la base de datos. Cambiar el rol, la
+-- contraseña o desactivar al usuario sube la versión y los tokens emitidos
+-- antes dejan de valer (el backend refresca la tabla cada pocos segundos).
+-- ============================================
+
+ALTER TABLE usuarios
+    ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN usuarios.token_version IS 'Se incrementa para revocar los JWT emitidos antes del cambio';
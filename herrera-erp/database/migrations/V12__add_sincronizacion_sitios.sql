@@ -0,0 +1,92 @@
+-- ============================================
+-- HERRERA ERP - MIGRACIÓN V12
+-- Sincronización entre sitios (TALLER, LOCAL) y el servidor central
+-- ============================================
+
+-- ============================================
+-- SECUENCIA: folios de venta por sitio
+-- Cada sitio tiene su base: el folio lleva la letra del sitio
+-- (VTA-T-2026-0001, VTA-L-2026-0001) y no choca al juntarse en el central.
+-- Reemplaza COUNT(*) + 1, que repetía folios con ventas simultáneas.
+-- ============================================
+
+CREATE SEQUENCE ventas_folio_seq;
+SELECT setval('ventas_folio_seq', (SELECT COUNT(*) FROM ventas) + 1, false);
+
+-- ============================================
+-- TABLA: diario_sincronizacion (en cada sitio)
+-- Ventas y movimientos del sitio, escritos en la misma transacción.
+-- secuencia la asigna el envío, un solo escritor, a las filas ya
+-- confirmadas y en orden de id: queda contigua aunque haya rollbacks.
+-- ============================================
+
+CREATE TABLE diario_sincronizacion (
+    id BIGSERIAL PRIMARY KEY,
+    secuencia BIGINT UNIQUE,
+    tipo VARCHAR(20) NOT NULL CHECK (tipo IN ('VENTA', 'MOVIMIENTO')),
+    payload TEXT NOT NULL,
+
+    -- Envío
+    confirmado_at TIMESTAMP,
+
+    -- Auditoría
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ============================================
+-- TABLA: sincronizacion_sitios (en el central)
+-- Última secuencia aplicada de cada sitio: lo que llega con secuencia
+-- menor o igual ya se aplicó y se ignora (reenvío idempotente).
+-- ============================================
+
+CREATE TABLE sincronizacion_sitios (
+    sitio VARCHAR(10) PRIMARY KEY CHECK (sitio IN ('TALLER', 'LOCAL')),
+    ultima_secuencia BIGINT NOT NULL DEFAULT 0,
+    actualizado_at TIMESTAMP
+);
+
+INSERT INTO sincronizacion_sitios (sitio) VALUES ('TALLER'), ('LOCAL');
+
+-- ============================================
+-- TABLA: conflictos_sincronizacion (en el central)
+-- Lo que un sitio vendió sin conexión no se rechaza: si deja stock
+-- negativo, apunta a un material/rollo que el central no tiene o repite
+-- un folio de venta, se registra aquí para revisión.
+-- ============================================
+
+CREATE TABLE conflictos_sincronizacion (
+    id BIGSERIAL PRIMARY KEY,
+    sitio VARCHAR(10) NOT NULL,
+    secuencia BIGINT NOT NULL,
+    tipo VARCHAR(25) NOT NULL CHECK (tipo IN ('STOCK_NEGATIVO', 'REFERENCIA_DESCONOCIDA', 'FOLIO_DUPLICADO')),
+    material_id BIGINT,
+    rollo_id BIGINT,
+    movimiento_id BIGINT REFERENCES movimientos_inventario(id),
+    detalle TEXT NOT NULL,
+    revisado BOOLEAN NOT NULL DEFAULT false,
+
+    -- Auditoría
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ============================================
+-- ÍNDICES PARA OPTIMIZACIÓN
+-- ============================================
+
+CREATE INDEX idx_diario_sin_numerar ON diario_sincronizacion(id) WHERE secuencia IS NULL;
+CREATE INDEX idx_diario_sin_confirmar ON diario_sincronizacion(secuencia) WHERE confirmado_at IS NULL;
+CREATE INDEX idx_conflictos_pendientes ON conflictos_sincronizacion(created_at) WHERE revisado = false;
+
+-- ============================================
+-- COMENTARIOS
+-- ============================================
+
+COMMENT ON TABLE diario_sincronizacion IS 'Ventas y movimientos del sitio pendientes de enviar al central';
+COMMENT ON COLUMN diario_sincronizacion.secuencia IS 'Orden de envío del sitio, sin huecos; NULL = aún sin numerar';
+COMMENT ON COLUMN diario_sincronizacion.confirmado_at IS 'NULL = el central aún no confirma haberlo aplicado';
+COMMENT ON TABLE sincronizacion_sitios IS 'Última secuencia aplicada por sitio (servidor central)';
+COMMENT ON TABLE conflictos_sincronizacion IS 'Ventas y movimientos sincronizados que requieren revisión';
+
+-- ============================================
+-- FIN DE LA MIGRACIÓN
+-- ============================================
@@ -0,0 +1,33 @@
+-- ============================================
+-- HERRERA ERP - MIGRACIÓN V13
+-- Eventos del outbox que agotaron sus intentos
+-- ============================================
+
+-- ============================================
+-- TABLA: outbox_eventos
+-- Un evento que agota los intentos sale de la cola (procesado_at) pero
+-- queda marcado fallido con su último error, para revisarlo y
+-- reprocesarlo a mano. La purga periódica borra solo los despachados.
+-- ============================================
+
+ALTER TABLE outbox_eventos
+    ADD COLUMN fallido BOOLEAN NOT NULL DEFAULT false;
+
+-- ============================================
+-- ÍNDICES PARA OPTIMIZACIÓN
+-- ============================================
+
+CREATE INDEX idx_outbox_fallidos ON outbox_eventos(id) WHERE fallido;
+
+-- La purga busca despachados por antigüedad
+CREATE INDEX idx_outbox_procesados ON outbox_eventos(procesado_at) WHERE procesado_at IS NOT NULL AND NOT fallido;
+
+-- ============================================
+-- COMENTARIOS
+-- ============================================
+
+COMMENT ON COLUMN outbox_eventos.fallido IS 'true = agotó los intentos sin despacharse; para reprocesar: fallido = false, intentos = 0, procesado_at = NULL';
+
+-- ============================================
+-- FIN DE LA MIGRACIÓN
+-- ============================================
@@ -0,0 +1,45 @@
+-- ============================================
+-- HERRERA ERP - MIGRACIÓN V5
+-- Reservas de material (stock comprometido)
+-- ============================================
+
+-- ============================================
+-- TABLA: reservas_material
+-- Metros comprometidos por pedido y material.
+-- Disponible para prometer = stock_actual - SUM(pendiente de reservas ACTIVAS)
+-- ============================================
+
+CREATE TABLE reservas_material (
+    id SERIAL PRIMARY KEY,
+    pedido_id INTEGER NOT NULL REFERENCES pedidos(id) ON DELETE CASCADE,
+    material_id INTEGER NOT NULL REFERENCES materiales(id),
+
+    metros_reservados DECIMAL(10,2) NOT NULL CHECK (metros_reservados >= 0),
+    metros_consumidos DECIMAL(10,2) NOT NULL DEFAULT 0.00 CHECK (metros_consumidos >= 0),
+
+    estado VARCHAR(15) NOT NULL DEFAULT 'ACTIVA' CHECK (estado IN ('ACTIVA', 'CONSUMIDA', 'LIBERADA')),
+
+    -- Auditoría
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ============================================
+-- ÍNDICES PARA OPTIMIZACIÓN
+-- ============================================
+
+CREATE INDEX idx_reservas_pedido ON reservas_material(pedido_id);
+CREATE INDEX idx_reservas_material_activas ON reservas_material(material_id) WHERE estado = 'ACTIVA';
+
+-- ============================================
+-- COMENTARIOS
+-- ============================================
+
+COMMENT ON TABLE reservas_material IS 'Ledger de stock comprometido por pedidos';
+COMMENT ON COLUMN reservas_material.metros_reservados IS 'Metros comprometidos al crear el pedido';
+COMMENT ON COLUMN reservas_material.metros_consumidos IS 'Metros ya descontados por salidas de corte';
+COMMENT ON COLUMN reservas_material.estado IS 'ACTIVA, CONSUMIDA (corte completo) o LIBERADA (cancelado/entregado)';
+
+-- ============================================
+-- FIN DE LA MIGRACIÓN
+-- ============================================
@@ -0,0 +1,63 @@
+-- ============================================
+-- HERRERA ERP - MIGRACIÓN V6
+-- Movimientos de inventario como log de eventos
+-- ============================================
+
+-- ============================================
+-- COLUMNA: movimientos_inventario.aplicado
+-- En modo eventos (inventario.eventos.habilitado=true) los movimientos se
+-- insertan con aplicado = false y el proyector actualiza los saldos después.
+-- En modo síncrono todo movimiento nace aplicado.
+-- ============================================
+
+ALTER TABLE movimientos_inventario
+    ADD COLUMN aplicado BOOLEAN NOT NULL DEFAULT true;
+
+-- ============================================
+-- TRIGGERS: solo aplican movimientos ya aplicados
+-- Los eventos pendientes los proyecta el backend en lote
+-- ============================================
+
+CREATE OR REPLACE FUNCTION actualizar_stock_material()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.aplicado THEN
+        UPDATE materiales
+        SET stock_actual = stock_actual + NEW.cantidad,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE id = NEW.material_id;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION actualizar_metros_rollo()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.aplicado AND NEW.rollo_id IS NOT NULL THEN
+        UPDATE rollos
+        SET metros_actuales = metros_actuales + NEW.cantidad
+        WHERE id = NEW.rollo_id;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ============================================
+-- ÍNDICES PARA OPTIMIZACIÓN
+-- Cola de eventos pendientes (normalmente casi vacía)
+-- ============================================
+
+CREATE INDEX idx_movimientos_pendientes ON movimientos_inventario(id) WHERE aplicado = false;
+CREATE INDEX idx_movimientos_pendientes_material ON movimientos_inventario(material_id) WHERE aplicado = false;
+CREATE INDEX idx_movimientos_pendientes_rollo ON movimientos_inventario(rollo_id) WHERE aplicado = false;
+
+-- ============================================
+-- COMENTARIOS
+-- ============================================
+
+COMMENT ON COLUMN movimientos_inventario.aplicado IS 'false = evento pendiente de proyectar en materiales/rollos';
+
+-- ============================================
+-- FIN DE LA MIGRACIÓN
+-- ============================================
@@ -0,0 +1,48 @@
+-- ============================================
+-- HERRERA ERP - MIGRACIÓN V7
+-- Outbox transaccional de eventos de dominio
+-- ============================================
+
+-- ============================================
+-- TABLA: outbox_eventos
+-- Se escribe en la misma transacción que la venta, el pedido o el
+-- movimiento. Un relay la lee en lotes (FOR UPDATE SKIP LOCKED) y la
+-- despacha a los listeners internos. Las filas se conservan: para
+-- reprocesar basta con volver procesado_at a NULL.
+-- ============================================
+
+CREATE TABLE outbox_eventos (
+    id BIGSERIAL PRIMARY KEY,
+    agregado VARCHAR(20) NOT NULL CHECK (agregado IN ('PEDIDO', 'VENTA', 'INVENTARIO')),
+    agregado_id BIGINT NOT NULL,
+    tipo VARCHAR(50) NOT NULL,
+    payload TEXT NOT NULL,
+
+    -- Despacho
+    intentos INTEGER NOT NULL DEFAULT 0,
+    ultimo_error TEXT,
+    procesado_at TIMESTAMP,
+
+    -- Auditoría
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ============================================
+-- ÍNDICES PARA OPTIMIZACIÓN
+-- ============================================
+
+CREATE INDEX idx_outbox_pendientes ON outbox_eventos(id) WHERE procesado_at IS NULL;
+CREATE INDEX idx_outbox_agregado ON outbox_eventos(agregado, agregado_id);
+
+-- ============================================
+-- COMENTARIOS
+-- ============================================
+
+COMMENT ON TABLE outbox_eventos IS 'Eventos de dominio (ventas, pedidos, inventario) en orden de id';
+COMMENT ON COLUMN outbox_eventos.tipo IS 'Ej: VENTA_REGISTRADA, PEDIDO_CREADO, PEDIDO_ESTADO_CAMBIADO, MOVIMIENTO_REGISTRADO';
+COMMENT ON COLUMN outbox_eventos.payload IS 'Datos del evento en JSON';
+COMMENT ON COLUMN outbox_eventos.procesado_at IS 'NULL = pendiente de despachar';
+
+-- ============================================
+-- FIN DE LA MIGRACIÓN
+-- ============================================
@@ -0,0 +1,41 @@
+-- ============================================
+-- HERRERA ERP - MIGRACIÓN V8
+-- Subida asíncrona de imágenes de pedidos
+-- ============================================
+
+-- ============================================
+-- TABLA: pedido_imagenes
+-- El request guarda el archivo en disco (spool) y deja la imagen en
+-- PENDIENTE; un pool de workers la sube al almacén de imágenes con
+-- reintentos y la pasa a SUBIDA con su URL. Tras agotar los intentos
+-- queda en FALLIDA con el último error.
+-- ============================================
+
+ALTER TABLE pedido_imagenes ALTER COLUMN url_cloudinary DROP NOT NULL;
+
+ALTER TABLE pedido_imagenes
+    ADD COLUMN estado VARCHAR(20) NOT NULL DEFAULT 'SUBIDA'
+        CHECK (estado IN ('PENDIENTE', 'SUBIDA', 'FALLIDA')),
+    ADD COLUMN carpeta VARCHAR(200),
+    ADD COLUMN ruta_temporal TEXT,
+    ADD COLUMN intentos INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN ultimo_error TEXT,
+    ADD COLUMN proximo_intento_at TIMESTAMP;
+
+-- ============================================
+-- ÍNDICES PARA OPTIMIZACIÓN
+-- ============================================
+
+CREATE INDEX idx_pedido_imagenes_pendientes ON pedido_imagenes(id) WHERE estado = 'PENDIENTE';
+
+-- ============================================
+-- COMENTARIOS
+-- ============================================
+
+COMMENT ON COLUMN pedido_imagenes.estado IS 'PENDIENTE = en disco local esperando subida; SUBIDA = url_cloudinary válida';
+COMMENT ON COLUMN pedido_imagenes.ruta_temporal IS 'Archivo en el directorio de spool mientras está PENDIENTE';
+COMMENT ON COLUMN pedido_imagenes.proximo_intento_at IS 'NULL = subir en cuanto haya un worker libre';
+
+-- ============================================
+-- FIN DE LA MIGRACIÓN
+-- ============================================
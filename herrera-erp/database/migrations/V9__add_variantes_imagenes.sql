@@ -0,0 +1,35 @@
+-- ============================================
+-- HERRERA ERP - MIGRACIÓN V9
+-- Variantes de las imágenes de pedidos (miniatura y mediana)
+-- ============================================
+
+-- ============================================
+-- TABLA: pedido_imagenes
+-- Antes de subir, el worker recomprime la imagen principal y genera dos
+-- variantes de tamaño fijo. url_cloudinary pasa a ser la principal
+-- recomprimida; las imágenes anteriores a esta migración no tienen
+-- variantes y se muestran con la URL principal.
+-- ============================================
+
+ALTER TABLE pedido_imagenes
+    ADD COLUMN url_miniatura TEXT,
+    ADD COLUMN public_id_miniatura VARCHAR(200),
+    ADD COLUMN url_mediana TEXT,
+    ADD COLUMN public_id_mediana VARCHAR(200),
+    ADD COLUMN ancho INTEGER,
+    ADD COLUMN alto INTEGER,
+    ADD COLUMN bytes_original BIGINT,
+    ADD COLUMN bytes_principal BIGINT;
+
+-- ============================================
+-- COMENTARIOS
+-- ============================================
+
+COMMENT ON COLUMN pedido_imagenes.url_miniatura IS 'Lado mayor de 240 px (tablero de pedidos)';
+COMMENT ON COLUMN pedido_imagenes.url_mediana IS 'Lado mayor de 960 px (detalle del pedido)';
+COMMENT ON COLUMN pedido_imagenes.ancho IS 'Dimensiones de la imagen principal ya procesada';
+COMMENT ON COLUMN pedido_imagenes.bytes_original IS 'Tamaño recibido del teléfono; bytes_principal es el que se guardó';
+
+-- ============================================
+-- FIN DE LA MIGRACIÓN
+-- ============================================
@@ -44,8 +44,7 @@ export const AuthProvider = ({ children }) => {
     };
 
     const logout = () => {
-        localStorage.removeItem('token');
-        localStorage.removeItem('user');
+        authService.logout();
         setUser(null);
     };
 
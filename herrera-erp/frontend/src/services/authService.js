@@ -24,9 +24,16 @@ const authService = {
     },
 
     /**
-     * Logout
+     * Logout: avisa al servidor para que el token deje de aceptarse
+     * (sin esperar la respuesta) y lo borra del navegador
      */
     logout() {
+        const token = localStorage.getItem('token');
+        if (token) {
+            axios.post(`${API_URL}/logout`, null, {
+                headers: { Authorization: `Bearer ${token}` }
+            }).catch(() => {});
+        }
         localStorage.removeItem('token');
         localStorage.removeItem('user');
     },
@@ -0,0 +1,145 @@
+import api from './api';
+
+/**
+ * Cliente del tablero de pedidos en vivo (GET /api/pedidos/tablero, SSE)
+ * Se lee el stream con fetch y no con EventSource: EventSource no puede
+ * mandar el header Authorization y el backend solo acepta el JWT ahí (no en
+ * la URL, donde quedaría en logs y en el historial).
+ * Mantiene el tablero en memoria a partir del snapshot y los deltas, y se
+ * reconecta solo (el servidor manda otro snapshot en cada conexión).
+ */
+
+const REINTENTO_INICIAL_MS = 1000;
+const REINTENTO_MAXIMO_MS = 30000;
+
+// Mismo orden que el backend: por fecha de entrega, sin fecha al final
+const porEntrega = (a, b) => {
+    if (!a.fechaEntrega) return b.fechaEntrega ? 1 : 0;
+    if (!b.fechaEntrega) return -1;
+    return a.fechaEntrega.localeCompare(b.fechaEntrega);
+};
+
+/**
+ * Separa el texto recibido en eventos SSE completos (línea en blanco al
+ * final); devuelve los eventos y lo que quedó sin terminar
+ */
+const separarEventos = (texto) => {
+    const bloques = texto.split(/\r?\n\r?\n/);
+    const resto = bloques.pop();
+    const eventos = [];
+
+    for (const bloque of bloques) {
+        let nombre = 'message';
+        const datos = [];
+        for (const linea of bloque.split(/\r?\n/)) {
+            // Comentario (latido) o línea vacía
+            if (!linea || linea.startsWith(':')) continue;
+            const separador = linea.indexOf(':');
+            const campo = separador === -1 ? linea : linea.slice(0, separador);
+            const valor = separador === -1 ? '' : linea.slice(separador + 1).replace(/^ /, '');
+            if (campo === 'event') nombre = valor;
+            if (campo === 'data') datos.push(valor);
+        }
+        if (datos.length > 0) {
+            eventos.push({ nombre, datos: datos.join('\n') });
+        }
+    }
+    return { eventos, resto };
+};
+
+const tableroService = {
+    /**
+     * Abre el tablero y llama a alCambiar con la lista de pedidos del canal
+     * (ordenada por entrega) en cada snapshot o delta
+     * @param filtro { estado: ['EN_CORTE', ...], ubicacion, prioridad } (opcionales)
+     * @param alCambiar (pedidos) => void
+     * @param alError (error) => void, opcional; se reintenta de todos modos
+     * @returns función para cerrar el tablero
+     */
+    suscribir: (filtro, alCambiar, alError = () => {}) => {
+        const params = new URLSearchParams();
+        if (filtro?.estado?.length) params.set('estado', filtro.estado.join(','));
+        if (filtro?.ubicacion) params.set('ubicacion', filtro.ubicacion);
+        if (filtro?.prioridad) params.set('prioridad', filtro.prioridad);
+        const url = `${api.defaults.baseURL}/pedidos/tablero?${params}`;
+
+        const pedidos = new Map();
+        const control = new AbortController();
+        let reintentoMs = REINTENTO_INICIAL_MS;
+
+        const publicar = () => alCambiar([...pedidos.values()].sort(porEntrega));
+
+        const aplicar = ({ nombre, datos }) => {
+            const evento = JSON.parse(datos);
+            switch (nombre) {
+                case 'snapshot':
+                    pedidos.clear();
+                    evento.pedidos.forEach((p) => pedidos.set(p.id, p));
+                    break;
+                case 'alta':
+                case 'cambio':
+                    pedidos.set(evento.pedidoId, evento.pedido);
+                    break;
+                case 'baja':
+                    pedidos.delete(evento.pedidoId);
+                    break;
+                default:
+                    return;
+            }
+            publicar();
+        };
+
+        const conectar = async () => {
+            const token = localStorage.getItem('token');
+            const response = await fetch(url, {
+                headers: {
+                    Accept: 'text/event-stream',
+                    ...(token ? { Authorization: `Bearer ${token}` } : {})
+                },
+                cache: 'no-store',
+                signal: control.signal
+            });
+
+            if (response.status === 401) {
+                // Igual que el interceptor de api.js
+                localStorage.removeItem('token');
+                localStorage.removeItem('user');
+                window.location.href = '/';
+                return false;
+            }
+            if (!response.ok) {
+                throw new Error(`Tablero no disponible (status ${response.status})`);
+            }
+
+            reintentoMs = REINTENTO_INICIAL_MS;
+            const lector = response.body.pipeThrough(new TextDecoderStream()).getReader();
+            let pendiente = '';
+            for (;;) {
+                const { value, done } = await lector.read();
+                if (done) return true;
+                const { eventos, resto } = separarEventos(pendiente + value);
+                pendiente = resto;
+                eventos.forEach(aplicar);
+            }
+        };
+
+        const ciclo = async () => {
+            while (!control.signal.aborted) {
+                try {
+                    // El servidor cierra el stream al vencer su duración máxima: se reconecta
+                    if (!(await conectar())) return;
+                } catch (error) {
+                    if (control.signal.aborted) return;
+                    alError(error);
+                    await new Promise((r) => setTimeout(r, reintentoMs));
+                    reintentoMs = Math.min(reintentoMs * 2, REINTENTO_MAXIMO_MS);
+                }
+            }
+        };
+
+        ciclo();
+        return () => control.abort();
+    }
+};
+
+export default tableroService;
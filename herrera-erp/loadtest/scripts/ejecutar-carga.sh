@@ -0,0 +1,113 @@
+#!/usr/bin/env bash
+# ============================================
+# HERRERA ERP - CORRIDA COMPLETA DE CARGA
+# PostgreSQL local + datos de volumen + backend + generador de carga.
+# Todo corre en la máquina local; al terminar se detiene y borra todo.
+#
+# Uso:
+#   ./ejecutar-carga.sh [argumentos del generador]
+#   ./ejecutar-carga.sh --hilos 32 --duracion 300
+#
+# Variables: PEDIDOS, MOVIMIENTOS, VENTAS (volumen sembrado), BACKEND_PUERTO (18080)
+#            REPLICA: vacío (sin réplica), "instancia" (réplica en streaming en
+#            el puerto 55433) o "pool" (misma instancia con un segundo pool)
+#            HILOS: vacío (hilos de plataforma) o "virtuales" (perfil virtual, Java 21)
+#            ETIQUETA: sufijo de reporte y log, para comparar corridas (reporte-ETIQUETA.json)
+#            BCRYPT_COSTO: seguridad.bcrypt.costo del backend (vacío = el de application.properties)
+#            LIMITE_TASA: "true" para medir con el límite de peticiones activo (por defecto
+#            desactivado: el generador usa un solo token e IP para todos los hilos)
+# ============================================
+set -euo pipefail
+
+DIR_SCRIPTS="$(cd "$(dirname "$0")" && pwd)"
+DIR_LOADTEST="$DIR_SCRIPTS/.."
+DIR_BACKEND="$DIR_LOADTEST/../backend"
+
+export PG_PUERTO="${PG_PUERTO:-55432}"
+BACKEND_PUERTO="${BACKEND_PUERTO:-18080}"
+RESULTADOS="$DIR_LOADTEST/target/resultados"
+
+BACKEND_PID=""
+terminar() {
+    [[ -n "$BACKEND_PID" ]] && kill "$BACKEND_PID" 2>/dev/null && wait "$BACKEND_PID" 2>/dev/null || true
+    "$DIR_SCRIPTS/postgres-local.sh" detener
+}
+trap terminar EXIT
+
+ARGS_HILOS=()
+JAVA_OPTS_HILOS=()
+case "${HILOS:-}" in
+    "") ;;
+    virtuales)
+        VERSION_JAVA="$(java -XshowSettings:properties -version 2>&1 \
+            | sed -n 's/^ *java.specification.version = //p')"
+        if (( ${VERSION_JAVA%%.*} < 21 )); then
+            echo "HILOS=virtuales requiere Java 21" >&2; exit 1
+        fi
+        ARGS_HILOS=(--spring.profiles.active=virtual)
+        # Cada vez que un hilo virtual queda fijado a su carrier se imprime la pila en backend.log
+        JAVA_OPTS_HILOS=(-Djdk.tracePinnedThreads=short)
+        ;;
+    *) echo "HILOS debe ser vacío o 'virtuales'" >&2; exit 1 ;;
+esac
+
+echo "→ compilando backend y generador"
+(cd "$DIR_BACKEND" && mvn -B -q -o package -DskipTests)
+(cd "$DIR_LOADTEST" && mvn -B -q -o package)
+
+"$DIR_SCRIPTS/postgres-local.sh" detener
+"$DIR_SCRIPTS/postgres-local.sh" iniciar
+"$DIR_SCRIPTS/postgres-local.sh" sembrar \
+    -v pedidos="${PEDIDOS:-50000}" \
+    -v movimientos="${MOVIMIENTOS:-500000}" \
+    -v ventas="${VENTAS:-200000}"
+
+ARGS_REPLICA=()
+case "${REPLICA:-}" in
+    "") ;;
+    instancia)
+        "$DIR_SCRIPTS/postgres-local.sh" replica
+        ARGS_REPLICA=(--datasource.replica.habilitado=true
+            --datasource.replica.hikari.jdbc-url="jdbc:postgresql://localhost:${PG_PUERTO_REPLICA:-55433}/herrera_erp")
+        ;;
+    pool)
+        ARGS_REPLICA=(--datasource.replica.habilitado=true
+            --datasource.replica.hikari.jdbc-url="jdbc:postgresql://localhost:$PG_PUERTO/herrera_erp")
+        ;;
+    *) echo "REPLICA debe ser vacío, 'instancia' o 'pool'" >&2; exit 1 ;;
+esac
+
+SUFIJO="${ETIQUETA:+-$ETIQUETA}"
+mkdir -p "$RESULTADOS"
+
+echo "→ iniciando backend en :$BACKEND_PUERTO"
+java ${BACKEND_JAVA_OPTS:--Xms1g -Xmx1g} ${JAVA_OPTS_HILOS[@]+"${JAVA_OPTS_HILOS[@]}"} -jar "$DIR_BACKEND"/target/erp-backend-*-exec.jar \
+    --server.port="$BACKEND_PUERTO" \
+    --spring.datasource.url="jdbc:postgresql://localhost:$PG_PUERTO/herrera_erp" \
+    --spring.jpa.show-sql=false \
+    --logging.level.root=WARN \
+    --logging.level.com.herrera.erp=INFO \
+    --logging.level.org.hibernate.SQL=WARN \
+    --logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN \
+    ${ARGS_REPLICA[@]+"${ARGS_REPLICA[@]}"} \
+    ${ARGS_HILOS[@]+"${ARGS_HILOS[@]}"} \
+    ${BCRYPT_COSTO:+--seguridad.bcrypt.costo="$BCRYPT_COSTO"} \
+    --limite.tasa.habilitado="${LIMITE_TASA:-false}" \
+    > "$RESULTADOS/backend$SUFIJO.log" 2>&1 &
+BACKEND_PID=$!
+
+for _ in $(seq 1 120); do
+    if curl -fs "http://localhost:$BACKEND_PUERTO/actuator/health" >/dev/null 2>&1; then
+        break
+    fi
+    if ! kill -0 "$BACKEND_PID" 2>/dev/null; then
+        echo "El backend terminó al iniciar; ver $RESULTADOS/backend$SUFIJO.log" >&2
+        exit 1
+    fi
+    sleep 1
+done
+
+java -jar "$DIR_LOADTEST/target/generador-carga.jar" \
+    --url "http://localhost:$BACKEND_PUERTO" \
+    --salida "$RESULTADOS/reporte$SUFIJO.json" \
+    "$@"
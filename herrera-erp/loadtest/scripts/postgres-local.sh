@@ -0,0 +1,126 @@
+#!/usr/bin/env bash
+# ============================================
+# HERRERA ERP - POSTGRESQL LOCAL PARA PRUEBAS DE CARGA
+# Levanta una instancia desechable (initdb en un directorio temporal) con el
+# schema, los datos de ejemplo y las migraciones. No requiere Docker ni red.
+#
+# Uso:
+#   ./postgres-local.sh iniciar      # crea la instancia y carga el schema
+#   ./postgres-local.sh sembrar      # datos de volumen (sembrar-volumen.sql)
+#   ./postgres-local.sh replica      # réplica en streaming (pg_basebackup) en PG_PUERTO_REPLICA
+#   ./postgres-local.sh base NOMBRE  # otra base en la misma instancia, con schema y datos de ejemplo
+#   ./postgres-local.sh detener      # detiene y borra la instancia (y la réplica)
+#
+# Variables: PG_BIN (binarios de PostgreSQL), PG_PUERTO (55432), PG_DATOS,
+#            PG_PUERTO_REPLICA (55433), PG_DATOS_REPLICA
+# ============================================
+set -euo pipefail
+
+DIR_SCRIPTS="$(cd "$(dirname "$0")" && pwd)"
+DIR_DATABASE="$DIR_SCRIPTS/../../database"
+
+PG_PUERTO="${PG_PUERTO:-55432}"
+PG_DATOS="${PG_DATOS:-${TMPDIR:-/tmp}/herrera-erp-carga-pg}"
+PG_BASE="${PG_BASE:-herrera_erp}"
+PG_PUERTO_REPLICA="${PG_PUERTO_REPLICA:-55433}"
+PG_DATOS_REPLICA="${PG_DATOS_REPLICA:-$PG_DATOS-replica}"
+
+if [[ -n "${PG_BIN:-}" ]]; then
+    export PATH="$PG_BIN:$PATH"
+elif ! command -v initdb >/dev/null 2>&1; then
+    # Debian/Ubuntu instalan los binarios fuera del PATH
+    PG_BIN="$(ls -d /usr/lib/postgresql/*/bin 2>/dev/null | sort -V | tail -1 || true)"
+    [[ -n "$PG_BIN" ]] && export PATH="$PG_BIN:$PATH"
+fi
+
+psql_local() {
+    psql -h localhost -p "$PG_PUERTO" -U postgres -v ON_ERROR_STOP=1 -q "$@"
+}
+
+iniciar() {
+    if [[ -d "$PG_DATOS" ]]; then
+        echo "Ya existe $PG_DATOS; ejecutar '$0 detener' primero" >&2
+        exit 1
+    fi
+
+    echo "→ initdb en $PG_DATOS (puerto $PG_PUERTO)"
+    initdb -D "$PG_DATOS" -U postgres --auth=trust -E UTF8 --locale=C >/dev/null
+
+    # Parámetros pensados para una máquina de desarrollo; fsync apagado porque
+    # la instancia es desechable y así la siembra no domina el tiempo total
+    cat >> "$PG_DATOS/postgresql.conf" <<CONF
+port = $PG_PUERTO
+listen_addresses = 'localhost'
+unix_socket_directories = '$PG_DATOS'
+max_connections = 50
+shared_buffers = 512MB
+work_mem = 16MB
+maintenance_work_mem = 256MB
+fsync = off
+synchronous_commit = off
+full_page_writes = off
+CONF
+
+    pg_ctl -D "$PG_DATOS" -l "$PG_DATOS/postgres.log" -w start >/dev/null
+    crear_base "$PG_BASE"
+}
+
+# Base nueva con schema, datos de ejemplo y migraciones (mismos ids en todas)
+crear_base() {
+    psql_local -d postgres -c "CREATE DATABASE $1"
+
+    echo "→ schema, datos de ejemplo y migraciones en $1"
+    psql_local -d "$1" -f "$DIR_DATABASE/schema.sql" >/dev/null
+    psql_local -d "$1" -f "$DIR_DATABASE/seed-data.sql" >/dev/null
+    for migracion in $(ls "$DIR_DATABASE"/migrations/V*__*.sql | sort -V); do
+        if [[ -s "$migracion" ]]; then
+            echo "   $(basename "$migracion")"
+            psql_local -d "$1" -f "$migracion" >/dev/null
+        fi
+    done
+}
+
+sembrar() {
+    echo "→ datos de volumen (puede tardar unos minutos)"
+    psql_local -d "$PG_BASE" "$@" -f "$DIR_SCRIPTS/sembrar-volumen.sql"
+}
+
+# Réplica en streaming de la instancia local, después de sembrar: copiar los
+# archivos es mucho más rápido que reproducir la siembra por WAL
+replica() {
+    if [[ -d "$PG_DATOS_REPLICA" ]]; then
+        echo "Ya existe $PG_DATOS_REPLICA; ejecutar '$0 detener' primero" >&2
+        exit 1
+    fi
+
+    echo "→ pg_basebackup en $PG_DATOS_REPLICA (puerto $PG_PUERTO_REPLICA)"
+    pg_basebackup -h localhost -p "$PG_PUERTO" -U postgres -D "$PG_DATOS_REPLICA" -R -X stream -c fast
+    cat >> "$PG_DATOS_REPLICA/postgresql.conf" <<CONF
+port = $PG_PUERTO_REPLICA
+unix_socket_directories = '$PG_DATOS_REPLICA'
+hot_standby = on
+hot_standby_feedback = on
+CONF
+
+    pg_ctl -D "$PG_DATOS_REPLICA" -l "$PG_DATOS_REPLICA/postgres.log" -w start >/dev/null
+}
+
+detener() {
+    if [[ -d "$PG_DATOS_REPLICA" ]]; then
+        pg_ctl -D "$PG_DATOS_REPLICA" -m fast stop >/dev/null 2>&1 || true
+        rm -rf "$PG_DATOS_REPLICA"
+    fi
+    if [[ -d "$PG_DATOS" ]]; then
+        pg_ctl -D "$PG_DATOS" -m fast stop >/dev/null 2>&1 || true
+        rm -rf "$PG_DATOS"
+    fi
+}
+
+case "${1:-}" in
+    iniciar) iniciar ;;
+    sembrar) shift; sembrar "$@" ;;
+    replica) replica ;;
+    base) crear_base "${2:?falta el nombre de la base}" ;;
+    detener) detener ;;
+    *) echo "Uso: $0 {iniciar|sembrar [-v pedidos=N ...]|replica|base NOMBRE|detener}" >&2; exit 1 ;;
+esac
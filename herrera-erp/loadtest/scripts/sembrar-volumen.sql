@@ -0,0 +1,162 @@
+-- ============================================
+-- HERRERA ERP - DATOS DE VOLUMEN PARA PRUEBAS DE CARGA
+-- Se ejecuta después de schema.sql, seed-data.sql y las migraciones.
+-- Volúmenes por defecto (temporada alta), ajustables con psql -v:
+--   psql -v pedidos=50000 -v movimientos=500000 -v ventas=200000 -f sembrar-volumen.sql
+-- Pedidos con 10 a 70 items (promedio 40 → ~2M pedido_items)
+-- ============================================
+
+\set ON_ERROR_STOP on
+
+\if :{?materiales}
+\else
+\set materiales 200
+\endif
+\if :{?rollos_por_material}
+\else
+\set rollos_por_material 10
+\endif
+\if :{?pedidos}
+\else
+\set pedidos 50000
+\endif
+\if :{?movimientos}
+\else
+\set movimientos 500000
+\endif
+\if :{?ventas}
+\else
+\set ventas 200000
+\endif
+
+-- Sin triggers durante la carga masiva (stock y total_piezas se calculan aquí)
+SET session_replication_role = replica;
+
+-- ============================================
+-- 1. USUARIO DE CARGA (password: carga2026)
+-- ============================================
+
+CREATE EXTENSION IF NOT EXISTS pgcrypto;
+
+INSERT INTO usuarios (username, password_hash, nombre_completo, rol_id, activo)
+SELECT 'carga', crypt('carga2026', gen_salt('bf', 10)), 'Usuario Pruebas de Carga', r.id, true
+FROM roles r WHERE r.nombre = 'ADMIN'
+ON CONFLICT (username) DO NOTHING;
+
+-- Personal del turno para la operación login (turno01..turno30, misma password).
+-- Hash con costo 8: al correr con otro seguridad.bcrypt.costo el primer login
+-- de cada uno rehace el hash, como en producción
+INSERT INTO usuarios (username, password_hash, nombre_completo, rol_id, activo)
+SELECT 'turno' || lpad(g::text, 2, '0'), crypt('carga2026', gen_salt('bf', 8)),
+       'Personal Turno ' || g, r.id, true
+FROM generate_series(1, 30) g, roles r WHERE r.nombre = 'ADMIN'
+ON CONFLICT (username) DO NOTHING;
+
+-- ============================================
+-- 2. MATERIALES Y ROLLOS
+-- Stock alto para que la carga no se quede sin tela
+-- ============================================
+
+INSERT INTO materiales (tipo_material_id, nombre, color, stock_actual, stock_minimo, stock_critico, prioridad, precio_unitario)
+SELECT (SELECT id FROM tipos_material WHERE nombre = 'TELA'),
+       'Tela Carga ' || g,
+       (ARRAY['Blanco', 'Negro', 'Rojo', 'Azul Rey', 'Verde', 'Amarillo', 'Marino', 'Gris'])[1 + g % 8],
+       :rollos_por_material * 1000000, 50, 20,
+       (ARRAY['ALTA', 'MEDIA', 'BAJA'])[1 + g % 3],
+       45 + g % 60
+FROM generate_series(1, :materiales) g;
+
+INSERT INTO rollos (material_id, codigo_rollo, metros_iniciales, metros_actuales, destino, fecha_entrada, proveedor, precio_compra)
+SELECT m.id, 'RC-' || m.id || '-' || r, 1000000, 1000000,
+       (ARRAY['CORTE', 'VENTA', 'MIXTO'])[1 + r % 3],
+       CURRENT_DATE - r * 7, 'Proveedor Carga', 40
+FROM materiales m
+CROSS JOIN generate_series(1, :rollos_por_material) r
+WHERE m.nombre LIKE 'Tela Carga %';
+
+-- ============================================
+-- 3. PEDIDOS (un año de historia; los últimos 20 días siguen activos)
+-- ============================================
+
+INSERT INTO pedidos (folio, nombre_pedido, cliente_nombre, cliente_telefono, fecha_pedido, fecha_entrega,
+                     prioridad, tipo, producto_id, color_principal, total_piezas, total_tela_estimada,
+                     estado, usuario_creador_id, ubicacion_origen, created_at, updated_at)
+SELECT 'C-' || lpad(g::text, 7, '0'),
+       'Uniformes Liga ' || (g % 800),
+       'Cliente ' || (g % 5000),
+       '55' || lpad((g * 7919 % 100000000)::text, 8, '0'),
+       CURRENT_DATE - (g % 365),
+       CURRENT_DATE - (g % 365) + 14,
+       CASE WHEN g % 10 = 0 THEN 'PREFERENCIAL' ELSE 'ESTANDAR' END,
+       CASE WHEN g % 4 = 0 THEN 'DOBLE' ELSE 'SENCILLO' END,
+       p.ids[1 + g % array_length(p.ids, 1)],
+       (ARRAY['Blanco', 'Negro', 'Rojo', 'Azul Rey', 'Verde', 'Amarillo', 'Marino', 'Gris'])[1 + g % 8],
+       10 + (g * 7919 % 61),
+       (10 + (g * 7919 % 61)) * 1.55,
+       CASE
+           WHEN g % 365 < 20 THEN (ARRAY['PENDIENTE', 'EN_CORTE', 'EN_COSTURA', 'EN_ACABADOS', 'LISTO'])[1 + g % 5]
+           WHEN g % 50 = 0 THEN 'CANCELADO'
+           ELSE 'ENTREGADO'
+       END,
+       u.id,
+       CASE WHEN g % 3 = 0 THEN 'LOCAL' ELSE 'TALLER' END,
+       CURRENT_TIMESTAMP - ((g % 365) || ' days')::interval,
+       CURRENT_TIMESTAMP - ((g % 365) || ' days')::interval
+FROM generate_series(1, :pedidos) g,
+     (SELECT array_agg(id ORDER BY id) AS ids FROM productos) p,
+     (SELECT id FROM usuarios WHERE username = 'carga') u;
+
+INSERT INTO pedido_items (pedido_id, talla, nombre_jugador, numero_espalda, tiene_color_especial, orden_talla, created_at)
+SELECT p.id,
+       (ARRAY['3', '4', '6', '8', '10', '12', '14', '16', 'CH', 'M', 'L', 'XL', 'XXL', '3XL', '4XL'])[1 + i % 15],
+       'JUGADOR ' || i,
+       (i % 99)::text,
+       i % 20 = 0,
+       1 + i % 15,
+       p.created_at
+FROM pedidos p
+CROSS JOIN LATERAL generate_series(1, p.total_piezas) i
+WHERE p.folio LIKE 'C-%';
+
+-- ============================================
+-- 4. MOVIMIENTOS DE INVENTARIO (saldos ya incluidos en el stock inicial)
+-- ============================================
+
+INSERT INTO movimientos_inventario (material_id, rollo_id, tipo_movimiento, cantidad, stock_anterior, stock_nuevo,
+                                    motivo, pedido_id, usuario_id, fecha)
+SELECT r.material_id, r.id, t.tipo,
+       CASE WHEN t.tipo = 'ENTRADA' THEN 50 ELSE -(1 + g % 30) END,
+       NULL, NULL,
+       'Movimiento de carga ' || g,
+       CASE WHEN t.tipo = 'SALIDA_CORTE' THEN 1 + g % :pedidos END,
+       u.id,
+       CURRENT_TIMESTAMP - ((g % 525600) || ' minutes')::interval
+FROM generate_series(1, :movimientos) g
+CROSS JOIN LATERAL (SELECT (ARRAY['SALIDA_CORTE', 'SALIDA_CORTE', 'SALIDA_VENTA', 'SALIDA_VENTA', 'ENTRADA', 'MERMA'])[1 + g % 6] AS tipo) t
+JOIN rollos r ON r.id = (SELECT min(id) FROM rollos WHERE codigo_rollo LIKE 'RC-%') + g % (:materiales * :rollos_por_material),
+     (SELECT id FROM usuarios WHERE username = 'carga') u;
+
+-- ============================================
+-- 5. VENTAS (~550 por día durante un año)
+-- ============================================
+
+INSERT INTO ventas (folio_venta, tipo_venta, cliente_nombre, total, metodo_pago, usuario_vendedor_id, ubicacion, fecha_venta)
+SELECT 'VC-' || lpad(g::text, 7, '0'),
+       CASE WHEN g % 4 = 0 THEN 'CLON' ELSE 'TELA_METROS' END,
+       'Mostrador ' || (g % 3000),
+       50 + g % 2000,
+       (ARRAY['EFECTIVO', 'TARJETA', 'TRANSFERENCIA'])[1 + g % 3],
+       u.id,
+       CASE WHEN g % 2 = 0 THEN 'LOCAL' ELSE 'TALLER' END,
+       CURRENT_TIMESTAMP - ((g % 525600) || ' minutes')::interval
+FROM generate_series(1, :ventas) g,
+     (SELECT id FROM usuarios WHERE username = 'carga') u;
+
+SET session_replication_role = DEFAULT;
+
+ANALYZE;
+
+SELECT 'pedidos' AS tabla, count(*) FROM pedidos
+UNION ALL SELECT 'pedido_items', count(*) FROM pedido_items
+UNION ALL SELECT 'movimientos_inventario', count(*) FROM movimientos_inventario
+UNION ALL SELECT 'ventas', count(*) FROM ventas;
@@ -0,0 +1,102 @@
+#!/usr/bin/env bash
+# ============================================
+# HERRERA ERP - DOS SITIOS EN LOCAL (SINCRONIZACIÓN)
+# Levanta en la máquina local el central (sitio TALLER) y el sitio LOCAL,
+# cada uno con su base en la misma instancia de PostgreSQL. El LOCAL anota
+# sus ventas y movimientos y los manda al central cada pocos segundos.
+# Para simular un corte de red, pausar el central (kill -STOP) y seguir
+# vendiendo en el LOCAL; al reanudarlo (kill -CONT) el diario se vacía.
+# Ctrl+C detiene ambos backends y borra la instancia.
+#
+# Uso:
+#   ./sincronizacion-local.sh
+#
+# Variables: CENTRAL_PUERTO (18080), LOCAL_PUERTO (18081), PG_PUERTO (55432)
+# ============================================
+set -euo pipefail
+
+DIR_SCRIPTS="$(cd "$(dirname "$0")" && pwd)"
+DIR_LOADTEST="$DIR_SCRIPTS/.."
+DIR_BACKEND="$DIR_LOADTEST/../backend"
+
+export PG_PUERTO="${PG_PUERTO:-55432}"
+CENTRAL_PUERTO="${CENTRAL_PUERTO:-18080}"
+LOCAL_PUERTO="${LOCAL_PUERTO:-18081}"
+RESULTADOS="$DIR_LOADTEST/target/resultados"
+TOKEN_LOCAL="token-local-$$"
+
+PIDS=()
+terminar() {
+    for pid in ${PIDS[@]+"${PIDS[@]}"}; do
+        kill -CONT "$pid" 2>/dev/null || true
+        kill "$pid" 2>/dev/null && wait "$pid" 2>/dev/null || true
+    done
+    "$DIR_SCRIPTS/postgres-local.sh" detener
+}
+trap terminar EXIT
+
+echo "→ compilando backend"
+(cd "$DIR_BACKEND" && mvn -B -q -o package -DskipTests)
+
+"$DIR_SCRIPTS/postgres-local.sh" detener
+"$DIR_SCRIPTS/postgres-local.sh" iniciar
+"$DIR_SCRIPTS/postgres-local.sh" base herrera_erp_local
+mkdir -p "$RESULTADOS"
+
+# iniciar_backend NOMBRE PUERTO BASE [argumentos]
+iniciar_backend() {
+    local nombre="$1" puerto="$2" base="$3"
+    shift 3
+    echo "→ iniciando $nombre en :$puerto (base $base)"
+    java ${BACKEND_JAVA_OPTS:--Xms256m -Xmx512m} -jar "$DIR_BACKEND"/target/erp-backend-*-exec.jar \
+        --server.port="$puerto" \
+        --spring.datasource.url="jdbc:postgresql://localhost:$PG_PUERTO/$base" \
+        --spring.jpa.show-sql=false \
+        --logging.level.root=WARN \
+        --logging.level.com.herrera.erp=INFO \
+        --logging.level.org.hibernate.SQL=WARN \
+        --logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN \
+        "$@" \
+        > "$RESULTADOS/sincronizacion-$nombre.log" 2>&1 &
+    PIDS+=($!)
+}
+
+esperar_backend() {
+    local nombre="$1" puerto="$2" pid="$3"
+    for _ in $(seq 1 120); do
+        if curl -fs "http://localhost:$puerto/actuator/health" >/dev/null 2>&1; then
+            return
+        fi
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$nombre terminó al iniciar; ver $RESULTADOS/sincronizacion-$nombre.log" >&2
+            exit 1
+        fi
+        sleep 1
+    done
+}
+
+iniciar_backend central "$CENTRAL_PUERTO" herrera_erp \
+    --sincronizacion.sitio=TALLER \
+    --sincronizacion.central.habilitado=true \
+    --sincronizacion.central.tokens.LOCAL="$TOKEN_LOCAL"
+iniciar_backend local "$LOCAL_PUERTO" herrera_erp_local \
+    --sincronizacion.sitio=LOCAL \
+    --sincronizacion.envio.habilitado=true \
+    --sincronizacion.envio.central-url="http://localhost:$CENTRAL_PUERTO" \
+    --sincronizacion.envio.token="$TOKEN_LOCAL" \
+    --sincronizacion.envio.espera-max-ms=30000
+
+esperar_backend central "$CENTRAL_PUERTO" "${PIDS[0]}"
+esperar_backend local "$LOCAL_PUERTO" "${PIDS[1]}"
+
+cat <<INFO
+Listo:
+  central (TALLER)  http://localhost:$CENTRAL_PUERTO   pid ${PIDS[0]}
+  sitio LOCAL       http://localhost:$LOCAL_PUERTO   pid ${PIDS[1]}
+  estado            GET /api/sincronizacion/estado (ADMIN) en cualquiera de los dos
+  corte de red      kill -STOP ${PIDS[0]}   ...   kill -CONT ${PIDS[0]}
+  logs              $RESULTADOS/sincronizacion-*.log
+Ctrl+C para terminar.
+INFO
+
+wait
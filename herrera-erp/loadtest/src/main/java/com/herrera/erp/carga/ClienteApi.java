@@ -0,0 +1,136 @@
+package com.herrera.erp.carga;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cliente HTTP mínimo del backend (login JWT + GET/POST JSON)
+ * Sin librerías externas: las respuestas se leen con expresiones regulares,
+ * solo lo necesario para obtener ids.
+ * Ubicación: loadtest/src/main/java/com/herrera/erp/carga/ClienteApi.java
+ */
+final class ClienteApi {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern USUARIO_ID = Pattern.compile("\"usuarioId\"\\s*:\\s*(\\d+)");
+    private static final Pattern ROLLO = Pattern.compile(
+            "\\{\"id\":(\\d+),\"materialId\":(\\d+).*?\"metrosActuales\":([\\d.]+)");
+    private static final Pattern PEDIDO = Pattern.compile("^\\{\"id\":(\\d+),\"folio\"");
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    private String token;
+    private Long usuarioId;
+
+    record Respuesta(int status, String cuerpo) {
+        boolean exitosa() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    /** Rollo disponible, el material al que pertenece y sus metros actuales */
+    record Rollo(long id, long materialId, double metrosActuales) {
+    }
+
+    ClienteApi(String baseUrl, Duration timeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    // ============================================
+    // AUTENTICACIÓN
+    // ============================================
+
+    void login(String username, String password) throws IOException, InterruptedException {
+        Respuesta respuesta = iniciarSesion(username, password);
+
+        Matcher matcherToken = TOKEN.matcher(respuesta.cuerpo());
+        Matcher matcherUsuario = USUARIO_ID.matcher(respuesta.cuerpo());
+        if (!respuesta.exitosa() || !matcherToken.find() || !matcherUsuario.find()) {
+            throw new IllegalStateException("Login fallido (" + respuesta.status() + "): " + respuesta.cuerpo());
+        }
+        token = matcherToken.group(1);
+        usuarioId = Long.parseLong(matcherUsuario.group(1));
+    }
+
+    /**
+     * Login sin guardar el token (operación medida; se llama desde varios hilos)
+     */
+    Respuesta iniciarSesion(String username, String password) throws IOException, InterruptedException {
+        return enviar(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}")));
+    }
+
+    Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    // ============================================
+    // PETICIONES
+    // ============================================
+
+    Respuesta get(String ruta) throws IOException, InterruptedException {
+        return enviar(peticion(ruta).GET());
+    }
+
+    Respuesta post(String ruta, String json) throws IOException, InterruptedException {
+        return enviar(peticion(ruta)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    // ============================================
+    // LECTURA DE RESPUESTAS
+    // ============================================
+
+    static List<Rollo> leerRollos(String json) {
+        List<Rollo> rollos = new ArrayList<>();
+        Matcher matcher = ROLLO.matcher(json);
+        while (matcher.find()) {
+            rollos.add(new Rollo(
+                    Long.parseLong(matcher.group(1)),
+                    Long.parseLong(matcher.group(2)),
+                    Double.parseDouble(matcher.group(3))));
+        }
+        return rollos;
+    }
+
+    static Long leerIdPedido(String json) {
+        Matcher matcher = PEDIDO.matcher(json);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : null;
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private HttpRequest.Builder peticion(String ruta) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + ruta)).timeout(timeout);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private Respuesta enviar(HttpRequest.Builder builder) throws IOException, InterruptedException {
+        HttpResponse<String> respuesta = http.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        return new Respuesta(respuesta.statusCode(), respuesta.body());
+    }
+}
@@ -0,0 +1,110 @@
+package com.herrera.erp.carga;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Parámetros de una corrida de carga (argumentos --clave valor)
+ * Ubicación: loadtest/src/main/java/com/herrera/erp/carga/ConfiguracionCarga.java
+ */
+final class ConfiguracionCarga {
+
+    static final String USO = """
+            Uso: java -jar generador-carga.jar [opciones]
+              --url URL              Backend (http://localhost:8080)
+              --usuario U            Usuario de login (carga)
+              --password P           Password (carga2026)
+              --hilos N              Usuarios concurrentes (16)
+              --duracion S           Segundos de medición (120)
+              --calentamiento S      Segundos iniciales sin medir (30)
+              --tasa N               Peticiones/seg totales; 0 = lazo cerrado sin pausa (0)
+              --mezcla M             Pesos por operación (ventas=50,dashboard=20,pedidos=15,corte=15,
+                                     reporte-mes=0,login=0)
+              --personal N           Usuarios turno01..turnoN para la operación login (30)
+              --pedidos-sembrados N  Ids de pedido para corte mientras no haya pedidos nuevos (50000)
+              --productos N          Ids de producto 1..N para pedidos nuevos (8)
+              --timeout S            Timeout por petición en segundos (30)
+              --semilla N            Semilla del generador (20260101)
+              --salida ARCHIVO       Reporte JSON (target/reporte-carga.json)
+            """;
+
+    String url = "http://localhost:8080";
+    String usuario = "carga";
+    String password = "carga2026";
+    int hilos = 16;
+    int duracionSegundos = 120;
+    int calentamientoSegundos = 30;
+    double tasa = 0;
+    Map<Operacion, Integer> mezcla = mezclaPorDefecto();
+    long pedidosSembrados = 50_000;
+    int productos = 8;
+    int personal = 30;
+    int timeoutSegundos = 30;
+    long semilla = 20260101L;
+    String salida = "target/reporte-carga.json";
+
+    static ConfiguracionCarga desdeArgumentos(String[] args) {
+        ConfiguracionCarga config = new ConfiguracionCarga();
+        for (int i = 0; i < args.length; i++) {
+            String clave = args[i];
+            if ("--ayuda".equals(clave) || "-h".equals(clave)) {
+                System.out.println(USO);
+                System.exit(0);
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Falta el valor de " + clave);
+            }
+            String valor = args[++i];
+
+            switch (clave) {
+                case "--url" -> config.url = valor;
+                case "--usuario" -> config.usuario = valor;
+                case "--password" -> config.password = valor;
+                case "--hilos" -> config.hilos = Integer.parseInt(valor);
+                case "--duracion" -> config.duracionSegundos = Integer.parseInt(valor);
+                case "--calentamiento" -> config.calentamientoSegundos = Integer.parseInt(valor);
+                case "--tasa" -> config.tasa = Double.parseDouble(valor);
+                case "--mezcla" -> config.mezcla = leerMezcla(valor);
+                case "--pedidos-sembrados" -> config.pedidosSembrados = Long.parseLong(valor);
+                case "--productos" -> config.productos = Integer.parseInt(valor);
+                case "--personal" -> config.personal = Integer.parseInt(valor);
+                case "--timeout" -> config.timeoutSegundos = Integer.parseInt(valor);
+                case "--semilla" -> config.semilla = Long.parseLong(valor);
+                case "--salida" -> config.salida = valor;
+                default -> throw new IllegalArgumentException("Opción desconocida: " + clave + "\n" + USO);
+            }
+        }
+
+        if (config.hilos < 1 || config.duracionSegundos < 1) {
+            throw new IllegalArgumentException("--hilos y --duracion deben ser mayores a 0");
+        }
+        return config;
+    }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private static Map<Operacion, Integer> mezclaPorDefecto() {
+        Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+        for (Operacion operacion : Operacion.values()) {
+            mezcla.put(operacion, operacion.pesoPorDefecto);
+        }
+        return mezcla;
+    }
+
+    private static Map<Operacion, Integer> leerMezcla(String valor) {
+        Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+        for (String par : valor.split(",")) {
+            String[] partes = par.split("=");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Mezcla inválida: " + par);
+            }
+            mezcla.put(Operacion.desdeClave(partes[0].trim()), Integer.parseInt(partes[1].trim()));
+        }
+        if (mezcla.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("La mezcla debe tener al menos un peso mayor a 0");
+        }
+        return mezcla;
+    }
+}
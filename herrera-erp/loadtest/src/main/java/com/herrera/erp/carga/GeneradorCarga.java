@@ -0,0 +1,292 @@
+package com.herrera.erp.carga;
+
+import com.herrera.erp.carga.ClienteApi.Respuesta;
+import com.herrera.erp.carga.ClienteApi.Rollo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga end-to-end contra el backend
+ * Repite una mezcla de operaciones de temporada alta (ventas de tela en
+ * mostrador, dashboard, pedidos con roster y salidas a corte) desde N hilos
+ * y reporta percentiles de latencia por endpoint.
+ *
+ * Con --tasa el generador es de lazo abierto: cada petición tiene una hora
+ * programada y la latencia se mide desde esa hora, así las esperas en cola
+ * del backend sí aparecen en los percentiles (sin "coordinated omission").
+ * Ubicación: loadtest/src/main/java/com/herrera/erp/carga/GeneradorCarga.java
+ */
+public final class GeneradorCarga {
+
+    private static final String[] TALLAS = {
+            "3", "4", "6", "8", "10", "12", "14", "16", "CH", "M", "L", "XL", "XXL", "3XL", "4XL" };
+    private static final String[] COLORES = {
+            "Blanco", "Negro", "Rojo", "Azul Rey", "Verde", "Amarillo", "Marino", "Gris" };
+    private static final String[] METODOS_PAGO = { "EFECTIVO", "TARJETA", "TRANSFERENCIA" };
+
+    // Rollos con menos metros se ignoran para no medir errores de stock agotado
+    private static final double METROS_MINIMOS_ROLLO = 1000;
+    private static final int PEDIDOS_RECIENTES = 4096;
+
+    private final ConfiguracionCarga config;
+    private final ClienteApi cliente;
+    private final ReporteCarga reporte = new ReporteCarga();
+
+    private final Operacion[] operaciones;
+    private final int[] pesosAcumulados;
+
+    private List<Rollo> rollosVenta;
+    private List<Rollo> rollosCorte;
+
+    // Pedidos creados durante la corrida (buffer circular) para las salidas a corte
+    private final AtomicLongArray pedidosRecientes = new AtomicLongArray(PEDIDOS_RECIENTES);
+    private final AtomicLong pedidosCreados = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga config;
+        try {
+            config = ConfiguracionCarga.desdeArgumentos(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        new GeneradorCarga(config).ejecutar();
+    }
+
+    GeneradorCarga(ConfiguracionCarga config) {
+        this.config = config;
+        this.cliente = new ClienteApi(config.url, Duration.ofSeconds(config.timeoutSegundos));
+
+        List<Operacion> activas = new ArrayList<>();
+        List<Integer> acumulados = new ArrayList<>();
+        int acumulado = 0;
+        for (Map.Entry<Operacion, Integer> entry : config.mezcla.entrySet()) {
+            if (entry.getValue() > 0) {
+                acumulado += entry.getValue();
+                activas.add(entry.getKey());
+                acumulados.add(acumulado);
+            }
+        }
+        this.operaciones = activas.toArray(new Operacion[0]);
+        this.pesosAcumulados = acumulados.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // ============================================
+    // CORRIDA
+    // ============================================
+
+    void ejecutar() throws Exception {
+        preparar();
+
+        long inicio = System.nanoTime();
+        long finCalentamiento = inicio + TimeUnit.SECONDS.toNanos(config.calentamientoSegundos);
+        long fin = finCalentamiento + TimeUnit.SECONDS.toNanos(config.duracionSegundos);
+
+        System.out.printf(Locale.ROOT, "→ %d hilos, %s, %ds de calentamiento + %ds de medición%n",
+                config.hilos,
+                config.tasa > 0 ? config.tasa + " req/s" : "lazo cerrado",
+                config.calentamientoSegundos, config.duracionSegundos);
+
+        CountDownLatch terminados = new CountDownLatch(config.hilos);
+        for (int i = 0; i < config.hilos; i++) {
+            Random random = new Random(config.semilla + i);
+            long desfase = config.tasa > 0 ? (long) (i * 1e9 / config.tasa) : 0;
+            Thread hilo = new Thread(() -> {
+                try {
+                    trabajar(random, inicio + desfase, finCalentamiento, fin);
+                } finally {
+                    terminados.countDown();
+                }
+            }, "carga-" + i);
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+        terminados.await();
+
+        double segundos = config.duracionSegundos;
+        System.out.println();
+        System.out.print(reporte.comoTabla(segundos));
+
+        Path salida = Path.of(config.salida);
+        reporte.guardarJson(salida, config, segundos);
+        System.out.println("\nReporte guardado en " + salida.toAbsolutePath());
+    }
+
+    private void preparar() throws IOException, InterruptedException {
+        cliente.login(config.usuario, config.password);
+
+        rollosVenta = rollosUtilizables("/api/inventario/rollos/venta");
+        rollosCorte = rollosUtilizables("/api/inventario/rollos/corte");
+        if (rollosVenta.isEmpty() || rollosCorte.isEmpty()) {
+            throw new IllegalStateException(
+                    "No hay rollos con al menos " + METROS_MINIMOS_ROLLO + " m; ¿se ejecutó sembrar-volumen.sql?");
+        }
+        System.out.printf("→ usuario #%d, %d rollos para venta, %d para corte%n",
+                cliente.getUsuarioId(), rollosVenta.size(), rollosCorte.size());
+    }
+
+    private List<Rollo> rollosUtilizables(String ruta) throws IOException, InterruptedException {
+        Respuesta respuesta = cliente.get(ruta);
+        if (!respuesta.exitosa()) {
+            throw new IllegalStateException("GET " + ruta + " respondió " + respuesta.status());
+        }
+        return ClienteApi.leerRollos(respuesta.cuerpo()).stream()
+                .filter(r -> r.metrosActuales() >= METROS_MINIMOS_ROLLO)
+                .toList();
+    }
+
+    /**
+     * Lazo de un hilo. En lazo abierto cada hilo aporta tasa/hilos peticiones
+     * por segundo; si va atrasado no duerme, y el atraso cuenta como latencia.
+     */
+    private void trabajar(Random random, long primeraProgramada, long finCalentamiento, long fin) {
+        long intervalo = config.tasa > 0 ? (long) (1e9 * config.hilos / config.tasa) : 0;
+        long programada = primeraProgramada;
+
+        while (true) {
+            if (intervalo > 0) {
+                long espera;
+                while ((espera = programada - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(espera);
+                }
+            } else {
+                programada = System.nanoTime();
+            }
+            if (programada >= fin) {
+                return;
+            }
+
+            Operacion operacion = elegir(random);
+            int status;
+            try {
+                status = ejecutar(operacion, random);
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (programada >= finCalentamiento) {
+                long micros = (System.nanoTime() - programada) / 1000;
+                reporte.de(operacion).registrar(micros, status);
+            }
+            programada += intervalo;
+        }
+    }
+
+    private Operacion elegir(Random random) {
+        int valor = random.nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        for (int i = 0; i < pesosAcumulados.length; i++) {
+            if (valor < pesosAcumulados[i]) {
+                return operaciones[i];
+            }
+        }
+        return operaciones[operaciones.length - 1];
+    }
+
+    // ============================================
+    // OPERACIONES
+    // ============================================
+
+    private int ejecutar(Operacion operacion, Random random) throws IOException, InterruptedException {
+        return switch (operacion) {
+            case VENTA_TELA -> cliente.post("/api/ventas/tela", ventaTela(random)).status();
+            case DASHBOARD -> cliente.get("/api/reportes/dashboard").status();
+            case CREAR_PEDIDO -> crearPedido(random);
+            case SALIDA_CORTE -> cliente.post("/api/inventario/salida-corte", salidaCorte(random)).status();
+            case REPORTE_MES -> cliente.get(reporteMes()).status();
+            case LOGIN -> cliente.iniciarSesion(
+                    String.format(Locale.ROOT, "turno%02d", 1 + random.nextInt(config.personal)),
+                    config.password).status();
+        };
+    }
+
+    /**
+     * Reporte de ventas del mes anterior completo
+     */
+    private String reporteMes() {
+        LocalDate inicio = LocalDate.now().withDayOfMonth(1).minusMonths(1);
+        LocalDate fin = inicio.plusMonths(1).minusDays(1);
+        return "/api/reportes/ventas?fechaInicio=" + inicio + "&fechaFin=" + fin;
+    }
+
+    private String ventaTela(Random random) {
+        Rollo rollo = rollosVenta.get(random.nextInt(rollosVenta.size()));
+        return String.format(Locale.ROOT,
+                "{\"rolloId\":%d,\"metrosVendidos\":%.2f,\"clienteNombre\":\"Mostrador %d\","
+                        + "\"clienteTelefono\":\"55%08d\",\"precioUnitario\":85.00,\"metodoPago\":\"%s\","
+                        + "\"ubicacion\":\"LOCAL\",\"usuarioVendedorId\":%d}",
+                rollo.id(), 0.5 + random.nextInt(10) * 0.5, random.nextInt(3000),
+                random.nextInt(100_000_000), METODOS_PAGO[random.nextInt(METODOS_PAGO.length)],
+                cliente.getUsuarioId());
+    }
+
+    /**
+     * Pedido con roster de 10 a 70 jugadores (igual que los pedidos sembrados)
+     */
+    private int crearPedido(Random random) throws IOException, InterruptedException {
+        Rollo rollo = rollosCorte.get(random.nextInt(rollosCorte.size()));
+        LocalDate hoy = LocalDate.now();
+        int piezas = 10 + random.nextInt(61);
+
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < piezas; i++) {
+            if (i > 0) {
+                items.append(',');
+            }
+            items.append(String.format(Locale.ROOT,
+                    "{\"talla\":\"%s\",\"nombreJugador\":\"JUGADOR %d\",\"numeroEspalda\":\"%d\"}",
+                    TALLAS[random.nextInt(TALLAS.length)], i + 1, random.nextInt(100)));
+        }
+
+        String json = String.format(Locale.ROOT,
+                "{\"pedido\":{\"nombrePedido\":\"Carga Liga %d\",\"clienteNombre\":\"Cliente Carga %d\","
+                        + "\"clienteTelefono\":\"55%08d\",\"fechaPedido\":\"%s\",\"fechaEntrega\":\"%s\","
+                        + "\"prioridad\":\"%s\",\"tipo\":\"SENCILLO\",\"producto\":{\"id\":%d},"
+                        + "\"colorPrincipal\":\"%s\",\"ubicacionOrigen\":\"TALLER\"},"
+                        + "\"items\":[%s],\"materialId\":%d,\"usuarioId\":%d}",
+                random.nextInt(800), random.nextInt(5000), random.nextInt(100_000_000),
+                hoy, hoy.plusDays(14), random.nextInt(10) == 0 ? "PREFERENCIAL" : "ESTANDAR",
+                1 + random.nextInt(config.productos), COLORES[random.nextInt(COLORES.length)],
+                items, rollo.materialId(), cliente.getUsuarioId());
+
+        Respuesta respuesta = cliente.post("/api/pedidos", json);
+        Long pedidoId = respuesta.exitosa() ? ClienteApi.leerIdPedido(respuesta.cuerpo()) : null;
+        if (pedidoId != null) {
+            long posicion = pedidosCreados.getAndIncrement();
+            pedidosRecientes.set((int) (posicion % PEDIDOS_RECIENTES), pedidoId);
+        }
+        return respuesta.status();
+    }
+
+    private String salidaCorte(Random random) {
+        Rollo rollo = rollosCorte.get(random.nextInt(rollosCorte.size()));
+        return String.format(Locale.ROOT,
+                "{\"rolloId\":%d,\"metros\":%.2f,\"pedidoId\":%d,\"usuarioId\":%d}",
+                rollo.id(), 1 + random.nextInt(20) * 0.5, pedidoParaCorte(random), cliente.getUsuarioId());
+    }
+
+    private long pedidoParaCorte(Random random) {
+        long creados = Math.min(pedidosCreados.get(), PEDIDOS_RECIENTES);
+        long pedidoId = creados > 0 ? pedidosRecientes.get(random.nextInt((int) creados)) : 0;
+        if (pedidoId > 0) {
+            return pedidoId;
+        }
+        return 1 + (long) (random.nextDouble() * config.pedidosSembrados);
+    }
+}
@@ -0,0 +1,36 @@
+package com.herrera.erp.carga;
+
+/**
+ * Operaciones de la mezcla de carga (una por endpoint medido)
+ * Ubicación: loadtest/src/main/java/com/herrera/erp/carga/Operacion.java
+ */
+enum Operacion {
+
+    VENTA_TELA("ventas", "POST /api/ventas/tela", 50),
+    DASHBOARD("dashboard", "GET /api/reportes/dashboard", 20),
+    CREAR_PEDIDO("pedidos", "POST /api/pedidos", 15),
+    SALIDA_CORTE("corte", "POST /api/inventario/salida-corte", 15),
+    // Cierre de mes: fuera de la mezcla por defecto (réplica de lectura)
+    REPORTE_MES("reporte-mes", "GET /api/reportes/ventas", 0),
+    // Cambio de turno: login del personal sembrado (turno01..turnoNN)
+    LOGIN("login", "POST /api/auth/login", 0);
+
+    final String clave;
+    final String endpoint;
+    final int pesoPorDefecto;
+
+    Operacion(String clave, String endpoint, int pesoPorDefecto) {
+        this.clave = clave;
+        this.endpoint = endpoint;
+        this.pesoPorDefecto = pesoPorDefecto;
+    }
+
+    static Operacion desdeClave(String clave) {
+        for (Operacion operacion : values()) {
+            if (operacion.clave.equals(clave)) {
+                return operacion;
+            }
+        }
+        throw new IllegalArgumentException("Operación desconocida en la mezcla: " + clave);
+    }
+}
@@ -0,0 +1,137 @@
+package com.herrera.erp.carga;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resultados por endpoint: latencias (percentiles), errores y códigos HTTP
+ * Se imprime como tabla y se guarda como JSON para comparar corridas.
+ * Ubicación: loadtest/src/main/java/com/herrera/erp/carga/ReporteCarga.java
+ */
+final class ReporteCarga {
+
+    private static final double[] PERCENTILES = { 50, 90, 95, 99, 99.9 };
+    private static final String[] ETIQUETAS = { "p50", "p90", "p95", "p99", "p999" };
+
+    private final Map<Operacion, Resultado> resultados = new EnumMap<>(Operacion.class);
+
+    static final class Resultado {
+        final Histograma latencias = new Histograma();
+        final LongAdder errores = new LongAdder();
+        final Map<Integer, LongAdder> porStatus = new ConcurrentHashMap<>();
+
+        /**
+         * status -1 = error de red o timeout
+         */
+        void registrar(long micros, int status) {
+            latencias.registrar(micros);
+            porStatus.computeIfAbsent(status, s -> new LongAdder()).increment();
+            if (status < 200 || status >= 300) {
+                errores.increment();
+            }
+        }
+    }
+
+    ReporteCarga() {
+        for (Operacion operacion : Operacion.values()) {
+            resultados.put(operacion, new Resultado());
+        }
+    }
+
+    Resultado de(Operacion operacion) {
+        return resultados.get(operacion);
+    }
+
+    // ============================================
+    // SALIDA
+    // ============================================
+
+    String comoTabla(double segundos) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-36s %8s %7s %8s %8s %8s %8s %8s %8s %8s %8s%n",
+                "Endpoint (ms)", "n", "errores", "req/s", "media", "p50", "p90", "p95", "p99", "p99.9", "max"));
+
+        for (Map.Entry<Operacion, Resultado> entry : resultados.entrySet()) {
+            Histograma h = entry.getValue().latencias;
+            if (h.total() == 0) {
+                continue;
+            }
+            sb.append(String.format(Locale.ROOT, "%-36s %8d %7d %8.1f %8.1f",
+                    entry.getKey().endpoint, h.total(), entry.getValue().errores.sum(),
+                    h.total() / segundos, h.media() / 1000.0));
+            for (double p : PERCENTILES) {
+                sb.append(String.format(Locale.ROOT, " %8.1f", h.percentil(p) / 1000.0));
+            }
+            sb.append(String.format(Locale.ROOT, " %8.1f%n", h.maximo() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    void guardarJson(Path archivo, ConfiguracionCarga config, double segundos) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"fecha\": \"").append(LocalDateTime.now().withNano(0)).append("\",\n");
+        sb.append("  \"url\": \"").append(config.url).append("\",\n");
+        sb.append("  \"hilos\": ").append(config.hilos).append(",\n");
+        sb.append("  \"tasa\": ").append(numero(config.tasa)).append(",\n");
+        sb.append("  \"duracionSegundos\": ").append(numero(segundos)).append(",\n");
+        sb.append("  \"mezcla\": {");
+        String separador = "";
+        for (Map.Entry<Operacion, Integer> entry : config.mezcla.entrySet()) {
+            sb.append(separador).append('"').append(entry.getKey().clave).append("\": ").append(entry.getValue());
+            separador = ", ";
+        }
+        sb.append("},\n");
+        sb.append("  \"endpoints\": [");
+
+        separador = "\n";
+        for (Map.Entry<Operacion, Resultado> entry : resultados.entrySet()) {
+            Resultado resultado = entry.getValue();
+            Histograma h = resultado.latencias;
+            if (h.total() == 0) {
+                continue;
+            }
+
+            sb.append(separador).append("    {\n");
+            sb.append("      \"endpoint\": \"").append(entry.getKey().endpoint).append("\",\n");
+            sb.append("      \"n\": ").append(h.total()).append(",\n");
+            sb.append("      \"errores\": ").append(resultado.errores.sum()).append(",\n");
+            sb.append("      \"reqPorSegundo\": ").append(numero(h.total() / segundos)).append(",\n");
+            sb.append("      \"mediaMs\": ").append(numero(h.media() / 1000.0)).append(",\n");
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                sb.append("      \"").append(ETIQUETAS[i]).append("Ms\": ")
+                        .append(numero(h.percentil(PERCENTILES[i]) / 1000.0)).append(",\n");
+            }
+            sb.append("      \"maxMs\": ").append(numero(h.maximo() / 1000.0)).append(",\n");
+            sb.append("      \"status\": {");
+            String separadorStatus = "";
+            for (Map.Entry<Integer, LongAdder> status : new TreeMap<>(resultado.porStatus).entrySet()) {
+                sb.append(separadorStatus).append('"').append(status.getKey()).append("\": ")
+                        .append(status.getValue().sum());
+                separadorStatus = ", ";
+            }
+            sb.append("}\n    }");
+            separador = ",\n";
+        }
+        sb.append("\n  ]\n}\n");
+
+        if (archivo.getParent() != null) {
+            Files.createDirectories(archivo.getParent());
+        }
+        Files.writeString(archivo, sb.toString());
+    }
+
+    private static String numero(double valor) {
+        return valor == Math.rint(valor)
+                ? String.valueOf((long) valor)
+                : String.format(Locale.ROOT, "%.3f", valor);
+    }
+}